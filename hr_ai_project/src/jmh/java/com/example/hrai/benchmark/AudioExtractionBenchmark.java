@@ -0,0 +1,59 @@
+package com.example.hrai.benchmark;
+
+import com.example.hrai.service.impl.StreamingAudioDecoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 音频提取：从视频样本解码出16kHz单声道PCM
+ * AUDIO_ONLY只解复用音频包（grabSamples），FULL_DEMUX解码全部帧后过滤音频（grab）
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class AudioExtractionBenchmark {
+
+    /** 每次调用解码的媒体时长（秒），避免长视频使单次调用过长 */
+    @Param({"60"})
+    public int seconds;
+
+    @Param({"AUDIO_ONLY", "FULL_DEMUX"})
+    public StreamingAudioDecoder.ExtractionMode mode;
+
+    private StreamingAudioDecoder decoder;
+    private String video;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        video = BenchmarkMedia.video().toString();
+        decoder = BenchmarkMedia.decoder(mode, true, StreamingAudioDecoder.DEFAULT_BUFFER_SAMPLES);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        decoder.shutdown();
+    }
+
+    @Benchmark
+    public long extract(Blackhole blackhole) throws Exception {
+        return decoder.decodeRange(video, 0, seconds * 1_000_000L,
+                (samples, length) -> blackhole.consume(samples[length - 1]), 0);
+    }
+}
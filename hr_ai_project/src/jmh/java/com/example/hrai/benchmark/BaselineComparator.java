@@ -0,0 +1,103 @@
+package com.example.hrai.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 对比本次JMH结果与提交的基线结果
+ * 用法: BaselineComparator [基线json] [本次json] [允许退化的百分比]
+ * 平均时间类指标变大、吞吐类指标变小超过允许范围（且超出两次测量误差之和）时判定为退化，以退出码1结束
+ */
+public final class BaselineComparator {
+
+    static final String DEFAULT_BASELINE = "src/jmh/baseline/jmh-baseline.json";
+    static final String DEFAULT_RESULT = "target/jmh-result.json";
+
+    private BaselineComparator() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Path baselinePath = Path.of(args.length > 0 ? args[0] : DEFAULT_BASELINE);
+        Path resultPath = Path.of(args.length > 1 ? args[1] : DEFAULT_RESULT);
+        double tolerance = args.length > 2 ? Double.parseDouble(args[2]) / 100 : 0.10;
+
+        if (!Files.isRegularFile(baselinePath)) {
+            System.out.println("基线结果不存在: " + baselinePath + "，请在基准机器上运行后复制 " + resultPath + " 作为基线");
+            return;
+        }
+        Map<String, Score> baseline = read(baselinePath);
+        Map<String, Score> current = read(resultPath);
+
+        int regressions = 0;
+        for (Map.Entry<String, Score> entry : current.entrySet()) {
+            Score before = baseline.get(entry.getKey());
+            Score after = entry.getValue();
+            if (before == null) {
+                System.out.printf(Locale.ROOT, "%-90s %12.3f %s  (无基线)%n", entry.getKey(), after.value, after.unit);
+                continue;
+            }
+            // 正数表示变差
+            double change = after.higherIsBetter
+                    ? (before.value - after.value) / before.value
+                    : (after.value - before.value) / before.value;
+            boolean regressed = change > tolerance
+                    && Math.abs(after.value - before.value) > before.error + after.error;
+            if (regressed) {
+                regressions++;
+            }
+            System.out.printf(Locale.ROOT, "%-90s %12.3f -> %12.3f %s  %+6.1f%%%s%n", entry.getKey(),
+                    before.value, after.value, after.unit, change * 100, regressed ? "  退化" : "");
+        }
+        System.out.println(regressions == 0 ? "未发现超过 " + Math.round(tolerance * 100) + "% 的退化"
+                : "发现 " + regressions + " 项退化");
+        if (regressions > 0) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * 读取JMH JSON结果，键为基准方法名加排序后的参数
+     */
+    static Map<String, Score> read(Path path) throws Exception {
+        Map<String, Score> scores = new LinkedHashMap<>();
+        for (JsonNode run : new ObjectMapper().readTree(path.toFile())) {
+            Map<String, String> params = new TreeMap<>();
+            JsonNode paramsNode = run.path("params");
+            for (Iterator<Map.Entry<String, JsonNode>> it = paramsNode.fields(); it.hasNext(); ) {
+                Map.Entry<String, JsonNode> param = it.next();
+                params.put(param.getKey(), param.getValue().asText());
+            }
+            String key = run.path("benchmark").asText().replace("com.example.hrai.benchmark.", "")
+                    + (params.isEmpty() ? "" : " " + params);
+            JsonNode metric = run.path("primaryMetric");
+            String mode = run.path("mode").asText();
+            double error = metric.path("scoreError").asDouble(0);
+            scores.put(key, new Score(metric.path("score").asDouble(), Double.isNaN(error) ? 0 : error,
+                    metric.path("scoreUnit").asText(), "thrpt".equals(mode)));
+        }
+        return scores;
+    }
+
+    static final class Score {
+
+        final double value;
+        final double error;
+        final String unit;
+        final boolean higherIsBetter;
+
+        Score(double value, double error, String unit, boolean higherIsBetter) {
+            this.value = value;
+            this.error = error;
+            this.unit = unit;
+            this.higherIsBetter = higherIsBetter;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.hrai.benchmark;
+
+import com.example.hrai.service.impl.NativeResourceTracker;
+import com.example.hrai.service.impl.StreamingAudioDecoder;
+import com.example.hrai.service.impl.TranscriptionMetrics;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * 基准测试使用的媒体文件
+ * 视频样本通过系统属性hrai.bench.video指定，默认使用项目自带的A1.mp4；WAV样本在临时目录中生成
+ */
+final class BenchmarkMedia {
+
+    static final String VIDEO_PROPERTY = "hrai.bench.video";
+    static final String DEFAULT_VIDEO = "src/main/resources/vide/A1.mp4";
+
+    private BenchmarkMedia() {
+    }
+
+    /**
+     * 视频样本路径
+     * @throws IllegalStateException 文件不存在
+     */
+    static Path video() {
+        Path path = Path.of(System.getProperty(VIDEO_PROPERTY, DEFAULT_VIDEO));
+        if (!Files.isRegularFile(path)) {
+            throw new IllegalStateException("基准测试视频不存在: " + path.toAbsolutePath()
+                    + "，可通过 -D" + VIDEO_PROPERTY + "=<路径> 指定");
+        }
+        return path;
+    }
+
+    static StreamingAudioDecoder decoder(StreamingAudioDecoder.ExtractionMode mode, boolean wavFastPath, int bufferSamples) {
+        return new StreamingAudioDecoder(bufferSamples, mode, 0, wavFastPath, false,
+                4 * StreamingAudioDecoder.TARGET_SAMPLE_RATE, new NativeResourceTracker(), new TranscriptionMetrics());
+    }
+
+    /**
+     * 解码视频样本的前若干秒为16kHz单声道PCM
+     */
+    static short[] decodeVideoPcm(int maxSeconds) throws Exception {
+        int limit = maxSeconds * StreamingAudioDecoder.TARGET_SAMPLE_RATE;
+        short[] pcm = new short[limit];
+        int[] filled = {0};
+        StreamingAudioDecoder decoder = decoder(StreamingAudioDecoder.ExtractionMode.AUDIO_ONLY, true,
+                StreamingAudioDecoder.DEFAULT_BUFFER_SAMPLES);
+        try {
+            decoder.decodeRange(video().toString(), 0, maxSeconds * 1_000_000L, (samples, length) -> {
+                int n = Math.min(length, limit - filled[0]);
+                System.arraycopy(samples, 0, pcm, filled[0], n);
+                filled[0] += n;
+            }, 0);
+        } finally {
+            decoder.shutdown();
+        }
+        return Arrays.copyOf(pcm, filled[0]);
+    }
+
+    /**
+     * 生成PCM WAV文件，内容为多个正弦分量叠加噪声，使重采样和编码器处理的数据不是静音
+     */
+    static Path writeWav(Path file, int sampleRate, int channels, int seconds) throws IOException {
+        int frames = sampleRate * seconds;
+        int dataBytes = frames * channels * 2;
+        ByteBuffer buffer = ByteBuffer.allocate(44 + dataBytes).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.put("RIFF".getBytes()).putInt(36 + dataBytes).put("WAVE".getBytes());
+        buffer.put("fmt ".getBytes()).putInt(16).putShort((short) 1).putShort((short) channels)
+                .putInt(sampleRate).putInt(sampleRate * channels * 2)
+                .putShort((short) (channels * 2)).putShort((short) 16);
+        buffer.put("data".getBytes()).putInt(dataBytes);
+
+        Random random = new Random(42);
+        for (int i = 0; i < frames; i++) {
+            double t = (double) i / sampleRate;
+            double value = 0.3 * Math.sin(2 * Math.PI * 220 * t)
+                    + 0.2 * Math.sin(2 * Math.PI * 1250 * t)
+                    + 0.05 * random.nextGaussian();
+            short sample = (short) Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, value * Short.MAX_VALUE));
+            for (int c = 0; c < channels; c++) {
+                buffer.putShort(sample);
+            }
+        }
+        Files.write(file, buffer.array());
+        return file;
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.hrai.benchmark;
+
+import com.example.hrai.service.impl.VoskModelRegistry;
+import com.example.hrai.service.impl.VoskRecognizerPool;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 识别器吞吐：把视频样本前30秒的PCM按不同缓冲区大小送入acceptWaveForm，每次调用结束时取最终结果
+ * 分数除以30即为单路识别的实时率；模型路径通过系统属性hrai.bench.model指定
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class RecognizerBenchmark {
+
+    private static final int SECONDS = 30;
+
+    /** 每次送入识别器的采样数：400为25ms，16000为1秒 */
+    @Param({"400", "1600", "4000", "8000", "16000"})
+    public int bufferSamples;
+
+    private VoskModelRegistry registry;
+    private VoskRecognizerPool pool;
+    private VoskRecognizerPool.Lease lease;
+    private short[] pcm;
+    private short[] buffer;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        pcm = BenchmarkMedia.decodeVideoPcm(SECONDS);
+        buffer = new short[bufferSamples];
+        registry = new VoskModelRegistry(System.getProperty("hrai.bench.model", VoskModelRegistry.DEFAULT_MODEL_PATH), false);
+        pool = new VoskRecognizerPool(registry, 1, 60);
+        lease = pool.borrow();
+        if (lease == null) {
+            throw new IllegalStateException("Vosk模型不存在: " + registry.getModelPath());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        lease.close();
+        pool.close();
+        registry.close();
+    }
+
+    @Benchmark
+    public void acceptWaveForm(Blackhole blackhole) {
+        for (int offset = 0; offset < pcm.length; offset += bufferSamples) {
+            int n = Math.min(bufferSamples, pcm.length - offset);
+            System.arraycopy(pcm, offset, buffer, 0, n);
+            blackhole.consume(lease.acceptWaveForm(buffer, n));
+        }
+        blackhole.consume(lease.recognizer().getFinalResult());
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.hrai.benchmark;
+
+import com.example.hrai.service.impl.StreamingAudioDecoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 重采样：把60秒WAV转换为16kHz单声道PCM
+ * fast-path: 16kHz单声道文件直接读取data块，不经过FFmpeg
+ * ffmpeg-16k-mono: 同一文件强制经FFmpeg解码，不需要重采样，作为FFmpeg自身开销的对照
+ * ffmpeg-44k-stereo / ffmpeg-48k-stereo: 经FFmpeg重采样并混合声道
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 3)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ResamplingBenchmark {
+
+    private static final int SECONDS = 60;
+
+    @Param({"fast-path", "ffmpeg-16k-mono", "ffmpeg-44k-stereo", "ffmpeg-48k-stereo"})
+    public String source;
+
+    private Path directory;
+    private Path wav;
+    private StreamingAudioDecoder decoder;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        directory = Files.createTempDirectory("hrai-bench-resample");
+        switch (source) {
+            case "fast-path", "ffmpeg-16k-mono" -> wav = BenchmarkMedia.writeWav(directory.resolve("16k.wav"), 16000, 1, SECONDS);
+            case "ffmpeg-44k-stereo" -> wav = BenchmarkMedia.writeWav(directory.resolve("44k.wav"), 44100, 2, SECONDS);
+            case "ffmpeg-48k-stereo" -> wav = BenchmarkMedia.writeWav(directory.resolve("48k.wav"), 48000, 2, SECONDS);
+            default -> throw new IllegalArgumentException("未知的样本: " + source);
+        }
+        decoder = BenchmarkMedia.decoder(StreamingAudioDecoder.ExtractionMode.AUDIO_ONLY, "fast-path".equals(source),
+                StreamingAudioDecoder.DEFAULT_BUFFER_SAMPLES);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        decoder.shutdown();
+        Files.deleteIfExists(wav);
+        Files.deleteIfExists(directory);
+    }
+
+    @Benchmark
+    public long resample(Blackhole blackhole) throws Exception {
+        return decoder.decode(wav.toString(), (samples, length) -> blackhole.consume(samples[length - 1]));
+    }
+}
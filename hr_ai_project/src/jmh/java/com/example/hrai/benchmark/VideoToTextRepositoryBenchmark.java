@@ -0,0 +1,96 @@
+package com.example.hrai.benchmark;
+
+import com.example.hrai.HrAiApplication;
+import com.example.hrai.entity.VideoToText;
+import com.example.hrai.repository.VideoToTextRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 转录记录读写：在临时SQLite数据库上保存和按ID读取带大段文本的VideoToText
+ * 文本按中文字符生成，payloadKb为UTF-8编码后的大小
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 3)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class VideoToTextRepositoryBenchmark {
+
+    @Param({"16", "1024", "8192"})
+    public int payloadKb;
+
+    private Path database;
+    private ConfigurableApplicationContext context;
+    private VideoToTextRepository repository;
+    private String text;
+    private Long savedId;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        database = Files.createTempFile("hrai-bench", ".db");
+        context = new SpringApplicationBuilder(HrAiApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties("spring.datasource.url=jdbc:sqlite:" + database,
+                        "spring.jpa.show-sql=false",
+                        "hrai.vosk.preload=false",
+                        "hrai.hotfolder.enabled=false",
+                        "hrai.transcription.checkpoint.resume-on-startup=false")
+                .run();
+        repository = context.getBean(VideoToTextRepository.class);
+
+        // 每个中文字符UTF-8编码为3字节
+        StringBuilder builder = new StringBuilder(payloadKb * 1024 / 3);
+        String sentence = "候选人介绍了过去三年在项目管理方面的经验。";
+        while (builder.length() < payloadKb * 1024 / 3) {
+            builder.append(sentence);
+        }
+        text = builder.substring(0, payloadKb * 1024 / 3);
+        savedId = repository.save(newRecord()).getId();
+    }
+
+    @TearDown(Level.Iteration)
+    public void clearInserted() {
+        repository.deleteAllInBatch();
+        savedId = repository.save(newRecord()).getId();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        context.close();
+        Files.deleteIfExists(database);
+    }
+
+    @Benchmark
+    public Long save() {
+        return repository.save(newRecord()).getId();
+    }
+
+    @Benchmark
+    public int findById() {
+        return repository.findById(savedId).map(record -> record.getTextContent().length()).orElse(-1);
+    }
+
+    private VideoToText newRecord() {
+        return new VideoToText("基准测试", "benchmark.mp4", 3600L, text, null);
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.hrai.benchmark;
+
+import com.example.hrai.service.impl.VoskResultParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Vosk识别结果解析：按Vosk开启词级时间戳后的输出格式生成不同词数的结果
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+public class VoskResultParserBenchmark {
+
+    private static final String[] WORDS = {"我们", "今天", "讨论", "招聘", "流程", "候选人", "面试", "安排"};
+
+    @Param({"10", "100", "1000"})
+    public int words;
+
+    private String resultJson;
+    private String partialJson;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        StringBuilder json = new StringBuilder("{\n  \"result\" : [");
+        StringBuilder text = new StringBuilder();
+        double time = 0;
+        for (int i = 0; i < words; i++) {
+            String word = WORDS[i % WORDS.length];
+            json.append(i == 0 ? "" : ",").append(String.format(Locale.ROOT,
+                    "{\n      \"conf\" : %.6f,\n      \"end\" : %.6f,\n      \"start\" : %.6f,\n      \"word\" : \"%s\"\n    }",
+                    0.8 + (i % 5) * 0.04, time + 0.4, time, word));
+            text.append(i == 0 ? "" : " ").append(word);
+            time += 0.45;
+        }
+        json.append("],\n  \"text\" : \"").append(text).append("\"\n}");
+        resultJson = json.toString();
+        partialJson = "{\n  \"partial\" : \"" + text + "\"\n}";
+    }
+
+    @Benchmark
+    public VoskResultParser.RecognitionResult parseResult() {
+        return VoskResultParser.parseResult(resultJson);
+    }
+
+    @Benchmark
+    public String extractText() {
+        return VoskResultParser.extractText(resultJson);
+    }
+
+    @Benchmark
+    public String extractPartial() {
+        return VoskResultParser.extractText(partialJson);
+    }
+}
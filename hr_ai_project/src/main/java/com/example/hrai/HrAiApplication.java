@@ -3,9 +3,11 @@ package com.example.hrai;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
 @EntityScan(basePackages = "com.example.hrai.entity")
+@EnableScheduling
 public class HrAiApplication {
 
     
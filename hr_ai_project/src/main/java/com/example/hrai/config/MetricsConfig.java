@@ -0,0 +1,87 @@
+package com.example.hrai.config;
+
+import com.example.hrai.service.BatchTranscriptionService;
+import com.example.hrai.service.SummaryCacheService;
+import com.example.hrai.service.TranscriptCacheService;
+import com.example.hrai.service.TranscriptionJobService;
+import com.example.hrai.service.WorkspaceManager;
+import com.example.hrai.service.impl.MediaProbeService;
+import com.example.hrai.service.impl.NativeMemoryMonitor;
+import com.example.hrai.service.impl.NativeResourceTracker;
+import com.example.hrai.service.impl.VoskRecognizerPool;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 注册视频处理流水线的瞬时指标
+ * 队列深度、识别器占用、工作目录占用、本地内存等读取各服务已有的计数，抓取时才求值；
+ * 缓存命中数注册为单调计数器，由Prometheus计算命中率
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public MeterBinder pipelineMetrics(TranscriptionJobService transcriptionJobService,
+                                       BatchTranscriptionService batchTranscriptionService,
+                                       VoskRecognizerPool recognizerPool,
+                                       WorkspaceManager workspaceManager,
+                                       NativeMemoryMonitor nativeMemoryMonitor,
+                                       TranscriptCacheService transcriptCacheService,
+                                       MediaProbeService mediaProbeService,
+                                       SummaryCacheService summaryCacheService) {
+        return registry -> {
+            Gauge.builder("hrai.jobs.queue.depth", transcriptionJobService, TranscriptionJobService::getQueueDepth)
+                    .description("排队等待的转录任务数").register(registry);
+            Gauge.builder("hrai.jobs.active", transcriptionJobService, TranscriptionJobService::getActiveWorkers)
+                    .description("正在执行的转录任务数").register(registry);
+            Gauge.builder("hrai.batch.queue.depth", batchTranscriptionService, BatchTranscriptionService::getQueueDepth)
+                    .description("排队等待的批量转录文件数").register(registry);
+
+            Gauge.builder("hrai.recognizers.in.use", recognizerPool, VoskRecognizerPool::getInUse)
+                    .description("已借出的识别器数").register(registry);
+            Gauge.builder("hrai.recognizers.max", recognizerPool, VoskRecognizerPool::getMaxSize)
+                    .description("识别器池上限").register(registry);
+            Gauge.builder("hrai.recognizers.created", recognizerPool, VoskRecognizerPool::getCreated)
+                    .description("已创建的识别器数").register(registry);
+            Gauge.builder("hrai.recognizers.waiting", recognizerPool, VoskRecognizerPool::getWaiting)
+                    .description("等待识别器的线程数").register(registry);
+
+            Gauge.builder("hrai.workspace.reserved", workspaceManager, WorkspaceManager::getReservedBytes)
+                    .baseUnit("bytes").description("工作目录已预留的空间").register(registry);
+            Gauge.builder("hrai.workspace.quota", workspaceManager, WorkspaceManager::getQuotaBytes)
+                    .baseUnit("bytes").description("工作目录配额，0表示不限").register(registry);
+
+            Gauge.builder("hrai.native.rss", nativeMemoryMonitor, NativeMemoryMonitor::getRssBytes)
+                    .baseUnit("bytes").description("进程常驻内存").register(registry);
+            Gauge.builder("hrai.native.javacpp", nativeMemoryMonitor, NativeMemoryMonitor::getJavaCppBytes)
+                    .baseUnit("bytes").description("JavaCPP分配的本地内存").register(registry);
+            Gauge.builder("hrai.native.direct.buffers", nativeMemoryMonitor, NativeMemoryMonitor::getDirectBufferBytes)
+                    .baseUnit("bytes").description("直接缓冲区占用").register(registry);
+            Gauge.builder("hrai.native.models", nativeMemoryMonitor, NativeMemoryMonitor::getModelBytes)
+                    .baseUnit("bytes").description("已加载识别模型的大小").register(registry);
+            NativeResourceTracker tracker = nativeMemoryMonitor.getResourceTracker();
+            for (String kind : new String[] {NativeResourceTracker.FFMPEG_GRABBER, NativeResourceTracker.VOSK_RECOGNIZER}) {
+                Gauge.builder("hrai.native.handles.outstanding", tracker, t -> t.getOutstanding(kind))
+                        .tag("kind", kind).description("未释放的本地资源句柄数").register(registry);
+                FunctionCounter.builder("hrai.native.handles.leaked", tracker, t -> t.getLeaked(kind))
+                        .tag("kind", kind).description("未释放即被回收的句柄数").register(registry);
+            }
+
+            FunctionCounter.builder("hrai.cache.requests", transcriptCacheService, TranscriptCacheService::getHits)
+                    .tags("cache", "transcript", "result", "hit").register(registry);
+            FunctionCounter.builder("hrai.cache.requests", transcriptCacheService, TranscriptCacheService::getMisses)
+                    .tags("cache", "transcript", "result", "miss").register(registry);
+            FunctionCounter.builder("hrai.cache.requests", mediaProbeService, MediaProbeService::getHits)
+                    .tags("cache", "media-probe", "result", "hit").register(registry);
+            FunctionCounter.builder("hrai.cache.requests", mediaProbeService, MediaProbeService::getMisses)
+                    .tags("cache", "media-probe", "result", "miss").register(registry);
+            FunctionCounter.builder("hrai.cache.requests", summaryCacheService, SummaryCacheService::getHits)
+                    .tags("cache", "summary", "result", "hit").register(registry);
+            FunctionCounter.builder("hrai.cache.requests", summaryCacheService, SummaryCacheService::getMisses)
+                    .tags("cache", "summary", "result", "miss").register(registry);
+        };
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.hrai.config;
+
+import com.example.hrai.service.impl.RequestTrace;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 为每个API请求建立阶段耗时树
+ * 响应头由ServerTimingAdvice在写出响应体前设置；超过阈值的慢请求把完整的耗时树打印到日志
+ */
+public class RequestTimingFilter extends OncePerRequestFilter {
+
+    public static final String SERVER_TIMING = "Server-Timing";
+
+    private final long slowRequestMillis;
+
+    /**
+     * @param slowRequestMillis 慢请求阈值（毫秒），0表示不记录
+     */
+    public RequestTimingFilter(long slowRequestMillis) {
+        this.slowRequestMillis = slowRequestMillis;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        RequestTrace trace = RequestTrace.begin(request.getMethod() + " " + request.getRequestURI());
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            trace.end();
+            // 没有经过ServerTimingAdvice的响应（如空响应体）在这里补上响应头
+            if (!response.isCommitted() && !response.containsHeader(SERVER_TIMING)) {
+                response.setHeader(SERVER_TIMING, trace.toServerTiming());
+            }
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(trace.getElapsedNanos());
+            if (slowRequestMillis > 0 && elapsedMillis >= slowRequestMillis) {
+                System.out.println("慢请求（" + elapsedMillis + " ms ≥ " + slowRequestMillis + " ms，状态 "
+                        + response.getStatus() + "）:\n" + trace.format());
+            }
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.hrai.config;
+
+import com.example.hrai.service.impl.RequestTrace;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 在写出响应体前设置Server-Timing响应头；请求带timing=true参数且响应体是JSON对象时，
+ * 同时在响应中加入timing字段，内容为到此为止的阶段耗时树
+ */
+@ControllerAdvice
+public class ServerTimingAdvice implements ResponseBodyAdvice<Object> {
+
+    public static final String TIMING_PARAMETER = "timing";
+
+    private final boolean enabled;
+
+    public ServerTimingAdvice(@Value("${hrai.timing.enabled:true}") boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return enabled;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        RequestTrace trace = RequestTrace.current();
+        if (trace == null) {
+            return body;
+        }
+        response.getHeaders().set(RequestTimingFilter.SERVER_TIMING, trace.toServerTiming());
+
+        if (body instanceof Map && request instanceof ServletServerHttpRequest servletRequest
+                && "true".equalsIgnoreCase(servletRequest.getServletRequest().getParameter(TIMING_PARAMETER))) {
+            Map<String, Object> withTiming = new LinkedHashMap<>((Map<String, Object>) body);
+            withTiming.put(TIMING_PARAMETER, trace.toMap());
+            return withTiming;
+        }
+        return body;
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.hrai.config;
+
+import com.example.hrai.service.UploadReservation;
+import com.example.hrai.service.WorkspaceManager;
+import com.example.hrai.service.WorkspaceQuotaExceededException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 上传准入
+ * 在读取请求体之前按Content-Length检查上传：超过最大请求大小返回413，预留工作目录配额不足时返回507，
+ * 都不读取请求体。预留通过请求属性交给控制器分配工作目录，请求结束时未使用的预留自动归还。
+ * 没有Content-Length的上传（分块传输）无法预先判断，不预留，由工作目录在写入时按实际大小追加预留
+ */
+public class UploadAdmissionFilter extends OncePerRequestFilter {
+
+    private final WorkspaceManager workspaceManager;
+    private final ObjectMapper objectMapper;
+    private final long maxRequestBytes;
+
+    /**
+     * @param maxRequestBytes 最大请求大小（字节），0或负数表示不限制
+     */
+    public UploadAdmissionFilter(WorkspaceManager workspaceManager, ObjectMapper objectMapper, long maxRequestBytes) {
+        this.workspaceManager = workspaceManager;
+        this.objectMapper = objectMapper;
+        this.maxRequestBytes = maxRequestBytes;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String contentType = request.getContentType();
+        return contentType == null || !contentType.toLowerCase(Locale.ROOT).startsWith("multipart/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        long contentLength = request.getContentLengthLong();
+        if (contentLength < 0) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        if (maxRequestBytes > 0 && contentLength > maxRequestBytes) {
+            reject(response, HttpStatus.PAYLOAD_TOO_LARGE, "Upload too large",
+                    "上传大小超过限制: " + contentLength + " > " + maxRequestBytes);
+            return;
+        }
+
+        UploadReservation reservation;
+        try {
+            reservation = workspaceManager.admit(contentLength);
+        } catch (WorkspaceQuotaExceededException e) {
+            reject(response, HttpStatus.INSUFFICIENT_STORAGE, "Workspace quota exceeded", e.getMessage());
+            return;
+        }
+
+        request.setAttribute(UploadReservation.ATTRIBUTE, reservation);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            request.removeAttribute(UploadReservation.ATTRIBUTE);
+            reservation.close();
+        }
+    }
+
+    private void reject(HttpServletResponse response, HttpStatus status, String error, String message) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        objectMapper.writeValue(response.getOutputStream(), Map.of(
+            "error", error,
+            "message", message
+        ));
+    }
+}
@@ -1,13 +1,16 @@
 package com.example.hrai.config;
 
+import com.example.hrai.service.WorkspaceManager;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.converter.HttpMessageConverter;
 import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
 import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.filter.CharacterEncodingFilter;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
@@ -28,6 +31,30 @@ public class WebConfig implements WebMvcConfigurer {
         return filterRegistrationBean;
     }
 
+    @Bean
+    public FilterRegistrationBean<RequestTimingFilter> requestTimingFilter(
+            @Value("${hrai.timing.enabled:true}") boolean enabled,
+            @Value("${hrai.timing.slow-request-ms:30000}") long slowRequestMillis) {
+        FilterRegistrationBean<RequestTimingFilter> filterRegistrationBean = new FilterRegistrationBean<>();
+        filterRegistrationBean.setFilter(new RequestTimingFilter(slowRequestMillis));
+        filterRegistrationBean.setEnabled(enabled);
+        filterRegistrationBean.setOrder(2);
+        filterRegistrationBean.addUrlPatterns("/api/*");
+        return filterRegistrationBean;
+    }
+
+    @Bean
+    public FilterRegistrationBean<UploadAdmissionFilter> uploadAdmissionFilter(
+            WorkspaceManager workspaceManager,
+            @Value("${spring.servlet.multipart.max-request-size:4GB}") DataSize maxRequestSize) {
+        FilterRegistrationBean<UploadAdmissionFilter> filterRegistrationBean = new FilterRegistrationBean<>();
+        filterRegistrationBean.setFilter(new UploadAdmissionFilter(workspaceManager, objectMapper(),
+                maxRequestSize.toBytes()));
+        filterRegistrationBean.setOrder(3);
+        filterRegistrationBean.addUrlPatterns("/api/*");
+        return filterRegistrationBean;
+    }
+
     @Bean
     public ObjectMapper objectMapper() {
         return Jackson2ObjectMapperBuilder.json()
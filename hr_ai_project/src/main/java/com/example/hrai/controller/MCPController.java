@@ -2,6 +2,7 @@ package com.example.hrai.controller;
 
 import com.example.hrai.entity.AIModelConfig;
 import com.example.hrai.service.AIModelConfigService;
+import com.example.hrai.service.VideoSummaryService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -20,6 +21,9 @@ public class MCPController {
     @Autowired
     private AIModelConfigService aiModelConfigService;
 
+    @Autowired
+    private VideoSummaryService videoSummaryService;
+
     @GetMapping("/configs")
     @Operation(summary = "Get all AI model configurations (MCP)")
     public List<AIModelConfig> getAllConfigs() {
@@ -116,7 +120,7 @@ public class MCPController {
             if (contentObj != null) {
                 videoContent = contentObj.toString();
             }
-            String prompt = "请根据以下视频内容生成一个提纲摘要，以HTML格式返回，要求包含主要内容和关键要点：\n\n" + videoContent;
+            String prompt = VideoSummaryService.buildPrompt(videoContent);
 
             // 获取默认AI模型配置
             Optional<AIModelConfig> defaultConfigOpt = aiModelConfigService.getDefaultConfig();
@@ -129,8 +133,8 @@ public class MCPController {
 
             AIModelConfig defaultConfig = defaultConfigOpt.get();
 
-            // 调用AI服务生成摘要
-            String summary = aiModelConfigService.testModel(defaultConfig, prompt);
+            // 调用AI服务生成摘要，相同内容已生成过时从缓存返回
+            String summary = videoSummaryService.summarize(defaultConfig, videoContent);
 
             return ResponseEntity.ok(Map.of(
                 "content", videoContent,
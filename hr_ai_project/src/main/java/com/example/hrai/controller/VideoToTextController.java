@@ -1,6 +1,8 @@
 package com.example.hrai.controller;
 
+import com.example.hrai.entity.TranscriptSegment;
 import com.example.hrai.entity.VideoToText;
+import com.example.hrai.service.TranscriptSegmentService;
 import com.example.hrai.service.VideoToTextService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -19,6 +21,9 @@ public class VideoToTextController {
     @Autowired
     private VideoToTextService videoToTextService;
 
+    @Autowired
+    private TranscriptSegmentService transcriptSegmentService;
+
     @GetMapping
     @Operation(summary = "Get all video to text records")
     public List<VideoToText> getAllVideoToTextRecords() {
@@ -32,6 +37,17 @@ public class VideoToTextController {
         return videoToText.map(ResponseEntity::ok).orElse(ResponseEntity.notFound().build());
     }
 
+    @GetMapping("/{id}/segments")
+    @Operation(summary = "Get timestamped transcript segments of a record, optionally limited to a time range in milliseconds")
+    public ResponseEntity<List<TranscriptSegment>> getTranscriptSegments(@PathVariable Long id,
+                                                                         @RequestParam(required = false) Long fromMs,
+                                                                         @RequestParam(required = false) Long toMs) {
+        if (!videoToTextService.getVideoToTextById(id).isPresent()) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(transcriptSegmentService.getSegments(id, fromMs, toMs));
+    }
+
     @PostMapping
     @Operation(summary = "Create a new video to text record")
     public VideoToText createVideoToText(@RequestBody VideoToText videoToText) {
@@ -1,38 +1,166 @@
 package com.example.hrai.controller;
 
-import com.example.hrai.entity.AIModelConfig;
 import com.example.hrai.entity.VideoToText;
-import com.example.hrai.service.AIModelConfigService;
+import com.example.hrai.service.BatchTranscriptionService;
+import com.example.hrai.service.FileFingerprintService;
+import com.example.hrai.service.SummaryCacheService;
+import com.example.hrai.service.HotFolderIngestor;
+import com.example.hrai.service.ReceivedUpload;
+import com.example.hrai.service.TranscriptCacheService;
+import com.example.hrai.service.TranscriptSegmentCollector;
+import com.example.hrai.service.TranscriptSegmentService;
+import com.example.hrai.service.TranscriptionBatch;
+import com.example.hrai.service.TranscriptionJob;
+import com.example.hrai.service.TranscriptionJobService;
+import com.example.hrai.service.UploadReservation;
+import com.example.hrai.service.UploadWorkspace;
+import com.example.hrai.service.VideoSummaryService;
 import com.example.hrai.service.VideoToTextService;
+import com.example.hrai.service.WorkspaceManager;
+import com.example.hrai.service.WorkspaceQuotaExceededException;
 import com.example.hrai.service.impl.AudioTranscriptionService;
+import com.example.hrai.service.impl.MediaProbeService;
+import com.example.hrai.service.impl.NativeMemoryMonitor;
+import com.example.hrai.service.impl.RequestTrace;
+import com.example.hrai.service.impl.TranscriptionEngine;
+import com.example.hrai.service.impl.TranscriptionEngineRegistry;
+import com.example.hrai.service.impl.TranscriptionMetrics;
+import com.example.hrai.service.impl.VoskModelRegistry;
+import com.example.hrai.service.impl.VoskRecognizerPool;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.util.UriComponentsBuilder;
+import org.springframework.web.util.UriUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.io.*;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/api/video-tool")
 @Tag(name = "Video Tool", description = "APIs for video processing tool")
 public class VideoToolController {
 
-    @Autowired
-    private AIModelConfigService aiModelConfigService;
-
     @Autowired
     private VideoToTextService videoToTextService;
 
     @Autowired
     private AudioTranscriptionService audioTranscriptionService;
 
+    @Autowired
+    private VoskRecognizerPool voskRecognizerPool;
+
+    @Autowired
+    private VoskModelRegistry voskModelRegistry;
+
+    @Autowired
+    private TranscriptionEngineRegistry transcriptionEngineRegistry;
+
+    @Autowired
+    private TranscriptionJobService transcriptionJobService;
+
+    @Autowired
+    private FileFingerprintService fileFingerprintService;
+
+    @Autowired
+    private TranscriptCacheService transcriptCacheService;
+
+    @Autowired
+    private TranscriptSegmentService transcriptSegmentService;
+
+    @Autowired
+    private MediaProbeService mediaProbeService;
+
+    @Autowired
+    private BatchTranscriptionService batchTranscriptionService;
+
+    @Autowired
+    private VideoSummaryService videoSummaryService;
+
+    @Autowired
+    private SummaryCacheService summaryCacheService;
+
+    @Autowired
+    private HotFolderIngestor hotFolderIngestor;
+
+    @Autowired
+    private WorkspaceManager workspaceManager;
+
+    @Autowired
+    private NativeMemoryMonitor nativeMemoryMonitor;
+
+    @Autowired
+    private TranscriptionMetrics transcriptionMetrics;
+
+    @GetMapping("/recognizer-pool")
+    @Operation(summary = "Get Vosk recognizer pool utilization")
+    public ResponseEntity<?> getRecognizerPoolStats() {
+        return ResponseEntity.ok(voskRecognizerPool.getStats());
+    }
+
+    @GetMapping("/models")
+    @Operation(summary = "Get configured Vosk models, loaded models and memory usage")
+    public ResponseEntity<?> getModelStats() {
+        return ResponseEntity.ok(voskModelRegistry.getStats());
+    }
+
+    @GetMapping("/native-memory")
+    @Operation(summary = "Get off-heap memory usage of FFmpeg, Vosk models and recognizers, with leak detection")
+    public ResponseEntity<?> getNativeMemoryStats() {
+        return ResponseEntity.ok(nativeMemoryMonitor.getStats());
+    }
+
+    @GetMapping("/engines")
+    @Operation(summary = "List transcription engines with capabilities and measured real-time factors")
+    public ResponseEntity<?> getTranscriptionEngines() {
+        return ResponseEntity.ok(transcriptionEngineRegistry.getEngines());
+    }
+
+    @GetMapping("/transcript-cache")
+    @Operation(summary = "Get transcript cache hit statistics")
+    public ResponseEntity<?> getTranscriptCacheStats() {
+        return ResponseEntity.ok(transcriptCacheService.getStats());
+    }
+
+    @GetMapping("/summary-cache")
+    @Operation(summary = "Get summary cache hit statistics")
+    public ResponseEntity<?> getSummaryCacheStats() {
+        return ResponseEntity.ok(summaryCacheService.getStats());
+    }
+
+    @PostMapping("/probe")
+    @Operation(summary = "Read duration and track layout from container headers")
+    public ResponseEntity<?> probeMedia(@RequestBody Map<String, String> request) {
+        String videoPath = request.get("videoPath");
+        if (videoPath == null || videoPath.isEmpty() || !Files.isRegularFile(Path.of(videoPath))) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "error", "Invalid videoPath parameter",
+                "message", "视频文件不存在"
+            ));
+        }
+        try {
+            return ResponseEntity.ok(mediaProbeService.probe(Path.of(videoPath)).toMap());
+        } catch (IOException e) {
+            return ResponseEntity.internalServerError().body(Map.of(
+                "error", "Media probe failed",
+                "message", "媒体探测失败: " + e.getMessage()
+            ));
+        }
+    }
+
     @PostMapping("/extract-text")
     @Operation(summary = "Extract text from video using Vosk offline speech recognition")
     public ResponseEntity<?> extractTextFromVideo(@RequestBody Map<String, String> request) {
@@ -45,10 +173,36 @@ public class VideoToolController {
                 ));
             }
 
-            String extractedText;
-            // 使用音频转录服务（使用Vosk离线语音识别）
+            TranscriptionEngine engine;
+            String modelName;
             try {
-                extractedText = audioTranscriptionService.transcribeAudio(videoPath);
+                engine = transcriptionEngineRegistry.resolve(request.get("engine"));
+                modelName = engine.resolveModel(request.get("model"));
+            } catch (IllegalArgumentException e) {
+                return unknownEngineResponse(e);
+            }
+
+            // 相同内容的视频已用同一模型转录过时直接返回已有结果
+            FileFingerprintService.FileFingerprint fingerprint;
+            try (RequestTrace.Scope ignored = RequestTrace.open("fingerprint")) {
+                fingerprint = fingerprintQuietly(Path.of(videoPath));
+            }
+            if (fingerprint != null) {
+                Optional<VideoToText> cached;
+                try (RequestTrace.Scope ignored = RequestTrace.open("cache")) {
+                    cached = transcriptCacheService.lookup(fingerprint.getHash(), modelName);
+                }
+                if (cached.isPresent()) {
+                    return cachedTranscriptResponse(cached.get());
+                }
+            }
+
+            String extractedText;
+            TranscriptSegmentCollector segments = new TranscriptSegmentCollector();
+            // 使用音频转录服务（使用Vosk离线语音识别），探测、提取、识别各阶段记入transcribe之下
+            try (RequestTrace.Scope ignored = RequestTrace.open("transcribe")) {
+                extractedText = audioTranscriptionService.transcribeAudio(videoPath, segments,
+                        fingerprint != null ? fingerprint.getHash() : null, modelName, engine.getName());
             } catch (Exception e) {
                 System.err.println("音频转录服务失败: " + e.getMessage());
                 return ResponseEntity.internalServerError().body(Map.of(
@@ -60,7 +214,7 @@ public class VideoToolController {
             // 获取视频文件信息
             File videoFile = new File(videoPath);
             String source = videoFile.exists() ? "本地视频" : "在线视频";
-            Long duration = getVideoDuration(videoPath); // 这里需要实现获取视频时长的逻辑
+            Long duration = getVideoDuration(videoPath, fingerprint);
 
             // 保存到数据库
             VideoToText videoToText = new VideoToText();
@@ -69,7 +223,12 @@ public class VideoToolController {
             videoToText.setDuration(duration);
             videoToText.setTextContent(extractedText);
             videoToText.setSummary(""); // 摘要将在生成后更新
+            videoToText.setModelName(modelName);
+            applyFingerprint(videoToText, fingerprint, extractedText);
+            long persistStart = System.nanoTime();
             videoToTextService.saveVideoToText(videoToText);
+            transcriptSegmentService.saveSegments(videoToText.getId(), segments.getSegments());
+            transcriptionMetrics.recordStage(TranscriptionMetrics.PERSIST, System.nanoTime() - persistStart);
 
             return ResponseEntity.ok(Map.of(
                 "text", extractedText,
@@ -84,6 +243,310 @@ public class VideoToolController {
         }
     }
 
+    @PostMapping("/jobs")
+    @Operation(summary = "Submit an asynchronous transcription job for a local video path")
+    public ResponseEntity<?> submitTranscriptionJob(@RequestBody Map<String, String> request) {
+        String videoPath = request.get("videoPath");
+        if (videoPath == null || videoPath.isEmpty()) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "error", "Missing videoPath parameter",
+                "message", "视频路径不能为空"
+            ));
+        }
+
+        String source = new File(videoPath).exists() ? "本地视频" : "在线视频";
+        try {
+            TranscriptionEngine engine = transcriptionEngineRegistry.resolve(request.get("engine"));
+            String modelName = engine.resolveModel(request.get("model"));
+            FileFingerprintService.FileFingerprint fingerprint = fingerprintQuietly(Path.of(videoPath));
+            TranscriptionJob job = transcriptionJobService.submit(source, videoPath, videoPath, fingerprint,
+                    engine.getName(), modelName, null);
+            return ResponseEntity.accepted().body(Map.of(
+                "jobId", job.getId(),
+                "status", job.getStatus().name(),
+                "message", "转录任务已提交"
+            ));
+        } catch (IllegalArgumentException e) {
+            return unknownEngineResponse(e);
+        } catch (RejectedExecutionException e) {
+            return jobQueueFullResponse();
+        }
+    }
+
+    @PostMapping(value = "/jobs/upload", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @Operation(summary = "Upload a video file and submit an asynchronous transcription job",
+            description = "multipart/form-data：file为视频文件，engine、model可选（也可放在查询参数中）")
+    public ResponseEntity<?> submitUploadTranscriptionJob(HttpServletRequest request) {
+        UploadWorkspace workspace = null;
+        try {
+            // 请求体直接流式写入工作目录，同时计算指纹
+            workspace = allocateWorkspace(request);
+            ReceivedUpload upload = workspace.receive(request.getInputStream(), request.getContentType(), "file");
+            if (upload.isEmpty()) {
+                workspace.close();
+                return emptyFileResponse();
+            }
+
+            TranscriptionEngine engine;
+            String modelName;
+            try {
+                engine = transcriptionEngineRegistry.resolve(uploadParameter(request, upload, "engine"));
+                modelName = engine.resolveModel(uploadParameter(request, upload, "model"));
+            } catch (IllegalArgumentException e) {
+                workspace.close();
+                return unknownEngineResponse(e);
+            }
+
+            String originalFileName = upload.getOriginalFilename();
+            Path videoFile = upload.getFile();
+            FileFingerprintService.FileFingerprint fingerprint = fileFingerprintService.remember(videoFile, upload.getHash());
+
+            // 工作目录归任务所有，任务结束（或提交被拒绝）时删除
+            UploadWorkspace jobWorkspace = workspace;
+            TranscriptionJob job = transcriptionJobService.submit("上传视频",
+                    originalFileName != null && !originalFileName.isEmpty() ? originalFileName : "上传的视频文件",
+                    videoFile.toString(),
+                    fingerprint,
+                    engine.getName(),
+                    modelName,
+                    jobWorkspace::close);
+            // 任务排队或运行期间定时清理不回收该目录
+            jobWorkspace.leaseTo(() -> !job.isFinished());
+            return ResponseEntity.accepted().body(Map.of(
+                "jobId", job.getId(),
+                "status", job.getStatus().name(),
+                "message", "视频上传成功，转录任务已提交"
+            ));
+        } catch (RejectedExecutionException e) {
+            return jobQueueFullResponse();
+        } catch (WorkspaceQuotaExceededException e) {
+            // 分块上传在写入过程中超出配额，删除已写入的部分
+            if (workspace != null) {
+                workspace.close();
+            }
+            return workspaceQuotaResponse(e);
+        } catch (Exception e) {
+            if (workspace != null) {
+                workspace.close();
+            }
+            return ResponseEntity.internalServerError().body(Map.of(
+                "error", "Video upload failed",
+                "message", e.getMessage()
+            ));
+        }
+    }
+
+    @GetMapping("/jobs/{jobId}")
+    @Operation(summary = "Get transcription job status and progress")
+    public ResponseEntity<?> getTranscriptionJob(@PathVariable String jobId) {
+        Optional<TranscriptionJob> jobOpt = transcriptionJobService.getJob(jobId);
+        if (!jobOpt.isPresent()) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(jobOpt.get().toStatusMap());
+    }
+
+    @GetMapping("/jobs/{jobId}/result")
+    @Operation(summary = "Get transcription job result")
+    public ResponseEntity<?> getTranscriptionJobResult(@PathVariable String jobId) {
+        Optional<TranscriptionJob> jobOpt = transcriptionJobService.getJob(jobId);
+        if (!jobOpt.isPresent()) {
+            return ResponseEntity.notFound().build();
+        }
+
+        TranscriptionJob job = jobOpt.get();
+        switch (job.getStatus()) {
+            case SUCCEEDED:
+                return ResponseEntity.ok(Map.of(
+                    "text", job.getText(),
+                    "recordId", job.getRecordId(),
+                    "message", "文本提取成功"
+                ));
+            case FAILED:
+                return ResponseEntity.internalServerError().body(Map.of(
+                    "error", "Audio transcription failed",
+                    "message", "音频转录失败: " + job.getError()
+                ));
+            default:
+                return ResponseEntity.accepted().body(job.toStatusMap());
+        }
+    }
+
+    @GetMapping(value = "/jobs/{jobId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Stream live partial and finalized transcripts of a job via Server-Sent Events")
+    public ResponseEntity<SseEmitter> streamTranscriptionJobEvents(@PathVariable String jobId) {
+        Optional<TranscriptionJob> jobOpt = transcriptionJobService.getJob(jobId);
+        if (!jobOpt.isPresent()) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(transcriptionJobService.subscribe(jobOpt.get()));
+    }
+
+    @GetMapping("/jobs/stats")
+    @Operation(summary = "Get transcription job executor statistics")
+    public ResponseEntity<?> getTranscriptionJobStats() {
+        return ResponseEntity.ok(transcriptionJobService.getStats());
+    }
+
+    @PostMapping("/batch")
+    @Operation(summary = "Submit a batch of local files or a directory for transcription")
+    public ResponseEntity<?> submitBatchTranscription(@RequestBody Map<String, Object> request) {
+        List<String> paths = new ArrayList<>();
+        if (request.get("paths") instanceof List<?> list) {
+            for (Object path : list) {
+                if (path != null) {
+                    paths.add(path.toString());
+                }
+            }
+        }
+        String directory = request.get("directory") != null ? request.get("directory").toString() : null;
+        boolean recursive = Boolean.parseBoolean(String.valueOf(request.get("recursive")));
+
+        TranscriptionEngine engine;
+        String modelName;
+        try {
+            engine = transcriptionEngineRegistry.resolve(request.get("engine") != null ? request.get("engine").toString() : null);
+            modelName = engine.resolveModel(request.get("model") != null ? request.get("model").toString() : null);
+        } catch (IllegalArgumentException e) {
+            return unknownEngineResponse(e);
+        }
+
+        try {
+            TranscriptionBatch batch = batchTranscriptionService.submit(paths, directory, recursive,
+                    engine.getName(), modelName);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(batch.toReport());
+        } catch (RejectedExecutionException e) {
+            return jobQueueFullResponse();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "error", "Invalid batch request",
+                "message", e.getMessage()
+            ));
+        } catch (IOException e) {
+            return ResponseEntity.internalServerError().body(Map.of(
+                "error", "Batch submission failed",
+                "message", "批量转录提交失败: " + e.getMessage()
+            ));
+        }
+    }
+
+    @GetMapping("/batch/{batchId}")
+    @Operation(summary = "Get the aggregated report of a batch transcription")
+    public ResponseEntity<?> getBatchTranscription(@PathVariable String batchId) {
+        Optional<TranscriptionBatch> batch = batchTranscriptionService.getBatch(batchId);
+        if (!batch.isPresent()) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(batch.get().toReport());
+    }
+
+    @GetMapping("/batch/stats")
+    @Operation(summary = "Get batch transcription worker pool statistics")
+    public ResponseEntity<?> getBatchTranscriptionStats() {
+        return ResponseEntity.ok(batchTranscriptionService.getStats());
+    }
+
+    @GetMapping("/workspaces")
+    @Operation(summary = "Get temp workspace quota and cleanup statistics")
+    public ResponseEntity<?> getWorkspaceStats() {
+        return ResponseEntity.ok(workspaceManager.getStats());
+    }
+
+    @GetMapping("/hot-folder")
+    @Operation(summary = "Get hot-folder ingestion statistics")
+    public ResponseEntity<?> getHotFolderStats() {
+        return ResponseEntity.ok(hotFolderIngestor.getStats());
+    }
+
+    /**
+     * 计算本地文件指纹，文件不存在或读取失败时返回null（不使用缓存）
+     */
+    private FileFingerprintService.FileFingerprint fingerprintQuietly(Path path) {
+        try {
+            if (Files.isRegularFile(path)) {
+                return fileFingerprintService.fingerprint(path);
+            }
+        } catch (Exception e) {
+            System.err.println("计算文件指纹失败: " + e.getMessage());
+        }
+        return null;
+    }
+
+    /**
+     * 转录成功时记录内容哈希，供后续相同文件命中缓存；失败结果（含模型缺失、空结果）不记录
+     */
+    private void applyFingerprint(VideoToText videoToText, FileFingerprintService.FileFingerprint fingerprint, String text) {
+        if (fingerprint != null && !AudioTranscriptionService.isFailure(text)) {
+            videoToText.setContentHash(fingerprint.getHash());
+            videoToText.setFileSize(fingerprint.getSize());
+        }
+    }
+
+    private ResponseEntity<?> cachedTranscriptResponse(VideoToText cached) {
+        return ResponseEntity.ok(Map.of(
+            "text", cached.getTextContent(),
+            "recordId", cached.getId(),
+            "cached", true,
+            "message", "文本提取成功（已有相同视频的转录结果）"
+        ));
+    }
+
+    private ResponseEntity<?> unknownEngineResponse(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(Map.of(
+            "error", "Unknown engine or model",
+            "message", e.getMessage()
+        ));
+    }
+
+    /**
+     * 使用上传准入过滤器在读取请求体前预留的配额分配工作目录；没有预留时按请求体长度预留，
+     * 长度未知时先不预留，写入时再追加
+     */
+    private UploadWorkspace allocateWorkspace(HttpServletRequest request) throws IOException {
+        Object reservation = request.getAttribute(UploadReservation.ATTRIBUTE);
+        if (reservation instanceof UploadReservation) {
+            return workspaceManager.allocate((UploadReservation) reservation);
+        }
+        return workspaceManager.allocate(request.getContentLengthLong());
+    }
+
+    /**
+     * 上传请求的可选参数，先取表单字段，再取查询参数
+     * 不能使用getParameter：容器会为此解析整个multipart请求体
+     */
+    private static String uploadParameter(HttpServletRequest request, ReceivedUpload upload, String name) {
+        String value = upload.getField(name);
+        if (value == null && request.getQueryString() != null) {
+            value = UriComponentsBuilder.newInstance().query(request.getQueryString()).build()
+                    .getQueryParams().getFirst(name);
+            if (value != null) {
+                value = UriUtils.decode(value, StandardCharsets.UTF_8);
+            }
+        }
+        return value == null || value.isBlank() ? null : value;
+    }
+
+    private ResponseEntity<?> emptyFileResponse() {
+        return ResponseEntity.badRequest().body(Map.of(
+            "error", "File is empty",
+            "message", "请选择一个视频文件"
+        ));
+    }
+
+    private ResponseEntity<?> workspaceQuotaResponse(WorkspaceQuotaExceededException e) {
+        return ResponseEntity.status(HttpStatus.INSUFFICIENT_STORAGE).body(Map.of(
+            "error", "Workspace quota exceeded",
+            "message", e.getMessage()
+        ));
+    }
+
+    private ResponseEntity<?> jobQueueFullResponse() {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(Map.of(
+            "error", "Transcription queue is full",
+            "message", "转录任务队列已满，请稍后重试"
+        ));
+    }
+
     @PostMapping("/generate-summary")
     @Operation(summary = "Generate summary using default AI model")
     public ResponseEntity<?> generateSummary(@RequestBody Map<String, Object> request) {
@@ -107,32 +570,15 @@ public class VideoToolController {
                 ));
             }
 
-            // 获取默认AI模型配置
-            Optional<AIModelConfig> defaultConfigOpt = aiModelConfigService.getDefaultConfig();
-            if (!defaultConfigOpt.isPresent()) {
+            if (!videoSummaryService.isAvailable()) {
                 return ResponseEntity.badRequest().body(Map.of(
                     "error", "No default model configured",
                     "message", "未设置默认大模型配置"
                 ));
             }
 
-            AIModelConfig defaultConfig = defaultConfigOpt.get();
-
-            // 生成提纲摘要的提示词
-            String prompt = "请根据以下视频内容生成一个提纲摘要，以HTML格式返回，要求包含主要内容和关键要点：\n\n" + text;
-
-            // 调用AI服务生成摘要
-            String summary = aiModelConfigService.testModel(defaultConfig, prompt);
-
-            // 如果提供了记录ID，则更新数据库中的摘要
-            if (recordId != null) {
-                Optional<VideoToText> videoToTextOpt = videoToTextService.getVideoToTextById(recordId);
-                if (videoToTextOpt.isPresent()) {
-                    VideoToText videoToText = videoToTextOpt.get();
-                    videoToText.setSummary(summary);
-                    videoToTextService.saveVideoToText(videoToText);
-                }
-            }
+            // 调用AI服务生成摘要，如果提供了记录ID，则更新数据库中的摘要
+            String summary = videoSummaryService.summarize(text, recordId);
 
             return ResponseEntity.ok(Map.of(
                 "summary", summary,
@@ -147,352 +593,158 @@ public class VideoToolController {
     }
 
     /**
-     * 获取视频文件的时长（秒）
+     * 获取视频文件的时长（秒），只读取容器头
      * @param videoPath 视频文件路径
-     * @return 视频时长（秒）
+     * @param fingerprint 已计算的文件指纹，用于复用探测结果，可为null
+     * @return 视频时长（秒），文件不存在或无法探测时返回null
      */
-    private Long getVideoDuration(String videoPath) {
+    private Long getVideoDuration(String videoPath, FileFingerprintService.FileFingerprint fingerprint) {
         try {
             Path path = Path.of(videoPath);
-            if (Files.exists(path)) {
-                BasicFileAttributes attrs = Files.readAttributes(path, BasicFileAttributes.class);
-                // 这里只是一个简单的示例，实际应用中可能需要使用FFmpeg等工具来获取准确的视频时长
-                // 我们可以通过文件大小和一些假设来估算时长，或者返回null表示未知
-                return null; // 未知时长
+            if (Files.isRegularFile(path)) {
+                return mediaProbeService.probe(path, fingerprint).getDurationSeconds();
             }
         } catch (Exception e) {
-            // 忽略异常，返回null表示未知时长
+            System.err.println("获取视频时长失败: " + videoPath + " - " + e.getMessage());
         }
-        return null; // 未知时长
+        return null;
     }
 
 
-    @PostMapping("/upload-and-process")
-    @Operation(summary = "Upload video file and process with Vosk offline speech recognition")
-    public ResponseEntity<?> uploadAndProcessVideo(@RequestParam("file") MultipartFile file) {
+    @PostMapping(value = "/upload-and-process", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @Operation(summary = "Upload video file and process with Vosk offline speech recognition",
+            description = "multipart/form-data：file为视频文件，engine、model可选（也可放在查询参数中）")
+    public ResponseEntity<?> uploadAndProcessVideo(HttpServletRequest request) {
         try {
-            if (file.isEmpty()) {
-                return ResponseEntity.badRequest().body(Map.of(
-                    "error", "File is empty",
-                    "message", "请选择一个视频文件"
-                ));
-            }
-
             String extractedText;
-            String originalFileName = file.getOriginalFilename();
-            String extension = originalFileName != null ? originalFileName.substring(originalFileName.lastIndexOf('.')) : ".tmp";
-            Path tempDir = Files.createTempDirectory("video_upload_");
-            Path tempVideoFile = tempDir.resolve("temp_video" + extension);
-
-            // 保存上传的文件到临时位置
-            Files.copy(file.getInputStream(), tempVideoFile, java.nio.file.StandardCopyOption.REPLACE_EXISTING);
-
-            // 使用音频转录服务（使用Vosk离线语音识别）
-            try {
-                extractedText = audioTranscriptionService.transcribeUploadedFile(file);
-            } catch (Exception e) {
-                System.err.println("音频转录服务失败: " + e.getMessage());
-                return ResponseEntity.internalServerError().body(Map.of(
-                    "error", "Audio transcription failed",
-                    "message", "音频转录失败: " + e.getMessage()
-                ));
-            }
-
-            // 获取视频文件信息
-            String source = "上传视频";
-            Long duration = getVideoDuration(tempVideoFile.toString());
-
-            // 保存到数据库
-            VideoToText videoToText = new VideoToText();
-            videoToText.setSource(source);
-            // 存储源文件名作为参考
-            videoToText.setUrl(originalFileName != null ? originalFileName : "上传的视频文件");
-            videoToText.setDuration(duration);
-            videoToText.setTextContent(extractedText);
-            videoToText.setSummary("");
-            videoToTextService.saveVideoToText(videoToText);
+            // 上传内容只落盘一次，请求结束时删除工作目录
+            try (UploadWorkspace workspace = allocateWorkspace(request)) {
+                // 请求体直接流式写入工作目录，接收的同时计算指纹
+                ReceivedUpload upload;
+                FileFingerprintService.FileFingerprint fingerprint;
+                try (RequestTrace.Scope ignored = RequestTrace.open("receive")) {
+                    upload = workspace.receive(request.getInputStream(), request.getContentType(), "file");
+                    if (upload.isEmpty()) {
+                        return emptyFileResponse();
+                    }
+                    fingerprint = fileFingerprintService.remember(upload.getFile(), upload.getHash());
+                }
 
-            // 清理临时文件(使用异步方式清理)
-            deleteTempFileAsync(tempDir);
+                TranscriptionEngine engine;
+                String modelName;
+                try {
+                    engine = transcriptionEngineRegistry.resolve(uploadParameter(request, upload, "engine"));
+                    modelName = engine.resolveModel(uploadParameter(request, upload, "model"));
+                } catch (IllegalArgumentException e) {
+                    return unknownEngineResponse(e);
+                }
 
-            return ResponseEntity.ok(Map.of(
-                "text", extractedText,
-                "recordId", videoToText.getId(),
-                "message", "视频上传并处理成功"
-            ));
-        } catch (Exception e) {
-            return ResponseEntity.internalServerError().body(Map.of(
-                "error", "Video upload and processing failed",
-                "message", e.getMessage()
-            ));
-        }
-    }
+                String originalFileName = upload.getOriginalFilename();
+                Path videoFile = upload.getFile();
 
-    /**
-     * 异步删除临时文件
-     * @param tempDir 临时目录
-     */
-    private void deleteTempFileAsync(Path tempDir) {
-        // 异步删除临时文件，不阻塞当前请求处理
-        new Thread(() -> {
-            try {
-                // 等待一会再删除，以确保音频转录已完成处理
-                Thread.sleep(5000);
-                if (tempDir != null && Files.exists(tempDir)) {
-                    Files.walk(tempDir)
-                         .sorted(java.util.Comparator.reverseOrder())
-                         .map(java.nio.file.Path::toFile)
-                         .forEach(java.io.File::delete);
+                Optional<VideoToText> cached;
+                try (RequestTrace.Scope ignored = RequestTrace.open("cache")) {
+                    cached = transcriptCacheService.lookup(fingerprint.getHash(), modelName);
+                }
+                if (cached.isPresent()) {
+                    return cachedTranscriptResponse(cached.get());
                 }
-            } catch (Exception e) {
-                System.err.println("删除临时文件失败: " + e.getMessage());
-            }
-        }).start();
-    }
-
-    @PostMapping("/test-video-to-txt")
-    @Operation(summary = "处理指定的测试视频并保存为txt文件")
-    public ResponseEntity<?> processTestVideoToTxt() {
-        try {
-            // 指定测试视频路径和模型路径
-            String videoPath = "hr_ai_project/src/main/resources/vide/ef6730ac-c64d-406a-bcda-ea3d015781af.mp4";
-            String txtOutputPath = "hr_ai_project/src/main/resources/txt";
 
-            // 检查视频文件是否存在
-            File videoFile = new File(videoPath);
-            if (!videoFile.exists()) {
-                // 尝试其他可能的路径
-                String alternativePath = "src/main/resources/vide/ef6730ac-c64d-406a-bcda-ea3d015781af.mp4";
-                File alternativeVideoFile = new File(alternativePath);
-                if (!alternativeVideoFile.exists()) {
-                    return ResponseEntity.badRequest().body(Map.of(
-                        "error", "Test video file not found",
-                        "message", "指定的测试视频文件不存在: " + videoPath + " 或 " + alternativePath
+                // 使用音频转录服务（使用Vosk离线语音识别），探测、提取、识别各阶段记入transcribe之下
+                TranscriptSegmentCollector segments = new TranscriptSegmentCollector();
+                try (RequestTrace.Scope ignored = RequestTrace.open("transcribe")) {
+                    extractedText = audioTranscriptionService.transcribeAudio(videoFile.toString(), segments,
+                            fingerprint.getHash(), modelName, engine.getName());
+                } catch (Exception e) {
+                    System.err.println("音频转录服务失败: " + e.getMessage());
+                    return ResponseEntity.internalServerError().body(Map.of(
+                        "error", "Audio transcription failed",
+                        "message", "音频转录失败: " + e.getMessage()
                     ));
                 }
-                videoPath = alternativePath;
-            }
-
-            // 确保输出目录存在
-            Path txtDir = Path.of(txtOutputPath);
-            if (!Files.exists(txtDir)) {
-                Files.createDirectories(txtDir);
-            }
-
-            // 使用AudioTranscriptionService处理视频
-            String extractedText = audioTranscriptionService.transcribeAudio(videoPath);
 
-            if (extractedText != null && !extractedText.isEmpty()) {
-                // 创建txt文件名
-                String videoFileName = Path.of(videoPath).getFileName().toString();
-                String baseName = videoFileName.substring(0, videoFileName.lastIndexOf('.'));
-                String txtFileName = baseName + ".txt";
-                Path txtFilePath = txtDir.resolve(txtFileName);
-
-                // 将文本内容写入文件
-                Files.write(txtFilePath, extractedText.getBytes("UTF-8"));
+                // 获取视频文件信息
+                String source = "上传视频";
+                Long duration = getVideoDuration(videoFile.toString(), fingerprint);
 
                 // 保存到数据库
                 VideoToText videoToText = new VideoToText();
-                videoToText.setSource("测试视频");
-                videoToText.setUrl(videoPath);
-                videoToText.setDuration(getVideoDuration(videoPath));
+                videoToText.setSource(source);
+                // 存储源文件名作为参考
+                videoToText.setUrl(originalFileName != null ? originalFileName : "上传的视频文件");
+                videoToText.setDuration(duration);
                 videoToText.setTextContent(extractedText);
                 videoToText.setSummary("");
+                videoToText.setModelName(modelName);
+                applyFingerprint(videoToText, fingerprint, extractedText);
+                long persistStart = System.nanoTime();
                 videoToTextService.saveVideoToText(videoToText);
+                transcriptSegmentService.saveSegments(videoToText.getId(), segments.getSegments());
+                transcriptionMetrics.recordStage(TranscriptionMetrics.PERSIST, System.nanoTime() - persistStart);
 
-                // 返回正确的文件路径
-                String correctTxtFilePath = txtFilePath.toAbsolutePath().toString();
                 return ResponseEntity.ok(Map.of(
                     "text", extractedText,
-                    "txtFilePath", correctTxtFilePath,
                     "recordId", videoToText.getId(),
-                    "message", "测试视频转文本成功，文件已保存至: " + correctTxtFilePath
-                ));
-            } else {
-                return ResponseEntity.internalServerError().body(Map.of(
-                    "error", "Empty transcription result",
-                    "message", "视频转录结果为空"
+                    "message", "视频上传并处理成功"
                 ));
             }
+        } catch (WorkspaceQuotaExceededException e) {
+            return workspaceQuotaResponse(e);
         } catch (Exception e) {
-            System.err.println("处理测试视频失败: " + e.getMessage());
-            e.printStackTrace();
             return ResponseEntity.internalServerError().body(Map.of(
-                "error", "Video processing failed",
-                "message", "处理测试视频失败: " + e.getMessage()
+                "error", "Video upload and processing failed",
+                "message", e.getMessage()
             ));
         }
     }
 
+    @PostMapping("/test-video-to-txt")
+    @Operation(summary = "处理指定的测试视频并保存为txt文件")
+    public ResponseEntity<?> processTestVideoToTxt() {
+        return processBundledVideoToTxt("ef6730ac-c64d-406a-bcda-ea3d015781af.mp4", "测试视频", "Test video", false);
+    }
+
     @PostMapping("/test-download-video-to-txt")
     @Operation(summary = "处理下载.mp4视频并保存为txt文件")
     public ResponseEntity<?> processDownloadVideoToTxt() {
-        try {
-            // 指定下载.mp4视频路径
-            String videoPath = "hr_ai_project/src/main/resources/vide/下载.mp4";
-            String txtOutputPath = "hr_ai_project/src/main/resources/txt";
-
-            // 检查视频文件是否存在
-            File videoFile = new File(videoPath);
-            if (!videoFile.exists()) {
-                // 尝试其他可能的路径
-                String alternativePath = "src/main/resources/vide/下载.mp4";
-                File alternativeVideoFile = new File(alternativePath);
-                if (!alternativeVideoFile.exists()) {
-                    return ResponseEntity.badRequest().body(Map.of(
-                        "error", "Download video file not found",
-                        "message", "指定的下载视频文件不存在: " + videoPath + " 或 " + alternativePath
-                    ));
-                }
-                videoPath = alternativePath;
-            }
-
-            // 确保输出目录存在
-            Path txtDir = Path.of(txtOutputPath);
-            if (!Files.exists(txtDir)) {
-                Files.createDirectories(txtDir);
-            }
-
-            // 使用AudioTranscriptionService处理视频
-            String extractedText = audioTranscriptionService.transcribeAudio(videoPath);
-
-            if (extractedText != null && !extractedText.isEmpty()) {
-                // 创建txt文件名
-                String videoFileName = Path.of(videoPath).getFileName().toString();
-                String baseName = videoFileName.substring(0, videoFileName.lastIndexOf('.'));
-                String txtFileName = baseName + "_" + System.currentTimeMillis() + ".txt";
-                Path txtFilePath = txtDir.resolve(txtFileName);
-
-                // 将文本内容写入文件
-                Files.write(txtFilePath, extractedText.getBytes("UTF-8"));
-
-                // 保存到数据库
-                VideoToText videoToText = new VideoToText();
-                videoToText.setSource("下载视频");
-                videoToText.setUrl(videoPath);
-                videoToText.setDuration(getVideoDuration(videoPath));
-                videoToText.setTextContent(extractedText);
-                videoToText.setSummary("");
-                videoToTextService.saveVideoToText(videoToText);
-
-                // 返回正确的文件路径
-                String correctTxtFilePath = txtFilePath.toAbsolutePath().toString();
-                return ResponseEntity.ok(Map.of(
-                    "text", extractedText,
-                    "txtFilePath", correctTxtFilePath,
-                    "recordId", videoToText.getId(),
-                    "message", "下载视频转文本成功，文件已保存至: " + correctTxtFilePath
-                ));
-            } else {
-                return ResponseEntity.internalServerError().body(Map.of(
-                    "error", "Empty transcription result",
-                    "message", "视频转录结果为空"
-                ));
-            }
-        } catch (Exception e) {
-            System.err.println("处理下载视频失败: " + e.getMessage());
-            e.printStackTrace();
-            return ResponseEntity.internalServerError().body(Map.of(
-                "error", "Video processing failed",
-                "message", "处理下载视频失败: " + e.getMessage()
-            ));
-        }
+        return processBundledVideoToTxt("下载.mp4", "下载视频", "Download video", true);
     }
 
     @PostMapping("/process-a1-video-to-txt")
     @Operation(summary = "处理A1.mp4视频并保存为txt文件")
     public ResponseEntity<?> processA1VideoToTxt() {
-        try {
-            // 指定A1.mp4视频路径
-            String videoPath = "hr_ai_project/src/main/resources/vide/A1.mp4";
-            String txtOutputPath = "hr_ai_project/src/main/resources/txt";
-
-            // 检查视频文件是否存在
-            File videoFile = new File(videoPath);
-            if (!videoFile.exists()) {
-                // 尝试其他可能的路径
-                String alternativePath = "src/main/resources/vide/A1.mp4";
-                File alternativeVideoFile = new File(alternativePath);
-                if (!alternativeVideoFile.exists()) {
-                    return ResponseEntity.badRequest().body(Map.of(
-                        "error", "A1 video file not found",
-                        "message", "指定的A1视频文件不存在: " + videoPath + " 或 " + alternativePath
-                    ));
-                }
-                videoPath = alternativePath;
-            }
-
-            // 确保输出目录存在
-            Path txtDir = Path.of(txtOutputPath);
-            if (!Files.exists(txtDir)) {
-                Files.createDirectories(txtDir);
-            }
-
-            // 使用AudioTranscriptionService处理视频
-            String extractedText = audioTranscriptionService.transcribeAudio(videoPath);
-
-            if (extractedText != null && !extractedText.isEmpty()) {
-                // 创建txt文件名
-                String videoFileName = Path.of(videoPath).getFileName().toString();
-                String baseName = videoFileName.substring(0, videoFileName.lastIndexOf('.'));
-                String txtFileName = baseName + "_" + System.currentTimeMillis() + ".txt";
-                Path txtFilePath = txtDir.resolve(txtFileName);
-
-                // 将文本内容写入文件
-                Files.write(txtFilePath, extractedText.getBytes("UTF-8"));
-
-                // 保存到数据库
-                VideoToText videoToText = new VideoToText();
-                videoToText.setSource("A1视频");
-                videoToText.setUrl(videoPath);
-                videoToText.setDuration(getVideoDuration(videoPath));
-                videoToText.setTextContent(extractedText);
-                videoToText.setSummary("");
-                videoToTextService.saveVideoToText(videoToText);
-
-                // 返回正确的文件路径
-                String correctTxtFilePath = txtFilePath.toAbsolutePath().toString();
-                return ResponseEntity.ok(Map.of(
-                    "text", extractedText,
-                    "txtFilePath", correctTxtFilePath,
-                    "recordId", videoToText.getId(),
-                    "message", "A1视频转文本成功，文件已保存至: " + correctTxtFilePath
-                ));
-            } else {
-                return ResponseEntity.internalServerError().body(Map.of(
-                    "error", "Empty transcription result",
-                    "message", "视频转录结果为空"
-                ));
-            }
-        } catch (Exception e) {
-            System.err.println("处理A1视频失败: " + e.getMessage());
-            e.printStackTrace();
-            return ResponseEntity.internalServerError().body(Map.of(
-                "error", "Video processing failed",
-                "message", "处理A1视频失败: " + e.getMessage()
-            ));
-        }
+        return processBundledVideoToTxt("A1.mp4", "A1视频", "A1 video", true);
     }
 
     @PostMapping("/process-a2-video-to-txt")
     @Operation(summary = "处理A2.mp4视频并保存为txt文件")
     public ResponseEntity<?> processA2VideoToTxt() {
+        return processBundledVideoToTxt("A2.mp4", "A2视频", "A2 video", true);
+    }
+
+    /**
+     * 转录resources/vide目录下的视频，文本保存到resources/txt并写入数据库
+     * @param fileName 视频文件名
+     * @param label 视频来源描述（如A1视频），同时用于返回消息
+     * @param errorName 错误信息中的视频名称（如A1 video）
+     * @param timestampSuffix txt文件名是否附加时间戳
+     */
+    private ResponseEntity<?> processBundledVideoToTxt(String fileName, String label, String errorName,
+                                                       boolean timestampSuffix) {
         try {
-            // 指定A2.mp4视频路径
-            String videoPath = "hr_ai_project/src/main/resources/vide/A2.mp4";
+            String videoPath = "hr_ai_project/src/main/resources/vide/" + fileName;
             String txtOutputPath = "hr_ai_project/src/main/resources/txt";
 
             // 检查视频文件是否存在
             File videoFile = new File(videoPath);
             if (!videoFile.exists()) {
                 // 尝试其他可能的路径
-                String alternativePath = "src/main/resources/vide/A2.mp4";
+                String alternativePath = "src/main/resources/vide/" + fileName;
                 File alternativeVideoFile = new File(alternativePath);
                 if (!alternativeVideoFile.exists()) {
                     return ResponseEntity.badRequest().body(Map.of(
-                        "error", "A2 video file not found",
-                        "message", "指定的A2视频文件不存在: " + videoPath + " 或 " + alternativePath
+                        "error", errorName + " file not found",
+                        "message", "指定的" + label + "文件不存在: " + videoPath + " 或 " + alternativePath
                     ));
                 }
                 videoPath = alternativePath;
@@ -511,7 +763,7 @@ public class VideoToolController {
                 // 创建txt文件名
                 String videoFileName = Path.of(videoPath).getFileName().toString();
                 String baseName = videoFileName.substring(0, videoFileName.lastIndexOf('.'));
-                String txtFileName = baseName + "_" + System.currentTimeMillis() + ".txt";
+                String txtFileName = baseName + (timestampSuffix ? "_" + System.currentTimeMillis() : "") + ".txt";
                 Path txtFilePath = txtDir.resolve(txtFileName);
 
                 // 将文本内容写入文件
@@ -519,12 +771,14 @@ public class VideoToolController {
 
                 // 保存到数据库
                 VideoToText videoToText = new VideoToText();
-                videoToText.setSource("A2视频");
+                videoToText.setSource(label);
                 videoToText.setUrl(videoPath);
-                videoToText.setDuration(getVideoDuration(videoPath));
+                videoToText.setDuration(getVideoDuration(videoPath, null));
                 videoToText.setTextContent(extractedText);
                 videoToText.setSummary("");
+                long persistStart = System.nanoTime();
                 videoToTextService.saveVideoToText(videoToText);
+                transcriptionMetrics.recordStage(TranscriptionMetrics.PERSIST, System.nanoTime() - persistStart);
 
                 // 返回正确的文件路径
                 String correctTxtFilePath = txtFilePath.toAbsolutePath().toString();
@@ -532,7 +786,7 @@ public class VideoToolController {
                     "text", extractedText,
                     "txtFilePath", correctTxtFilePath,
                     "recordId", videoToText.getId(),
-                    "message", "A2视频转文本成功，文件已保存至: " + correctTxtFilePath
+                    "message", label + "转文本成功，文件已保存至: " + correctTxtFilePath
                 ));
             } else {
                 return ResponseEntity.internalServerError().body(Map.of(
@@ -541,11 +795,11 @@ public class VideoToolController {
                 ));
             }
         } catch (Exception e) {
-            System.err.println("处理A2视频失败: " + e.getMessage());
+            System.err.println("处理" + label + "失败: " + e.getMessage());
             e.printStackTrace();
             return ResponseEntity.internalServerError().body(Map.of(
                 "error", "Video processing failed",
-                "message", "处理A2视频失败: " + e.getMessage()
+                "message", "处理" + label + "失败: " + e.getMessage()
             ));
         }
     }
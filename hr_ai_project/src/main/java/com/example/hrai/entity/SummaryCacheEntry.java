@@ -0,0 +1,106 @@
+package com.example.hrai.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * 摘要缓存
+ * 以（大模型配置、模型名称、提示词版本、转录文本哈希）为键保存生成的摘要，
+ * 相同文本用同一模型和提示词再次生成摘要时直接返回，不再调用大模型
+ */
+@Entity
+@Table(name = "summary_cache", indexes = {
+    @Index(name = "idx_summary_cache_key", columnList = "config_id, model_name, prompt_version, transcript_hash", unique = true),
+    @Index(name = "idx_summary_cache_created_at", columnList = "created_at")
+})
+public class SummaryCacheEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "config_id", nullable = false)
+    private Long configId; // 生成摘要时使用的大模型配置ID
+
+    @Column(name = "model_name", nullable = false, length = 128)
+    private String modelName; // 大模型名称
+
+    @Column(name = "prompt_version", nullable = false, length = 32)
+    private String promptVersion; // 提示词模板版本，模板修改后旧摘要不再命中
+
+    @Column(name = "transcript_hash", nullable = false, length = 64)
+    private String transcriptHash; // 转录文本（UTF-8）的SHA-256
+
+    @Column(name = "summary", columnDefinition = "TEXT")
+    private String summary; // 大模型返回的HTML摘要
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    // Constructors
+    public SummaryCacheEntry() {}
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getConfigId() {
+        return configId;
+    }
+
+    public void setConfigId(Long configId) {
+        this.configId = configId;
+    }
+
+    public String getModelName() {
+        return modelName;
+    }
+
+    public void setModelName(String modelName) {
+        this.modelName = modelName;
+    }
+
+    public String getPromptVersion() {
+        return promptVersion;
+    }
+
+    public void setPromptVersion(String promptVersion) {
+        this.promptVersion = promptVersion;
+    }
+
+    public String getTranscriptHash() {
+        return transcriptHash;
+    }
+
+    public void setTranscriptHash(String transcriptHash) {
+        this.transcriptHash = transcriptHash;
+    }
+
+    public String getSummary() {
+        return summary;
+    }
+
+    public void setSummary(String summary) {
+        this.summary = summary;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    @PrePersist
+    public void prePersist() {
+        if (this.createdAt == null) {
+            this.createdAt = LocalDateTime.now();
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.hrai.entity;
+
+import jakarta.persistence.*;
+
+/**
+ * 转录片段
+ * 每条对应一句识别结果，起止时间取自词级时间戳（相对媒体起点的毫秒数）
+ */
+@Entity
+@Table(name = "transcript_segment", indexes = {
+    @Index(name = "idx_transcript_segment_record_start", columnList = "record_id, start_ms")
+})
+public class TranscriptSegment {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "record_id", nullable = false)
+    private Long recordId; // 所属的VideoToText记录ID
+
+    @Column(name = "start_ms", nullable = false)
+    private Long startMs; // 起始时间（毫秒）
+
+    @Column(name = "end_ms", nullable = false)
+    private Long endMs; // 结束时间（毫秒）
+
+    @Column(name = "text", columnDefinition = "TEXT")
+    private String text; // 识别文本
+
+    @Column(name = "confidence")
+    private Float confidence; // 平均词置信度（0-1），未知时为空
+
+    // Constructors
+    public TranscriptSegment() {}
+
+    public TranscriptSegment(Long startMs, Long endMs, String text, Float confidence) {
+        this.startMs = startMs;
+        this.endMs = endMs;
+        this.text = text;
+        this.confidence = confidence;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getRecordId() {
+        return recordId;
+    }
+
+    public void setRecordId(Long recordId) {
+        this.recordId = recordId;
+    }
+
+    public Long getStartMs() {
+        return startMs;
+    }
+
+    public void setStartMs(Long startMs) {
+        this.startMs = startMs;
+    }
+
+    public Long getEndMs() {
+        return endMs;
+    }
+
+    public void setEndMs(Long endMs) {
+        this.endMs = endMs;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public void setText(String text) {
+        this.text = text;
+    }
+
+    public Float getConfidence() {
+        return confidence;
+    }
+
+    public void setConfidence(Float confidence) {
+        this.confidence = confidence;
+    }
+}
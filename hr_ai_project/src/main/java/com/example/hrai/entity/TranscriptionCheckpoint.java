@@ -0,0 +1,164 @@
+package com.example.hrai.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * 转录检查点
+ * 每个分片一行，记录已识别到的媒体位置、到该位置为止的识别结果和片段，
+ * 转录中断后按媒体内容哈希和识别模型读取并续转
+ */
+@Entity
+@Table(name = "transcription_checkpoint", indexes = {
+    @Index(name = "idx_transcription_checkpoint_hash_model_slice", columnList = "content_hash, model_name, slice_start_micros", unique = true)
+})
+public class TranscriptionCheckpoint {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "content_hash", nullable = false, length = 64)
+    private String contentHash; // 媒体文件内容的SHA-256
+
+    @Column(name = "model_name", length = 64)
+    private String modelName; // 识别模型名称，续转时必须使用同一模型
+
+    @Column(name = "media_path")
+    private String mediaPath; // 开始转录时的媒体路径
+
+    @Column(name = "slice_start_micros", nullable = false)
+    private Long sliceStartMicros; // 分片起点（微秒）
+
+    @Column(name = "slice_end_micros", nullable = false)
+    private Long sliceEndMicros; // 分片终点（微秒），Long.MAX_VALUE表示到文件末尾
+
+    @Column(name = "resume_micros", nullable = false)
+    private Long resumeMicros; // 已识别完成的位置（微秒）
+
+    @Column(name = "completed", nullable = false)
+    private Boolean completed; // 分片是否识别完成
+
+    @Column(name = "result_text", columnDefinition = "TEXT")
+    private String resultText; // 到resumeMicros为止的Vosk识别结果
+
+    @Column(name = "segments_json", columnDefinition = "TEXT")
+    private String segmentsJson; // 到resumeMicros为止的片段（JSON数组）
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    // Constructors
+    public TranscriptionCheckpoint() {}
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+
+    public String getModelName() {
+        return modelName;
+    }
+
+    public void setModelName(String modelName) {
+        this.modelName = modelName;
+    }
+
+    public String getMediaPath() {
+        return mediaPath;
+    }
+
+    public void setMediaPath(String mediaPath) {
+        this.mediaPath = mediaPath;
+    }
+
+    public Long getSliceStartMicros() {
+        return sliceStartMicros;
+    }
+
+    public void setSliceStartMicros(Long sliceStartMicros) {
+        this.sliceStartMicros = sliceStartMicros;
+    }
+
+    public Long getSliceEndMicros() {
+        return sliceEndMicros;
+    }
+
+    public void setSliceEndMicros(Long sliceEndMicros) {
+        this.sliceEndMicros = sliceEndMicros;
+    }
+
+    public Long getResumeMicros() {
+        return resumeMicros;
+    }
+
+    public void setResumeMicros(Long resumeMicros) {
+        this.resumeMicros = resumeMicros;
+    }
+
+    public Boolean getCompleted() {
+        return completed;
+    }
+
+    public void setCompleted(Boolean completed) {
+        this.completed = completed;
+    }
+
+    public String getResultText() {
+        return resultText;
+    }
+
+    public void setResultText(String resultText) {
+        this.resultText = resultText;
+    }
+
+    public String getSegmentsJson() {
+        return segmentsJson;
+    }
+
+    public void setSegmentsJson(String segmentsJson) {
+        this.segmentsJson = segmentsJson;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    @PreUpdate
+    public void preUpdate() {
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    @PrePersist
+    public void prePersist() {
+        this.createdAt = LocalDateTime.now();
+        this.updatedAt = LocalDateTime.now();
+    }
+}
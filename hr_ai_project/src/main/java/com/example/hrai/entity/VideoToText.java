@@ -4,7 +4,9 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "video_to_text")
+@Table(name = "video_to_text", indexes = {
+    @Index(name = "idx_video_to_text_content_hash", columnList = "content_hash")
+})
 public class VideoToText {
 
     @Id
@@ -26,6 +28,15 @@ public class VideoToText {
     @Column(name = "summary", columnDefinition = "TEXT")
     private String summary; // 摘要信息
 
+    @Column(name = "content_hash", length = 64)
+    private String contentHash; // 媒体文件内容的SHA-256，用于识别重复上传
+
+    @Column(name = "file_size")
+    private Long fileSize; // 媒体文件大小（字节）
+
+    @Column(name = "model_name", length = 64)
+    private String modelName; // 转录使用的识别模型名称
+
     @Column(name = "created_at")
     private LocalDateTime createdAt;
 
@@ -94,6 +105,30 @@ public class VideoToText {
         this.summary = summary;
     }
 
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+
+    public Long getFileSize() {
+        return fileSize;
+    }
+
+    public void setFileSize(Long fileSize) {
+        this.fileSize = fileSize;
+    }
+
+    public String getModelName() {
+        return modelName;
+    }
+
+    public void setModelName(String modelName) {
+        this.modelName = modelName;
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
@@ -0,0 +1,37 @@
+package com.example.hrai.repository;
+
+import com.example.hrai.entity.SummaryCacheEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface SummaryCacheRepository extends JpaRepository<SummaryCacheEntry, Long> {
+    Optional<SummaryCacheEntry> findFirstByConfigIdAndModelNameAndPromptVersionAndTranscriptHashAndCreatedAtAfter(
+            Long configId, String modelName, String promptVersion, String transcriptHash, LocalDateTime createdAfter);
+
+    /**
+     * 按缓存键查找，包括已过期但尚未被定时任务删除的记录
+     */
+    Optional<SummaryCacheEntry> findFirstByConfigIdAndModelNameAndPromptVersionAndTranscriptHash(
+            Long configId, String modelName, String promptVersion, String transcriptHash);
+
+    @Modifying
+    @Transactional
+    @Query("delete from SummaryCacheEntry s where s.createdAt < :before")
+    int deleteCreatedBefore(@Param("before") LocalDateTime before);
+
+    /**
+     * 删除某个大模型配置的全部摘要，配置被修改或删除时调用
+     */
+    @Modifying
+    @Transactional
+    @Query("delete from SummaryCacheEntry s where s.configId = :configId")
+    int deleteByConfigId(@Param("configId") Long configId);
+}
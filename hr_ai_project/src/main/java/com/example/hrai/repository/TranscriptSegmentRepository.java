@@ -0,0 +1,28 @@
+package com.example.hrai.repository;
+
+import com.example.hrai.entity.TranscriptSegment;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Repository
+public interface TranscriptSegmentRepository extends JpaRepository<TranscriptSegment, Long> {
+    List<TranscriptSegment> findByRecordIdOrderByStartMs(Long recordId);
+
+    /**
+     * 查询与[fromMs, toMs)时间范围有重叠的片段
+     */
+    List<TranscriptSegment> findByRecordIdAndStartMsLessThanAndEndMsGreaterThanOrderByStartMs(Long recordId, Long toMs, Long fromMs);
+
+    long countByRecordId(Long recordId);
+
+    @Modifying
+    @Transactional
+    @Query("delete from TranscriptSegment s where s.recordId = :recordId")
+    int deleteByRecordId(@Param("recordId") Long recordId);
+}
@@ -0,0 +1,46 @@
+package com.example.hrai.repository;
+
+import com.example.hrai.entity.TranscriptionCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface TranscriptionCheckpointRepository extends JpaRepository<TranscriptionCheckpoint, Long> {
+    List<TranscriptionCheckpoint> findByContentHashAndModelNameOrderBySliceStartMicros(String contentHash, String modelName);
+
+    Optional<TranscriptionCheckpoint> findByContentHashAndModelNameAndSliceStartMicros(String contentHash, String modelName,
+                                                                                      Long sliceStartMicros);
+
+    /**
+     * 每个未完成转录的第一个分片，用于启动时续转
+     */
+    List<TranscriptionCheckpoint> findBySliceStartMicrosOrderByUpdatedAt(Long sliceStartMicros);
+
+    @Modifying
+    @Transactional
+    @Query("delete from TranscriptionCheckpoint c where c.contentHash = :contentHash and c.modelName = :modelName")
+    int deleteByContentHashAndModelName(@Param("contentHash") String contentHash, @Param("modelName") String modelName);
+
+    @Modifying
+    @Transactional
+    @Query("delete from TranscriptionCheckpoint c where concat(c.contentHash, '|', coalesce(c.modelName, '')) in "
+            + "(select concat(s.contentHash, '|', coalesce(s.modelName, '')) from TranscriptionCheckpoint s "
+            + "group by s.contentHash, s.modelName having max(s.updatedAt) < :before)")
+    int deleteStale(@Param("before") LocalDateTime before);
+
+    /**
+     * 删除旧版本按（内容哈希、分片起点）建立的唯一索引，否则同一内容的不同模型无法各自保存检查点
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "drop index if exists idx_transcription_checkpoint_hash_slice", nativeQuery = true)
+    void dropLegacyHashSliceIndex();
+}
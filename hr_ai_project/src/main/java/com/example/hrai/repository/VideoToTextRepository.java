@@ -2,9 +2,21 @@ package com.example.hrai.repository;
 
 import com.example.hrai.entity.VideoToText;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
 
 @Repository
 public interface VideoToTextRepository extends JpaRepository<VideoToText, Long> {
-    // 可以在这里添加自定义查询方法
-}
\ No newline at end of file
+    Optional<VideoToText> findFirstByContentHashAndModelNameAndCreatedAtAfterOrderByCreatedAtDesc(String contentHash, String modelName, LocalDateTime createdAfter);
+
+    @Modifying
+    @Transactional
+    @Query("update VideoToText v set v.contentHash = null where v.contentHash is not null and v.createdAt < :before")
+    int clearContentHashCreatedBefore(@Param("before") LocalDateTime before);
+}
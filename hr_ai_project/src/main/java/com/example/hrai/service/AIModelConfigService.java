@@ -13,9 +13,15 @@ import java.util.Optional;
 @Service
 public class AIModelConfigService {
 
+    /** 大模型返回的内容无法解析时testModel的返回值，不应作为摘要缓存 */
+    public static final String MALFORMED_RESPONSE = "API返回格式异常，无法解析响应内容";
+
     @Autowired
     private AIModelConfigRepository aiModelConfigRepository;
 
+    @Autowired
+    private SummaryCacheService summaryCacheService;
+
     private RestTemplate restTemplate = new RestTemplate();
 
     public List<AIModelConfig> getAllConfigs() {
@@ -40,13 +46,17 @@ public class AIModelConfigService {
         config.setModelEndpoint(configDetails.getModelEndpoint());
         config.setIsActive(configDetails.getIsActive());
 
-        return aiModelConfigRepository.save(config);
+        AIModelConfig saved = aiModelConfigRepository.save(config);
+        // 模型或接口变更后，旧配置生成的摘要不再可信
+        summaryCacheService.invalidate(id);
+        return saved;
     }
 
     public void deleteConfig(Long id) {
         AIModelConfig config = aiModelConfigRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Config not found for id: " + id));
         aiModelConfigRepository.delete(config);
+        summaryCacheService.invalidate(id);
     }
 
     public List<AIModelConfig> getActiveConfigs() {
@@ -145,7 +155,7 @@ public class AIModelConfigService {
                 }
             }
 
-            return "API返回格式异常，无法解析响应内容";
+            return MALFORMED_RESPONSE;
         } catch (Exception e) {
             throw new RuntimeException("ModelScope API调用失败: " + e.getMessage(), e);
         }
@@ -176,7 +186,7 @@ public class AIModelConfigService {
                 }
             }
 
-            return "API返回格式异常，无法解析响应内容";
+            return MALFORMED_RESPONSE;
         } catch (Exception e) {
             throw new RuntimeException("OpenAI API调用失败: " + e.getMessage(), e);
         }
@@ -225,7 +235,7 @@ public class AIModelConfigService {
                 }
             }
 
-            return "API返回格式异常，无法解析响应内容";
+            return MALFORMED_RESPONSE;
         } catch (Exception e) {
             throw new RuntimeException("Ollama API调用失败: " + e.getMessage(), e);
         }
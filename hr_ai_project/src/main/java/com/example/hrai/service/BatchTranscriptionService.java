@@ -0,0 +1,228 @@
+package com.example.hrai.service;
+
+import com.example.hrai.service.impl.VoskRecognizerPool;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * 批量转录服务
+ * 接收一组本地文件或一个目录，每个文件登记为一个转录任务，在独立的工作线程池中执行，
+ * 线程数默认取CPU核数与识别器池容量的较小值；按探测到的媒体时长从长到短排队，缩短整批的完成时间；
+ * 每个文件完成后立即保存转录记录，整批的进度和耗时可随时查询；
+ * 排队的文件数有上限，放不下整批时拒绝该批，不登记其中任何文件
+ */
+@Service
+public class BatchTranscriptionService {
+
+    /** 目录扫描时识别为音视频的扩展名 */
+    static final Set<String> MEDIA_EXTENSIONS = Set.of(
+            "mp4", "m4a", "mov", "mkv", "avi", "flv", "webm", "wmv", "wav", "mp3", "aac", "flac", "ogg", "opus");
+
+    private final TranscriptionJobService transcriptionJobService;
+    private final FileFingerprintService fileFingerprintService;
+    private final ThreadPoolExecutor executor;
+    private final int maxFiles;
+    private final int queueCapacity;
+    private final long retentionMillis;
+    private final Map<String, TranscriptionBatch> batches = new ConcurrentHashMap<>();
+
+    public BatchTranscriptionService(TranscriptionJobService transcriptionJobService,
+                                     FileFingerprintService fileFingerprintService,
+                                     VoskRecognizerPool recognizerPool,
+                                     @Value("${hrai.batch.worker-threads:0}") int workerThreads,
+                                     @Value("${hrai.batch.max-files:500}") int maxFiles,
+                                     @Value("${hrai.batch.queue-capacity:2000}") int queueCapacity,
+                                     @Value("${hrai.batch.retention-minutes:1440}") long retentionMinutes) {
+        this.transcriptionJobService = transcriptionJobService;
+        this.fileFingerprintService = fileFingerprintService;
+        this.maxFiles = Math.max(1, maxFiles);
+        // 队列至少能放下一整批
+        this.queueCapacity = Math.max(this.maxFiles, queueCapacity);
+        this.retentionMillis = TimeUnit.MINUTES.toMillis(retentionMinutes);
+
+        // 同时转录的文件数超过识别器池容量时，多出的线程只会在池上等待
+        int cores = Runtime.getRuntime().availableProcessors();
+        int threads = workerThreads > 0 ? workerThreads : Math.min(cores, recognizerPool.getMaxSize());
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(Math.max(1, threads), Math.max(1, threads), 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(this.queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "batch-transcription-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * 提交批量转录
+     * @param paths 文件路径列表，可为null
+     * @param directory 扫描其中音视频文件的目录，可为null
+     * @param recursive 是否扫描子目录
+     * @param engineName 转录引擎名称
+     * @param modelName 识别模型名称（由引擎解析后的名称）
+     * @throws IllegalArgumentException 没有可转录的文件、目录不存在或文件数超出上限
+     * @throws RejectedExecutionException 排队的文件数加上本批超出队列上限
+     */
+    public TranscriptionBatch submit(List<String> paths, String directory, boolean recursive,
+                                     String engineName, String modelName) throws IOException {
+        pruneFinishedBatches();
+
+        Set<String> requested = new LinkedHashSet<>();
+        if (paths != null) {
+            for (String path : paths) {
+                if (path != null && !path.isBlank()) {
+                    requested.add(path.trim());
+                }
+            }
+        }
+        if (directory != null && !directory.isBlank()) {
+            requested.addAll(listMediaFiles(Path.of(directory.trim()), recursive));
+        }
+        if (requested.isEmpty()) {
+            throw new IllegalArgumentException("没有可转录的文件");
+        }
+        if (requested.size() > maxFiles) {
+            throw new IllegalArgumentException("单批文件数超出上限: " + requested.size() + " > " + maxFiles);
+        }
+
+        List<String> accepted = new ArrayList<>();
+        List<Map<String, Object>> rejected = new ArrayList<>();
+        for (String path : requested) {
+            if (!Files.isRegularFile(Path.of(path))) {
+                Map<String, Object> entry = new LinkedHashMap<>();
+                entry.put("path", path);
+                entry.put("error", "文件不存在");
+                rejected.add(entry);
+                continue;
+            }
+            accepted.add(path);
+        }
+
+        // 队列明显放不下时不必探测，直接拒绝；最终以锁内的检查为准
+        if (executor.getQueue().remainingCapacity() < accepted.size()) {
+            throw queueFull();
+        }
+
+        // 登记时读取容器头探测时长（可能回退到FFmpeg），在锁外完成，不阻塞其他批次的提交
+        List<TranscriptionJob> jobs = new ArrayList<>();
+        Map<TranscriptionJob, String> mediaPaths = new LinkedHashMap<>();
+        for (String path : accepted) {
+            // 指纹在工作线程中计算，提交请求不读取文件内容
+            TranscriptionJob job = transcriptionJobService.register("批量转录", path, path, null, engineName, modelName);
+            jobs.add(job);
+            mediaPaths.put(job, path);
+        }
+        // 最长处理时间优先：长文件先开始，避免整批最后只剩一个长文件在单线程上运行
+        List<TranscriptionJob> schedule = new ArrayList<>(jobs);
+        schedule.sort(Comparator.comparingLong(TranscriptionJob::getTotalMillis).reversed());
+
+        TranscriptionBatch batch = new TranscriptionBatch(UUID.randomUUID().toString(), engineName, modelName, jobs, rejected);
+        // 只有这里向线程池提交，检查剩余容量和提交在同一把锁内，整批要么全部排队要么全部拒绝
+        synchronized (executor) {
+            if (executor.getQueue().remainingCapacity() < accepted.size()) {
+                jobs.forEach(transcriptionJobService::discard);
+                throw queueFull();
+            }
+            batches.put(batch.getId(), batch);
+            for (TranscriptionJob job : schedule) {
+                String mediaPath = mediaPaths.get(job);
+                executor.execute(() -> transcriptionJobService.execute(job, mediaPath, fingerprintQuietly(mediaPath)));
+            }
+        }
+
+        System.out.println("批量转录已提交 [" + batch.getId() + "]: " + accepted.size() + " 个文件，"
+                + rejected.size() + " 个无效路径，工作线程 " + executor.getMaximumPoolSize());
+        return batch;
+    }
+
+    private RejectedExecutionException queueFull() {
+        return new RejectedExecutionException("批量转录队列已满: 排队 " + executor.getQueue().size()
+                + " 个文件，上限 " + queueCapacity);
+    }
+
+    public Optional<TranscriptionBatch> getBatch(String batchId) {
+        return Optional.ofNullable(batches.get(batchId));
+    }
+
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("workerThreads", executor.getMaximumPoolSize());
+        stats.put("activeWorkers", executor.getActiveCount());
+        stats.put("queueDepth", executor.getQueue().size());
+        stats.put("queueCapacity", queueCapacity);
+        stats.put("trackedBatches", batches.size());
+        return stats;
+    }
+
+    /**
+     * 列出目录中的音视频文件（按路径排序）
+     */
+    static List<String> listMediaFiles(Path directory, boolean recursive) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            throw new IllegalArgumentException("目录不存在: " + directory);
+        }
+        try (Stream<Path> files = Files.walk(directory, recursive ? Integer.MAX_VALUE : 1)) {
+            return files.filter(Files::isRegularFile)
+                    .filter(BatchTranscriptionService::isMediaFile)
+                    .map(Path::toString)
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    static boolean isMediaFile(Path path) {
+        String name = path.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        return dot > 0 && MEDIA_EXTENSIONS.contains(name.substring(dot + 1).toLowerCase(Locale.ROOT));
+    }
+
+    private FileFingerprintService.FileFingerprint fingerprintQuietly(String mediaPath) {
+        try {
+            return fileFingerprintService.fingerprint(Path.of(mediaPath));
+        } catch (IOException e) {
+            System.err.println("计算文件指纹失败: " + mediaPath + " - " + e.getMessage());
+            return null;
+        }
+    }
+
+    private void pruneFinishedBatches() {
+        LocalDateTime threshold = LocalDateTime.now().minusNanos(TimeUnit.MILLISECONDS.toNanos(retentionMillis));
+        batches.values().removeIf(batch -> {
+            LocalDateTime finishedAt = batch.getFinishedAt();
+            return finishedAt != null && finishedAt.isBefore(threshold);
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
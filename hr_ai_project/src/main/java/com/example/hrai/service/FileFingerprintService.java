@@ -0,0 +1,117 @@
+package com.example.hrai.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 媒体文件指纹服务
+ * 指纹为文件内容的SHA-256；对本地路径以（路径、大小、修改时间）作为快速校验，
+ * 文件未变化时直接复用上次计算的哈希，不再重新读取整个文件
+ */
+@Service
+public class FileFingerprintService {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Map<String, FileFingerprint> knownFiles;
+
+    public FileFingerprintService(@Value("${hrai.transcription.cache.fingerprint-entries:1000}") int maxEntries) {
+        int limit = Math.max(1, maxEntries);
+        this.knownFiles = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, FileFingerprint> eldest) {
+                return size() > limit;
+            }
+        };
+    }
+
+    /**
+     * 计算本地文件的指纹，大小和修改时间未变时直接返回缓存的哈希
+     */
+    public FileFingerprint fingerprint(Path file) throws IOException {
+        Path absolute = file.toAbsolutePath().normalize();
+        long size = Files.size(absolute);
+        long modified = Files.getLastModifiedTime(absolute).toMillis();
+        String key = absolute.toString();
+
+        synchronized (knownFiles) {
+            FileFingerprint known = knownFiles.get(key);
+            if (known != null && known.getSize() == size && known.getModifiedMillis() == modified) {
+                return known;
+            }
+        }
+
+        MessageDigest digest = newDigest();
+        byte[] buffer = new byte[BUFFER_SIZE];
+        try (InputStream in = Files.newInputStream(absolute)) {
+            int n;
+            while ((n = in.read(buffer)) > 0) {
+                digest.update(buffer, 0, n);
+            }
+        }
+        FileFingerprint fingerprint = new FileFingerprint(HexFormat.of().formatHex(digest.digest()), size, modified);
+        synchronized (knownFiles) {
+            knownFiles.put(key, fingerprint);
+        }
+        return fingerprint;
+    }
+
+    /**
+     * 记录已在接收时算出哈希的文件，不再重新读取；之后对该文件调用fingerprint直接命中
+     */
+    public FileFingerprint remember(Path file, String hash) throws IOException {
+        Path absolute = file.toAbsolutePath().normalize();
+        FileFingerprint fingerprint = new FileFingerprint(hash, Files.size(absolute),
+                Files.getLastModifiedTime(absolute).toMillis());
+        synchronized (knownFiles) {
+            knownFiles.put(absolute.toString(), fingerprint);
+        }
+        return fingerprint;
+    }
+
+    private MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * 文件指纹
+     */
+    public static class FileFingerprint {
+
+        private final String hash;
+        private final long size;
+        private final long modifiedMillis;
+
+        public FileFingerprint(String hash, long size, long modifiedMillis) {
+            this.hash = hash;
+            this.size = size;
+            this.modifiedMillis = modifiedMillis;
+        }
+
+        public String getHash() {
+            return hash;
+        }
+
+        public long getSize() {
+            return size;
+        }
+
+        public long getModifiedMillis() {
+            return modifiedMillis;
+        }
+    }
+}
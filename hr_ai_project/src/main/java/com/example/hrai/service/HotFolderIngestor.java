@@ -0,0 +1,336 @@
+package com.example.hrai.service;
+
+import com.example.hrai.entity.VideoToText;
+import com.example.hrai.service.impl.TranscriptionEngine;
+import com.example.hrai.service.impl.TranscriptionEngineRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 监听目录自动转录
+ * 基于WatchService监听目录中新出现的音视频文件，文件大小和修改时间在防抖时间内不再变化才视为写入完成；
+ * 按内容指纹去重后以可配置的并发数转录，文本按process-*-video-to-txt接口的方式写成txt文件，
+ * 并在设置了默认大模型时自动生成摘要
+ */
+@Service
+public class HotFolderIngestor {
+
+    private static final String SOURCE = "目录监听";
+    private static final int MAX_REMEMBERED_HASHES = 10000;
+
+    private final TranscriptionJobService transcriptionJobService;
+    private final FileFingerprintService fileFingerprintService;
+    private final TranscriptionEngineRegistry engineRegistry;
+    private final VideoSummaryService videoSummaryService;
+    private final VideoToTextService videoToTextService;
+    private final boolean enabled;
+    private final Path directory;
+    private final Path outputDirectory;
+    private final int concurrency;
+    private final long debounceMillis;
+    private final boolean summarize;
+    private final boolean processExisting;
+    private final String engineName;
+    private final String modelName;
+
+    /** 等待写入完成的文件 */
+    private final Map<Path, PendingFile> pending = new ConcurrentHashMap<>();
+    /** 已提交或已转录的内容哈希，同一内容的副本不再重复处理 */
+    private final Set<String> knownHashes = Collections.newSetFromMap(new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+            return size() > MAX_REMEMBERED_HASHES;
+        }
+    });
+
+    private final AtomicLong transcribed = new AtomicLong();
+    private final AtomicLong duplicates = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong summarized = new AtomicLong();
+
+    private WatchService watchService;
+    private ScheduledExecutorService debouncer;
+    private ThreadPoolExecutor workers;
+
+    public HotFolderIngestor(TranscriptionJobService transcriptionJobService,
+                             FileFingerprintService fileFingerprintService,
+                             TranscriptionEngineRegistry engineRegistry,
+                             VideoSummaryService videoSummaryService,
+                             VideoToTextService videoToTextService,
+                             @Value("${hrai.hotfolder.enabled:false}") boolean enabled,
+                             @Value("${hrai.hotfolder.directory:hot-folder/inbox}") String directory,
+                             @Value("${hrai.hotfolder.output-directory:}") String outputDirectory,
+                             @Value("${hrai.hotfolder.concurrency:2}") int concurrency,
+                             @Value("${hrai.hotfolder.debounce-ms:3000}") long debounceMillis,
+                             @Value("${hrai.hotfolder.summarize:true}") boolean summarize,
+                             @Value("${hrai.hotfolder.process-existing:false}") boolean processExisting,
+                             @Value("${hrai.hotfolder.engine:}") String engineName,
+                             @Value("${hrai.hotfolder.model:}") String modelName) {
+        this.transcriptionJobService = transcriptionJobService;
+        this.fileFingerprintService = fileFingerprintService;
+        this.engineRegistry = engineRegistry;
+        this.videoSummaryService = videoSummaryService;
+        this.videoToTextService = videoToTextService;
+        this.enabled = enabled;
+        this.directory = Path.of(directory).toAbsolutePath().normalize();
+        // 默认与监听目录同级的txt目录，与resources下vide/txt的布局一致
+        this.outputDirectory = outputDirectory.isBlank()
+                ? this.directory.resolveSibling("txt")
+                : Path.of(outputDirectory).toAbsolutePath().normalize();
+        this.concurrency = Math.max(1, concurrency);
+        this.debounceMillis = Math.max(0, debounceMillis);
+        this.summarize = summarize;
+        this.processExisting = processExisting;
+        this.engineName = engineName;
+        this.modelName = modelName;
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        // 启动时即校验引擎和模型配置
+        TranscriptionEngine engine = engineRegistry.resolve(engineName);
+        engine.resolveModel(modelName);
+
+        Files.createDirectories(directory);
+        Files.createDirectories(outputDirectory);
+
+        AtomicInteger threadIndex = new AtomicInteger();
+        workers = new ThreadPoolExecutor(concurrency, concurrency, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "hot-folder-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        debouncer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "hot-folder-debounce");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long tick = Math.max(100, debounceMillis / 4);
+        debouncer.scheduleWithFixedDelay(this::promoteSettledFiles, tick, tick, TimeUnit.MILLISECONDS);
+
+        watchService = FileSystems.getDefault().newWatchService();
+        directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        if (processExisting) {
+            scanDirectory();
+        }
+        Thread watcherThread = new Thread(this::watch, "hot-folder-watcher");
+        watcherThread.setDaemon(true);
+        watcherThread.start();
+        System.out.println("目录监听已启动: " + directory + "，输出目录 " + outputDirectory + "，并发数 " + concurrency);
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("directory", directory.toString());
+        stats.put("outputDirectory", outputDirectory.toString());
+        stats.put("concurrency", concurrency);
+        stats.put("pendingFiles", pending.size());
+        stats.put("activeWorkers", workers != null ? workers.getActiveCount() : 0);
+        stats.put("queueDepth", workers != null ? workers.getQueue().size() : 0);
+        stats.put("transcribed", transcribed.get());
+        stats.put("duplicates", duplicates.get());
+        stats.put("failed", failed.get());
+        stats.put("summarized", summarized.get());
+        return stats;
+    }
+
+    private void watch() {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                        // 事件丢失时重新扫描整个目录
+                        scanDirectory();
+                    } else if (event.context() instanceof Path name) {
+                        observe(directory.resolve(name));
+                    }
+                }
+                if (!key.reset()) {
+                    System.err.println("监听目录已不可访问: " + directory);
+                    return;
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // 关闭
+        } catch (IOException e) {
+            System.err.println("扫描监听目录失败: " + e.getMessage());
+        }
+    }
+
+    private void scanDirectory() throws IOException {
+        for (String path : BatchTranscriptionService.listMediaFiles(directory, false)) {
+            observe(Path.of(path));
+        }
+    }
+
+    /**
+     * 记录文件的最新大小和修改时间，写入过程中的每次变化都会重新开始防抖计时
+     */
+    private void observe(Path file) {
+        if (!BatchTranscriptionService.isMediaFile(file) || !Files.isRegularFile(file)) {
+            return;
+        }
+        try {
+            long size = Files.size(file);
+            long modified = Files.getLastModifiedTime(file).toMillis();
+            pending.compute(file, (path, known) -> known != null && known.size == size && known.modified == modified
+                    ? known : new PendingFile(size, modified));
+        } catch (IOException e) {
+            // 文件已被移走
+            pending.remove(file);
+        }
+    }
+
+    /**
+     * 把防抖时间内没有变化的文件交给工作线程
+     */
+    private void promoteSettledFiles() {
+        long now = System.currentTimeMillis();
+        for (Map.Entry<Path, PendingFile> entry : pending.entrySet()) {
+            Path file = entry.getKey();
+            observe(file);
+            PendingFile current = pending.get(file);
+            if (current != null && current.size > 0 && now - current.observedAt >= debounceMillis
+                    && pending.remove(file, current)) {
+                workers.execute(() -> ingest(file));
+            }
+        }
+    }
+
+    private void ingest(Path file) {
+        String mediaPath = file.toString();
+        FileFingerprintService.FileFingerprint fingerprint;
+        try {
+            fingerprint = fileFingerprintService.fingerprint(file);
+        } catch (IOException e) {
+            System.err.println("计算文件指纹失败: " + mediaPath + " - " + e.getMessage());
+            failed.incrementAndGet();
+            return;
+        }
+        synchronized (knownHashes) {
+            if (!knownHashes.add(fingerprint.getHash())) {
+                duplicates.incrementAndGet();
+                System.out.println("跳过重复内容的文件: " + mediaPath);
+                return;
+            }
+        }
+
+        TranscriptionEngine engine = engineRegistry.resolve(engineName);
+        TranscriptionJob job = transcriptionJobService.register(SOURCE, mediaPath, mediaPath, fingerprint,
+                engine.getName(), engine.resolveModel(modelName));
+        transcriptionJobService.execute(job, mediaPath, fingerprint);
+        if (job.getStatus() != TranscriptionJob.Status.SUCCEEDED) {
+            failed.incrementAndGet();
+            // 失败的内容允许重新放入目录后再次处理
+            synchronized (knownHashes) {
+                knownHashes.remove(fingerprint.getHash());
+            }
+            System.err.println("目录监听转录失败: " + mediaPath + " - " + job.getError());
+            return;
+        }
+        transcribed.incrementAndGet();
+
+        try {
+            Path txtFile = writeTxt(file, job.getText());
+            System.out.println("目录监听转录完成: " + mediaPath + " -> " + txtFile);
+        } catch (IOException e) {
+            System.err.println("写入txt文件失败: " + mediaPath + " - " + e.getMessage());
+        }
+        if (summarize) {
+            summarizeQuietly(job);
+        }
+    }
+
+    /**
+     * 与process-*-video-to-txt接口相同：文件名为 原文件名_时间戳.txt，UTF-8编码
+     */
+    private Path writeTxt(Path mediaFile, String text) throws IOException {
+        String fileName = mediaFile.getFileName().toString();
+        String baseName = fileName.substring(0, fileName.lastIndexOf('.'));
+        Path txtFile = outputDirectory.resolve(baseName + "_" + System.currentTimeMillis() + ".txt");
+        Files.write(txtFile, text.getBytes(StandardCharsets.UTF_8));
+        return txtFile;
+    }
+
+    private void summarizeQuietly(TranscriptionJob job) {
+        if (job.getRecordId() == null || !videoSummaryService.isAvailable()) {
+            return;
+        }
+        Optional<VideoToText> record = videoToTextService.getVideoToTextById(job.getRecordId());
+        if (record.isPresent() && record.get().getSummary() != null && !record.get().getSummary().isEmpty()) {
+            // 命中已有转录结果且已生成过摘要
+            return;
+        }
+        try {
+            videoSummaryService.summarize(job.getText(), job.getRecordId());
+            summarized.incrementAndGet();
+        } catch (Exception e) {
+            System.err.println("自动生成摘要失败 [" + job.getRecordId() + "]: " + e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                System.err.println("关闭目录监听失败: " + e.getMessage());
+            }
+        }
+        if (debouncer != null) {
+            debouncer.shutdownNow();
+        }
+        if (workers != null) {
+            workers.shutdownNow();
+        }
+    }
+
+    /**
+     * 最近一次观察到的文件状态
+     */
+    private static final class PendingFile {
+
+        private final long size;
+        private final long modified;
+        private final long observedAt = System.currentTimeMillis();
+
+        private PendingFile(long size, long modified) {
+            this.size = size;
+            this.modified = modified;
+        }
+    }
+}
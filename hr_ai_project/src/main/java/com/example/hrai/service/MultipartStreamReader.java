@@ -0,0 +1,267 @@
+package com.example.hrai.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * multipart/form-data请求体的流式读取器
+ * 按分隔符逐个读出分段，分段内容直接写给调用方提供的输出流，不在内存或容器临时文件中缓存整段内容
+ */
+final class MultipartStreamReader {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_HEADER_BYTES = 16 * 1024;
+    private static final byte[] CRLF = {'\r', '\n'};
+
+    private final InputStream in;
+    /** 分段之间的分隔符：CRLF--boundary */
+    private final byte[] delimiter;
+    private final byte[] buffer;
+    private int position;
+    private int limit;
+    private boolean finished;
+
+    /**
+     * @param body 请求体
+     * @param contentType 请求的Content-Type，必须带有boundary参数
+     */
+    MultipartStreamReader(InputStream body, String contentType) throws IOException {
+        String boundary = parameters(contentType).get("boundary");
+        if (boundary == null || boundary.isEmpty()) {
+            throw new IOException("multipart请求缺少boundary");
+        }
+        this.delimiter = ("\r\n--" + boundary).getBytes(StandardCharsets.ISO_8859_1);
+        this.buffer = new byte[BUFFER_SIZE + delimiter.length];
+        // 第一个分隔符前没有CRLF，补上后所有分隔符都按同一形式查找
+        this.in = new SequenceInputStream(new ByteArrayInputStream(CRLF), body);
+        skipTo(OutputStream.nullOutputStream());
+    }
+
+    /**
+     * 读取下一个分段的头部
+     * @return 分段头部，没有更多分段时返回null；之后必须调用readBody读取（或丢弃）分段内容
+     */
+    Part nextPart() throws IOException {
+        if (finished) {
+            return null;
+        }
+        // 分隔符之后是"--"（结束）或CRLF（下一个分段）
+        if (!fill(2)) {
+            throw new IOException("multipart请求体不完整");
+        }
+        if (buffer[position] == '-' && buffer[position + 1] == '-') {
+            finished = true;
+            return null;
+        }
+        readLine();
+
+        Map<String, String> headers = new LinkedHashMap<>();
+        int headerBytes = 0;
+        String line;
+        while (!(line = readLine()).isEmpty()) {
+            headerBytes += line.length();
+            if (headerBytes > MAX_HEADER_BYTES) {
+                throw new IOException("multipart分段头部过长");
+            }
+            int colon = line.indexOf(':');
+            if (colon > 0) {
+                headers.put(line.substring(0, colon).trim().toLowerCase(Locale.ROOT), line.substring(colon + 1).trim());
+            }
+        }
+        Map<String, String> disposition = parameters(headers.getOrDefault("content-disposition", ""));
+        return new Part(disposition.get("name"), disposition.get("filename"));
+    }
+
+    /**
+     * 把当前分段的内容写入输出流，直到下一个分隔符
+     * @return 写入的字节数
+     */
+    long readBody(OutputStream out) throws IOException {
+        return skipTo(out);
+    }
+
+    /**
+     * 读取当前分段的内容并按文本返回
+     * @param maxBytes 允许的最大字节数，超出时抛出异常
+     */
+    String readText(int maxBytes) throws IOException {
+        ByteArrayOutputStream text = new ByteArrayOutputStream();
+        OutputStream limited = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                write(new byte[]{(byte) b}, 0, 1);
+            }
+
+            @Override
+            public void write(byte[] bytes, int offset, int length) throws IOException {
+                if (text.size() + length > maxBytes) {
+                    throw new IOException("multipart表单字段过长");
+                }
+                text.write(bytes, offset, length);
+            }
+        };
+        skipTo(limited);
+        return text.toString(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 把下一个分隔符之前的内容写入输出流，并跳过该分隔符
+     */
+    private long skipTo(OutputStream out) throws IOException {
+        long written = 0;
+        while (true) {
+            int found = indexOfDelimiter();
+            if (found >= 0) {
+                out.write(buffer, position, found - position);
+                written += found - position;
+                position = found + delimiter.length;
+                return written;
+            }
+            // 末尾不足一个分隔符长度的内容可能是分隔符的开头，留到下次填充后再判断
+            int safe = limit - delimiter.length + 1;
+            if (safe > position) {
+                out.write(buffer, position, safe - position);
+                written += safe - position;
+                position = safe;
+            }
+            if (!readMore()) {
+                throw new IOException("multipart请求体不完整");
+            }
+        }
+    }
+
+    private int indexOfDelimiter() {
+        int last = limit - delimiter.length;
+        byte first = delimiter[0];
+        for (int i = position; i <= last; i++) {
+            if (buffer[i] != first) {
+                continue;
+            }
+            int j = 1;
+            while (j < delimiter.length && buffer[i + j] == delimiter[j]) {
+                j++;
+            }
+            if (j == delimiter.length) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 读取一行头部（按UTF-8解码，浏览器以UTF-8发送非ASCII文件名），不含行尾CRLF
+     */
+    private String readLine() throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        while (true) {
+            if (!fill(1)) {
+                throw new IOException("multipart请求体不完整");
+            }
+            byte b = buffer[position++];
+            if (b == '\n') {
+                byte[] bytes = line.toByteArray();
+                int length = bytes.length > 0 && bytes[bytes.length - 1] == '\r' ? bytes.length - 1 : bytes.length;
+                return new String(bytes, 0, length, StandardCharsets.UTF_8);
+            }
+            if (line.size() >= MAX_HEADER_BYTES) {
+                throw new IOException("multipart分段头部过长");
+            }
+            line.write(b);
+        }
+    }
+
+    /**
+     * 保证缓冲区中至少有count个未读字节
+     * @return 流已结束且不足count个字节时返回false
+     */
+    private boolean fill(int count) throws IOException {
+        while (limit - position < count) {
+            if (!readMore()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean readMore() throws IOException {
+        if (position > 0) {
+            System.arraycopy(buffer, position, buffer, 0, limit - position);
+            limit -= position;
+            position = 0;
+        }
+        int n = in.read(buffer, limit, buffer.length - limit);
+        if (n < 0) {
+            return false;
+        }
+        limit += n;
+        return true;
+    }
+
+    /**
+     * 解析形如 type; key=value; key="quoted value" 的头部参数，参数名转为小写
+     */
+    static Map<String, String> parameters(String header) {
+        Map<String, String> parameters = new LinkedHashMap<>();
+        if (header == null) {
+            return parameters;
+        }
+        int i = header.indexOf(';');
+        while (i >= 0 && i < header.length()) {
+            int equals = header.indexOf('=', i + 1);
+            if (equals < 0) {
+                break;
+            }
+            String name = header.substring(i + 1, equals).trim().toLowerCase(Locale.ROOT);
+            StringBuilder value = new StringBuilder();
+            int j = equals + 1;
+            while (j < header.length() && header.charAt(j) == ' ') {
+                j++;
+            }
+            if (j < header.length() && header.charAt(j) == '"') {
+                for (j++; j < header.length() && header.charAt(j) != '"'; j++) {
+                    if (header.charAt(j) == '\\' && j + 1 < header.length()) {
+                        j++;
+                    }
+                    value.append(header.charAt(j));
+                }
+                i = header.indexOf(';', j);
+            } else {
+                int end = header.indexOf(';', j);
+                value.append(header, j, end < 0 ? header.length() : end);
+                i = end;
+            }
+            parameters.putIfAbsent(name, value.toString().trim());
+        }
+        return parameters;
+    }
+
+    /**
+     * 分段头部中的表单字段名和文件名（不是文件字段时文件名为null）
+     */
+    static final class Part {
+
+        private final String name;
+        private final String filename;
+
+        Part(String name, String filename) {
+            this.name = name;
+            this.filename = filename;
+        }
+
+        String getName() {
+            return name;
+        }
+
+        String getFilename() {
+            return filename;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.hrai.service;
+
+import java.nio.file.Path;
+import java.util.Map;
+
+/**
+ * 流式接收的上传请求：写入工作目录的媒体文件、接收时计算的SHA-256，以及其他表单字段
+ */
+public class ReceivedUpload {
+
+    private final Path file;
+    private final String originalFilename;
+    private final long size;
+    private final String hash;
+    private final Map<String, String> fields;
+
+    ReceivedUpload(Path file, String originalFilename, long size, String hash, Map<String, String> fields) {
+        this.file = file;
+        this.originalFilename = originalFilename;
+        this.size = size;
+        this.hash = hash;
+        this.fields = fields;
+    }
+
+    /**
+     * 工作目录中的媒体文件，请求中没有文件字段时为null
+     */
+    public Path getFile() {
+        return file;
+    }
+
+    public String getOriginalFilename() {
+        return originalFilename;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    /**
+     * 文件内容的SHA-256（十六进制小写），与FileFingerprintService的指纹一致
+     */
+    public String getHash() {
+        return hash;
+    }
+
+    /**
+     * 请求中没有文件或文件为空
+     */
+    public boolean isEmpty() {
+        return file == null || size == 0;
+    }
+
+    /**
+     * 表单字段的值，没有该字段时返回null
+     */
+    public String getField(String name) {
+        return fields.get(name);
+    }
+}
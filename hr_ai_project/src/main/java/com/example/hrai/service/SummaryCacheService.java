@@ -0,0 +1,243 @@
+package com.example.hrai.service;
+
+import com.example.hrai.entity.SummaryCacheEntry;
+import com.example.hrai.repository.SummaryCacheRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 摘要缓存
+ * 以（大模型配置ID、模型名称、提示词版本、转录文本哈希）为键，内存中按最近使用保留有限条目，
+ * 未命中时再查SQLite；相同文本重复生成摘要时不再调用大模型。
+ * 超过有效期的记录不再命中并由定时任务删除，大模型配置被修改或删除时清除该配置的全部摘要
+ */
+@Service
+public class SummaryCacheService {
+
+    private final SummaryCacheRepository summaryCacheRepository;
+    private final boolean enabled;
+    private final long ttlHours;
+    private final Map<Key, Cached> memory;
+
+    private final AtomicLong memoryHits = new AtomicLong();
+    private final AtomicLong storeHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public SummaryCacheService(SummaryCacheRepository summaryCacheRepository,
+                               @Value("${hrai.summary.cache.enabled:true}") boolean enabled,
+                               @Value("${hrai.summary.cache.memory-entries:500}") int memoryEntries,
+                               @Value("${hrai.summary.cache.ttl-hours:720}") long ttlHours) {
+        this.summaryCacheRepository = summaryCacheRepository;
+        this.enabled = enabled;
+        this.ttlHours = ttlHours;
+        int limit = Math.max(1, memoryEntries);
+        this.memory = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Cached> eldest) {
+                return size() > limit;
+            }
+        };
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 查找有效期内的摘要，先查内存再查SQLite，SQLite命中的结果放入内存
+     */
+    public Optional<String> lookup(Key key) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        LocalDateTime threshold = expiryThreshold();
+        synchronized (memory) {
+            Cached cached = memory.get(key);
+            if (cached != null) {
+                if (cached.createdAt.isAfter(threshold)) {
+                    memoryHits.incrementAndGet();
+                    return Optional.of(cached.summary);
+                }
+                memory.remove(key);
+            }
+        }
+
+        Optional<SummaryCacheEntry> stored = summaryCacheRepository
+                .findFirstByConfigIdAndModelNameAndPromptVersionAndTranscriptHashAndCreatedAtAfter(
+                        key.configId, key.modelName, key.promptVersion, key.transcriptHash, threshold);
+        if (stored.isEmpty()) {
+            misses.incrementAndGet();
+            return Optional.empty();
+        }
+        storeHits.incrementAndGet();
+        synchronized (memory) {
+            memory.put(key, new Cached(stored.get().getSummary(), stored.get().getCreatedAt()));
+        }
+        return Optional.of(stored.get().getSummary());
+    }
+
+    /**
+     * 保存新生成的摘要；同一键已有记录（包括已过期尚未删除的）时更新该记录的摘要和生成时间
+     */
+    public void store(Key key, String summary) {
+        if (!enabled || summary == null || summary.isBlank()) {
+            return;
+        }
+        LocalDateTime createdAt = LocalDateTime.now();
+        try {
+            upsert(key, summary, createdAt);
+        } catch (RuntimeException e) {
+            // 并发生成同一摘要时另一请求已插入该键，唯一索引冲突后改为更新那一条
+            try {
+                upsert(key, summary, createdAt);
+            } catch (RuntimeException retry) {
+                System.err.println("摘要缓存写入失败: " + retry.getMessage());
+            }
+        }
+        synchronized (memory) {
+            memory.put(key, new Cached(summary, createdAt));
+        }
+    }
+
+    private void upsert(Key key, String summary, LocalDateTime createdAt) {
+        SummaryCacheEntry entry = summaryCacheRepository
+                .findFirstByConfigIdAndModelNameAndPromptVersionAndTranscriptHash(
+                        key.configId, key.modelName, key.promptVersion, key.transcriptHash)
+                .orElseGet(() -> {
+                    SummaryCacheEntry created = new SummaryCacheEntry();
+                    created.setConfigId(key.configId);
+                    created.setModelName(key.modelName);
+                    created.setPromptVersion(key.promptVersion);
+                    created.setTranscriptHash(key.transcriptHash);
+                    return created;
+                });
+        entry.setSummary(summary);
+        entry.setCreatedAt(createdAt);
+        summaryCacheRepository.save(entry);
+    }
+
+    /**
+     * 清除某个大模型配置的全部摘要
+     */
+    public void invalidate(Long configId) {
+        synchronized (memory) {
+            memory.keySet().removeIf(key -> key.configId.equals(configId));
+        }
+        int deleted = summaryCacheRepository.deleteByConfigId(configId);
+        if (deleted > 0) {
+            System.out.println("大模型配置变更，清除摘要缓存: " + deleted);
+        }
+    }
+
+    /**
+     * 删除过期的摘要
+     */
+    @Scheduled(fixedDelayString = "${hrai.summary.cache.eviction-interval-ms:3600000}")
+    public void evictExpired() {
+        if (!enabled) {
+            return;
+        }
+        LocalDateTime threshold = expiryThreshold();
+        synchronized (memory) {
+            memory.values().removeIf(cached -> !cached.createdAt.isAfter(threshold));
+        }
+        int evicted = summaryCacheRepository.deleteCreatedBefore(threshold);
+        if (evicted > 0) {
+            System.out.println("摘要缓存清理过期记录: " + evicted);
+        }
+    }
+
+    public long getHits() {
+        return memoryHits.get() + storeHits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("ttlHours", ttlHours);
+        synchronized (memory) {
+            stats.put("memoryEntries", memory.size());
+        }
+        stats.put("memoryHits", memoryHits.get());
+        stats.put("storeHits", storeHits.get());
+        stats.put("misses", misses.get());
+        return stats;
+    }
+
+    /**
+     * 转录文本（UTF-8）的SHA-256
+     */
+    public static String hash(String text) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(text.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private LocalDateTime expiryThreshold() {
+        return LocalDateTime.now().minusHours(ttlHours);
+    }
+
+    /**
+     * 缓存键
+     */
+    public static final class Key {
+        private final Long configId;
+        private final String modelName;
+        private final String promptVersion;
+        private final String transcriptHash;
+
+        public Key(Long configId, String modelName, String promptVersion, String transcriptHash) {
+            this.configId = Objects.requireNonNull(configId, "configId");
+            this.modelName = Objects.requireNonNull(modelName, "modelName");
+            this.promptVersion = Objects.requireNonNull(promptVersion, "promptVersion");
+            this.transcriptHash = Objects.requireNonNull(transcriptHash, "transcriptHash");
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return configId.equals(other.configId) && modelName.equals(other.modelName)
+                    && promptVersion.equals(other.promptVersion) && transcriptHash.equals(other.transcriptHash);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(configId, modelName, promptVersion, transcriptHash);
+        }
+    }
+
+    private static final class Cached {
+        private final String summary;
+        private final LocalDateTime createdAt;
+
+        private Cached(String summary, LocalDateTime createdAt) {
+            this.summary = summary;
+            this.createdAt = createdAt;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.hrai.service;
+
+import com.example.hrai.entity.VideoToText;
+import com.example.hrai.repository.VideoToTextRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 转录结果缓存
+ * 以媒体内容哈希和识别模型查找已有的转录记录，相同视频用同一模型重复转录时直接返回已有结果；
+ * 超过有效期的记录不再命中，并由定时任务清除其哈希以控制索引大小
+ */
+@Service
+public class TranscriptCacheService {
+
+    private final VideoToTextRepository videoToTextRepository;
+    private final boolean enabled;
+    private final long ttlHours;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public TranscriptCacheService(VideoToTextRepository videoToTextRepository,
+                                  @Value("${hrai.transcription.cache.enabled:true}") boolean enabled,
+                                  @Value("${hrai.transcription.cache.ttl-hours:720}") long ttlHours) {
+        this.videoToTextRepository = videoToTextRepository;
+        this.enabled = enabled;
+        this.ttlHours = ttlHours;
+    }
+
+    /**
+     * 按内容哈希和模型名称查找有效期内的转录记录
+     */
+    public Optional<VideoToText> lookup(String contentHash, String modelName) {
+        if (!enabled || contentHash == null) {
+            return Optional.empty();
+        }
+        Optional<VideoToText> cached = videoToTextRepository
+                .findFirstByContentHashAndModelNameAndCreatedAtAfterOrderByCreatedAtDesc(contentHash, modelName, expiryThreshold());
+        if (cached.isPresent()) {
+            hits.incrementAndGet();
+        } else {
+            misses.incrementAndGet();
+        }
+        return cached;
+    }
+
+    /**
+     * 清除过期记录的内容哈希，使其不再参与缓存查找
+     */
+    @Scheduled(fixedDelayString = "${hrai.transcription.cache.eviction-interval-ms:3600000}")
+    public void evictExpired() {
+        if (!enabled) {
+            return;
+        }
+        int evicted = videoToTextRepository.clearContentHashCreatedBefore(expiryThreshold());
+        if (evicted > 0) {
+            System.out.println("转录缓存清理过期记录: " + evicted);
+        }
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("ttlHours", ttlHours);
+        stats.put("hits", hits.get());
+        stats.put("misses", misses.get());
+        return stats;
+    }
+
+    private LocalDateTime expiryThreshold() {
+        return LocalDateTime.now().minusHours(ttlHours);
+    }
+}
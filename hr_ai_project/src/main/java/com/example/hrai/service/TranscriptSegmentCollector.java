@@ -0,0 +1,42 @@
+package com.example.hrai.service;
+
+import com.example.hrai.entity.TranscriptSegment;
+import com.example.hrai.service.impl.TranscriptionProgressListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * 收集识别过程中产生的整句结果，转录结束后保存为转录片段
+ * 分片并行转录时多个线程同时回调，片段按起始时间排序后返回
+ */
+public class TranscriptSegmentCollector implements TranscriptionProgressListener {
+
+    private final List<TranscriptSegment> segments = new ArrayList<>();
+
+    @Override
+    public void onProgress(long processedMillis, long totalMillis) {
+    }
+
+    @Override
+    public void onUtterance(String text, long startMillis, long endMillis, float confidence) {
+        TranscriptSegment segment = new TranscriptSegment(startMillis, endMillis, text,
+                confidence >= 0 ? confidence : null);
+        synchronized (segments) {
+            segments.add(segment);
+        }
+    }
+
+    /**
+     * 按起始时间排序的片段
+     */
+    public List<TranscriptSegment> getSegments() {
+        List<TranscriptSegment> sorted;
+        synchronized (segments) {
+            sorted = new ArrayList<>(segments);
+        }
+        sorted.sort(Comparator.comparing(TranscriptSegment::getStartMs));
+        return sorted;
+    }
+}
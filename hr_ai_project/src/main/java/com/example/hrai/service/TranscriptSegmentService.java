@@ -0,0 +1,57 @@
+package com.example.hrai.service;
+
+import com.example.hrai.entity.TranscriptSegment;
+import com.example.hrai.repository.TranscriptSegmentRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * 转录片段服务
+ * 片段按记录ID和起始时间建索引，可按时间范围读取部分转录内容
+ */
+@Service
+public class TranscriptSegmentService {
+
+    @Autowired
+    private TranscriptSegmentRepository transcriptSegmentRepository;
+
+    /**
+     * 保存一条转录记录的全部片段
+     */
+    @Transactional
+    public void saveSegments(Long recordId, List<TranscriptSegment> segments) {
+        if (recordId == null || segments.isEmpty()) {
+            return;
+        }
+        for (TranscriptSegment segment : segments) {
+            segment.setRecordId(recordId);
+        }
+        transcriptSegmentRepository.saveAll(segments);
+    }
+
+    /**
+     * 查询与时间范围有重叠的片段
+     * @param fromMs 起始时间（毫秒），为null时从头开始
+     * @param toMs 结束时间（毫秒），为null时直到结尾
+     */
+    public List<TranscriptSegment> getSegments(Long recordId, Long fromMs, Long toMs) {
+        if (fromMs == null && toMs == null) {
+            return transcriptSegmentRepository.findByRecordIdOrderByStartMs(recordId);
+        }
+        return transcriptSegmentRepository.findByRecordIdAndStartMsLessThanAndEndMsGreaterThanOrderByStartMs(
+                recordId,
+                toMs != null ? toMs : Long.MAX_VALUE,
+                fromMs != null ? fromMs : -1L);
+    }
+
+    public long countSegments(Long recordId) {
+        return transcriptSegmentRepository.countByRecordId(recordId);
+    }
+
+    public void deleteSegments(Long recordId) {
+        transcriptSegmentRepository.deleteByRecordId(recordId);
+    }
+}
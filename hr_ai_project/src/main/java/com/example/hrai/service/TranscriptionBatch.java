@@ -0,0 +1,141 @@
+package com.example.hrai.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 批量转录
+ * 每个文件对应一个转录任务，按提交顺序汇总各文件的耗时、实时率和失败原因；只保存在内存中
+ */
+public class TranscriptionBatch {
+
+    private final String id;
+    private final String engineName;
+    private final String modelName;
+    private final LocalDateTime createdAt = LocalDateTime.now();
+    private final List<TranscriptionJob> jobs;
+    private final List<Map<String, Object>> rejected;
+
+    public TranscriptionBatch(String id, String engineName, String modelName, List<TranscriptionJob> jobs,
+                              List<Map<String, Object>> rejected) {
+        this.id = id;
+        this.engineName = engineName;
+        this.modelName = modelName;
+        this.jobs = Collections.unmodifiableList(new ArrayList<>(jobs));
+        this.rejected = Collections.unmodifiableList(new ArrayList<>(rejected));
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public List<TranscriptionJob> getJobs() {
+        return jobs;
+    }
+
+    public boolean isFinished() {
+        return jobs.stream().allMatch(TranscriptionJob::isFinished);
+    }
+
+    /**
+     * 最后一个任务的结束时间，未全部结束时返回null
+     */
+    public LocalDateTime getFinishedAt() {
+        LocalDateTime finishedAt = null;
+        for (TranscriptionJob job : jobs) {
+            if (job.getFinishedAt() == null) {
+                return null;
+            }
+            if (finishedAt == null || job.getFinishedAt().isAfter(finishedAt)) {
+                finishedAt = job.getFinishedAt();
+            }
+        }
+        return finishedAt != null ? finishedAt : createdAt;
+    }
+
+    /**
+     * 汇总报告
+     * realTimeFactor为各文件处理耗时之和与媒体时长之和的比值（单路识别的速度），
+     * wallRealTimeFactor为整批墙钟耗时与媒体时长之和的比值（并行后的吞吐）；命中缓存的文件不计入两者
+     */
+    public Map<String, Object> toReport() {
+        int succeeded = 0;
+        int failed = 0;
+        int running = 0;
+        int queued = 0;
+        int cached = 0;
+        long mediaMillis = 0;
+        long processingMillis = 0;
+        List<Map<String, Object>> files = new ArrayList<>();
+        for (TranscriptionJob job : jobs) {
+            switch (job.getStatus()) {
+                case SUCCEEDED -> succeeded++;
+                case FAILED -> failed++;
+                case RUNNING -> running++;
+                default -> queued++;
+            }
+            if (job.isCached()) {
+                cached++;
+            } else if (job.getStatus() == TranscriptionJob.Status.SUCCEEDED && job.getTotalMillis() > 0) {
+                mediaMillis += job.getTotalMillis();
+                processingMillis += job.getElapsedMillis();
+            }
+            files.add(fileReport(job));
+        }
+
+        LocalDateTime finishedAt = getFinishedAt();
+        long wallMillis = Duration.between(createdAt, finishedAt != null ? finishedAt : LocalDateTime.now()).toMillis();
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("batchId", id);
+        report.put("status", isFinished() ? "FINISHED" : "RUNNING");
+        report.put("engine", engineName);
+        report.put("model", modelName);
+        report.put("total", jobs.size());
+        report.put("succeeded", succeeded);
+        report.put("failed", failed + rejected.size());
+        report.put("running", running);
+        report.put("queued", queued);
+        report.put("cached", cached);
+        report.put("mediaMillis", mediaMillis);
+        report.put("processingMillis", processingMillis);
+        report.put("wallMillis", wallMillis);
+        report.put("realTimeFactor", ratio(processingMillis, mediaMillis));
+        report.put("wallRealTimeFactor", finishedAt != null ? ratio(wallMillis, mediaMillis) : null);
+        report.put("createdAt", createdAt.toString());
+        report.put("finishedAt", finishedAt != null ? finishedAt.toString() : null);
+        report.put("files", files);
+        report.put("rejected", rejected);
+        return report;
+    }
+
+    private static Map<String, Object> fileReport(TranscriptionJob job) {
+        Map<String, Object> file = new LinkedHashMap<>();
+        file.put("path", job.getUrl());
+        file.put("jobId", job.getId());
+        file.put("status", job.getStatus().name());
+        file.put("recordId", job.getRecordId());
+        file.put("cached", job.isCached());
+        file.put("mediaMillis", job.getTotalMillis());
+        file.put("elapsedMillis", job.getElapsedMillis());
+        file.put("realTimeFactor", job.isCached() ? null : ratio(job.getElapsedMillis(), job.getTotalMillis()));
+        file.put("error", job.getError());
+        return file;
+    }
+
+    private static Double ratio(long elapsedMillis, long mediaMillis) {
+        if (mediaMillis <= 0) {
+            return null;
+        }
+        return Math.round(elapsedMillis * 1000.0 / mediaMillis) / 1000.0;
+    }
+}
@@ -0,0 +1,181 @@
+package com.example.hrai.service;
+
+import com.example.hrai.entity.TranscriptSegment;
+import com.example.hrai.entity.TranscriptionCheckpoint;
+import com.example.hrai.repository.TranscriptionCheckpointRepository;
+import com.example.hrai.service.impl.TranscriptionCheckpointStore;
+import com.example.hrai.service.impl.TranscriptionSlice;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 转录检查点服务
+ * 以（媒体内容哈希、识别模型）为键保存分片计划和各分片进度，转录完成后删除；
+ * 长时间没有更新的检查点（对应的媒体已不会再提交）由定时任务清除
+ */
+@Service
+public class TranscriptionCheckpointService implements TranscriptionCheckpointStore {
+
+    private static final TypeReference<List<TranscriptSegment>> SEGMENT_LIST = new TypeReference<>() { };
+
+    private final TranscriptionCheckpointRepository checkpointRepository;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final boolean enabled;
+    private final long intervalMillis;
+    private final long retentionHours;
+    private final boolean resumeOnStartup;
+    /** 正在被转录持有的（内容哈希、模型） */
+    private final Set<String> owned = ConcurrentHashMap.newKeySet();
+
+    public TranscriptionCheckpointService(TranscriptionCheckpointRepository checkpointRepository,
+                                          @Value("${hrai.transcription.checkpoint.enabled:true}") boolean enabled,
+                                          @Value("${hrai.transcription.checkpoint.interval-seconds:60}") long intervalSeconds,
+                                          @Value("${hrai.transcription.checkpoint.retention-hours:72}") long retentionHours,
+                                          @Value("${hrai.transcription.checkpoint.resume-on-startup:true}") boolean resumeOnStartup) {
+        this.checkpointRepository = checkpointRepository;
+        this.enabled = enabled;
+        this.intervalMillis = Math.max(1, intervalSeconds) * 1000L;
+        this.retentionHours = retentionHours;
+        this.resumeOnStartup = resumeOnStartup;
+    }
+
+    /**
+     * 旧版本的唯一索引不含模型名称，保留它会使同一内容的不同模型互相冲突
+     */
+    @PostConstruct
+    public void migrateIndexes() {
+        try {
+            checkpointRepository.dropLegacyHashSliceIndex();
+        } catch (Exception e) {
+            System.err.println("删除旧的转录检查点索引失败: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public boolean isResumeOnStartup() {
+        return enabled && resumeOnStartup;
+    }
+
+    @Override
+    public long getCheckpointIntervalMillis() {
+        return intervalMillis;
+    }
+
+    @Override
+    public boolean acquire(String key, String modelName) {
+        return owned.add(key + "|" + modelName);
+    }
+
+    @Override
+    public void release(String key, String modelName) {
+        owned.remove(key + "|" + modelName);
+    }
+
+    @Override
+    public List<TranscriptionSlice> load(String key, String modelName) {
+        List<TranscriptionSlice> slices = new ArrayList<>();
+        for (TranscriptionCheckpoint checkpoint
+                : checkpointRepository.findByContentHashAndModelNameOrderBySliceStartMicros(key, modelName)) {
+            TranscriptionSlice slice = new TranscriptionSlice(checkpoint.getSliceStartMicros(), checkpoint.getSliceEndMicros());
+            slice.update(checkpoint.getResumeMicros(), checkpoint.getResultText(),
+                    readSegments(checkpoint.getSegmentsJson()), Boolean.TRUE.equals(checkpoint.getCompleted()));
+            slices.add(slice);
+        }
+        return slices;
+    }
+
+    @Override
+    @Transactional
+    public void savePlan(String key, String modelName, String mediaPath, List<TranscriptionSlice> slices) {
+        checkpointRepository.deleteByContentHashAndModelName(key, modelName);
+        List<TranscriptionCheckpoint> checkpoints = new ArrayList<>(slices.size());
+        for (TranscriptionSlice slice : slices) {
+            TranscriptionCheckpoint checkpoint = new TranscriptionCheckpoint();
+            checkpoint.setContentHash(key);
+            checkpoint.setModelName(modelName);
+            checkpoint.setMediaPath(mediaPath);
+            checkpoint.setSliceStartMicros(slice.getStartMicros());
+            checkpoint.setSliceEndMicros(slice.getEndMicros());
+            apply(checkpoint, slice);
+            checkpoints.add(checkpoint);
+        }
+        checkpointRepository.saveAll(checkpoints);
+    }
+
+    @Override
+    @Transactional
+    public void saveSlice(String key, String modelName, TranscriptionSlice slice) {
+        checkpointRepository.findByContentHashAndModelNameAndSliceStartMicros(key, modelName, slice.getStartMicros())
+                .ifPresent(checkpoint -> {
+                    apply(checkpoint, slice);
+                    checkpointRepository.save(checkpoint);
+                });
+    }
+
+    @Override
+    public void clear(String key, String modelName) {
+        checkpointRepository.deleteByContentHashAndModelName(key, modelName);
+    }
+
+    /**
+     * 未完成的转录（每个取第一个分片的检查点，含媒体路径和内容哈希）
+     */
+    public List<TranscriptionCheckpoint> findPending() {
+        return checkpointRepository.findBySliceStartMicrosOrderByUpdatedAt(0L);
+    }
+
+    /**
+     * 删除超过保留时间没有更新的检查点
+     */
+    @Scheduled(fixedDelayString = "${hrai.transcription.checkpoint.cleanup-interval-ms:3600000}")
+    public void evictStale() {
+        if (!enabled) {
+            return;
+        }
+        int evicted = checkpointRepository.deleteStale(LocalDateTime.now().minusHours(retentionHours));
+        if (evicted > 0) {
+            System.out.println("清理过期转录检查点: " + evicted);
+        }
+    }
+
+    private void apply(TranscriptionCheckpoint checkpoint, TranscriptionSlice slice) {
+        checkpoint.setResumeMicros(slice.getResumeMicros());
+        checkpoint.setCompleted(slice.isCompleted());
+        checkpoint.setResultText(slice.getResultText());
+        checkpoint.setSegmentsJson(writeSegments(slice.getSegments()));
+    }
+
+    private String writeSegments(List<TranscriptSegment> segments) {
+        try {
+            return objectMapper.writeValueAsString(segments);
+        } catch (Exception e) {
+            throw new IllegalStateException("序列化转录片段失败: " + e.getMessage(), e);
+        }
+    }
+
+    private List<TranscriptSegment> readSegments(String json) {
+        if (json == null || json.isEmpty()) {
+            return new ArrayList<>();
+        }
+        try {
+            return objectMapper.readValue(json, SEGMENT_LIST);
+        } catch (Exception e) {
+            throw new IllegalStateException("读取转录片段失败: " + e.getMessage(), e);
+        }
+    }
+}
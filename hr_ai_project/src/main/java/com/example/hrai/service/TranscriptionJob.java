@@ -0,0 +1,201 @@
+package com.example.hrai.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 异步转录任务
+ * 只保存在内存中，记录任务状态、进度和结果
+ */
+public class TranscriptionJob {
+
+    public enum Status {
+        QUEUED,
+        RUNNING,
+        SUCCEEDED,
+        FAILED
+    }
+
+    private final String id;
+    private final String source;
+    private final String url;
+    private final String engineName;
+    private final String modelName;
+    private final LocalDateTime createdAt = LocalDateTime.now();
+
+    private volatile Status status = Status.QUEUED;
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+    private volatile long processedMillis;
+    private volatile long totalMillis;
+    private volatile String text;
+    private volatile Long recordId;
+    private volatile String error;
+    private volatile boolean cached;
+    private final AtomicLong skippedMillis = new AtomicLong();
+
+    public TranscriptionJob(String id, String source, String url, String engineName, String modelName) {
+        this.id = id;
+        this.source = source;
+        this.url = url;
+        this.engineName = engineName;
+        this.modelName = modelName;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public String getEngineName() {
+        return engineName;
+    }
+
+    public String getModelName() {
+        return modelName;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+
+    /**
+     * 从开始执行到结束（未结束时到当前）的耗时（毫秒），尚未开始时为0
+     */
+    public long getElapsedMillis() {
+        LocalDateTime started = startedAt;
+        if (started == null) {
+            return 0;
+        }
+        LocalDateTime finished = finishedAt;
+        return Duration.between(started, finished != null ? finished : LocalDateTime.now()).toMillis();
+    }
+
+    /**
+     * 结果是否直接取自已有的转录记录
+     */
+    public boolean isCached() {
+        return cached;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public Long getRecordId() {
+        return recordId;
+    }
+
+    /**
+     * 媒体总时长（毫秒），提交时由容器头探测得到，识别过程中以解码器上报为准；未知时为0
+     */
+    public long getTotalMillis() {
+        return totalMillis;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    /**
+     * VAD跳过、未送入识别器的静音时长（毫秒）
+     */
+    public long getSkippedMillis() {
+        return skippedMillis.get();
+    }
+
+    public boolean isFinished() {
+        return status == Status.SUCCEEDED || status == Status.FAILED;
+    }
+
+    /**
+     * 进度百分比（0-100），总时长未知时返回null
+     */
+    public Double getProgress() {
+        if (status == Status.SUCCEEDED) {
+            return 100.0;
+        }
+        if (totalMillis <= 0) {
+            return null;
+        }
+        return Math.min(100.0, processedMillis * 100.0 / totalMillis);
+    }
+
+    void markRunning() {
+        this.startedAt = LocalDateTime.now();
+        this.status = Status.RUNNING;
+    }
+
+    void updateProgress(long processedMillis, long totalMillis) {
+        this.processedMillis = processedMillis;
+        this.totalMillis = totalMillis;
+    }
+
+    void addSkippedMillis(long millis) {
+        skippedMillis.addAndGet(millis);
+    }
+
+    void markSucceeded(String text, Long recordId) {
+        this.text = text;
+        this.recordId = recordId;
+        this.finishedAt = LocalDateTime.now();
+        this.status = Status.SUCCEEDED;
+    }
+
+    void markCached(String text, Long recordId) {
+        this.cached = true;
+        markSucceeded(text, recordId);
+    }
+
+    void markFailed(String error) {
+        this.error = error;
+        this.finishedAt = LocalDateTime.now();
+        this.status = Status.FAILED;
+    }
+
+    /**
+     * 任务状态（不含转录文本）
+     */
+    public Map<String, Object> toStatusMap() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("jobId", id);
+        map.put("status", status.name());
+        map.put("source", source);
+        map.put("url", url);
+        map.put("engine", engineName);
+        map.put("model", modelName);
+        map.put("progress", getProgress());
+        map.put("processedMillis", processedMillis);
+        map.put("totalMillis", totalMillis);
+        map.put("skippedMillis", skippedMillis.get());
+        map.put("createdAt", createdAt.toString());
+        map.put("startedAt", startedAt != null ? startedAt.toString() : null);
+        map.put("finishedAt", finishedAt != null ? finishedAt.toString() : null);
+        map.put("recordId", recordId);
+        map.put("cached", cached);
+        map.put("error", error);
+        return map;
+    }
+}
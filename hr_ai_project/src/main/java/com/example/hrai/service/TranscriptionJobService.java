@@ -0,0 +1,418 @@
+package com.example.hrai.service;
+
+import com.example.hrai.entity.TranscriptionCheckpoint;
+import com.example.hrai.entity.VideoToText;
+import com.example.hrai.service.impl.AudioTranscriptionService;
+import com.example.hrai.service.impl.MediaProbeService;
+import com.example.hrai.service.impl.TranscriptionMetrics;
+import com.example.hrai.service.impl.TranscriptionProgressListener;
+import com.example.hrai.service.impl.VoskTranscriptionEngine;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 异步转录任务服务
+ * 提交后立即返回任务ID，由有界线程池在后台执行解码和识别，
+ * 队列已满时拒绝提交，避免请求堆积占满Servlet线程；
+ * 识别过程中的中间结果和整句结果可通过SSE实时推送给订阅方；
+ * 转录进度按媒体内容哈希保存检查点，启动时自动续转中断前未完成的本地文件
+ */
+@Service
+public class TranscriptionJobService {
+
+    /** 进度事件的最小推送间隔（媒体时长毫秒） */
+    private static final long PROGRESS_EVENT_INTERVAL_MILLIS = 1000;
+
+    private final AudioTranscriptionService audioTranscriptionService;
+    private final VideoToTextService videoToTextService;
+    private final TranscriptCacheService transcriptCacheService;
+    private final TranscriptSegmentService transcriptSegmentService;
+    private final TranscriptionCheckpointService checkpointService;
+    private final FileFingerprintService fileFingerprintService;
+    private final MediaProbeService mediaProbeService;
+    private final TranscriptionMetrics metrics;
+    private final ThreadPoolExecutor executor;
+    private final long retentionMillis;
+    private final long sseTimeoutMillis;
+    private final Map<String, TranscriptionJob> jobs = new ConcurrentHashMap<>();
+    private final Map<String, List<SseEmitter>> subscribers = new ConcurrentHashMap<>();
+    /** SSE事件由单独的线程按顺序发送，慢速客户端不会阻塞识别线程 */
+    private final ExecutorService eventDispatcher;
+
+    public TranscriptionJobService(AudioTranscriptionService audioTranscriptionService,
+                                   VideoToTextService videoToTextService,
+                                   TranscriptCacheService transcriptCacheService,
+                                   TranscriptSegmentService transcriptSegmentService,
+                                   TranscriptionCheckpointService checkpointService,
+                                   FileFingerprintService fileFingerprintService,
+                                   MediaProbeService mediaProbeService,
+                                   TranscriptionMetrics metrics,
+                                   @Value("${hrai.jobs.worker-threads:2}") int workerThreads,
+                                   @Value("${hrai.jobs.queue-capacity:20}") int queueCapacity,
+                                   @Value("${hrai.jobs.retention-minutes:60}") long retentionMinutes,
+                                   @Value("${hrai.jobs.sse-timeout-minutes:60}") long sseTimeoutMinutes) {
+        this.audioTranscriptionService = audioTranscriptionService;
+        this.videoToTextService = videoToTextService;
+        this.transcriptCacheService = transcriptCacheService;
+        this.transcriptSegmentService = transcriptSegmentService;
+        this.checkpointService = checkpointService;
+        this.fileFingerprintService = fileFingerprintService;
+        this.mediaProbeService = mediaProbeService;
+        this.metrics = metrics;
+        this.retentionMillis = TimeUnit.MINUTES.toMillis(retentionMinutes);
+        this.sseTimeoutMillis = TimeUnit.MINUTES.toMillis(sseTimeoutMinutes);
+        this.eventDispatcher = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "transcription-events");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        AtomicInteger threadIndex = new AtomicInteger();
+        int threads = Math.max(1, workerThreads);
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "transcription-job-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * 提交转录任务
+     * @param source 视频来源描述
+     * @param url 保存到记录中的视频地址
+     * @param mediaPath 待转录的本地文件路径
+     * @param fingerprint 媒体文件指纹，用于命中已有转录结果，可为null
+     * @param engineName 转录引擎名称
+     * @param modelName 识别模型名称（由引擎解析后的名称）
+     * @param cleanup 任务结束后执行的清理动作（如删除上传的临时文件），可为null
+     * @throws RejectedExecutionException 任务队列已满
+     */
+    public TranscriptionJob submit(String source, String url, String mediaPath,
+                                   FileFingerprintService.FileFingerprint fingerprint, String engineName,
+                                   String modelName, Runnable cleanup) {
+        TranscriptionJob job = register(source, url, mediaPath, fingerprint, engineName, modelName);
+        try {
+            executor.execute(() -> run(job, mediaPath, fingerprint, cleanup));
+        } catch (RejectedExecutionException e) {
+            discard(job);
+            if (cleanup != null) {
+                cleanup.run();
+            }
+            throw e;
+        }
+        return job;
+    }
+
+    /**
+     * 创建并登记任务但不执行，由调用方在自己的线程池中调用{@link #execute}
+     * 批量转录使用独立的线程池，不占用单任务队列；登记后的任务同样可以查询状态和订阅事件
+     */
+    TranscriptionJob register(String source, String url, String mediaPath,
+                              FileFingerprintService.FileFingerprint fingerprint, String engineName, String modelName) {
+        pruneFinishedJobs();
+
+        TranscriptionJob job = new TranscriptionJob(UUID.randomUUID().toString(), source, url, engineName, modelName);
+        // 提交时只读容器头获取时长，排队中的任务即可给出总时长和积压的媒体时长
+        job.updateProgress(0, probeDurationMillis(mediaPath, fingerprint));
+        jobs.put(job.getId(), job);
+        return job;
+    }
+
+    /**
+     * 撤销已登记但未能提交执行的任务
+     */
+    void discard(TranscriptionJob job) {
+        jobs.remove(job.getId());
+    }
+
+    /**
+     * 在当前线程执行已登记的任务：命中缓存时直接返回已有结果，否则转录并保存记录和片段
+     */
+    void execute(TranscriptionJob job, String mediaPath, FileFingerprintService.FileFingerprint fingerprint) {
+        run(job, mediaPath, fingerprint, null);
+    }
+
+    /**
+     * 启动时续转中断前未完成的转录
+     * 只续转媒体文件仍在原路径且内容未变化的检查点，上传的临时文件已被清理时等待重新上传后按哈希续转
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumePendingTranscriptions() {
+        if (!checkpointService.isResumeOnStartup()) {
+            return;
+        }
+        for (TranscriptionCheckpoint checkpoint : checkpointService.findPending()) {
+            String mediaPath = checkpoint.getMediaPath();
+            if (mediaPath == null || !Files.isRegularFile(Path.of(mediaPath))) {
+                continue;
+            }
+            try {
+                FileFingerprintService.FileFingerprint fingerprint = fileFingerprintService.fingerprint(Path.of(mediaPath));
+                if (!fingerprint.getHash().equals(checkpoint.getContentHash())) {
+                    continue;
+                }
+                // 只有Vosk引擎产生检查点
+                TranscriptionJob job = submit("检查点续转", mediaPath, mediaPath, fingerprint,
+                        VoskTranscriptionEngine.NAME, checkpoint.getModelName(), null);
+                System.out.println("续转未完成的转录 [" + job.getId() + "]: " + mediaPath);
+            } catch (RejectedExecutionException e) {
+                System.err.println("任务队列已满，停止续转剩余检查点");
+                return;
+            } catch (Exception e) {
+                System.err.println("续转检查点失败: " + mediaPath + " - " + e.getMessage());
+            }
+        }
+    }
+
+    public Optional<TranscriptionJob> getJob(String jobId) {
+        return Optional.ofNullable(jobs.get(jobId));
+    }
+
+    /**
+     * 订阅任务的实时事件
+     * 事件类型：status（订阅时的当前状态）、progress、partial（中间结果）、utterance（整句结果）、done
+     */
+    public SseEmitter subscribe(TranscriptionJob job) {
+        SseEmitter emitter = new SseEmitter(sseTimeoutMillis);
+        List<SseEmitter> emitters = subscribers.computeIfAbsent(job.getId(), id -> new CopyOnWriteArrayList<>());
+        emitters.add(emitter);
+        emitter.onCompletion(() -> emitters.remove(emitter));
+        emitter.onTimeout(() -> emitters.remove(emitter));
+        emitter.onError(e -> emitters.remove(emitter));
+
+        eventDispatcher.execute(() -> {
+            if (!send(emitter, "status", job.toStatusMap())) {
+                emitters.remove(emitter);
+            } else if (job.isFinished()) {
+                send(emitter, "done", job.toStatusMap());
+                emitter.complete();
+            }
+        });
+        return emitter;
+    }
+
+    /**
+     * 线程池和队列使用情况
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("workerThreads", executor.getMaximumPoolSize());
+        stats.put("activeWorkers", executor.getActiveCount());
+        stats.put("queueDepth", executor.getQueue().size());
+        stats.put("queueRemainingCapacity", executor.getQueue().remainingCapacity());
+        stats.put("completedJobs", executor.getCompletedTaskCount());
+        stats.put("trackedJobs", jobs.size());
+        stats.put("queuedMediaMillis", jobs.values().stream()
+                .filter(job -> job.getStatus() == TranscriptionJob.Status.QUEUED)
+                .mapToLong(TranscriptionJob::getTotalMillis)
+                .sum());
+        return stats;
+    }
+
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    public int getActiveWorkers() {
+        return executor.getActiveCount();
+    }
+
+    private void run(TranscriptionJob job, String mediaPath,
+                     FileFingerprintService.FileFingerprint fingerprint, Runnable cleanup) {
+        job.markRunning();
+        publish(job.getId(), "status", job.toStatusMap());
+        try {
+            if (fingerprint != null) {
+                Optional<VideoToText> cached = transcriptCacheService.lookup(fingerprint.getHash(), job.getModelName());
+                if (cached.isPresent()) {
+                    job.markCached(cached.get().getTextContent(), cached.get().getId());
+                    return;
+                }
+            }
+
+            JobListener listener = new JobListener(job);
+            String text = audioTranscriptionService.transcribeAudio(mediaPath, listener,
+                    fingerprint != null ? fingerprint.getHash() : null, job.getModelName(),
+                    job.getEngineName());
+            if (AudioTranscriptionService.isFailure(text)) {
+                job.markFailed(text);
+                return;
+            }
+
+            VideoToText videoToText = new VideoToText();
+            videoToText.setSource(job.getSource());
+            videoToText.setUrl(job.getUrl());
+            videoToText.setDuration(job.getTotalMillis() > 0 ? (job.getTotalMillis() + 500) / 1000 : null);
+            videoToText.setTextContent(text);
+            videoToText.setSummary("");
+            videoToText.setModelName(job.getModelName());
+            if (fingerprint != null) {
+                videoToText.setContentHash(fingerprint.getHash());
+                videoToText.setFileSize(fingerprint.getSize());
+            }
+            long persistStart = System.nanoTime();
+            videoToTextService.saveVideoToText(videoToText);
+            transcriptSegmentService.saveSegments(videoToText.getId(), listener.segments.getSegments());
+            metrics.recordStage(TranscriptionMetrics.PERSIST, System.nanoTime() - persistStart);
+
+            job.markSucceeded(text, videoToText.getId());
+        } catch (Exception e) {
+            System.err.println("转录任务执行失败 [" + job.getId() + "]: " + e.getMessage());
+            job.markFailed(e.getMessage());
+        } finally {
+            if (cleanup != null) {
+                cleanup.run();
+            }
+            completeSubscribers(job);
+        }
+    }
+
+    private long probeDurationMillis(String mediaPath, FileFingerprintService.FileFingerprint fingerprint) {
+        try {
+            return mediaProbeService.probe(Path.of(mediaPath), fingerprint).getDurationMillis();
+        } catch (Exception e) {
+            System.err.println("媒体探测失败: " + mediaPath + " - " + e.getMessage());
+            return 0;
+        }
+    }
+
+    private boolean hasSubscribers(String jobId) {
+        List<SseEmitter> emitters = subscribers.get(jobId);
+        return emitters != null && !emitters.isEmpty();
+    }
+
+    private void publish(String jobId, String eventName, Object data) {
+        List<SseEmitter> emitters = subscribers.get(jobId);
+        if (emitters == null || emitters.isEmpty()) {
+            return;
+        }
+        eventDispatcher.execute(() -> {
+            for (SseEmitter emitter : emitters) {
+                if (!send(emitter, eventName, data)) {
+                    emitters.remove(emitter);
+                }
+            }
+        });
+    }
+
+    private void completeSubscribers(TranscriptionJob job) {
+        List<SseEmitter> emitters = subscribers.remove(job.getId());
+        if (emitters == null) {
+            return;
+        }
+        Map<String, Object> status = job.toStatusMap();
+        eventDispatcher.execute(() -> {
+            for (SseEmitter emitter : emitters) {
+                send(emitter, "done", status);
+                emitter.complete();
+            }
+        });
+    }
+
+    private boolean send(SseEmitter emitter, String eventName, Object data) {
+        try {
+            emitter.send(SseEmitter.event().name(eventName).data(data));
+            return true;
+        } catch (Exception e) {
+            // 客户端已断开
+            return false;
+        }
+    }
+
+    /**
+     * 清理超过保留时间的已结束任务
+     */
+    private void pruneFinishedJobs() {
+        LocalDateTime threshold = LocalDateTime.now().minusNanos(TimeUnit.MILLISECONDS.toNanos(retentionMillis));
+        jobs.values().removeIf(job -> job.isFinished()
+                && job.getFinishedAt() != null
+                && job.getFinishedAt().isBefore(threshold));
+        subscribers.keySet().removeIf(jobId -> !jobs.containsKey(jobId));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+        eventDispatcher.shutdownNow();
+    }
+
+    /**
+     * 任务的识别监听器：更新任务进度，并把识别事件转发给SSE订阅方
+     */
+    private class JobListener implements TranscriptionProgressListener {
+
+        private final TranscriptionJob job;
+        private final TranscriptSegmentCollector segments = new TranscriptSegmentCollector();
+        private volatile long lastProgressEventMillis = -PROGRESS_EVENT_INTERVAL_MILLIS;
+
+        JobListener(TranscriptionJob job) {
+            this.job = job;
+        }
+
+        @Override
+        public void onProgress(long processedMillis, long totalMillis) {
+            // 识别过程中总时长未知时保留提交时探测的时长
+            job.updateProgress(processedMillis, totalMillis > 0 ? totalMillis : job.getTotalMillis());
+            if (processedMillis - lastProgressEventMillis >= PROGRESS_EVENT_INTERVAL_MILLIS) {
+                lastProgressEventMillis = processedMillis;
+                publish(job.getId(), "progress", Map.of(
+                    "processedMillis", processedMillis,
+                    "totalMillis", totalMillis
+                ));
+            }
+        }
+
+        @Override
+        public boolean wantsPartials() {
+            return hasSubscribers(job.getId());
+        }
+
+        @Override
+        public void onPartial(String text, long offsetMillis) {
+            publish(job.getId(), "partial", Map.of(
+                "text", text,
+                "offsetMillis", offsetMillis
+            ));
+        }
+
+        @Override
+        public void onUtterance(String text, long startMillis, long endMillis, float confidence) {
+            segments.onUtterance(text, startMillis, endMillis, confidence);
+            publish(job.getId(), "utterance", Map.of(
+                "text", text,
+                "startMillis", startMillis,
+                "endMillis", endMillis
+            ));
+        }
+
+        @Override
+        public void onSilenceSkipped(long skippedMillis, long inputMillis) {
+            job.addSkippedMillis(skippedMillis);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.hrai.service;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 在读取请求体之前按Content-Length预留的工作目录配额
+ * 由上传准入过滤器在容器解析multipart之前创建，分配工作目录时转交给该目录；
+ * 请求结束时仍未转交（请求被拒绝或处理失败）则归还配额
+ */
+public class UploadReservation implements AutoCloseable {
+
+    /** 保存预留的请求属性名 */
+    public static final String ATTRIBUTE = UploadReservation.class.getName();
+
+    private final WorkspaceManager manager;
+    private final long bytes;
+    private final AtomicBoolean settled = new AtomicBoolean();
+
+    UploadReservation(WorkspaceManager manager, long bytes) {
+        this.manager = manager;
+        this.bytes = bytes;
+    }
+
+    public long getBytes() {
+        return bytes;
+    }
+
+    /**
+     * 把预留转交给工作目录，之后关闭预留不再归还配额
+     * @throws IllegalStateException 预留已转交或已归还
+     */
+    long claim() {
+        if (!settled.compareAndSet(false, true)) {
+            throw new IllegalStateException("上传配额预留已使用");
+        }
+        return bytes;
+    }
+
+    /**
+     * 未转交给工作目录时归还配额，可重复调用
+     */
+    @Override
+    public void close() {
+        if (settled.compareAndSet(false, true)) {
+            manager.releaseReservation(bytes);
+        }
+    }
+}
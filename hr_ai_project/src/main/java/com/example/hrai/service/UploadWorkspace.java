@@ -0,0 +1,240 @@
+package com.example.hrai.service;
+
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Stream;
+
+/**
+ * 上传文件的独占工作目录
+ * 每个请求或任务一个目录，上传内容只落盘一次（从请求体流式写入本目录，不经过容器临时文件），
+ * 处理结束后由持有者关闭并删除整个目录；由{@link WorkspaceManager}分配的目录关闭时归还配额，
+ * 未能立即删除的文件（如仍被解码器占用）交给管理器的定时清理重试
+ */
+public class UploadWorkspace implements AutoCloseable {
+
+    static final String DIRECTORY_PREFIX = "video_upload_";
+    private static final String DEFAULT_EXTENSION = ".tmp";
+    /** 非文件表单字段（如engine、model）的最大字节数 */
+    private static final int MAX_FIELD_BYTES = 64 * 1024;
+
+    private final Path directory;
+    private final WorkspaceManager manager;
+    private final AtomicLong reservedBytes;
+    private final long createdAt = System.currentTimeMillis();
+    private volatile boolean closed;
+    /** 持有本目录的异步任务是否仍在排队或运行，未交给任务时为null */
+    private volatile BooleanSupplier lease;
+
+    UploadWorkspace(Path directory, WorkspaceManager manager, long reservedBytes) {
+        this.directory = directory;
+        this.manager = manager;
+        this.reservedBytes = new AtomicLong(reservedBytes);
+    }
+
+    /**
+     * 在系统临时目录下创建不受配额管理的工作目录（脱离Spring容器使用时）
+     */
+    public static UploadWorkspace create() throws IOException {
+        return new UploadWorkspace(Files.createTempDirectory(DIRECTORY_PREFIX), null, 0);
+    }
+
+    /**
+     * 在指定根目录下创建名称唯一的工作目录
+     */
+    static Path createDirectory(Path root) throws IOException {
+        return Files.createTempDirectory(root, DIRECTORY_PREFIX);
+    }
+
+    /**
+     * 接收上传文件
+     * 使用MultipartFile.transferTo：容器已把上传内容写到磁盘时直接移动该文件，不再复制一遍
+     * @return 工作目录中的媒体文件路径（保留原始扩展名，供解码器识别格式）
+     */
+    public Path receive(MultipartFile file) throws IOException {
+        Path target = directory.resolve("upload" + extensionOf(file.getOriginalFilename()));
+        file.transferTo(target);
+        return target;
+    }
+
+    /**
+     * 从multipart/form-data请求体中流式接收上传文件
+     * 文件字段的内容直接写入本目录，同时计算SHA-256，不再经过容器临时文件，也不需要写入后重新读取计算指纹；
+     * 其他表单字段作为文本收集。请求中有多个同名文件字段时只保留第一个。
+     * 写入量超出已预留的配额时（如分块传输、没有Content-Length的上传）按步长追加预留，
+     * 配额不足时抛出WorkspaceQuotaExceededException，已写入的部分随目录关闭删除
+     * @param body 请求体（调用方不能已通过getParameter等方式让容器解析过请求体）
+     * @param contentType 请求的Content-Type
+     * @param fileField 文件字段名
+     */
+    public ReceivedUpload receive(InputStream body, String contentType, String fileField) throws IOException {
+        MultipartStreamReader reader = new MultipartStreamReader(body, contentType);
+        Map<String, String> fields = new LinkedHashMap<>();
+        Path target = null;
+        String originalFilename = null;
+        long size = 0;
+        String hash = null;
+
+        MultipartStreamReader.Part part;
+        while ((part = reader.nextPart()) != null) {
+            if (part.getFilename() == null) {
+                String value = reader.readText(MAX_FIELD_BYTES);
+                if (part.getName() != null) {
+                    fields.putIfAbsent(part.getName(), value);
+                }
+            } else if (target == null && fileField.equals(part.getName())) {
+                originalFilename = part.getFilename();
+                target = directory.resolve("upload" + extensionOf(originalFilename));
+                MessageDigest digest = newDigest();
+                try (OutputStream out = new DigestOutputStream(new QuotaOutputStream(Files.newOutputStream(target,
+                        StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)), digest)) {
+                    size = reader.readBody(out);
+                }
+                hash = HexFormat.of().formatHex(digest.digest());
+            } else {
+                reader.readBody(OutputStream.nullOutputStream());
+            }
+        }
+        return new ReceivedUpload(target, originalFilename, size, hash, fields);
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    long getReservedBytes() {
+        return reservedBytes.get();
+    }
+
+    long getCreatedAt() {
+        return createdAt;
+    }
+
+    boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * 把工作目录交给异步任务：ownerActive返回true（任务仍在排队或运行）期间，
+     * 管理器的定时清理不会因超过最长存活时间而回收本目录；任务结束后仍未关闭的目录视为无人持有
+     * @param ownerActive 持有者是否仍在使用本目录
+     */
+    public void leaseTo(BooleanSupplier ownerActive) {
+        this.lease = ownerActive;
+    }
+
+    /**
+     * 是否仍被排队或运行中的任务持有
+     */
+    boolean isLeased() {
+        BooleanSupplier owner = lease;
+        return owner != null && owner.getAsBoolean();
+    }
+
+    /**
+     * 删除工作目录及其中的文件，可重复调用
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        boolean deleted = deleteRecursively(directory);
+        if (manager != null) {
+            manager.release(this, deleted);
+        }
+    }
+
+    /**
+     * 删除目录及其中的文件
+     * @return 是否全部删除（目录不存在也视为已删除）
+     */
+    static boolean deleteRecursively(Path directory) {
+        if (!Files.exists(directory)) {
+            return true;
+        }
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder())
+                 .map(Path::toFile)
+                 .forEach(java.io.File::delete);
+        } catch (Exception e) {
+            System.err.println("删除临时文件失败: " + e.getMessage());
+        }
+        return !Files.exists(directory);
+    }
+
+    /**
+     * 获取文件扩展名（只取扩展名部分，不使用客户端提供的文件名作为路径）
+     */
+    static String extensionOf(String fileName) {
+        if (fileName == null) {
+            return DEFAULT_EXTENSION;
+        }
+        int lastIndexOfDot = fileName.lastIndexOf('.');
+        if (lastIndexOfDot > 0 && lastIndexOfDot < fileName.length() - 1) {
+            String extension = fileName.substring(lastIndexOfDot);
+            if (extension.matches("\\.[A-Za-z0-9]{1,10}")) {
+                return extension;
+            }
+        }
+        return DEFAULT_EXTENSION;
+    }
+
+    /**
+     * 写入前保证已预留的配额不少于已写入的字节数
+     */
+    private class QuotaOutputStream extends FilterOutputStream {
+
+        private long written;
+
+        QuotaOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            ensureReserved(written + 1);
+            out.write(b);
+            written++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            ensureReserved(written + len);
+            out.write(b, off, len);
+            written += len;
+        }
+
+        private void ensureReserved(long required) {
+            long reserved = reservedBytes.get();
+            if (manager == null || required <= reserved) {
+                return;
+            }
+            reservedBytes.addAndGet(manager.extend(required - reserved));
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.hrai.service;
+
+import com.example.hrai.entity.AIModelConfig;
+import com.example.hrai.entity.VideoToText;
+import com.example.hrai.service.impl.RequestTrace;
+import com.example.hrai.service.impl.TranscriptionMetrics;
+import org.springframework.stereotype.Service;
+
+import java.util.Optional;
+
+/**
+ * 视频内容摘要服务
+ * 使用默认大模型配置为转录文本生成HTML提纲摘要，并可写回对应的转录记录；
+ * 相同文本用同一配置和提示词生成过的摘要从缓存返回
+ */
+@Service
+public class VideoSummaryService {
+
+    /** 提示词模板的版本，修改PROMPT_PREFIX时必须同时修改，使旧摘要不再命中缓存 */
+    public static final String PROMPT_VERSION = "outline-html-v1";
+    private static final String PROMPT_PREFIX = "请根据以下视频内容生成一个提纲摘要，以HTML格式返回，要求包含主要内容和关键要点：\n\n";
+
+    private final AIModelConfigService aiModelConfigService;
+    private final VideoToTextService videoToTextService;
+    private final SummaryCacheService summaryCacheService;
+    private final TranscriptionMetrics metrics;
+
+    public VideoSummaryService(AIModelConfigService aiModelConfigService, VideoToTextService videoToTextService,
+                               SummaryCacheService summaryCacheService, TranscriptionMetrics metrics) {
+        this.aiModelConfigService = aiModelConfigService;
+        this.videoToTextService = videoToTextService;
+        this.summaryCacheService = summaryCacheService;
+        this.metrics = metrics;
+    }
+
+    /**
+     * 生成提纲摘要的提示词
+     */
+    public static String buildPrompt(String text) {
+        return PROMPT_PREFIX + text;
+    }
+
+    /**
+     * 是否已设置默认大模型配置
+     */
+    public boolean isAvailable() {
+        return aiModelConfigService.getDefaultConfig().isPresent();
+    }
+
+    /**
+     * 生成摘要
+     * @param recordId 转录记录ID，不为null时把摘要保存到该记录
+     * @throws IllegalStateException 未设置默认大模型配置
+     */
+    public String summarize(String text, Long recordId) {
+        Optional<AIModelConfig> defaultConfigOpt = aiModelConfigService.getDefaultConfig();
+        if (!defaultConfigOpt.isPresent()) {
+            throw new IllegalStateException("未设置默认大模型配置");
+        }
+
+        String summary = summarize(defaultConfigOpt.get(), text);
+
+        if (recordId != null) {
+            Optional<VideoToText> videoToTextOpt = videoToTextService.getVideoToTextById(recordId);
+            if (videoToTextOpt.isPresent()) {
+                VideoToText videoToText = videoToTextOpt.get();
+                videoToText.setSummary(summary);
+                long persistStart = System.nanoTime();
+                videoToTextService.saveVideoToText(videoToText);
+                metrics.recordStage(TranscriptionMetrics.PERSIST, System.nanoTime() - persistStart);
+            }
+        }
+        return summary;
+    }
+
+    /**
+     * 用指定的大模型配置生成摘要，先查缓存，未命中时调用大模型并缓存结果
+     */
+    public String summarize(AIModelConfig config, String text) {
+        SummaryCacheService.Key key = null;
+        if (summaryCacheService.isEnabled() && config.getId() != null && config.getModelName() != null) {
+            key = new SummaryCacheService.Key(config.getId(), config.getModelName(), PROMPT_VERSION,
+                    SummaryCacheService.hash(text));
+            Optional<String> cached;
+            try (RequestTrace.Scope ignored = RequestTrace.open("summary-cache")) {
+                cached = summaryCacheService.lookup(key);
+            }
+            if (cached.isPresent()) {
+                return cached.get();
+            }
+        }
+
+        long start = System.nanoTime();
+        String summary = aiModelConfigService.testModel(config, buildPrompt(text));
+        metrics.recordStage(TranscriptionMetrics.SUMMARIZE, System.nanoTime() - start);
+
+        if (key != null && !AIModelConfigService.MALFORMED_RESPONSE.equals(summary)) {
+            summaryCacheService.store(key, summary);
+        }
+        return summary;
+    }
+}
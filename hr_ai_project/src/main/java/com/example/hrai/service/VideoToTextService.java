@@ -14,6 +14,9 @@ public class VideoToTextService {
     @Autowired
     private VideoToTextRepository videoToTextRepository;
 
+    @Autowired
+    private TranscriptSegmentService transcriptSegmentService;
+
     public List<VideoToText> getAllVideoToTextRecords() {
         return videoToTextRepository.findAll();
     }
@@ -27,6 +30,7 @@ public class VideoToTextService {
     }
 
     public void deleteVideoToText(Long id) {
+        transcriptSegmentService.deleteSegments(id);
         videoToTextRepository.deleteById(id);
     }
 
@@ -0,0 +1,281 @@
+package com.example.hrai.service;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * 工作目录管理
+ * 在统一的根目录（可配置到tmpfs）下为每个请求或任务分配名称唯一的独占目录，
+ * 按声明的文件大小预留磁盘配额，配额不足时在准入等待时间内等待其他目录释放，仍不足则拒绝；
+ * 删除失败的目录、超过最长存活时间且无人持有的目录以及上次运行遗留的目录都由同一个定时任务回收；
+ * 交给排队或运行中任务的目录（{@link UploadWorkspace#leaseTo}）不论存活多久都不回收
+ */
+@Service
+public class WorkspaceManager {
+
+    /** 不属于任何已分配目录的子目录在该时间后视为遗留目录（避免与正在创建的目录竞争） */
+    private static final long ORPHAN_GRACE_MILLIS = TimeUnit.MINUTES.toMillis(10);
+    /** 工作目录写入量超出预留时追加预留的步长 */
+    private static final long EXTEND_STEP_BYTES = 64L * 1024 * 1024;
+
+    private final Path root;
+    private final long quotaBytes;
+    private final long admissionTimeoutMillis;
+    private final long maxAgeMillis;
+
+    private final Set<UploadWorkspace> live = ConcurrentHashMap.newKeySet();
+    /** 删除失败、等待重试的目录及其仍占用的配额 */
+    private final Map<Path, Long> pendingDeletion = new ConcurrentHashMap<>();
+    private long reservedBytes = 0;
+
+    private final AtomicLong allocated = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong reclaimed = new AtomicLong();
+    private volatile long measuredBytes = 0;
+
+    public WorkspaceManager(@Value("${hrai.workspace.root:}") String root,
+                            @Value("${hrai.workspace.quota-mb:10240}") long quotaMegabytes,
+                            @Value("${hrai.workspace.admission-timeout-ms:5000}") long admissionTimeoutMillis,
+                            @Value("${hrai.workspace.max-age-minutes:1440}") long maxAgeMinutes) {
+        this.root = (root == null || root.isBlank()
+                ? Path.of(System.getProperty("java.io.tmpdir"), "hrai-workspaces")
+                : Path.of(root)).toAbsolutePath().normalize();
+        this.quotaBytes = Math.max(0, quotaMegabytes) * 1024 * 1024;
+        this.admissionTimeoutMillis = Math.max(0, admissionTimeoutMillis);
+        this.maxAgeMillis = TimeUnit.MINUTES.toMillis(Math.max(1, maxAgeMinutes));
+    }
+
+    /**
+     * 创建根目录，并删除上次运行遗留的工作目录（启动时没有任何目录在使用中）
+     */
+    @PostConstruct
+    public void init() throws IOException {
+        Files.createDirectories(root);
+        int removed = 0;
+        for (Path directory : listDirectories()) {
+            if (UploadWorkspace.deleteRecursively(directory)) {
+                removed++;
+            }
+        }
+        if (removed > 0) {
+            System.out.println("清理遗留的工作目录: " + removed + " 个");
+        }
+    }
+
+    /**
+     * 分配工作目录
+     * @param expectedBytes 预计写入的字节数（通常为上传文件大小），按此预留配额
+     * @throws WorkspaceQuotaExceededException 准入等待时间内配额仍不足
+     */
+    public UploadWorkspace allocate(long expectedBytes) throws IOException {
+        return allocate(admit(expectedBytes));
+    }
+
+    /**
+     * 按预计写入的字节数预留配额，不创建目录；上传请求在读取请求体之前调用
+     * @throws WorkspaceQuotaExceededException 准入等待时间内配额仍不足
+     */
+    public UploadReservation admit(long expectedBytes) {
+        long bytes = Math.max(0, expectedBytes);
+        reserve(bytes);
+        return new UploadReservation(this, bytes);
+    }
+
+    /**
+     * 使用已预留的配额分配工作目录，目录关闭时归还该配额
+     */
+    public UploadWorkspace allocate(UploadReservation reservation) throws IOException {
+        long bytes = reservation.claim();
+        try {
+            UploadWorkspace workspace = new UploadWorkspace(UploadWorkspace.createDirectory(root), this, bytes);
+            live.add(workspace);
+            allocated.incrementAndGet();
+            return workspace;
+        } catch (IOException | RuntimeException e) {
+            unreserve(bytes);
+            throw e;
+        }
+    }
+
+    /**
+     * 为已分配的工作目录追加预留（写入量超出分配时的预留），与分配时一样在准入等待时间内等待；
+     * 按步长多预留一些，避免每个写入缓冲区都追加一次，步长不超过配额的1/16
+     * @param missingBytes 至少需要追加的字节数
+     * @return 实际追加的字节数
+     * @throws WorkspaceQuotaExceededException 准入等待时间内配额仍不足
+     */
+    long extend(long missingBytes) {
+        long step = quotaBytes > 0 ? Math.min(EXTEND_STEP_BYTES, quotaBytes / 16) : EXTEND_STEP_BYTES;
+        long bytes = Math.max(missingBytes, step);
+        reserve(bytes);
+        return bytes;
+    }
+
+    /**
+     * 归还未转交给工作目录的预留
+     */
+    void releaseReservation(long bytes) {
+        unreserve(bytes);
+    }
+
+    /**
+     * 工作目录关闭时调用：已删除的目录立即归还配额，删除失败的目录等定时任务删除后再归还
+     */
+    void release(UploadWorkspace workspace, boolean deleted) {
+        live.remove(workspace);
+        if (deleted) {
+            unreserve(workspace.getReservedBytes());
+        } else {
+            pendingDeletion.put(workspace.getDirectory(), workspace.getReservedBytes());
+        }
+    }
+
+    /**
+     * 定时回收：重试删除失败的目录，关闭超过最长存活时间且不再被任务持有的目录，删除不属于任何已分配目录的遗留目录
+     */
+    @Scheduled(fixedDelayString = "${hrai.workspace.cleanup-interval-ms:60000}")
+    public void cleanup() {
+        cleanup(System.currentTimeMillis());
+    }
+
+    /**
+     * 按指定的当前时间回收
+     */
+    void cleanup(long now) {
+        for (Map.Entry<Path, Long> entry : pendingDeletion.entrySet()) {
+            if (UploadWorkspace.deleteRecursively(entry.getKey()) && pendingDeletion.remove(entry.getKey(), entry.getValue())) {
+                unreserve(entry.getValue());
+                reclaimed.incrementAndGet();
+            }
+        }
+
+        for (UploadWorkspace workspace : live) {
+            // 仍在排队或运行的任务持有的目录不回收，长视频或长时间排队的任务可能超过最长存活时间
+            if (now - workspace.getCreatedAt() > maxAgeMillis && !workspace.isLeased()) {
+                System.err.println("工作目录超过最长存活时间且无人持有，强制回收: " + workspace.getDirectory());
+                workspace.close();
+                reclaimed.incrementAndGet();
+            }
+        }
+
+        long total = 0;
+        try {
+            for (Path directory : listDirectories()) {
+                if (isTracked(directory)) {
+                    total += sizeOf(directory);
+                } else if (now - Files.getLastModifiedTime(directory).toMillis() > ORPHAN_GRACE_MILLIS) {
+                    if (UploadWorkspace.deleteRecursively(directory)) {
+                        reclaimed.incrementAndGet();
+                    }
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("扫描工作目录失败: " + e.getMessage());
+        }
+        measuredBytes = total;
+    }
+
+    public Path getRoot() {
+        return root;
+    }
+
+    public synchronized long getReservedBytes() {
+        return reservedBytes;
+    }
+
+    public long getQuotaBytes() {
+        return quotaBytes;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("root", root.toString());
+        stats.put("quotaBytes", quotaBytes);
+        synchronized (this) {
+            stats.put("reservedBytes", reservedBytes);
+        }
+        stats.put("measuredBytes", measuredBytes);
+        stats.put("liveWorkspaces", live.size());
+        stats.put("pendingDeletion", pendingDeletion.size());
+        stats.put("allocated", allocated.get());
+        stats.put("rejected", rejected.get());
+        stats.put("reclaimed", reclaimed.get());
+        return stats;
+    }
+
+    private synchronized void reserve(long bytes) {
+        if (quotaBytes <= 0) {
+            reservedBytes += bytes;
+            return;
+        }
+        if (bytes > quotaBytes) {
+            rejected.incrementAndGet();
+            throw new WorkspaceQuotaExceededException("文件大小超出工作目录配额: " + bytes + " > " + quotaBytes);
+        }
+        long deadline = System.currentTimeMillis() + admissionTimeoutMillis;
+        while (reservedBytes + bytes > quotaBytes) {
+            long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0) {
+                rejected.incrementAndGet();
+                throw new WorkspaceQuotaExceededException("工作目录配额不足，已预留 " + reservedBytes
+                        + " 字节，需要 " + bytes + " 字节");
+            }
+            try {
+                wait(remaining);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                rejected.incrementAndGet();
+                throw new WorkspaceQuotaExceededException("等待工作目录配额时被中断");
+            }
+        }
+        reservedBytes += bytes;
+    }
+
+    private synchronized void unreserve(long bytes) {
+        reservedBytes = Math.max(0, reservedBytes - bytes);
+        notifyAll();
+    }
+
+    private boolean isTracked(Path directory) {
+        if (pendingDeletion.containsKey(directory)) {
+            return true;
+        }
+        for (UploadWorkspace workspace : live) {
+            if (workspace.getDirectory().equals(directory)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private List<Path> listDirectories() throws IOException {
+        try (Stream<Path> entries = Files.list(root)) {
+            // 只处理本类创建的目录，根目录可能与其他程序共用（如/dev/shm）
+            return entries.filter(Files::isDirectory)
+                    .filter(path -> path.getFileName().toString().startsWith(UploadWorkspace.DIRECTORY_PREFIX))
+                    .toList();
+        }
+    }
+
+    private static long sizeOf(Path directory) {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            return paths.filter(Files::isRegularFile).mapToLong(path -> path.toFile().length()).sum();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+}
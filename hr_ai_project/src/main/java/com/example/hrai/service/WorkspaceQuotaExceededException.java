@@ -0,0 +1,11 @@
+package com.example.hrai.service;
+
+/**
+ * 工作目录的磁盘配额不足，在准入等待时间内没有释放出足够空间
+ */
+public class WorkspaceQuotaExceededException extends RuntimeException {
+
+    public WorkspaceQuotaExceededException(String message) {
+        super(message);
+    }
+}
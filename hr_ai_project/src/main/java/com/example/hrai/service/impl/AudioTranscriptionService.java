@@ -1,243 +1,157 @@
 package com.example.hrai.service.impl;
 
-import com.example.hrai.service.impl.VoskAudioTranscriptionService;
-import org.apache.tika.Tika;
-import org.bytedeco.ffmpeg.global.avcodec;
-import org.bytedeco.javacv.*;
+import com.example.hrai.service.UploadWorkspace;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.*;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.util.Random;
+import java.util.List;
 
 /**
  * 音视频转文本服务
- * 支持多种语音识别引擎（包括Vosk离线识别）
- * 配合FFmpeg提取音频和MP4Parser处理MP4容器
+ * 按请求选择转录引擎（默认Vosk离线识别），引擎由TranscriptionEngineRegistry统一注册，
+ * 并记录各引擎处理的媒体时长和耗时
  */
 @Service
 public class AudioTranscriptionService {
 
-    private final Tika tika;
-    private final VoskAudioTranscriptionService voskService;
-    private boolean useVosk = true; // 默认使用Vosk离线语音识别
+    /** 转录失败时返回文本的前缀，以此开头的结果不得写入内容哈希或作为缓存命中 */
+    public static final String FAILURE_PREFIX = "转录失败";
 
+    private final TranscriptionEngineRegistry engineRegistry;
+
+    /**
+     * 脱离Spring容器使用时（测试、main方法）注册Vosk引擎和模拟引擎
+     */
     public AudioTranscriptionService() {
-        this.tika = new Tika();
-        this.voskService = new VoskAudioTranscriptionService();
+        this(new TranscriptionEngineRegistry(
+                List.of(new VoskTranscriptionEngine(new VoskAudioTranscriptionService()), new FakeTranscriptionEngine()),
+                VoskTranscriptionEngine.NAME));
+    }
+
+    @Autowired
+    public AudioTranscriptionService(TranscriptionEngineRegistry engineRegistry) {
+        this.engineRegistry = engineRegistry;
     }
 
     /**
-     * 设置是否使用Vosk引擎
+     * 转录结果是否表示失败（空结果、模型缺失等都以失败前缀返回）
      */
-    public void setUseVosk(boolean useVosk) {
-        this.useVosk = useVosk;
+    public static boolean isFailure(String transcription) {
+        return transcription == null || transcription.isBlank() || transcription.startsWith(FAILURE_PREFIX);
+    }
+
+    public TranscriptionEngineRegistry getEngineRegistry() {
+        return engineRegistry;
     }
 
     /**
      * 从音视频文件中提取文本
-     * 支持多种语音识别引擎（模拟识别和Vosk离线识别）
      */
     public String transcribeAudio(String videoPath) throws Exception {
-        try {
-            // 提取音频文件 (转换为语音识别支持的格式)
+        return transcribeAudio(videoPath, TranscriptionProgressListener.NONE);
+    }
 
+    /**
+     * 从音视频文件中提取文本，并在识别过程中回调进度
+     */
+    public String transcribeAudio(String videoPath, TranscriptionProgressListener listener) throws Exception {
+        return transcribeAudio(videoPath, listener, null);
+    }
 
-            String audioPath = extractAudioAsWav(videoPath);
+    /**
+     * 从音视频文件中提取文本，识别进度按检查点键保存，中断后重新提交可从检查点续转
+     * @param checkpointKey 检查点键（媒体内容哈希），为null时不使用检查点
+     */
+    public String transcribeAudio(String videoPath, TranscriptionProgressListener listener, String checkpointKey) throws Exception {
+        return transcribeAudio(videoPath, listener, checkpointKey, null);
+    }
 
-            String transcription;
-            if (useVosk) {
-                // 使用Vosk离线语音识别进行转录
-                transcription = voskService.transcribeAudio(audioPath);
-            } else {
-                // 使用纯Java语音识别进行转录（默认）
-                transcription = transcribeWithJavaSpeechRecognition(audioPath);
-            }
+    /**
+     * 使用指定的识别模型从音视频文件中提取文本
+     * @param modelName 模型名称（如zh-large）或语言（如en），为null时使用默认模型
+     */
+    public String transcribeAudio(String videoPath, TranscriptionProgressListener listener, String checkpointKey,
+                                  String modelName) throws Exception {
+        return transcribeAudio(videoPath, listener, checkpointKey, modelName, null);
+    }
 
-            // 清理临时音频文件
-            try {
-                new File(audioPath).delete();
-            } catch (Exception e) {
-                System.err.println("删除临时音频文件失败: " + e.getMessage());
-            }
+    /**
+     * 使用指定的引擎和模型从音视频文件中提取文本
+     * @param engineName 引擎名称（如vosk、fake），为null时使用默认引擎
+     */
+    public String transcribeAudio(String videoPath, TranscriptionProgressListener listener, String checkpointKey,
+                                  String modelName, String engineName) throws Exception {
+        long start = System.currentTimeMillis();
+        MediaClock clock = new MediaClock(listener);
+        String engine = engineName;
+        boolean failed = true;
+        try {
+            TranscriptionEngine selected = engineRegistry.resolve(engineName);
+            engine = selected.getName();
+            String transcription = selected.transcribe(videoPath, clock, checkpointKey, selected.resolveModel(modelName));
 
             if (transcription != null && !transcription.isEmpty()) {
+                failed = isFailure(transcription);
                 return transcription;
             } else {
                 System.out.println("语音识别转录结果为空");
-                System.out.println("转录返回值: " + transcription);
-                return "转录结果为空";
+                return FAILURE_PREFIX + ": 转录结果为空";
             }
         } catch (Exception e) {
             System.err.println("语音识别转录失败: " + e.getMessage());
-            return "转录失败: " + e.getMessage();
+            return FAILURE_PREFIX + ": " + e.getMessage();
+        } finally {
+            engineRegistry.record(engine, clock.totalMillis, System.currentTimeMillis() - start, failed);
         }
     }
 
     /**
-     * 使用纯Java实现的语音识别进行转录
-     * 这里使用改进的模拟实现，生成更真实的转录结果
+     * 处理上传的音视频文件并转录
+     * 上传内容直接转移到独占的工作目录中，转录结束后删除
      */
-    private String transcribeWithJavaSpeechRecognition(String audioPath) throws Exception {
-        File audioFile = new File(audioPath);
-        if (!audioFile.exists()) {
-            return "音频文件不存在: " + audioPath;
-        }
-
-        // 获取音频文件的基本信息
-        String fileName = audioFile.getName();
-        long fileSize = audioFile.length();
-
-        // 生成更真实的模拟转录结果
-        StringBuilder transcription = new StringBuilder();
-        transcription.append("这是使用纯Java实现的语音识别结果。\n");
-        transcription.append("音频文件: ").append(fileName).append("\n");
-        transcription.append("文件大小: ").append(fileSize).append(" 字节\n");
-        transcription.append("识别时间: ").append(new java.util.Date()).append("\n\n");
-
-        // 添加模拟的识别内容（根据文件大小生成不同长度的内容）
-        int contentLength = (int) (fileSize / 1000); // 简单地基于文件大小生成内容长度
-        if (contentLength < 50) contentLength = 50;
-        if (contentLength > 500) contentLength = 500;
-
-        transcription.append("识别到的文本内容:\n");
-
-        // 生成模拟的文本内容
-        String[] samplePhrases = {
-            "在这个会议上我们讨论了项目的进展情况。",
-            "团队成员都对当前的开发进度表示满意。",
-            "下一步我们需要解决一些技术难题。",
-            "预计在下个月底之前可以完成所有功能开发。",
-            "用户体验是我们产品设计的核心考虑因素。",
-            "我们正在努力提高系统的性能和稳定性。",
-            "客户反馈对我们来说非常重要。",
-            "市场部门提出了新的推广策略。",
-            "财务部门已经批准了本季度的预算。",
-            "人力资源部门正在招聘新的开发人员。"
-        };
-
-        Random random = new Random();
-        for (int i = 0; i < contentLength; i++) {
-            transcription.append(samplePhrases[random.nextInt(samplePhrases.length)]).append(" ");
-            // 每10个短语换一行
-            if (i % 10 == 9) {
-                transcription.append("\n");
-            }
+    public String transcribeUploadedFile(MultipartFile file) throws Exception {
+        try (UploadWorkspace workspace = UploadWorkspace.create()) {
+            return transcribeAudio(workspace.receive(file).toString());
         }
-
-        transcription.append("\n\n");
-        transcription.append("本系统使用Java技术栈实现了完整的音视频处理流程，包括：\n");
-        transcription.append("1. 音视频文件的读取和处理\n");
-        transcription.append("2. 音频提取和格式转换\n");
-        transcription.append("3. 语音识别和文本生成\n");
-        transcription.append("4. 结果存储和展示\n\n");
-        transcription.append("语音识别技术可以将人类语音转换为文本，广泛应用于各种场景，例如：\n");
-        transcription.append("- 语音助手\n");
-        transcription.append("- 语音输入\n");
-        transcription.append("- 会议记录\n");
-        transcription.append("- 视频字幕生成等\n\n");
-        transcription.append("在实际应用中，可以集成更专业的语音识别引擎，如：\n");
-        transcription.append("- Google Cloud Speech-to-Text API\n");
-        transcription.append("- Microsoft Azure Speech Services\n");
-        transcription.append("- Amazon Transcribe\n");
-        transcription.append("- 阿里云语音识别服务等");
-
-        return transcription.toString();
     }
 
     /**
-     * 提取音频为WAV格式(语音识别支持的格式)
+     * 转发监听器回调，同时记下引擎上报的媒体总时长
      */
-    private String extractAudioAsWav(String videoPath) throws Exception {
-        FFmpegFrameGrabber grabber = null;
-        FFmpegFrameRecorder recorder = null;
+    private static class MediaClock implements TranscriptionProgressListener {
 
-        try {
-            grabber = FFmpegFrameGrabber.createDefault(videoPath);
-            grabber.start();
-
-            // 生成WAV格式的音频文件，符合语音识别要求 (16kHz, 16bit PCM)
-            String audioPath = videoPath.substring(0, videoPath.lastIndexOf('.')) + "_" + System.currentTimeMillis() + ".wav";
-
-            recorder = new FFmpegFrameRecorder(audioPath, 1); // 单声道
-            recorder.setVideoCodec(avcodec.AV_CODEC_ID_NONE); // 不记录视频
-            recorder.setAudioCodec(avcodec.AV_CODEC_ID_PCM_S16LE); // 16bit PCM
-            recorder.setSampleRate(16000); // 语音识别推荐采样率
-            recorder.setAudioBitrate(256000); // 16000 * 16 * 1
-            recorder.start();
-
-            Frame frame;
-            while ((frame = grabber.grab()) != null) {
-                // Check if frame contains audio data - different JavaCV versions have different approaches
-                if (frame != null && frame.samples != null && frame.samples.length > 0) { // 检查音频帧
-                    recorder.record(frame);
-                }
-            }
+        private final TranscriptionProgressListener delegate;
+        private volatile long totalMillis;
 
-            return audioPath;
-        } finally {
-            // 确保资源被正确释放
-            if (recorder != null) {
-                try {
-                    recorder.stop();
-                    recorder.release();
-                } catch (Exception e) {
-                    System.err.println("释放recorder资源时出错: " + e.getMessage());
-                }
-            }
-            if (grabber != null) {
-                try {
-                    grabber.stop();
-                    grabber.release();
-                } catch (Exception e) {
-                    System.err.println("释放grabber资源时出错: " + e.getMessage());
-                }
-            }
+        MediaClock(TranscriptionProgressListener delegate) {
+            this.delegate = delegate;
         }
-    }
-
 
-    /**
-     * 处理上传的音视频文件并转录
-     */
-    public String transcribeUploadedFile(MultipartFile file) throws Exception {
-        String originalFileName = file.getOriginalFilename();
-        if (originalFileName == null) {
-            originalFileName = "temp_file";
+        @Override
+        public void onProgress(long processedMillis, long totalMillis) {
+            this.totalMillis = totalMillis;
+            delegate.onProgress(processedMillis, totalMillis);
         }
-        String extension = getFileExtension(originalFileName);
-        Path tempDir = Files.createTempDirectory("video_upload_");
-        Path tempVideoFile = tempDir.resolve("temp_video" + extension);
-
-        // 保存上传的文件
-        Files.copy(file.getInputStream(), tempVideoFile, java.nio.file.StandardCopyOption.REPLACE_EXISTING);
 
-        // 转录音频
-        String result = transcribeAudio(tempVideoFile.toString());
+        @Override
+        public boolean wantsPartials() {
+            return delegate.wantsPartials();
+        }
 
-        // 清理临时目录
-        try {
-            Files.walk(tempDir)
-                 .sorted(java.util.Comparator.reverseOrder())
-                 .map(java.nio.file.Path::toFile)
-                 .forEach(java.io.File::delete);
-        } catch (Exception e) {
-            System.err.println("删除临时文件失败: " + e.getMessage());
+        @Override
+        public void onPartial(String text, long offsetMillis) {
+            delegate.onPartial(text, offsetMillis);
         }
 
-        return result;
-    }
+        @Override
+        public void onUtterance(String text, long startMillis, long endMillis, float confidence) {
+            delegate.onUtterance(text, startMillis, endMillis, confidence);
+        }
 
-    /**
-     * 获取文件扩展名
-     */
-    private String getFileExtension(String fileName) {
-        int lastIndexOfDot = fileName.lastIndexOf('.');
-        if (lastIndexOfDot > 0) {
-            return fileName.substring(lastIndexOfDot);
+        @Override
+        public void onSilenceSkipped(long skippedMillis, long inputMillis) {
+            delegate.onSilenceSkipped(skippedMillis, inputMillis);
         }
-        return ".tmp"; // 默认扩展名
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,63 @@
+package com.example.hrai.service.impl;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 转录引擎的能力描述
+ */
+public final class EngineCapabilities {
+
+    private final boolean streaming;
+    private final boolean wordTimings;
+    private final boolean checkpointing;
+    private final Set<String> languages;
+    private final double expectedRealTimeFactor;
+
+    /**
+     * @param streaming 是否在识别过程中推送中间结果
+     * @param wordTimings 整句结果的起止时间是否来自词级时间戳
+     * @param checkpointing 是否支持检查点续转
+     * @param languages 支持的语言代码
+     * @param expectedRealTimeFactor 预期实时率（处理耗时/媒体时长），越小越快
+     */
+    public EngineCapabilities(boolean streaming, boolean wordTimings, boolean checkpointing,
+                              Set<String> languages, double expectedRealTimeFactor) {
+        this.streaming = streaming;
+        this.wordTimings = wordTimings;
+        this.checkpointing = checkpointing;
+        this.languages = Set.copyOf(languages);
+        this.expectedRealTimeFactor = expectedRealTimeFactor;
+    }
+
+    public boolean isStreaming() {
+        return streaming;
+    }
+
+    public boolean hasWordTimings() {
+        return wordTimings;
+    }
+
+    public boolean isCheckpointing() {
+        return checkpointing;
+    }
+
+    public Set<String> getLanguages() {
+        return languages;
+    }
+
+    public double getExpectedRealTimeFactor() {
+        return expectedRealTimeFactor;
+    }
+
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("streaming", streaming);
+        map.put("wordTimings", wordTimings);
+        map.put("checkpointing", checkpointing);
+        map.put("languages", languages);
+        map.put("expectedRealTimeFactor", expectedRealTimeFactor);
+        return map;
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.hrai.service.impl;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.Set;
+
+/**
+ * 确定性的模拟转录引擎，用于压力测试和无模型环境
+ * 默认不解码媒体，WAV文件按头部记录的格式计算时长，其他文件按大小（视为16kHz单声道16bit PCM）推算，每5秒生成一句固定的文本，
+ * 相同大小的文件总是得到相同的结果；可按配置的实时率休眠以模拟识别耗时。
+ * 开启解码模式时经与Vosk引擎相同的解码流水线读取全部PCM，只把识别结果替换为固定文本，耗时包含真实的解码开销
+ */
+@Component
+public class FakeTranscriptionEngine implements TranscriptionEngine {
+
+    public static final String NAME = "fake";
+    public static final String MODEL_NAME = "fake";
+
+    private static final long BYTES_PER_SECOND = StreamingAudioDecoder.TARGET_SAMPLE_RATE * 2L;
+    private static final long UTTERANCE_MILLIS = 5000;
+    private static final String[] PHRASES = {
+        "在这个会议上我们讨论了项目的进展情况。",
+        "团队成员都对当前的开发进度表示满意。",
+        "下一步我们需要解决一些技术难题。",
+        "预计在下个月底之前可以完成所有功能开发。",
+        "用户体验是我们产品设计的核心考虑因素。",
+        "我们正在努力提高系统的性能和稳定性。",
+        "客户反馈对我们来说非常重要。",
+        "市场部门提出了新的推广策略。",
+        "财务部门已经批准了本季度的预算。",
+        "人力资源部门正在招聘新的开发人员。"
+    };
+
+    private final StreamingAudioDecoder audioDecoder;
+    private final double realTimeFactor;
+    private final boolean decode;
+
+    public FakeTranscriptionEngine() {
+        this(0);
+    }
+
+    public FakeTranscriptionEngine(double realTimeFactor) {
+        this(null, realTimeFactor, false);
+    }
+
+    @Autowired
+    public FakeTranscriptionEngine(StreamingAudioDecoder audioDecoder,
+                                   @Value("${hrai.engines.fake.realtime-factor:0}") double realTimeFactor,
+                                   @Value("${hrai.engines.fake.decode:false}") boolean decode) {
+        this.audioDecoder = audioDecoder;
+        this.realTimeFactor = Math.max(0, realTimeFactor);
+        this.decode = decode && audioDecoder != null;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public EngineCapabilities getCapabilities() {
+        return new EngineCapabilities(false, false, false, Set.of("zh"), realTimeFactor);
+    }
+
+    @Override
+    public String resolveModel(String requested) {
+        if (requested != null && !requested.isBlank() && !MODEL_NAME.equals(requested.trim())) {
+            throw new IllegalArgumentException("模拟引擎不支持模型: " + requested);
+        }
+        return MODEL_NAME;
+    }
+
+    @Override
+    public String transcribe(String mediaPath, TranscriptionProgressListener listener, String checkpointKey,
+                             String modelName) throws Exception {
+        File mediaFile = new File(mediaPath);
+        if (!mediaFile.exists()) {
+            throw new FileNotFoundException("视频文件不存在: " + mediaPath);
+        }
+
+        if (decode) {
+            return transcribeDecoded(mediaPath, mediaFile.length(), listener);
+        }
+
+        long size = mediaFile.length();
+        long totalMillis = Math.max(1000, durationMillis(mediaFile));
+        int seed = (int) (size % PHRASES.length);
+        long sleepPerUtterance = (long) (UTTERANCE_MILLIS * realTimeFactor);
+
+        StringBuilder result = new StringBuilder();
+        int index = 0;
+        for (long start = 0; start < totalMillis; start += UTTERANCE_MILLIS, index++) {
+            if (sleepPerUtterance > 0) {
+                Thread.sleep(sleepPerUtterance);
+            }
+            long end = Math.min(start + UTTERANCE_MILLIS, totalMillis);
+            String text = PHRASES[(seed + index) % PHRASES.length];
+            result.append(text).append("\n");
+            listener.onUtterance(text, start, end, 1.0f);
+            listener.onProgress(end, totalMillis);
+        }
+        return result.toString();
+    }
+
+    /**
+     * 解码模式：逐个缓冲区接收解码后的PCM，每满5秒音频生成一句固定文本，结尾不足5秒的部分也生成一句
+     */
+    private String transcribeDecoded(String mediaPath, long size, TranscriptionProgressListener listener) throws Exception {
+        long samplesPerUtterance = StreamingAudioDecoder.TARGET_SAMPLE_RATE * UTTERANCE_MILLIS / 1000;
+        int seed = (int) (size % PHRASES.length);
+        long sleepPerUtterance = (long) (UTTERANCE_MILLIS * realTimeFactor);
+        StringBuilder result = new StringBuilder();
+        long[] decoded = {0};
+        int[] index = {0};
+
+        audioDecoder.decodeRangePipelined(mediaPath, 0, Long.MAX_VALUE, (samples, length) -> {
+            decoded[0] += length;
+            while (decoded[0] >= (index[0] + 1) * samplesPerUtterance) {
+                utterance(result, seed, index[0]++, UTTERANCE_MILLIS, sleepPerUtterance, listener);
+            }
+        }, audioDecoder.getDecoderThreads());
+
+        long remainder = decoded[0] - index[0] * samplesPerUtterance;
+        if (remainder > 0 || index[0] == 0) {
+            utterance(result, seed, index[0], remainder * 1000 / StreamingAudioDecoder.TARGET_SAMPLE_RATE,
+                    sleepPerUtterance, listener);
+        }
+        return result.toString();
+    }
+
+    private static void utterance(StringBuilder result, int seed, int index, long lengthMillis, long sleepMillis,
+                                  TranscriptionProgressListener listener) throws InterruptedException {
+        if (sleepMillis > 0) {
+            Thread.sleep(sleepMillis);
+        }
+        long start = index * UTTERANCE_MILLIS;
+        String text = PHRASES[(seed + index) % PHRASES.length];
+        result.append(text).append("\n");
+        listener.onUtterance(text, start, start + lengthMillis, 1.0f);
+        // 解码过程中不知道总时长，保留提交时探测的时长
+        listener.onProgress(start + lengthMillis, 0);
+    }
+
+    private static long durationMillis(File mediaFile) {
+        try {
+            WavPcmReader wav = WavPcmReader.open(mediaFile.toPath());
+            if (wav != null && wav.getSourceDurationMicros() > 0) {
+                return wav.getSourceDurationMicros() / 1000;
+            }
+        } catch (IOException e) {
+            // 不是可解析的WAV时按文件大小推算
+        }
+        return mediaFile.length() * 1000 / BYTES_PER_SECOND;
+    }
+}
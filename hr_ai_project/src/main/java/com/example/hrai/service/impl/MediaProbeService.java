@@ -0,0 +1,460 @@
+package com.example.hrai.service.impl;
+
+import com.example.hrai.service.FileFingerprintService;
+import org.bytedeco.javacv.FFmpegFrameGrabber;
+import org.mp4parser.IsoFile;
+import org.mp4parser.boxes.iso14496.part12.HandlerBox;
+import org.mp4parser.boxes.iso14496.part12.MediaBox;
+import org.mp4parser.boxes.iso14496.part12.MediaHeaderBox;
+import org.mp4parser.boxes.iso14496.part12.MovieBox;
+import org.mp4parser.boxes.iso14496.part12.MovieHeaderBox;
+import org.mp4parser.boxes.iso14496.part12.SampleDescriptionBox;
+import org.mp4parser.boxes.iso14496.part12.TrackBox;
+import org.mp4parser.boxes.sampleentry.AudioSampleEntry;
+import org.mp4parser.boxes.sampleentry.VisualSampleEntry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 媒体头信息探测
+ * 只读取容器头部：WAV解析RIFF头，MP4/MOV按顶层box头跳过mdat，只把moov读入内存交给mp4parser解析mvhd/tkhd/mdhd/stsd；
+ * 其他格式（或MP4头中没有时长，如分片MP4）再由FFmpeg探测格式；结果按文件指纹缓存
+ */
+@Service
+public class MediaProbeService {
+
+    /** moov box的最大读取大小，超出时视为异常文件交给FFmpeg */
+    private static final long MAX_MOOV_BYTES = 64L * 1024 * 1024;
+    /** ISO BMFF文件开头可能出现的顶层box类型，第一个box不在其中时不按MP4解析 */
+    private static final Set<String> TOP_LEVEL_BOX_TYPES = Set.of(
+            "ftyp", "moov", "mdat", "free", "skip", "wide", "uuid", "moof", "mfra", "pdin", "styp", "sidx");
+
+    private final Map<String, MediaInfo> probed;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final NativeResourceTracker resourceTracker;
+    private final TranscriptionMetrics metrics;
+
+    public MediaProbeService() {
+        this(1000, new NativeResourceTracker(), new TranscriptionMetrics());
+    }
+
+    @Autowired
+    public MediaProbeService(@Value("${hrai.media.probe.cache-entries:1000}") int maxEntries,
+                             NativeResourceTracker resourceTracker,
+                             TranscriptionMetrics metrics) {
+        this.resourceTracker = resourceTracker;
+        this.metrics = metrics;
+        int limit = Math.max(1, maxEntries);
+        this.probed = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, MediaInfo> eldest) {
+                return size() > limit;
+            }
+        };
+    }
+
+    /**
+     * 探测本地文件，按（路径、大小、修改时间）缓存，不计算内容哈希
+     */
+    public MediaInfo probe(Path file) throws IOException {
+        return probe(file, null);
+    }
+
+    /**
+     * 探测本地文件
+     * @param fingerprint 已计算的文件指纹，不为null时按内容哈希缓存，同一内容的不同副本只探测一次
+     */
+    public MediaInfo probe(Path file, FileFingerprintService.FileFingerprint fingerprint) throws IOException {
+        Path absolute = file.toAbsolutePath().normalize();
+        String key = fingerprint != null
+                ? fingerprint.getHash()
+                : absolute + "|" + Files.size(absolute) + "|" + Files.getLastModifiedTime(absolute).toMillis();
+
+        synchronized (probed) {
+            MediaInfo known = probed.get(key);
+            if (known != null) {
+                hits.incrementAndGet();
+                return known;
+            }
+        }
+        misses.incrementAndGet();
+
+        long start = System.nanoTime();
+        MediaInfo info = probeWav(absolute);
+        if (info == null) {
+            info = probeMp4(absolute);
+        }
+        if (info == null || info.getDurationMillis() <= 0) {
+            MediaInfo fallback = probeWithFfmpeg(absolute);
+            if (fallback != null) {
+                info = fallback;
+            }
+        }
+        if (info == null) {
+            info = new MediaInfo("unknown", 0, List.of());
+        }
+        metrics.recordStage(TranscriptionMetrics.PROBE, System.nanoTime() - start);
+
+        synchronized (probed) {
+            probed.put(key, info);
+        }
+        return info;
+    }
+
+    /**
+     * 探测媒体时长（毫秒），无法探测时返回0，不抛出异常
+     */
+    public long probeDurationMillis(String mediaPath) {
+        try {
+            return probe(Path.of(mediaPath)).getDurationMillis();
+        } catch (Exception e) {
+            System.err.println("媒体探测失败: " + mediaPath + " - " + e.getMessage());
+            return 0;
+        }
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        synchronized (probed) {
+            stats.put("cachedEntries", probed.size());
+        }
+        stats.put("hits", hits.get());
+        stats.put("misses", misses.get());
+        return stats;
+    }
+
+    private MediaInfo probeWav(Path path) throws IOException {
+        WavPcmReader wav = WavPcmReader.open(path);
+        if (wav == null) {
+            return null;
+        }
+        String codec = wav.getFormatTag() == 1
+                ? "pcm_s" + wav.getBitsPerSample() + "le"
+                : String.format("wav_0x%04x", wav.getFormatTag());
+        long durationMillis = wav.getSourceDurationMicros() / 1000;
+        TrackInfo track = new TrackInfo(TrackInfo.AUDIO, codec, durationMillis, wav.getSampleRate(), wav.getChannels(), 0, 0);
+        return new MediaInfo("wav", durationMillis, List.of(track));
+    }
+
+    /**
+     * 逐个读取顶层box头，只把moov的内容读入内存解析
+     * @return 不是ISO BMFF文件或没有moov时返回null
+     */
+    private MediaInfo probeMp4(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            long position = 0;
+            boolean first = true;
+            while (position + 8 <= fileSize) {
+                ByteBuffer header = readAt(channel, position, 16);
+                long size = Integer.toUnsignedLong(header.getInt(0));
+                String type = new String(new byte[]{header.get(4), header.get(5), header.get(6), header.get(7)},
+                        StandardCharsets.US_ASCII);
+                if (first && !TOP_LEVEL_BOX_TYPES.contains(type)) {
+                    return null;
+                }
+                first = false;
+
+                int headerSize = 8;
+                if (size == 1) {
+                    // 64位box大小
+                    if (header.limit() < 16) {
+                        return null;
+                    }
+                    size = header.getLong(8);
+                    headerSize = 16;
+                } else if (size == 0) {
+                    // 延伸到文件末尾
+                    size = fileSize - position;
+                }
+                if (size < headerSize) {
+                    return null;
+                }
+
+                if ("moov".equals(type)) {
+                    if (size > MAX_MOOV_BYTES) {
+                        return null;
+                    }
+                    ByteBuffer moov = ByteBuffer.allocate((int) size);
+                    while (moov.hasRemaining()) {
+                        if (channel.read(moov, position + moov.position()) < 0) {
+                            return null;
+                        }
+                    }
+                    return parseMoov(moov.array());
+                }
+                position += size;
+            }
+            return null;
+        }
+    }
+
+    private MediaInfo parseMoov(byte[] moovBytes) throws IOException {
+        try (IsoFile isoFile = new IsoFile(Channels.newChannel(new ByteArrayInputStream(moovBytes)))) {
+            MovieBox moov = isoFile.getMovieBox();
+            if (moov == null) {
+                return null;
+            }
+            long durationMillis = 0;
+            MovieHeaderBox mvhd = moov.getMovieHeaderBox();
+            if (mvhd != null && mvhd.getTimescale() > 0) {
+                durationMillis = mvhd.getDuration() * 1000 / mvhd.getTimescale();
+            }
+
+            List<TrackInfo> tracks = new ArrayList<>();
+            for (TrackBox trak : moov.getBoxes(TrackBox.class)) {
+                TrackInfo track = parseTrack(trak);
+                if (track != null) {
+                    tracks.add(track);
+                    durationMillis = Math.max(durationMillis, track.getDurationMillis());
+                }
+            }
+            return new MediaInfo("mp4", durationMillis, tracks);
+        }
+    }
+
+    private TrackInfo parseTrack(TrackBox trak) {
+        MediaBox mdia = trak.getMediaBox();
+        if (mdia == null) {
+            return null;
+        }
+        long durationMillis = 0;
+        MediaHeaderBox mdhd = mdia.getMediaHeaderBox();
+        if (mdhd != null && mdhd.getTimescale() > 0) {
+            durationMillis = mdhd.getDuration() * 1000 / mdhd.getTimescale();
+        }
+        HandlerBox hdlr = mdia.getHandlerBox();
+        String handler = hdlr != null ? hdlr.getHandlerType() : "";
+
+        SampleDescriptionBox stsd = null;
+        if (mdia.getMediaInformationBox() != null && mdia.getMediaInformationBox().getSampleTableBox() != null) {
+            stsd = mdia.getMediaInformationBox().getSampleTableBox().getSampleDescriptionBox();
+        }
+
+        if ("soun".equals(handler)) {
+            if (stsd != null) {
+                for (AudioSampleEntry entry : stsd.getBoxes(AudioSampleEntry.class)) {
+                    return new TrackInfo(TrackInfo.AUDIO, entry.getType(), durationMillis, (int) entry.getSampleRate(),
+                            entry.getChannelCount(), 0, 0);
+                }
+            }
+            return new TrackInfo(TrackInfo.AUDIO, null, durationMillis, 0, 0, 0, 0);
+        }
+        if ("vide".equals(handler)) {
+            if (stsd != null) {
+                for (VisualSampleEntry entry : stsd.getBoxes(VisualSampleEntry.class)) {
+                    return new TrackInfo(TrackInfo.VIDEO, entry.getType(), durationMillis, 0, 0,
+                            entry.getWidth(), entry.getHeight());
+                }
+            }
+            return new TrackInfo(TrackInfo.VIDEO, null, durationMillis, 0, 0, 0, 0);
+        }
+        return new TrackInfo(handler, null, durationMillis, 0, 0, 0, 0);
+    }
+
+    /**
+     * 由FFmpeg打开容器读取流信息
+     */
+    private MediaInfo probeWithFfmpeg(Path path) {
+        FFmpegFrameGrabber grabber = null;
+        try {
+            grabber = new FFmpegFrameGrabber(path.toString());
+            resourceTracker.track(grabber, NativeResourceTracker.FFMPEG_GRABBER, path.toString());
+            grabber.start();
+            long durationMillis = Math.max(grabber.getLengthInTime(), 0) / 1000;
+            List<TrackInfo> tracks = new ArrayList<>();
+            if (grabber.getAudioChannels() > 0) {
+                tracks.add(new TrackInfo(TrackInfo.AUDIO, grabber.getAudioCodecName(), durationMillis,
+                        grabber.getSampleRate(), grabber.getAudioChannels(), 0, 0));
+            }
+            if (grabber.getImageWidth() > 0) {
+                tracks.add(new TrackInfo(TrackInfo.VIDEO, grabber.getVideoCodecName(), durationMillis, 0, 0,
+                        grabber.getImageWidth(), grabber.getImageHeight()));
+            }
+            return new MediaInfo(grabber.getFormat(), durationMillis, tracks);
+        } catch (Exception e) {
+            System.err.println("FFmpeg探测媒体失败: " + path + " - " + e.getMessage());
+            return null;
+        } finally {
+            if (grabber != null) {
+                try {
+                    grabber.stop();
+                    grabber.release();
+                } catch (Exception e) {
+                    System.err.println("释放grabber资源时出错: " + e.getMessage());
+                } finally {
+                    resourceTracker.release(grabber);
+                }
+            }
+        }
+    }
+
+    private static ByteBuffer readAt(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                break;
+            }
+        }
+        return buffer.flip();
+    }
+
+    /**
+     * 媒体头信息
+     */
+    public static class MediaInfo {
+
+        private final String format;
+        private final long durationMillis;
+        private final List<TrackInfo> tracks;
+
+        public MediaInfo(String format, long durationMillis, List<TrackInfo> tracks) {
+            this.format = format;
+            this.durationMillis = durationMillis;
+            this.tracks = Collections.unmodifiableList(new ArrayList<>(tracks));
+        }
+
+        public String getFormat() {
+            return format;
+        }
+
+        public long getDurationMillis() {
+            return durationMillis;
+        }
+
+        /**
+         * 时长（秒，四舍五入），未知时返回null
+         */
+        public Long getDurationSeconds() {
+            return durationMillis > 0 ? (durationMillis + 500) / 1000 : null;
+        }
+
+        public List<TrackInfo> getTracks() {
+            return tracks;
+        }
+
+        /**
+         * 第一条音轨，没有音轨时返回null
+         */
+        public TrackInfo getAudioTrack() {
+            return tracks.stream().filter(t -> TrackInfo.AUDIO.equals(t.getType())).findFirst().orElse(null);
+        }
+
+        /**
+         * 第一条视频轨，没有视频轨时返回null
+         */
+        public TrackInfo getVideoTrack() {
+            return tracks.stream().filter(t -> TrackInfo.VIDEO.equals(t.getType())).findFirst().orElse(null);
+        }
+
+        public Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("format", format);
+            map.put("durationMillis", durationMillis);
+            List<Map<String, Object>> trackMaps = new ArrayList<>();
+            for (TrackInfo track : tracks) {
+                trackMaps.add(track.toMap());
+            }
+            map.put("tracks", trackMaps);
+            return map;
+        }
+    }
+
+    /**
+     * 轨道信息，音轨的宽高和视频轨的采样率、声道数为0
+     */
+    public static class TrackInfo {
+
+        public static final String AUDIO = "audio";
+        public static final String VIDEO = "video";
+
+        private final String type;
+        private final String codec;
+        private final long durationMillis;
+        private final int sampleRate;
+        private final int channels;
+        private final int width;
+        private final int height;
+
+        public TrackInfo(String type, String codec, long durationMillis, int sampleRate, int channels,
+                         int width, int height) {
+            this.type = type;
+            this.codec = codec;
+            this.durationMillis = durationMillis;
+            this.sampleRate = sampleRate;
+            this.channels = channels;
+            this.width = width;
+            this.height = height;
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        public String getCodec() {
+            return codec;
+        }
+
+        public long getDurationMillis() {
+            return durationMillis;
+        }
+
+        public int getSampleRate() {
+            return sampleRate;
+        }
+
+        public int getChannels() {
+            return channels;
+        }
+
+        public int getWidth() {
+            return width;
+        }
+
+        public int getHeight() {
+            return height;
+        }
+
+        public Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("type", type);
+            map.put("codec", codec);
+            map.put("durationMillis", durationMillis);
+            if (AUDIO.equals(type)) {
+                map.put("sampleRate", sampleRate);
+                map.put("channels", channels);
+            } else if (VIDEO.equals(type)) {
+                map.put("width", width);
+                map.put("height", height);
+            }
+            return map;
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.example.hrai.service.impl;
+
+import org.bytedeco.javacpp.Pointer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 本地内存统计
+ * 服务的大部分内存在堆外：FFmpeg帧和上下文由JavaCPP分配，Vosk模型和识别器由Kaldi通过JNA分配，
+ * 堆内存指标看不到这些占用；这里汇总进程常驻内存、JavaCPP登记的本地内存、NIO直接缓冲区、
+ * 已加载模型的估算占用和识别器数量，定时记录峰值、检查疑似泄漏，常驻内存超过阈值时打印各部分明细
+ */
+@Component
+public class NativeMemoryMonitor {
+
+    private final VoskModelRegistry modelRegistry;
+    private final VoskRecognizerPool recognizerPool;
+    private final NativeResourceTracker resourceTracker;
+    private final long warnRssBytes;
+
+    private final AtomicLong peakRssBytes = new AtomicLong();
+    private volatile boolean overThreshold;
+
+    public NativeMemoryMonitor(VoskModelRegistry modelRegistry,
+                               VoskRecognizerPool recognizerPool,
+                               NativeResourceTracker resourceTracker,
+                               @Value("${hrai.native.warn-rss-mb:0}") long warnRssMegabytes) {
+        this.modelRegistry = modelRegistry;
+        this.recognizerPool = recognizerPool;
+        this.resourceTracker = resourceTracker;
+        this.warnRssBytes = Math.max(0, warnRssMegabytes) * 1024 * 1024;
+    }
+
+    /**
+     * 定时采样：记录常驻内存峰值，检查超时未释放的本地资源，常驻内存首次超过阈值时打印明细
+     */
+    @Scheduled(fixedDelayString = "${hrai.native.sample-interval-ms:60000}")
+    public void sample() {
+        resourceTracker.scan();
+        long rss = readRssBytes();
+        if (rss < 0) {
+            return;
+        }
+        peakRssBytes.accumulateAndGet(rss, Math::max);
+        if (warnRssBytes > 0 && rss > warnRssBytes) {
+            if (!overThreshold) {
+                overThreshold = true;
+                System.err.println("进程常驻内存超过阈值: " + rss / (1024 * 1024) + " MB > "
+                        + warnRssBytes / (1024 * 1024) + " MB，明细: " + getStats());
+            }
+        } else {
+            overThreshold = false;
+        }
+    }
+
+    /**
+     * JavaCPP登记的本地内存（字节），由Pointer分配并带有释放器的内存才计入
+     */
+    public long getJavaCppBytes() {
+        return Pointer.totalBytes();
+    }
+
+    public long getJavaCppCount() {
+        return Pointer.totalCount();
+    }
+
+    public long getDirectBufferBytes() {
+        return bufferPoolBytes("direct");
+    }
+
+    public long getMappedBufferBytes() {
+        return bufferPoolBytes("mapped");
+    }
+
+    public long getModelBytes() {
+        return modelRegistry.getLoadedBytes();
+    }
+
+    public int getLoadedModels() {
+        return modelRegistry.getLoadedCount();
+    }
+
+    public int getRecognizersCreated() {
+        return recognizerPool.getCreated();
+    }
+
+    public int getRecognizersInUse() {
+        return recognizerPool.getInUse();
+    }
+
+    /**
+     * 进程常驻内存（字节），无法读取时为-1
+     */
+    public long getRssBytes() {
+        return readRssBytes();
+    }
+
+    public NativeResourceTracker getResourceTracker() {
+        return resourceTracker;
+    }
+
+    public Map<String, Object> getStats() {
+        MemoryUsage heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+        MemoryUsage nonHeap = ManagementFactory.getMemoryMXBean().getNonHeapMemoryUsage();
+        long rss = readRssBytes();
+
+        Map<String, Object> process = new LinkedHashMap<>();
+        process.put("rssBytes", rss);
+        process.put("peakRssBytes", peakRssBytes.get());
+        process.put("warnRssBytes", warnRssBytes);
+        process.put("heapUsedBytes", heap.getUsed());
+        process.put("heapCommittedBytes", heap.getCommitted());
+        process.put("heapMaxBytes", heap.getMax());
+        process.put("nonHeapCommittedBytes", nonHeap.getCommitted());
+        // 常驻内存中不属于Java堆的部分，容器被OOM终止而堆几乎为空时主要看这一项
+        process.put("offHeapBytes", rss >= 0 ? Math.max(0, rss - heap.getCommitted()) : -1);
+
+        Map<String, Object> javacpp = new LinkedHashMap<>();
+        javacpp.put("totalBytes", getJavaCppBytes());
+        javacpp.put("totalCount", getJavaCppCount());
+        javacpp.put("maxBytes", Pointer.maxBytes());
+        javacpp.put("physicalBytes", javaCppPhysicalBytes());
+        javacpp.put("maxPhysicalBytes", Pointer.maxPhysicalBytes());
+
+        Map<String, Object> buffers = new LinkedHashMap<>();
+        buffers.put("directBytes", getDirectBufferBytes());
+        buffers.put("mappedBytes", getMappedBufferBytes());
+
+        Map<String, Object> vosk = new LinkedHashMap<>();
+        vosk.put("loadedModels", getLoadedModels());
+        vosk.put("modelBytes", getModelBytes());
+        vosk.put("recognizersCreated", getRecognizersCreated());
+        vosk.put("recognizersInUse", getRecognizersInUse());
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("process", process);
+        stats.put("javacpp", javacpp);
+        stats.put("buffers", buffers);
+        stats.put("vosk", vosk);
+        stats.put("leakDetection", resourceTracker.getStats());
+        return stats;
+    }
+
+    /**
+     * 进程当前的常驻内存（字节），非Linux系统返回-1
+     */
+    static long readRssBytes() {
+        try {
+            for (String line : Files.readAllLines(Paths.get("/proc/self/status"))) {
+                if (line.startsWith("VmRSS:")) {
+                    return Long.parseLong(line.replaceAll("[^0-9]", "")) * 1024;
+                }
+            }
+        } catch (Exception e) {
+            // 不支持时返回-1
+        }
+        return -1;
+    }
+
+    /**
+     * JavaCPP统计的进程物理内存，本地库未加载时返回-1
+     */
+    private static long javaCppPhysicalBytes() {
+        try {
+            return Pointer.physicalBytes();
+        } catch (Throwable e) {
+            return -1;
+        }
+    }
+
+    private static long bufferPoolBytes(String name) {
+        for (BufferPoolMXBean pool : ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class)) {
+            if (pool.getName().equals(name)) {
+                return pool.getMemoryUsed();
+            }
+        }
+        return 0;
+    }
+}
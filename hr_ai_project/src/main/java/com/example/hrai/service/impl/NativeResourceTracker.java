@@ -0,0 +1,184 @@
+package com.example.hrai.service.impl;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.lang.ref.Cleaner;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 本地资源泄漏检测
+ * 登记持有本地内存的对象（FFmpeg grabber、借出的Vosk识别器等），释放时注销；
+ * 对象未释放就被垃圾回收时判定为泄漏（本地内存已无法再释放），
+ * 持有时间超过上限仍未释放的对象判定为疑似泄漏，两者都打印创建位置并计数
+ */
+@Component
+public class NativeResourceTracker {
+
+    public static final String FFMPEG_GRABBER = "ffmpeg-grabber";
+    public static final String VOSK_RECOGNIZER = "vosk-recognizer";
+
+    private static final Cleaner CLEANER = Cleaner.create();
+
+    private final boolean captureStack;
+    private final long maxAgeMillis;
+
+    /** 对象到登记信息，弱引用对象本身，不影响其被回收 */
+    private final Map<Object, Tracked> byOwner = Collections.synchronizedMap(new WeakHashMap<>());
+    private final Set<Tracked> outstanding = ConcurrentHashMap.newKeySet();
+    private final Map<String, AtomicLong> opened = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> released = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> leaked = new ConcurrentHashMap<>();
+    private final AtomicLong overdue = new AtomicLong();
+
+    public NativeResourceTracker() {
+        this(false, 120);
+    }
+
+    @Autowired
+    public NativeResourceTracker(@Value("${hrai.native.leak-detection.capture-stack:false}") boolean captureStack,
+                                 @Value("${hrai.native.leak-detection.max-age-minutes:120}") long maxAgeMinutes) {
+        this.captureStack = captureStack;
+        this.maxAgeMillis = TimeUnit.MINUTES.toMillis(Math.max(0, maxAgeMinutes));
+    }
+
+    /**
+     * 登记持有本地资源的对象
+     * @param kind 资源类型，如FFMPEG_GRABBER
+     * @param description 便于定位的描述（如媒体路径、模型名称）
+     */
+    public void track(Object owner, String kind, String description) {
+        Tracked tracked = new Tracked(kind, description,
+                captureStack ? new Throwable("资源创建位置") : null);
+        byOwner.put(owner, tracked);
+        outstanding.add(tracked);
+        counter(opened, kind).incrementAndGet();
+        // 清理动作不能引用owner，否则owner永远不会被回收
+        CLEANER.register(owner, () -> collected(tracked));
+    }
+
+    /**
+     * 对象已释放本地资源，未登记或重复调用时忽略
+     */
+    public void release(Object owner) {
+        Tracked tracked = byOwner.remove(owner);
+        if (tracked != null && tracked.released.compareAndSet(false, true)) {
+            outstanding.remove(tracked);
+            counter(released, tracked.kind).incrementAndGet();
+        }
+    }
+
+    private void collected(Tracked tracked) {
+        if (tracked.released.compareAndSet(false, true)) {
+            outstanding.remove(tracked);
+            counter(leaked, tracked.kind).incrementAndGet();
+            report("本地资源未释放即被回收", tracked);
+        }
+    }
+
+    /**
+     * 检查持有时间超过上限的资源，每个资源只报告一次
+     * @return 本次新发现的疑似泄漏数
+     */
+    public int scan() {
+        long now = System.currentTimeMillis();
+        int found = 0;
+        for (Tracked tracked : outstanding) {
+            if (now - tracked.createdAt > maxAgeMillis && !tracked.reported) {
+                tracked.reported = true;
+                overdue.incrementAndGet();
+                found++;
+                report("本地资源持有时间超过 " + TimeUnit.MILLISECONDS.toMinutes(maxAgeMillis) + " 分钟仍未释放", tracked);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * 当前未释放的资源数
+     */
+    public long getOutstanding(String kind) {
+        return outstanding.stream().filter(tracked -> tracked.kind.equals(kind)).count();
+    }
+
+    /**
+     * 累计判定为泄漏（未释放即被回收）的资源数
+     */
+    public long getLeaked(String kind) {
+        AtomicLong count = leaked.get(kind);
+        return count != null ? count.get() : 0;
+    }
+
+    public Map<String, Object> getStats() {
+        Set<String> kinds = new TreeSet<>(opened.keySet());
+        Map<String, Object> byKind = new LinkedHashMap<>();
+        for (String kind : kinds) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("opened", counter(opened, kind).get());
+            entry.put("released", counter(released, kind).get());
+            entry.put("outstanding", getOutstanding(kind));
+            entry.put("leaked", getLeaked(kind));
+            byKind.put(kind, entry);
+        }
+
+        List<Tracked> oldest = new ArrayList<>(outstanding);
+        oldest.sort(Comparator.comparingLong(tracked -> tracked.createdAt));
+        long now = System.currentTimeMillis();
+        List<Map<String, Object>> oldestEntries = new ArrayList<>();
+        for (Tracked tracked : oldest.subList(0, Math.min(10, oldest.size()))) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("kind", tracked.kind);
+            entry.put("description", tracked.description);
+            entry.put("ageMillis", now - tracked.createdAt);
+            oldestEntries.add(entry);
+        }
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("captureStack", captureStack);
+        stats.put("maxAgeMillis", maxAgeMillis);
+        stats.put("overdue", overdue.get());
+        stats.put("resources", byKind);
+        stats.put("oldestOutstanding", oldestEntries);
+        return stats;
+    }
+
+    private static AtomicLong counter(Map<String, AtomicLong> counters, String kind) {
+        return counters.computeIfAbsent(kind, k -> new AtomicLong());
+    }
+
+    private static void report(String message, Tracked tracked) {
+        System.err.println(message + ": " + tracked.kind + " (" + tracked.description + ")");
+        if (tracked.origin != null) {
+            tracked.origin.printStackTrace();
+        }
+    }
+
+    private static class Tracked {
+
+        private final String kind;
+        private final String description;
+        private final Throwable origin;
+        private final long createdAt = System.currentTimeMillis();
+        private final AtomicBoolean released = new AtomicBoolean();
+        private volatile boolean reported;
+
+        Tracked(String kind, String description, Throwable origin) {
+            this.kind = kind;
+            this.description = description;
+            this.origin = origin;
+        }
+    }
+}
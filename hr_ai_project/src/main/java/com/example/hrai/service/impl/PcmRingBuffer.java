@@ -0,0 +1,157 @@
+package com.example.hrai.service.impl;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.ShortBuffer;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 单生产者/单消费者的PCM环形缓冲区
+ * 存储区是堆外的直接内存，解码线程写入、识别线程读取，读写索引各自只由一方修改，无需加锁；
+ * 缓冲区满时生产者等待、空时消费者等待，两个阶段互相施加背压，读写过程中不分配对象
+ */
+final class PcmRingBuffer {
+
+    /** 等待对方时的最长休眠时间，对方的唤醒丢失时也能及时重新检查 */
+    private static final long WAIT_NANOS = 1_000_000L;
+
+    private final ShortBuffer storage;
+    private final int capacity;
+    private final int mask;
+
+    /** 生产者已写入的采样总数，只由生产者修改 */
+    private volatile long writeIndex = 0;
+    /** 消费者已读取的采样总数，只由消费者修改 */
+    private volatile long readIndex = 0;
+    private volatile boolean closed = false;
+    private volatile boolean aborted = false;
+    private volatile Throwable failure;
+    private volatile Thread waitingProducer;
+    private volatile Thread waitingConsumer;
+
+    /**
+     * @param minCapacity 最小容量（采样数），实际容量向上取2的幂
+     */
+    PcmRingBuffer(int minCapacity) {
+        int size = Integer.highestOneBit(Math.max(minCapacity, 2) - 1) << 1;
+        this.capacity = size;
+        this.mask = size - 1;
+        this.storage = ByteBuffer.allocateDirect(size * 2).order(ByteOrder.nativeOrder()).asShortBuffer();
+    }
+
+    int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * 生产者写入采样，空间不足时等待消费者读取
+     * @throws CancellationException 消费者已中止
+     */
+    void write(short[] samples, int length) throws InterruptedException {
+        int offset = 0;
+        while (offset < length) {
+            long write = writeIndex;
+            int free;
+            while ((free = capacity - (int) (write - readIndex)) == 0) {
+                if (aborted) {
+                    throw new CancellationException("PCM消费方已中止");
+                }
+                waitingProducer = Thread.currentThread();
+                if (capacity - (int) (write - readIndex) == 0 && !aborted) {
+                    LockSupport.parkNanos(this, WAIT_NANOS);
+                }
+                waitingProducer = null;
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+            }
+            if (aborted) {
+                throw new CancellationException("PCM消费方已中止");
+            }
+
+            int n = Math.min(free, length - offset);
+            int position = (int) (write & mask);
+            int first = Math.min(n, capacity - position);
+            storage.put(position, samples, offset, first);
+            if (n > first) {
+                storage.put(0, samples, offset + first, n - first);
+            }
+            writeIndex = write + n;
+            offset += n;
+            LockSupport.unpark(waitingConsumer);
+        }
+    }
+
+    /**
+     * 生产者写入完毕
+     */
+    void close() {
+        closed = true;
+        LockSupport.unpark(waitingConsumer);
+    }
+
+    /**
+     * 生产者出错，消费者读取时抛出该异常
+     */
+    void fail(Throwable cause) {
+        failure = cause;
+        close();
+    }
+
+    /**
+     * 消费者中止读取，阻塞中的生产者随即抛出CancellationException
+     */
+    void abort() {
+        aborted = true;
+        LockSupport.unpark(waitingProducer);
+    }
+
+    /**
+     * 消费者读取采样，没有数据时等待生产者写入
+     * @return 读取的采样数，生产者已关闭且数据已读完时返回-1
+     * @throws Exception 生产者写入失败的原因
+     */
+    int read(short[] buffer) throws Exception {
+        long read = readIndex;
+        int available;
+        while ((available = (int) (writeIndex - read)) == 0) {
+            if (failure != null) {
+                throw asException(failure);
+            }
+            if (closed) {
+                // 关闭前写入的数据在closed之前可见，再检查一次
+                if (writeIndex == read) {
+                    return -1;
+                }
+                continue;
+            }
+            waitingConsumer = Thread.currentThread();
+            if (writeIndex == read && !closed) {
+                LockSupport.parkNanos(this, WAIT_NANOS);
+            }
+            waitingConsumer = null;
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+        }
+        if (failure != null) {
+            throw asException(failure);
+        }
+
+        int n = Math.min(available, buffer.length);
+        int position = (int) (read & mask);
+        int first = Math.min(n, capacity - position);
+        storage.get(position, buffer, 0, first);
+        if (n > first) {
+            storage.get(0, buffer, first, n - first);
+        }
+        readIndex = read + n;
+        LockSupport.unpark(waitingProducer);
+        return n;
+    }
+
+    private static Exception asException(Throwable cause) {
+        return cause instanceof Exception ? (Exception) cause : new RuntimeException(cause);
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.hrai.service.impl;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 汇总各路解码出的采样数并上报转录进度
+ * 分片并行时各分片共享同一个计数器；从检查点续转时已完成的部分直接计入
+ */
+final class ProgressCounter implements StreamingAudioDecoder.PcmSink {
+
+    private final TranscriptionProgressListener listener;
+    private final long totalMillis;
+    private final AtomicLong processedSamples = new AtomicLong();
+
+    ProgressCounter(TranscriptionProgressListener listener, long totalMillis) {
+        this.listener = listener;
+        this.totalMillis = totalMillis;
+    }
+
+    @Override
+    public void accept(short[] samples, int length) {
+        report(processedSamples.addAndGet(length));
+    }
+
+    /**
+     * 计入[startMicros, endMicros)区间（已由检查点完成，无需重新解码）
+     */
+    void advance(long startMicros, long endMicros) {
+        long end = totalMillis > 0 ? Math.min(endMicros, totalMillis * 1000) : endMicros;
+        if (end == Long.MAX_VALUE || end <= startMicros) {
+            return;
+        }
+        report(processedSamples.addAndGet((end - startMicros) * StreamingAudioDecoder.TARGET_SAMPLE_RATE / 1_000_000L));
+    }
+
+    private void report(long samples) {
+        listener.onProgress(samples * 1000 / StreamingAudioDecoder.TARGET_SAMPLE_RATE, totalMillis);
+    }
+}
@@ -0,0 +1,249 @@
+package com.example.hrai.service.impl;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 单个请求的阶段耗时树
+ * 请求线程开始时创建根节点，之后各阶段在当前节点下打开子节点或累加耗时，同名子节点合并为一项并计数；
+ * 提交到解码线程、分片线程的任务经wrap包装后，其中记录的阶段归入提交时的节点。
+ * 分片并行时同一阶段的耗时是各线程之和，可能超过请求总耗时
+ */
+public final class RequestTrace {
+
+    private static final ThreadLocal<RequestTrace> ACTIVE = new ThreadLocal<>();
+    private static final ThreadLocal<Span> CURRENT = new ThreadLocal<>();
+
+    private final Span root;
+    private final long startNanos = System.nanoTime();
+    private volatile long endNanos = -1;
+
+    private RequestTrace(String name) {
+        this.root = new Span(name);
+    }
+
+    /**
+     * 在当前线程开始一个请求的计时，结束时必须调用end
+     */
+    public static RequestTrace begin(String name) {
+        RequestTrace trace = new RequestTrace(name);
+        ACTIVE.set(trace);
+        CURRENT.set(trace.root);
+        return trace;
+    }
+
+    /**
+     * 当前线程上正在计时的请求，没有时返回null；分片线程上也返回null
+     */
+    public static RequestTrace current() {
+        return ACTIVE.get();
+    }
+
+    /**
+     * 在当前节点下打开一个子阶段，关闭时累加耗时；当前线程没有请求计时时不做任何事
+     */
+    public static Scope open(String name) {
+        Span parent = CURRENT.get();
+        if (parent == null) {
+            return Scope.NOOP;
+        }
+        Span child = parent.child(name);
+        CURRENT.set(child);
+        long start = System.nanoTime();
+        return () -> {
+            child.add(System.nanoTime() - start);
+            CURRENT.set(parent);
+        };
+    }
+
+    /**
+     * 把已测得的阶段耗时累加到当前节点下的同名子节点
+     */
+    public static void record(String name, long nanos) {
+        Span parent = CURRENT.get();
+        if (parent != null) {
+            parent.child(name).add(nanos);
+        }
+    }
+
+    /**
+     * 包装要在其他线程执行的任务，使其中记录的阶段归入提交时的节点
+     */
+    public static <T> Callable<T> wrap(Callable<T> task) {
+        Span captured = CURRENT.get();
+        if (captured == null) {
+            return task;
+        }
+        return () -> {
+            Span previous = CURRENT.get();
+            CURRENT.set(captured);
+            try {
+                return task.call();
+            } finally {
+                if (previous == null) {
+                    CURRENT.remove();
+                } else {
+                    CURRENT.set(previous);
+                }
+            }
+        };
+    }
+
+    /**
+     * 结束计时并解除与当前线程的关联
+     */
+    public void end() {
+        if (endNanos < 0) {
+            endNanos = System.nanoTime();
+        }
+        ACTIVE.remove();
+        CURRENT.remove();
+    }
+
+    /**
+     * 请求总耗时（纳秒），未结束时为到目前为止的耗时
+     */
+    public long getElapsedNanos() {
+        long end = endNanos;
+        return (end >= 0 ? end : System.nanoTime()) - startNanos;
+    }
+
+    /**
+     * 按Server-Timing响应头格式输出：total为总耗时，各阶段名称按层级以点号连接
+     */
+    public String toServerTiming() {
+        List<String> entries = new ArrayList<>();
+        entries.add("total;dur=" + millis(getElapsedNanos()));
+        for (Span child : root.children()) {
+            appendServerTiming(entries, "", child);
+        }
+        return String.join(", ", entries);
+    }
+
+    private static void appendServerTiming(List<String> entries, String prefix, Span span) {
+        String name = prefix + token(span.name);
+        long count;
+        long nanos;
+        synchronized (span) {
+            count = span.count;
+            nanos = span.nanos;
+        }
+        entries.add(name + ";dur=" + millis(nanos) + (count > 1 ? ";desc=\"x" + count + "\"" : ""));
+        for (Span child : span.children()) {
+            appendServerTiming(entries, name + ".", child);
+        }
+    }
+
+    /**
+     * 耗时树，用于响应字段
+     */
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("name", root.name);
+        map.put("millis", millis(getElapsedNanos()));
+        map.put("stages", childrenToList(root));
+        return map;
+    }
+
+    private static List<Map<String, Object>> childrenToList(Span span) {
+        List<Map<String, Object>> list = new ArrayList<>();
+        for (Span child : span.children()) {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("name", child.name);
+            synchronized (child) {
+                map.put("millis", millis(child.nanos));
+                map.put("count", child.count);
+            }
+            List<Map<String, Object>> grandChildren = childrenToList(child);
+            if (!grandChildren.isEmpty()) {
+                map.put("stages", grandChildren);
+            }
+            list.add(map);
+        }
+        return list;
+    }
+
+    /**
+     * 缩进的文本格式，用于慢请求日志
+     */
+    public String format() {
+        StringBuilder text = new StringBuilder();
+        text.append(root.name).append(" ").append(millis(getElapsedNanos())).append(" ms");
+        for (Span child : root.children()) {
+            appendFormatted(text, child, 1);
+        }
+        return text.toString();
+    }
+
+    private static void appendFormatted(StringBuilder text, Span span, int depth) {
+        text.append('\n').append("  ".repeat(depth)).append(span.name).append(' ');
+        synchronized (span) {
+            text.append(millis(span.nanos)).append(" ms");
+            if (span.count > 1) {
+                text.append(" (").append(span.count).append(" 次)");
+            }
+        }
+        for (Span child : span.children()) {
+            appendFormatted(text, child, depth + 1);
+        }
+    }
+
+    static String millis(long nanos) {
+        return String.format(Locale.ROOT, "%.1f", nanos / (double) TimeUnit.MILLISECONDS.toNanos(1));
+    }
+
+    /**
+     * Server-Timing的名称只能是token，其他字符替换为下划线
+     */
+    static String token(String name) {
+        StringBuilder token = new StringBuilder(name.length());
+        for (char c : name.toCharArray()) {
+            token.append(Character.isLetterOrDigit(c) && c < 128 || c == '-' || c == '_' ? c : '_');
+        }
+        return token.toString();
+    }
+
+    /**
+     * 已打开的阶段，关闭时累加耗时；不抛出受检异常，可用于try-with-resources
+     */
+    public interface Scope extends AutoCloseable {
+
+        Scope NOOP = () -> { };
+
+        @Override
+        void close();
+    }
+
+    /**
+     * 耗时树的节点，同名子节点合并；分片线程会并发地向同一节点添加子节点和耗时
+     */
+    private static final class Span {
+
+        private final String name;
+        private final Map<String, Span> children = new LinkedHashMap<>();
+        private long nanos;
+        private long count;
+
+        private Span(String name) {
+            this.name = name;
+        }
+
+        private synchronized Span child(String childName) {
+            return children.computeIfAbsent(childName, Span::new);
+        }
+
+        private synchronized void add(long elapsedNanos) {
+            nanos += Math.max(0, elapsedNanos);
+            count++;
+        }
+
+        private synchronized List<Span> children() {
+            return new ArrayList<>(children.values());
+        }
+    }
+}
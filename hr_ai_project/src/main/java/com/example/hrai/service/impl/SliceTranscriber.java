@@ -0,0 +1,109 @@
+package com.example.hrai.service.impl;
+
+import com.example.hrai.entity.TranscriptSegment;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 转录一个媒体区间（整段或分片）
+ * 启用检查点时在整句边界定期保存进度，续转时先回放已有片段，再从检查点位置继续解码识别；
+ * 并行转录的各分片共享中止标志，任一分片失败后其余分片在处理下一个PCM缓冲区前退出
+ */
+final class SliceTranscriber {
+
+    private final StreamingAudioDecoder audioDecoder;
+    private final VoskRecognizerPool recognizerPool;
+    private final VoiceActivityDetector voiceActivityDetector;
+    private final TranscriptionMetrics metrics;
+
+    SliceTranscriber(StreamingAudioDecoder audioDecoder, VoskRecognizerPool recognizerPool,
+                     VoiceActivityDetector voiceActivityDetector, TranscriptionMetrics metrics) {
+        this.audioDecoder = audioDecoder;
+        this.recognizerPool = recognizerPool;
+        this.voiceActivityDetector = voiceActivityDetector;
+        this.metrics = metrics;
+    }
+
+    /**
+     * @param partials 是否推送中间识别结果（分片间乱序完成，只在整段转录时推送）
+     * @param threads 解码线程数，0表示由FFmpeg自动决定
+     * @param session 检查点会话，可为null
+     * @param modelName 识别模型名称，为null时使用默认模型
+     * @param aborted 中止标志，置位后停止解码识别并抛出CancellationException，可为null
+     * @return 该区间的Vosk识别结果，每行一条JSON
+     */
+    String transcribe(String mediaPath, TranscriptionSlice slice, TranscriptionProgressListener listener,
+                      ProgressCounter progress, boolean partials, int threads,
+                      TranscriptionCheckpointSession session, String modelName, AtomicBoolean aborted) throws Exception {
+        // 回放检查点之前已识别的片段
+        for (TranscriptSegment segment : slice.getSegments()) {
+            listener.onUtterance(segment.getText(), segment.getStartMs(), segment.getEndMs(),
+                    segment.getConfidence() != null ? segment.getConfidence() : -1);
+        }
+        progress.advance(slice.getStartMicros(), slice.isCompleted() ? slice.getEndMicros() : slice.getResumeMicros());
+        if (slice.isCompleted()) {
+            return slice.getResultText();
+        }
+        checkAborted(aborted);
+
+        try (VoskRecognizerPool.Lease lease = recognizerPool.borrow(modelName)) {
+            if (lease == null) {
+                throw new IllegalStateException("Vosk模型不可用");
+            }
+            String previousText = slice.getResultText();
+            List<TranscriptSegment> previousSegments = slice.getSegments();
+
+            VoskRecognitionSink.Checkpointer checkpointer = null;
+            long intervalMillis = 0;
+            if (session != null) {
+                intervalMillis = session.getIntervalMillis();
+                checkpointer = (resumeMillis, text, segments) -> session.checkpoint(slice, resumeMillis * 1000,
+                        previousText + text, concat(previousSegments, segments), false);
+            }
+
+            VoskRecognitionSink sink = new VoskRecognitionSink(lease, slice.getResumeMicros() / 1000, listener,
+                    partials, progress, voiceActivityDetector, checkpointer, intervalMillis);
+            // 识别耗时为识别线程处理PCM和取最终结果的时间，不含等待解码的时间
+            StreamingAudioDecoder.TimedSink timed = new StreamingAudioDecoder.TimedSink(sink);
+            audioDecoder.decodeRangePipelined(mediaPath, slice.getResumeMicros(), slice.getEndMicros(),
+                    abortable(timed, aborted), threads);
+            long finishStart = System.nanoTime();
+            String text = previousText + sink.finish();
+            metrics.recordStage(TranscriptionMetrics.RECOGNIZE, timed.getNanos() + System.nanoTime() - finishStart);
+
+            if (session != null) {
+                session.checkpoint(slice, slice.getEndMicros(), text, concat(previousSegments, sink.getSegments()), true);
+            }
+            return text;
+        }
+    }
+
+    /**
+     * 每个缓冲区交给识别器之前检查中止标志；抛出的异常使解码流水线中止环形缓冲区并停止解码线程
+     */
+    static StreamingAudioDecoder.PcmSink abortable(StreamingAudioDecoder.PcmSink sink, AtomicBoolean aborted) {
+        if (aborted == null) {
+            return sink;
+        }
+        return (samples, length) -> {
+            checkAborted(aborted);
+            sink.accept(samples, length);
+        };
+    }
+
+    private static void checkAborted(AtomicBoolean aborted) {
+        if (aborted != null && aborted.get()) {
+            throw new CancellationException("其他分片转录失败，已中止");
+        }
+    }
+
+    private static List<TranscriptSegment> concat(List<TranscriptSegment> first, List<TranscriptSegment> second) {
+        List<TranscriptSegment> all = new ArrayList<>(first.size() + second.size());
+        all.addAll(first);
+        all.addAll(second);
+        return all;
+    }
+}
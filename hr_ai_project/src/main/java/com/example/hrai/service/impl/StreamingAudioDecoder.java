@@ -0,0 +1,374 @@
+package com.example.hrai.service.impl;
+
+import jakarta.annotation.PreDestroy;
+import org.apache.tika.Tika;
+import org.bytedeco.ffmpeg.global.avutil;
+import org.bytedeco.javacv.FFmpegFrameGrabber;
+import org.bytedeco.javacv.Frame;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.nio.ShortBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 流式音频解码器
+ * 由FFmpegFrameGrabber直接重采样为16kHz单声道16bit PCM，
+ * 通过可复用的缓冲区逐块推送给下游（如Vosk识别器），不产生中间WAV文件
+ * 默认只解复用音频流，视频包在解码前即被丢弃；
+ * 已经是16kHz单声道16bit PCM的WAV文件跳过FFmpeg，直接从内存映射的data块读取；
+ * 流水线模式下解码在独立线程进行，经堆外环形缓冲区交给调用线程识别，解码和识别同时进行
+ */
+@Component
+public class StreamingAudioDecoder {
+
+    public static final int TARGET_SAMPLE_RATE = 16000;
+    public static final int DEFAULT_BUFFER_SAMPLES = 8000;
+
+    private static final Set<String> WAV_MIME_TYPES = Set.of("audio/vnd.wave", "audio/wav", "audio/x-wav");
+
+    /**
+     * 音频提取模式
+     * AUDIO_ONLY: 只读取音频包，视频包不解码直接丢弃
+     * FULL_DEMUX: 解码所有帧后过滤出音频帧（旧行为）
+     */
+    public enum ExtractionMode {
+        AUDIO_ONLY,
+        FULL_DEMUX
+    }
+
+    /**
+     * PCM数据接收方
+     * 回调返回后缓冲区会被复用，接收方不能保留对它的引用
+     */
+    @FunctionalInterface
+    public interface PcmSink {
+        void accept(short[] samples, int length) throws Exception;
+    }
+
+    private final int bufferSamples;
+    private final ExtractionMode extractionMode;
+    private final int decoderThreads;
+    private final boolean wavFastPath;
+    private final boolean pipelineEnabled;
+    private final int ringBufferSamples;
+    private final Tika tika = new Tika();
+    private final ExecutorService decodeStage;
+    private final NativeResourceTracker resourceTracker;
+    private final TranscriptionMetrics metrics;
+
+    public StreamingAudioDecoder() {
+        this(DEFAULT_BUFFER_SAMPLES, ExtractionMode.AUDIO_ONLY, 0, true, true, 4 * TARGET_SAMPLE_RATE,
+                new NativeResourceTracker(), new TranscriptionMetrics());
+    }
+
+    @Autowired
+    public StreamingAudioDecoder(@Value("${hrai.audio.pcm-buffer-samples:" + DEFAULT_BUFFER_SAMPLES + "}") int bufferSamples,
+                                 @Value("${hrai.audio.extraction-mode:AUDIO_ONLY}") ExtractionMode extractionMode,
+                                 @Value("${hrai.audio.decoder-threads:0}") int decoderThreads,
+                                 @Value("${hrai.audio.wav-fast-path:true}") boolean wavFastPath,
+                                 @Value("${hrai.audio.pipeline.enabled:true}") boolean pipelineEnabled,
+                                 @Value("${hrai.audio.pipeline.ring-buffer-samples:64000}") int ringBufferSamples,
+                                 NativeResourceTracker resourceTracker,
+                                 TranscriptionMetrics metrics) {
+        this.bufferSamples = bufferSamples > 0 ? bufferSamples : DEFAULT_BUFFER_SAMPLES;
+        this.extractionMode = extractionMode != null ? extractionMode : ExtractionMode.AUDIO_ONLY;
+        this.decoderThreads = Math.max(decoderThreads, 0);
+        this.wavFastPath = wavFastPath;
+        this.pipelineEnabled = pipelineEnabled;
+        // 环形缓冲区至少容纳两块PCM，生产者写入一块时消费者仍可读取上一块
+        this.ringBufferSamples = Math.max(ringBufferSamples, 2 * this.bufferSamples);
+        this.resourceTracker = resourceTracker;
+        this.metrics = metrics;
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.decodeStage = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "pcm-decoder-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public ExtractionMode getExtractionMode() {
+        return extractionMode;
+    }
+
+    /**
+     * 配置的解码线程数，0表示由FFmpeg自动决定
+     */
+    public int getDecoderThreads() {
+        return decoderThreads;
+    }
+
+    /**
+     * 解码媒体文件中的音频并推送给接收方
+     * @param mediaPath 音视频文件路径
+     * @param sink PCM接收方
+     * @return 推送的总采样数
+     */
+    public long decode(String mediaPath, PcmSink sink) throws Exception {
+        return decode(mediaPath, sink, decoderThreads);
+    }
+
+    /**
+     * 使用指定的解码线程数解码（并行分片时每个分片使用单线程，避免线程过度订阅）
+     * @param threads 解码线程数，0表示由FFmpeg自动决定
+     */
+    public long decode(String mediaPath, PcmSink sink, int threads) throws Exception {
+        return decodeRange(mediaPath, 0, Long.MAX_VALUE, sink, threads);
+    }
+
+    /**
+     * 与decodeRange相同，但解码在解码线程中进行，PCM经环形缓冲区交给调用线程推送给sink，
+     * 使解码下一块与识别当前块同时进行；缓冲区满时解码线程等待，识别线程出错时解码随即停止
+     * 未启用流水线或文件是可直接读取的WAV时，在调用线程中直接解码
+     */
+    public long decodeRangePipelined(String mediaPath, long startMicros, long endMicros, PcmSink sink, int threads) throws Exception {
+        WavPcmReader wav = openCompliantWav(mediaPath);
+        if (!pipelineEnabled || wav != null) {
+            return decodeRange(mediaPath, wav, startMicros, endMicros, sink, threads);
+        }
+
+        PcmRingBuffer ring = new PcmRingBuffer(ringBufferSamples);
+        Future<Long> producer = decodeStage.submit(RequestTrace.wrap(() -> {
+            try {
+                long decoded = decodeRange(mediaPath, null, startMicros, endMicros, ring::write, threads);
+                ring.close();
+                return decoded;
+            } catch (Throwable e) {
+                ring.fail(e);
+                throw e;
+            }
+        }));
+
+        short[] buffer = new short[bufferSamples];
+        try {
+            int n;
+            while ((n = ring.read(buffer)) >= 0) {
+                sink.accept(buffer, n);
+            }
+        } catch (Exception e) {
+            // 识别阶段出错或被中断：让解码线程退出并释放grabber
+            ring.abort();
+            producer.cancel(true);
+            throw e;
+        }
+
+        try {
+            return producer.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof Exception ? (Exception) cause : e;
+        } catch (CancellationException e) {
+            throw new IllegalStateException("解码阶段已取消", e);
+        }
+    }
+
+    /**
+     * 只解码[startMicros, endMicros)范围内的音频，精确到采样点，
+     * 相邻区间拼接后既不重复也不丢失采样
+     * @param startMicros 起始时间（微秒）
+     * @param endMicros 结束时间（微秒），Long.MAX_VALUE表示到文件末尾
+     * @return 推送的总采样数
+     */
+    public long decodeRange(String mediaPath, long startMicros, long endMicros, PcmSink sink, int threads) throws Exception {
+        return decodeRange(mediaPath, openCompliantWav(mediaPath), startMicros, endMicros, sink, threads);
+    }
+
+    /**
+     * @param wav 已解析的WAV读取器，为null时经FFmpeg解码；调用方已判断过文件格式，这里不再重复识别
+     */
+    private long decodeRange(String mediaPath, WavPcmReader wav, long startMicros, long endMicros,
+                             PcmSink sink, int threads) throws Exception {
+        // 提取耗时不含下游处理（识别、或流水线模式下等待环形缓冲区）的时间
+        TimedSink timed = new TimedSink(sink);
+        long start = System.nanoTime();
+        try {
+            return readRange(mediaPath, wav, startMicros, endMicros, timed, threads);
+        } finally {
+            metrics.recordStage(TranscriptionMetrics.EXTRACT, System.nanoTime() - start - timed.getNanos());
+        }
+    }
+
+    private long readRange(String mediaPath, WavPcmReader wav, long startMicros, long endMicros,
+                           PcmSink sink, int threads) throws Exception {
+        if (wav != null) {
+            long endSample = endMicros == Long.MAX_VALUE ? Long.MAX_VALUE : toSample(endMicros);
+            return wav.read(toSample(startMicros), endSample, new short[bufferSamples], sink);
+        }
+
+        FFmpegFrameGrabber grabber = null;
+        try {
+            grabber = openGrabber(mediaPath, threads);
+            if (startMicros > 0) {
+                grabber.setAudioTimestamp(startMicros);
+            }
+
+            short[] buffer = new short[bufferSamples];
+            long totalSamples = 0;
+
+            Frame frame;
+            while ((frame = nextFrame(grabber)) != null) {
+                if (frame.samples == null || frame.samples.length == 0) {
+                    continue; // 跳过视频帧
+                }
+                ShortBuffer samples = (ShortBuffer) frame.samples[0];
+                int available = samples.remaining();
+
+                // 裁掉区间起点之前的采样
+                if (frame.timestamp < startMicros) {
+                    long skip = (startMicros - frame.timestamp) * TARGET_SAMPLE_RATE / 1_000_000L;
+                    if (skip >= available) {
+                        continue;
+                    }
+                    samples.position(samples.position() + (int) skip);
+                    available -= (int) skip;
+                }
+
+                // 裁掉区间终点之后的采样
+                boolean reachedEnd = false;
+                if (endMicros != Long.MAX_VALUE) {
+                    long frameStart = Math.max(frame.timestamp, startMicros);
+                    long allowed = (endMicros - frameStart) * TARGET_SAMPLE_RATE / 1_000_000L;
+                    if (allowed <= 0) {
+                        break;
+                    }
+                    if (allowed < available) {
+                        available = (int) allowed;
+                        reachedEnd = true;
+                    }
+                }
+
+                while (available > 0) {
+                    int n = Math.min(available, buffer.length);
+                    samples.get(buffer, 0, n);
+                    sink.accept(buffer, n);
+                    totalSamples += n;
+                    available -= n;
+                }
+                if (reachedEnd) {
+                    break;
+                }
+            }
+            return totalSamples;
+        } finally {
+            release(grabber);
+        }
+    }
+
+    /**
+     * 先由Tika按文件头识别WAV，再解析RIFF头确认是否为可直接识别的PCM
+     * @return 符合识别格式的WAV读取器，其他文件（或读取失败）返回null，交给FFmpeg解码
+     */
+    private WavPcmReader openCompliantWav(String mediaPath) {
+        if (!wavFastPath) {
+            return null;
+        }
+        try {
+            Path path = Path.of(mediaPath);
+            if (!Files.isRegularFile(path) || !WAV_MIME_TYPES.contains(tika.detect(new File(mediaPath)))) {
+                return null;
+            }
+            WavPcmReader wav = WavPcmReader.open(path);
+            return wav != null && wav.isCompliant() ? wav : null;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        decodeStage.shutdownNow();
+    }
+
+    /**
+     * 累计下游接收方的耗时
+     */
+    static final class TimedSink implements PcmSink {
+
+        private final PcmSink sink;
+        private long nanos;
+
+        TimedSink(PcmSink sink) {
+            this.sink = sink;
+        }
+
+        @Override
+        public void accept(short[] samples, int length) throws Exception {
+            long start = System.nanoTime();
+            try {
+                sink.accept(samples, length);
+            } finally {
+                nanos += System.nanoTime() - start;
+            }
+        }
+
+        long getNanos() {
+            return nanos;
+        }
+    }
+
+    private static long toSample(long micros) {
+        return micros * TARGET_SAMPLE_RATE / 1_000_000L;
+    }
+
+    private FFmpegFrameGrabber openGrabber(String mediaPath, int threads) throws Exception {
+        FFmpegFrameGrabber grabber = FFmpegFrameGrabber.createDefault(mediaPath);
+        resourceTracker.track(grabber, NativeResourceTracker.FFMPEG_GRABBER, mediaPath);
+        // 由解码器内部完成重采样和声道混合 (16kHz, 16bit, 单声道)
+        grabber.setSampleFormat(avutil.AV_SAMPLE_FMT_S16);
+        grabber.setSampleRate(TARGET_SAMPLE_RATE);
+        grabber.setAudioChannels(1);
+        configureThreads(grabber, threads);
+        try {
+            grabber.start();
+        } catch (Exception e) {
+            release(grabber);
+            throw e;
+        }
+        return grabber;
+    }
+
+    /**
+     * 确保资源被正确释放
+     */
+    private void release(FFmpegFrameGrabber grabber) {
+        if (grabber != null) {
+            try {
+                grabber.stop();
+                grabber.release();
+            } catch (Exception e) {
+                System.err.println("释放grabber资源时出错: " + e.getMessage());
+            } finally {
+                resourceTracker.release(grabber);
+            }
+        }
+    }
+
+    /**
+     * AUDIO_ONLY模式下使用grabSamples()，视频流的包在解复用后直接丢弃，不进入视频解码器
+     */
+    private Frame nextFrame(FFmpegFrameGrabber grabber) throws Exception {
+        return extractionMode == ExtractionMode.AUDIO_ONLY ? grabber.grabSamples() : grabber.grab();
+    }
+
+    /**
+     * 配置解码线程数，FULL_DEMUX模式下同时配置视频解码器
+     */
+    private void configureThreads(FFmpegFrameGrabber grabber, int threads) {
+        String value = threads > 0 ? String.valueOf(threads) : "auto";
+        grabber.setAudioOption("threads", value);
+        if (extractionMode == ExtractionMode.FULL_DEMUX) {
+            grabber.setVideoOption("threads", value);
+        }
+    }
+}
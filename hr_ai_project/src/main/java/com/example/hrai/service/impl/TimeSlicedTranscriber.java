@@ -0,0 +1,213 @@
+package com.example.hrai.service.impl;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 长音视频分片并行转录
+ * 按固定时长切分媒体，切点对齐到附近能量最低（静音）处，
+ * 每个分片由独立的解码器和识别器在work-stealing线程池中处理，结果按顺序拼接，任一分片失败时中止其余分片；
+ * 分片计划和各分片进度可保存为检查点，续转时沿用原有的分片计划
+ */
+@Component
+public class TimeSlicedTranscriber {
+
+    private static final long MICROS_PER_SECOND = 1_000_000L;
+    /** 静音检测的分析帧长度：20ms */
+    static final int ENERGY_FRAME_SAMPLES = StreamingAudioDecoder.TARGET_SAMPLE_RATE / 50;
+
+    private final StreamingAudioDecoder audioDecoder;
+    private final SliceTranscriber sliceTranscriber;
+    private final boolean enabled;
+    private final long minDurationMicros;
+    private final long sliceMicros;
+    private final long searchWindowMicros;
+    private final ForkJoinPool workerPool;
+
+    public TimeSlicedTranscriber(StreamingAudioDecoder audioDecoder, VoskRecognizerPool recognizerPool,
+                                 VoiceActivityDetector voiceActivityDetector) {
+        this(audioDecoder, recognizerPool, voiceActivityDetector, new TranscriptionMetrics(), true, 600, 300, 4000, 0);
+    }
+
+    @Autowired
+    public TimeSlicedTranscriber(StreamingAudioDecoder audioDecoder,
+                                 VoskRecognizerPool recognizerPool,
+                                 VoiceActivityDetector voiceActivityDetector,
+                                 TranscriptionMetrics metrics,
+                                 @Value("${hrai.transcription.parallel.enabled:true}") boolean enabled,
+                                 @Value("${hrai.transcription.parallel.min-duration-seconds:600}") long minDurationSeconds,
+                                 @Value("${hrai.transcription.parallel.slice-seconds:300}") long sliceSeconds,
+                                 @Value("${hrai.transcription.parallel.silence-search-window-ms:4000}") long searchWindowMillis,
+                                 @Value("${hrai.transcription.parallel.parallelism:0}") int parallelism) {
+        this.audioDecoder = audioDecoder;
+        this.sliceTranscriber = new SliceTranscriber(audioDecoder, recognizerPool, voiceActivityDetector, metrics);
+        this.enabled = enabled;
+        this.minDurationMicros = minDurationSeconds * MICROS_PER_SECOND;
+        this.sliceMicros = Math.max(sliceSeconds, 30) * MICROS_PER_SECOND;
+        this.searchWindowMicros = searchWindowMillis * 1000L;
+        // 并行度不超过识别器池容量，否则多出的分片只会在池上等待
+        int cores = Runtime.getRuntime().availableProcessors();
+        int threads = parallelism > 0 ? parallelism : cores;
+        this.workerPool = new ForkJoinPool(Math.max(1, Math.min(threads, recognizerPool.getMaxSize())));
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 媒体时长是否达到分片转录的阈值
+     */
+    public boolean isApplicable(long durationMicros) {
+        return enabled && durationMicros >= minDurationMicros && durationMicros > sliceMicros;
+    }
+
+    /**
+     * 分片并行转录，返回按时间顺序拼接的Vosk识别结果
+     * @param session 检查点会话，可为null
+     * @param resumedSlices 从检查点读取的分片，为空时重新规划分片
+     * @param modelName 识别模型名称，为null时使用默认模型
+     */
+    String transcribe(String mediaPath, long durationMicros, TranscriptionProgressListener listener,
+                      TranscriptionCheckpointSession session, List<TranscriptionSlice> resumedSlices,
+                      String modelName) throws Exception {
+        long start = System.currentTimeMillis();
+        List<TranscriptionSlice> slices = resumedSlices;
+        if (slices.isEmpty()) {
+            slices = new ArrayList<>();
+            for (long[] range : planSlices(mediaPath, durationMicros)) {
+                slices.add(new TranscriptionSlice(range[0], range[1]));
+            }
+            if (session != null) {
+                session.start(slices);
+            }
+        }
+
+        // 各分片共享已处理采样计数，汇总后上报进度
+        ProgressCounter progress = new ProgressCounter(listener, durationMicros / 1000);
+
+        // ForkJoinPool的cancel不会中断运行中的任务，分片失败时通过共享标志让其余分片退出
+        AtomicBoolean aborted = new AtomicBoolean();
+        AtomicReference<Exception> failure = new AtomicReference<>();
+
+        // 分片间乱序完成，不推送中间结果，只推送带绝对时间戳的整句结果
+        List<Future<String>> futures = new ArrayList<>(slices.size());
+        for (TranscriptionSlice slice : slices) {
+            futures.add(workerPool.submit(RequestTrace.wrap(() -> {
+                try {
+                    return sliceTranscriber.transcribe(mediaPath, slice, listener, progress, false, 1, session,
+                            modelName, aborted);
+                } catch (Exception e) {
+                    // 失败时立即置位，不必等到按顺序取到该分片的结果
+                    failure.compareAndSet(null, e);
+                    aborted.set(true);
+                    throw e;
+                }
+            })));
+        }
+
+        StringBuilder result = new StringBuilder();
+        try {
+            for (Future<String> future : futures) {
+                result.append(future.get());
+            }
+        } catch (ExecutionException | InterruptedException e) {
+            aborted.set(true);
+            futures.forEach(f -> f.cancel(false));
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+                throw e;
+            }
+            // 其余分片因中止而失败，报告最先失败的分片的异常
+            Exception first = failure.get();
+            if (first != null) {
+                throw first;
+            }
+            Throwable cause = e.getCause();
+            throw cause instanceof Exception ? (Exception) cause : e;
+        }
+
+        System.out.println("分片并行转录完成: " + slices.size() + " 个分片，并行度 "
+                + workerPool.getParallelism() + "，耗时 " + (System.currentTimeMillis() - start) + " ms");
+        return result.toString();
+    }
+
+    /**
+     * 生成分片区间，每个切点在名义位置附近的窗口内对齐到能量最低的20ms帧
+     */
+    List<long[]> planSlices(String mediaPath, long durationMicros) throws Exception {
+        List<Future<Long>> cutFutures = new ArrayList<>();
+        for (long nominal = sliceMicros; nominal < durationMicros - sliceMicros / 2; nominal += sliceMicros) {
+            long cut = nominal;
+            cutFutures.add(workerPool.submit(RequestTrace.wrap(() -> findSilenceCut(mediaPath, cut))));
+        }
+
+        List<long[]> slices = new ArrayList<>();
+        long previous = 0;
+        for (Future<Long> cutFuture : cutFutures) {
+            long cut = cutFuture.get();
+            if (cut > previous) {
+                slices.add(new long[]{previous, cut});
+                previous = cut;
+            }
+        }
+        slices.add(new long[]{previous, Long.MAX_VALUE});
+        return slices;
+    }
+
+    /**
+     * 在名义切点前后的搜索窗口内查找最安静的位置
+     */
+    private long findSilenceCut(String mediaPath, long nominalMicros) throws Exception {
+        long windowStart = Math.max(0, nominalMicros - searchWindowMicros / 2);
+        long windowEnd = nominalMicros + searchWindowMicros / 2;
+        short[] window = new short[(int) ((windowEnd - windowStart) * StreamingAudioDecoder.TARGET_SAMPLE_RATE / MICROS_PER_SECOND)];
+        int[] filled = {0};
+
+        audioDecoder.decodeRange(mediaPath, windowStart, windowEnd, (samples, length) -> {
+            int n = Math.min(length, window.length - filled[0]);
+            System.arraycopy(samples, 0, window, filled[0], n);
+            filled[0] += n;
+        }, 1);
+
+        int offset = lowestEnergyOffset(window, filled[0], ENERGY_FRAME_SAMPLES);
+        if (offset < 0) {
+            return nominalMicros;
+        }
+        return windowStart + (long) offset * MICROS_PER_SECOND / StreamingAudioDecoder.TARGET_SAMPLE_RATE;
+    }
+
+    /**
+     * 返回能量最低的分析帧中心的采样偏移，数据不足一帧时返回-1
+     */
+    static int lowestEnergyOffset(short[] samples, int length, int frameSamples) {
+        int bestFrame = -1;
+        long bestEnergy = Long.MAX_VALUE;
+        for (int frameStart = 0; frameStart + frameSamples <= length; frameStart += frameSamples) {
+            long energy = 0;
+            for (int i = frameStart; i < frameStart + frameSamples; i++) {
+                energy += (long) samples[i] * samples[i];
+            }
+            if (energy < bestEnergy) {
+                bestEnergy = energy;
+                bestFrame = frameStart;
+            }
+        }
+        return bestFrame < 0 ? -1 : bestFrame + frameSamples / 2;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workerPool.shutdownNow();
+    }
+}
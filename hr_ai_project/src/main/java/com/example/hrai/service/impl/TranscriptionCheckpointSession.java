@@ -0,0 +1,94 @@
+package com.example.hrai.service.impl;
+
+import com.example.hrai.entity.TranscriptSegment;
+
+import java.util.List;
+
+/**
+ * 一次转录的检查点会话
+ * 分片并行时多个线程同时写入，写入操作串行执行；保存失败只记录日志，不影响转录本身。
+ * 同一存储中的同一（内容哈希、模型）同时只有一个会话（由存储记录占用），并发的第二次转录不使用检查点，
+ * 避免两次转录互相覆盖或删除对方的进度；
+ * 会话结束时必须调用close释放
+ */
+final class TranscriptionCheckpointSession implements AutoCloseable {
+
+    private final TranscriptionCheckpointStore store;
+    private final String key;
+    private final String modelName;
+    private final String mediaPath;
+    private boolean closed;
+
+    private TranscriptionCheckpointSession(TranscriptionCheckpointStore store, String key, String modelName,
+                                           String mediaPath) {
+        this.store = store;
+        this.key = key;
+        this.modelName = modelName;
+        this.mediaPath = mediaPath;
+    }
+
+    /**
+     * @return 检查点会话，未配置存储、未启用、没有键或同一内容和模型正在由其他转录使用检查点时返回null
+     */
+    static TranscriptionCheckpointSession open(TranscriptionCheckpointStore store, String key, String modelName,
+                                               String mediaPath) {
+        if (store == null || !store.isEnabled() || key == null) {
+            return null;
+        }
+        if (!store.acquire(key, modelName)) {
+            System.out.println("相同内容和模型的转录正在进行，本次转录不使用检查点: " + mediaPath);
+            return null;
+        }
+        return new TranscriptionCheckpointSession(store, key, modelName, mediaPath);
+    }
+
+    List<TranscriptionSlice> loadPlan() {
+        try {
+            return store.load(key, modelName);
+        } catch (Exception e) {
+            System.err.println("读取转录检查点失败: " + e.getMessage());
+            return List.of();
+        }
+    }
+
+    long getIntervalMillis() {
+        return store.getCheckpointIntervalMillis();
+    }
+
+    synchronized void start(List<TranscriptionSlice> slices) {
+        try {
+            store.savePlan(key, modelName, mediaPath, slices);
+        } catch (Exception e) {
+            System.err.println("保存转录检查点失败: " + e.getMessage());
+        }
+    }
+
+    synchronized void checkpoint(TranscriptionSlice slice, long resumeMicros, String resultText,
+                                 List<TranscriptSegment> segments, boolean completed) {
+        slice.update(resumeMicros, resultText, segments, completed);
+        try {
+            store.saveSlice(key, modelName, slice);
+        } catch (Exception e) {
+            System.err.println("保存转录检查点失败: " + e.getMessage());
+        }
+    }
+
+    synchronized void clear() {
+        try {
+            store.clear(key, modelName);
+        } catch (Exception e) {
+            System.err.println("删除转录检查点失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 结束会话，保留未删除的检查点供以后续转
+     */
+    @Override
+    public synchronized void close() {
+        if (!closed) {
+            closed = true;
+            store.release(key, modelName);
+        }
+    }
+}
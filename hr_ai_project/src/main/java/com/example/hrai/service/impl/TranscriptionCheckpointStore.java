@@ -0,0 +1,49 @@
+package com.example.hrai.service.impl;
+
+import java.util.List;
+
+/**
+ * 转录检查点的持久化
+ * 以（媒体内容哈希、识别模型）为键保存分片计划和每个分片的识别进度，进程重启或识别失败后可从检查点续转；
+ * 同一键同时只有一次转录持有检查点（由存储实例记录占用，见TranscriptionCheckpointSession），不同模型的检查点互不影响
+ */
+public interface TranscriptionCheckpointStore {
+
+    boolean isEnabled();
+
+    /**
+     * 两次检查点之间的最小媒体时长（毫秒）
+     */
+    long getCheckpointIntervalMillis();
+
+    /**
+     * 占用该键和模型的检查点，同一时间只允许一次转录持有
+     * @return 已被其他转录占用时返回false
+     */
+    boolean acquire(String key, String modelName);
+
+    /**
+     * 释放acquire占用的检查点
+     */
+    void release(String key, String modelName);
+
+    /**
+     * 读取该模型已保存的分片及进度，没有检查点时返回空列表
+     */
+    List<TranscriptionSlice> load(String key, String modelName);
+
+    /**
+     * 开始新的转录时保存分片计划（替换该键和模型已有的检查点）
+     */
+    void savePlan(String key, String modelName, String mediaPath, List<TranscriptionSlice> slices);
+
+    /**
+     * 保存一个分片的最新进度
+     */
+    void saveSlice(String key, String modelName, TranscriptionSlice slice);
+
+    /**
+     * 转录完成后删除该键和模型的检查点
+     */
+    void clear(String key, String modelName);
+}
@@ -0,0 +1,33 @@
+package com.example.hrai.service.impl;
+
+/**
+ * 转录引擎
+ * 每个引擎以名称注册到TranscriptionEngineRegistry，请求可按名称选择引擎，
+ * 引擎通过能力描述声明是否支持中间结果、词级时间戳、支持的语言和预期实时率
+ */
+public interface TranscriptionEngine {
+
+    /**
+     * 引擎名称，用于请求中选择引擎
+     */
+    String getName();
+
+    EngineCapabilities getCapabilities();
+
+    /**
+     * 把请求中的模型选择解析为该引擎的模型名称
+     * @param requested 请求的模型，为null时使用引擎的默认模型
+     * @throws IllegalArgumentException 引擎不支持该模型
+     */
+    String resolveModel(String requested);
+
+    /**
+     * 转录音视频文件
+     * @param listener 进度和识别结果监听器
+     * @param checkpointKey 检查点键（媒体内容哈希），引擎不支持检查点时忽略
+     * @param modelName resolveModel解析出的模型名称
+     * @return 转录结果
+     */
+    String transcribe(String mediaPath, TranscriptionProgressListener listener, String checkpointKey,
+                      String modelName) throws Exception;
+}
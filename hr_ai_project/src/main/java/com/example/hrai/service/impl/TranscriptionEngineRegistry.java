@@ -0,0 +1,112 @@
+package com.example.hrai.service.impl;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 转录引擎注册表
+ * 收集所有TranscriptionEngine，按请求中的名称路由，未指定时使用配置的默认引擎；
+ * 按引擎累计处理的媒体时长和耗时，便于在相同负载下对比各引擎的实际实时率
+ */
+@Component
+public class TranscriptionEngineRegistry {
+
+    private final Map<String, TranscriptionEngine> engines = new LinkedHashMap<>();
+    private final Map<String, EngineStats> stats = new LinkedHashMap<>();
+    private final String defaultEngine;
+    private final TranscriptionMetrics metrics;
+
+    public TranscriptionEngineRegistry(List<TranscriptionEngine> engines, String defaultEngine) {
+        this(engines, defaultEngine, new TranscriptionMetrics());
+    }
+
+    @Autowired
+    public TranscriptionEngineRegistry(List<TranscriptionEngine> engines,
+                                       @Value("${hrai.transcription.engine:" + VoskTranscriptionEngine.NAME + "}") String defaultEngine,
+                                       TranscriptionMetrics metrics) {
+        this.metrics = metrics;
+        for (TranscriptionEngine engine : engines) {
+            this.engines.put(engine.getName(), engine);
+            this.stats.put(engine.getName(), new EngineStats());
+        }
+        if (!this.engines.containsKey(defaultEngine)) {
+            throw new IllegalArgumentException("默认转录引擎未注册: " + defaultEngine);
+        }
+        this.defaultEngine = defaultEngine;
+    }
+
+    /**
+     * 按名称选择引擎
+     * @param name 引擎名称，为空时使用默认引擎
+     * @throws IllegalArgumentException 引擎未注册
+     */
+    public TranscriptionEngine resolve(String name) {
+        if (name == null || name.isBlank()) {
+            return engines.get(defaultEngine);
+        }
+        TranscriptionEngine engine = engines.get(name.trim());
+        if (engine == null) {
+            throw new IllegalArgumentException("未注册的转录引擎: " + name);
+        }
+        return engine;
+    }
+
+    public String getDefaultEngine() {
+        return defaultEngine;
+    }
+
+    /**
+     * 记录一次转录
+     * @param mediaMillis 引擎上报的媒体时长（毫秒），未知时为0
+     * @param elapsedMillis 转录耗时（毫秒）
+     */
+    void record(String engineName, long mediaMillis, long elapsedMillis, boolean failed) {
+        EngineStats engineStats = stats.get(engineName);
+        if (engineStats == null) {
+            return;
+        }
+        engineStats.transcriptions.incrementAndGet();
+        if (failed) {
+            engineStats.failures.incrementAndGet();
+        } else if (mediaMillis > 0) {
+            engineStats.mediaMillis.addAndGet(mediaMillis);
+            engineStats.elapsedMillis.addAndGet(elapsedMillis);
+            metrics.recordRealTimeFactor(engineName, mediaMillis, elapsedMillis);
+        }
+    }
+
+    /**
+     * 各引擎的能力描述和累计统计
+     */
+    public List<Map<String, Object>> getEngines() {
+        List<Map<String, Object>> list = new ArrayList<>();
+        for (TranscriptionEngine engine : engines.values()) {
+            EngineStats engineStats = stats.get(engine.getName());
+            long mediaMillis = engineStats.mediaMillis.get();
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("name", engine.getName());
+            map.put("default", engine.getName().equals(defaultEngine));
+            map.put("capabilities", engine.getCapabilities().toMap());
+            map.put("transcriptions", engineStats.transcriptions.get());
+            map.put("failures", engineStats.failures.get());
+            map.put("mediaMillis", mediaMillis);
+            map.put("measuredRealTimeFactor", mediaMillis == 0 ? null : (double) engineStats.elapsedMillis.get() / mediaMillis);
+            list.add(map);
+        }
+        return list;
+    }
+
+    private static class EngineStats {
+        private final AtomicLong transcriptions = new AtomicLong();
+        private final AtomicLong failures = new AtomicLong();
+        private final AtomicLong mediaMillis = new AtomicLong();
+        private final AtomicLong elapsedMillis = new AtomicLong();
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.hrai.service.impl;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 视频处理流水线的指标
+ * 各阶段（探测、音频提取、识别、入库、摘要）的耗时记入同一个带stage标签的计时器，
+ * 每次转录的实时率（耗时 / 媒体时长）按引擎记入直方图，分桶覆盖容量规划关心的区间；
+ * 队列深度、识别器占用等瞬时值由MetricsConfig注册为gauge
+ */
+@Component
+public class TranscriptionMetrics {
+
+    public static final String STAGE_TIMER = "hrai.pipeline.stage";
+    public static final String REAL_TIME_FACTOR = "hrai.transcription.realtime.factor";
+
+    public static final String PROBE = "probe";
+    public static final String EXTRACT = "extract";
+    public static final String RECOGNIZE = "recognize";
+    public static final String PERSIST = "persist";
+    public static final String SUMMARIZE = "summarize";
+
+    /** 实时率直方图的分桶上界：0.1表示1小时录音6分钟转完，1表示与录音等长 */
+    private static final double[] REAL_TIME_FACTOR_BUCKETS = {0.05, 0.1, 0.2, 0.3, 0.5, 0.75, 1.0, 1.5, 2.0, 3.0, 5.0};
+
+    private final MeterRegistry registry;
+    private final Map<String, Timer> stageTimers = new ConcurrentHashMap<>();
+    private final Map<String, DistributionSummary> realTimeFactors = new ConcurrentHashMap<>();
+
+    /**
+     * 脱离Spring容器使用时指标只保存在内存中
+     */
+    public TranscriptionMetrics() {
+        this(new SimpleMeterRegistry());
+    }
+
+    @Autowired
+    public TranscriptionMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * 记录一个阶段的耗时，当前线程属于某个请求时同时记入该请求的耗时树
+     * @param stage 阶段名称，如EXTRACT
+     */
+    public void recordStage(String stage, long nanos) {
+        RequestTrace.record(stage, nanos);
+        stageTimers.computeIfAbsent(stage, s -> Timer.builder(STAGE_TIMER)
+                .description("视频处理各阶段的耗时")
+                .tag("stage", s)
+                .publishPercentileHistogram()
+                .register(registry))
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * 记录一次转录的实时率
+     * @param mediaMillis 媒体时长（毫秒），为0时不记录
+     */
+    public void recordRealTimeFactor(String engineName, long mediaMillis, long elapsedMillis) {
+        if (mediaMillis <= 0) {
+            return;
+        }
+        realTimeFactors.computeIfAbsent(engineName, engine -> DistributionSummary.builder(REAL_TIME_FACTOR)
+                .description("转录耗时与媒体时长之比")
+                .tag("engine", engine)
+                .serviceLevelObjectives(REAL_TIME_FACTOR_BUCKETS)
+                .register(registry))
+                .record((double) elapsedMillis / mediaMillis);
+    }
+
+    public MeterRegistry getRegistry() {
+        return registry;
+    }
+}
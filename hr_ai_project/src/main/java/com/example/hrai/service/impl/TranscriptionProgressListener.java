@@ -0,0 +1,51 @@
+package com.example.hrai.service.impl;
+
+/**
+ * 转录进度监听器
+ * 由转录流水线在识别过程中回调，用于异步任务上报进度和实时推送识别文本
+ */
+public interface TranscriptionProgressListener {
+
+    TranscriptionProgressListener NONE = (processedMillis, totalMillis) -> { };
+
+    /**
+     * 识别进度回调
+     * @param processedMillis 已送入识别器的媒体时长（毫秒）
+     * @param totalMillis 媒体总时长（毫秒），未知时为0
+     */
+    void onProgress(long processedMillis, long totalMillis);
+
+    /**
+     * 是否需要实时的中间识别结果
+     * 获取中间结果有额外开销，只有存在订阅方时才返回true
+     */
+    default boolean wantsPartials() {
+        return false;
+    }
+
+    /**
+     * 中间识别结果（识别器当前的假设，后续可能变化）
+     * @param text 中间识别文本
+     * @param offsetMillis 当前媒体位置（毫秒）
+     */
+    default void onPartial(String text, long offsetMillis) {
+    }
+
+    /**
+     * 一句话识别完成
+     * @param text 识别文本
+     * @param startMillis 该句在媒体中的起始位置（毫秒）
+     * @param endMillis 该句在媒体中的结束位置（毫秒）
+     * @param confidence 平均词置信度（0-1），没有词级信息时为-1
+     */
+    default void onUtterance(String text, long startMillis, long endMillis, float confidence) {
+    }
+
+    /**
+     * 一路识别结束时回调VAD跳过的静音时长（分片转录时每个分片回调一次）
+     * @param skippedMillis 未送入识别器的静音时长（毫秒）
+     * @param inputMillis 该路解码出的音频总时长（毫秒）
+     */
+    default void onSilenceSkipped(long skippedMillis, long inputMillis) {
+    }
+}
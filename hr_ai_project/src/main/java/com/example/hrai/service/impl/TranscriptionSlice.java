@@ -0,0 +1,64 @@
+package com.example.hrai.service.impl;
+
+import com.example.hrai.entity.TranscriptSegment;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 转录区间及其检查点状态
+ * 整段转录视为[0, 文件末尾)的单个区间；续转时从resumeMicros开始，
+ * 之前已识别的结果和片段保存在resultText和segments中
+ */
+public class TranscriptionSlice {
+
+    private final long startMicros;
+    private final long endMicros;
+    private volatile long resumeMicros;
+    private volatile boolean completed;
+    private volatile String resultText = "";
+    private volatile List<TranscriptSegment> segments = new ArrayList<>();
+
+    public TranscriptionSlice(long startMicros, long endMicros) {
+        this.startMicros = startMicros;
+        this.endMicros = endMicros;
+        this.resumeMicros = startMicros;
+    }
+
+    public long getStartMicros() {
+        return startMicros;
+    }
+
+    /**
+     * 区间终点（微秒），Long.MAX_VALUE表示到文件末尾
+     */
+    public long getEndMicros() {
+        return endMicros;
+    }
+
+    public long getResumeMicros() {
+        return resumeMicros;
+    }
+
+    public boolean isCompleted() {
+        return completed;
+    }
+
+    public String getResultText() {
+        return resultText;
+    }
+
+    public List<TranscriptSegment> getSegments() {
+        return segments;
+    }
+
+    /**
+     * 更新检查点：resumeMicros之前的内容已识别完成
+     */
+    public void update(long resumeMicros, String resultText, List<TranscriptSegment> segments, boolean completed) {
+        this.resumeMicros = resumeMicros;
+        this.resultText = resultText != null ? resultText : "";
+        this.segments = segments != null ? segments : new ArrayList<>();
+        this.completed = completed;
+    }
+}
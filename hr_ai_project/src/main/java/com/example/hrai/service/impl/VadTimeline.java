@@ -0,0 +1,56 @@
+package com.example.hrai.service.impl;
+
+import java.util.Arrays;
+
+/**
+ * 跳过静音后的时间轴映射
+ * 记录每段保留音频在识别器输入中的起点和在原始媒体中的起点，
+ * 用于把识别器位置换算回媒体时间，保证时间戳不因跳过静音而偏移
+ */
+final class VadTimeline {
+
+    private long[] outputStarts = new long[64];
+    private long[] sourceStarts = new long[64];
+    private int size;
+
+    /**
+     * 记录一段保留音频的起点
+     * @param outputSample 该段在识别器输入中的起始采样位置
+     * @param sourceSample 该段在原始媒体中的起始采样位置
+     */
+    void addSegment(long outputSample, long sourceSample) {
+        if (size == outputStarts.length) {
+            outputStarts = Arrays.copyOf(outputStarts, size * 2);
+            sourceStarts = Arrays.copyOf(sourceStarts, size * 2);
+        }
+        outputStarts[size] = outputSample;
+        sourceStarts[size] = sourceSample;
+        size++;
+    }
+
+    /**
+     * 识别器输入中的采样位置换算为原始媒体中的采样位置
+     */
+    long toSourceSample(long outputSample) {
+        int low = 0;
+        int high = size - 1;
+        int found = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (outputStarts[mid] <= outputSample) {
+                found = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        if (found < 0) {
+            return outputSample;
+        }
+        return sourceStarts[found] + (outputSample - outputStarts[found]);
+    }
+
+    int getSegmentCount() {
+        return size;
+    }
+}
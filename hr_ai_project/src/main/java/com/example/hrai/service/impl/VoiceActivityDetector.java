@@ -0,0 +1,57 @@
+package com.example.hrai.service.impl;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * 语音活动检测配置
+ * 为每路识别创建独立的VAD门限，跳过静音段后再送入识别器
+ */
+@Component
+public class VoiceActivityDetector {
+
+    private static final double FULL_SCALE_POWER = 32768.0 * 32768.0;
+    private static final int FRAME_MILLIS = 1000 * VoiceActivityGate.FRAME_SAMPLES / StreamingAudioDecoder.TARGET_SAMPLE_RATE;
+
+    private final boolean enabled;
+    private final double thresholdDbfs;
+    private final long energyThreshold;
+    private final int hangoverFrames;
+    private final int preRollFrames;
+
+    public VoiceActivityDetector() {
+        this(true, -45, 400, 200);
+    }
+
+    @Autowired
+    public VoiceActivityDetector(@Value("${hrai.audio.vad.enabled:true}") boolean enabled,
+                                 @Value("${hrai.audio.vad.threshold-dbfs:-45}") double thresholdDbfs,
+                                 @Value("${hrai.audio.vad.hangover-ms:400}") int hangoverMillis,
+                                 @Value("${hrai.audio.vad.pre-roll-ms:200}") int preRollMillis) {
+        this.enabled = enabled;
+        this.thresholdDbfs = thresholdDbfs;
+        // dBFS换算为20ms帧的均方能量阈值
+        this.energyThreshold = (long) (FULL_SCALE_POWER * Math.pow(10, thresholdDbfs / 10));
+        this.hangoverFrames = Math.max(0, hangoverMillis) / FRAME_MILLIS;
+        this.preRollFrames = Math.max(0, preRollMillis) / FRAME_MILLIS;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public double getThresholdDbfs() {
+        return thresholdDbfs;
+    }
+
+    /**
+     * 创建一路VAD门限
+     * @param downstream 语音段的接收方（如识别器）
+     * @param timeline 记录保留段位置的时间轴
+     * @param bufferSamples 转发给下游的缓冲区大小
+     */
+    VoiceActivityGate newGate(StreamingAudioDecoder.PcmSink downstream, VadTimeline timeline, int bufferSamples) {
+        return new VoiceActivityGate(downstream, timeline, energyThreshold, hangoverFrames, preRollFrames, bufferSamples);
+    }
+}
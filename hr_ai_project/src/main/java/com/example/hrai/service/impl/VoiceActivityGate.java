@@ -0,0 +1,162 @@
+package com.example.hrai.service.impl;
+
+/**
+ * 基于能量的语音活动检测（VAD）
+ * 以20ms为一帧计算均方能量，低于阈值的帧视为非语音并丢弃，只把语音段转发给下游；
+ * 语音开始前保留一小段前导音频，语音结束后保留一段拖尾静音供识别器判定断句。
+ * 所有缓冲区在构造时分配，处理过程中不产生对象分配
+ */
+class VoiceActivityGate implements StreamingAudioDecoder.PcmSink {
+
+    static final int FRAME_SAMPLES = StreamingAudioDecoder.TARGET_SAMPLE_RATE / 50;
+
+    private final StreamingAudioDecoder.PcmSink downstream;
+    private final VadTimeline timeline;
+    private final long energyThreshold;
+    private final int hangoverFrames;
+
+    private final short[] frame = new short[FRAME_SAMPLES];
+    private int frameFill;
+
+    /** 前导音频环形缓冲区，按帧存放 */
+    private final short[] preRoll;
+    private final int preRollCapacity;
+    private int preRollHead;
+    private int preRollFrames;
+
+    private final short[] out;
+    private int outFill;
+
+    private boolean speaking;
+    private int hangoverLeft;
+    private long framedSamples;
+    private long inputSamples;
+    private long emittedSamples;
+
+    /**
+     * @param downstream 语音段的接收方
+     * @param timeline 记录保留段位置的时间轴
+     * @param energyThreshold 语音帧的最小均方能量
+     * @param hangoverFrames 语音结束后继续保留的帧数
+     * @param preRollFrames 语音开始前保留的帧数
+     * @param bufferSamples 转发给下游的缓冲区大小
+     */
+    VoiceActivityGate(StreamingAudioDecoder.PcmSink downstream, VadTimeline timeline, long energyThreshold,
+                      int hangoverFrames, int preRollFrames, int bufferSamples) {
+        this.downstream = downstream;
+        this.timeline = timeline;
+        this.energyThreshold = energyThreshold;
+        this.hangoverFrames = Math.max(0, hangoverFrames);
+        this.preRollCapacity = Math.max(0, preRollFrames);
+        this.preRoll = new short[preRollCapacity * FRAME_SAMPLES];
+        this.out = new short[Math.max(bufferSamples, FRAME_SAMPLES)];
+    }
+
+    @Override
+    public void accept(short[] samples, int length) throws Exception {
+        inputSamples += length;
+        int offset = 0;
+        while (offset < length) {
+            int n = Math.min(FRAME_SAMPLES - frameFill, length - offset);
+            System.arraycopy(samples, offset, frame, frameFill, n);
+            frameFill += n;
+            offset += n;
+            if (frameFill == FRAME_SAMPLES) {
+                processFrame();
+                frameFill = 0;
+            }
+        }
+        flushOutput();
+    }
+
+    /**
+     * 输入结束：处理不足一帧的剩余数据并清空输出缓冲区
+     */
+    void finish() throws Exception {
+        if (frameFill > 0 && speaking) {
+            emit(frame, 0, frameFill);
+        }
+        framedSamples += frameFill;
+        frameFill = 0;
+        flushOutput();
+    }
+
+    long getInputSamples() {
+        return inputSamples;
+    }
+
+    long getSkippedSamples() {
+        return inputSamples - emittedSamples;
+    }
+
+    private void processFrame() throws Exception {
+        if (meanSquare(frame) >= energyThreshold) {
+            if (!speaking) {
+                startSegment();
+            }
+            hangoverLeft = hangoverFrames;
+            emit(frame, 0, FRAME_SAMPLES);
+        } else if (speaking && hangoverLeft > 0) {
+            hangoverLeft--;
+            emit(frame, 0, FRAME_SAMPLES);
+        } else {
+            speaking = false;
+            pushPreRoll();
+        }
+        framedSamples += FRAME_SAMPLES;
+    }
+
+    /**
+     * 语音开始：记录时间轴映射，并先转发缓存的前导音频
+     */
+    private void startSegment() throws Exception {
+        speaking = true;
+        timeline.addSegment(emittedSamples, framedSamples - (long) preRollFrames * FRAME_SAMPLES);
+        int index = (preRollHead - preRollFrames + preRollCapacity) % Math.max(preRollCapacity, 1);
+        for (int i = 0; i < preRollFrames; i++) {
+            emit(preRoll, index * FRAME_SAMPLES, FRAME_SAMPLES);
+            index = (index + 1) % preRollCapacity;
+        }
+        preRollFrames = 0;
+    }
+
+    private void pushPreRoll() {
+        if (preRollCapacity == 0) {
+            return;
+        }
+        System.arraycopy(frame, 0, preRoll, preRollHead * FRAME_SAMPLES, FRAME_SAMPLES);
+        preRollHead = (preRollHead + 1) % preRollCapacity;
+        if (preRollFrames < preRollCapacity) {
+            preRollFrames++;
+        }
+    }
+
+    private void emit(short[] source, int offset, int length) throws Exception {
+        while (length > 0) {
+            int n = Math.min(out.length - outFill, length);
+            System.arraycopy(source, offset, out, outFill, n);
+            outFill += n;
+            offset += n;
+            length -= n;
+            emittedSamples += n;
+            if (outFill == out.length) {
+                flushOutput();
+            }
+        }
+    }
+
+    private void flushOutput() throws Exception {
+        if (outFill > 0) {
+            downstream.accept(out, outFill);
+            outFill = 0;
+        }
+    }
+
+    private static long meanSquare(short[] samples) {
+        long energy = 0;
+        for (short sample : samples) {
+            energy += (long) sample * sample;
+        }
+        return energy / samples.length;
+    }
+}
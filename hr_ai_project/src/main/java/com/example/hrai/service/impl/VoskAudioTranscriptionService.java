@@ -1,21 +1,12 @@
 package com.example.hrai.service.impl;
 
-import org.apache.tika.Tika;
-import org.bytedeco.ffmpeg.global.avcodec;
-import org.bytedeco.javacv.*;
-import org.mp4parser.IsoFile;
-import org.mp4parser.boxes.iso14496.part12.MovieBox;
-import org.mp4parser.boxes.iso14496.part12.TrackBox;
+import com.example.hrai.service.UploadWorkspace;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
-import org.vosk.LibVosk;
-import org.vosk.LogLevel;
-import org.vosk.Model;
-import org.vosk.Recognizer;
 
 import java.io.*;
-import java.nio.file.Files;
-import java.nio.file.Path;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 
 
 /**
@@ -26,10 +17,51 @@ import java.util.List;
 @Service
 public class VoskAudioTranscriptionService {
 
-    private final Tika tika;
+    private final VoskModelRegistry modelRegistry;
+    private final VoskRecognizerPool recognizerPool;
+    private final StreamingAudioDecoder audioDecoder;
+    private final TimeSlicedTranscriber timeSlicedTranscriber;
+    private final SliceTranscriber sliceTranscriber;
+    private final TranscriptionCheckpointStore checkpointStore;
+    private final MediaProbeService mediaProbeService;
 
+    /**
+     * 脱离Spring容器使用时（测试、main方法）自行创建模型注册表、识别器池、解码器和VAD
+     */
     public VoskAudioTranscriptionService() {
-        this.tika = new Tika();
+        this(new VoskModelRegistry(VoskModelRegistry.DEFAULT_MODEL_PATH, false));
+    }
+
+    VoskAudioTranscriptionService(VoskModelRegistry modelRegistry) {
+        this(new VoskRecognizerPool(modelRegistry, 0, 600), new StreamingAudioDecoder(), new VoiceActivityDetector());
+    }
+
+    private VoskAudioTranscriptionService(VoskRecognizerPool recognizerPool, StreamingAudioDecoder audioDecoder,
+                                          VoiceActivityDetector voiceActivityDetector) {
+        this(recognizerPool, audioDecoder,
+             new TimeSlicedTranscriber(audioDecoder, recognizerPool, voiceActivityDetector), voiceActivityDetector, null,
+             new MediaProbeService(), new TranscriptionMetrics());
+    }
+
+    @Autowired
+    public VoskAudioTranscriptionService(VoskRecognizerPool recognizerPool,
+                                         StreamingAudioDecoder audioDecoder,
+                                         TimeSlicedTranscriber timeSlicedTranscriber,
+                                         VoiceActivityDetector voiceActivityDetector,
+                                         TranscriptionCheckpointStore checkpointStore,
+                                         MediaProbeService mediaProbeService,
+                                         TranscriptionMetrics metrics) {
+        this.recognizerPool = recognizerPool;
+        this.modelRegistry = recognizerPool.getModelRegistry();
+        this.audioDecoder = audioDecoder;
+        this.timeSlicedTranscriber = timeSlicedTranscriber;
+        this.sliceTranscriber = new SliceTranscriber(audioDecoder, recognizerPool, voiceActivityDetector, metrics);
+        this.checkpointStore = checkpointStore;
+        this.mediaProbeService = mediaProbeService;
+    }
+
+    public VoskModelRegistry getModelRegistry() {
+        return modelRegistry;
     }
 
     /**
@@ -37,6 +69,30 @@ public class VoskAudioTranscriptionService {
      * 使用Vosk离线语音识别进行转录
      */
     public String transcribeAudio(String videoPath) throws Exception {
+        return transcribeAudio(videoPath, TranscriptionProgressListener.NONE);
+    }
+
+    /**
+     * 从音视频文件中提取文本，并在识别过程中回调进度
+     */
+    public String transcribeAudio(String videoPath, TranscriptionProgressListener listener) throws Exception {
+        return transcribeAudio(videoPath, listener, null);
+    }
+
+    /**
+     * 从音视频文件中提取文本，按检查点键保存识别进度
+     * @param checkpointKey 检查点键（媒体内容哈希），相同键的未完成转录从检查点续转；为null时不使用检查点
+     */
+    public String transcribeAudio(String videoPath, TranscriptionProgressListener listener, String checkpointKey) throws Exception {
+        return transcribeAudio(videoPath, listener, checkpointKey, null);
+    }
+
+    /**
+     * 使用指定的识别模型从音视频文件中提取文本
+     * @param modelName 模型名称（如zh-large）或语言（如en），为null时使用默认模型
+     */
+    public String transcribeAudio(String videoPath, TranscriptionProgressListener listener, String checkpointKey,
+                                  String modelName) throws Exception {
         try {
             // 检查文件是否存在
             File videoFile = new File(videoPath);
@@ -44,226 +100,130 @@ public class VoskAudioTranscriptionService {
                 throw new FileNotFoundException("视频文件不存在: " + videoPath);
             }
 
-            // 分析MP4文件结构（如果适用）
-            if (videoPath.toLowerCase().endsWith(".mp4")) {
-                analyzeMp4Structure(videoPath);
-            }
-
-            // 提取音频文件 (转换为语音识别支持的格式)
-            String audioPath = extractAudioAsWav(videoPath);
-
-            // 使用Vosk进行语音识别转录
-            String transcription = transcribeWithVosk(audioPath);
+            // 解码出的PCM直接送入Vosk识别，不落地中间WAV文件
+            String transcription = transcribeWithVosk(videoFile, listener, checkpointKey,
+                    modelRegistry.resolveName(modelName));
 
-            // 清理临时音频文件
-            try {
-                new File(audioPath).delete();
-            } catch (Exception e) {
-                System.err.println("删除临时音频文件失败: " + e.getMessage());
-            }
-
-            if (transcription != null && !transcription.isEmpty()) {
+            if (transcription != null && !transcription.isBlank()) {
                 return transcription;
             } else {
                 System.out.println("Vosk语音识别转录结果为空");
-                return "转录结果为空";
+                return AudioTranscriptionService.FAILURE_PREFIX + ": 转录结果为空";
             }
         } catch (Exception e) {
             System.err.println("Vosk语音识别转录失败: " + e.getMessage());
             e.printStackTrace();
-            return "转录失败: " + e.getMessage();
+            return AudioTranscriptionService.FAILURE_PREFIX + ": " + e.getMessage();
         }
     }
 
     /**
      * 使用Vosk进行语音识别转录
-     * 这里是Vosk的实际实现
+     * 解码线程输出的16kHz单声道PCM经堆外环形缓冲区交给识别线程，解码与识别流水线并行
      */
-    private String transcribeWithVosk(String audioPath) throws Exception {
-        File audioFile = new File(audioPath);
-        if (!audioFile.exists()) {
-            return "音频文件不存在: " + audioPath;
+    private String transcribeWithVosk(File mediaFile, TranscriptionProgressListener listener, String checkpointKey,
+                                      String modelName) throws Exception {
+        if (!modelRegistry.isModelAvailable(modelName)) {
+            // 模型缺失按失败处理，不返回演示文本，避免其被当作该文件的转录结果缓存
+            throw new FileNotFoundException("Vosk模型未找到，请从 https://alphacephei.com/vosk/models 下载模型并放置在: "
+                    + modelRegistry.getModelPath(modelName));
         }
 
-        // 初始化Vosk库
-        LibVosk.setLogLevel(LogLevel.INFO);
-
-        // 加载模型（需要先下载模型文件）
-        // 注意：在实际使用中，您需要下载Vosk模型并解压到models目录
-        // 模型可以从https://alphacephei.com/vosk/models下载
-        String modelPath = "Models/vosk-model-small-cn-0.22";
-        String resourcePath = "Models/vosk-model-small-cn-0.22";
+        String mediaPath = mediaFile.getPath();
+        // 只读容器头获取时长，决定是否分片并作为进度的分母
+        long durationMicros = mediaProbeService.probeDurationMillis(mediaPath) * 1000;
+
+        // 会话结束时释放对该内容和模型检查点的占用；转录失败时检查点保留供续转
+        try (TranscriptionCheckpointSession session = TranscriptionCheckpointSession.open(checkpointStore, checkpointKey,
+                modelName, mediaPath)) {
+            List<TranscriptionSlice> resumedSlices = session != null ? session.loadPlan() : List.of();
+            SilenceTally tally = new SilenceTally(listener);
+            if (!resumedSlices.isEmpty()) {
+                System.out.println("从检查点续转: " + mediaPath + "，共 " + resumedSlices.size() + " 个分片");
+            }
 
-        // First check if the model file exists on the filesystem, then try classpath
-        File modelDir = new File(modelPath);
-        if (!modelDir.exists()) {
-            // Try to get the resource from classpath (useful when running from jar)
-            java.net.URL resourceUrl = getClass().getClassLoader().getResource(resourcePath);
-            if (resourceUrl != null) {
-                // If the resource exists in classpath, use the direct path (it will be packaged in the jar)
-                modelPath = resourcePath;
+            String transcription;
+            if (resumedSlices.size() > 1 || (resumedSlices.isEmpty() && timeSlicedTranscriber.isApplicable(durationMicros))) {
+                // 长录音切分为多个分片并行转录
+                transcription = timeSlicedTranscriber.transcribe(mediaPath, durationMicros, tally, session, resumedSlices,
+                        modelName);
             } else {
-                // 模型目录不存在，返回模拟结果并提示用户下载模型
-                StringBuilder transcription = new StringBuilder();
-                transcription.append("警告：Vosk模型未找到，请下载模型文件并放置在正确位置。\n");
-                transcription.append("模型应放置在: ").append(modelPath).append("\n");
-                transcription.append("可以从 https://alphacephei.com/vosk/models 下载中文模型\n\n");
-
-                transcription.append("这是模拟的识别结果：\n");
-                transcription.append("音频文件: ").append(audioFile.getName()).append("\n");
-                transcription.append("文件大小: ").append(audioFile.length()).append(" 字节\n");
-                transcription.append("识别时间: ").append(new java.util.Date()).append("\n\n");
-
-                transcription.append("识别到的文本内容:\n");
-                transcription.append("这是一个演示性的识别结果。在实际应用中，这里会显示真实的语音识别内容。\n");
-                transcription.append("Vosk是一个优秀的离线语音识别引擎，具有高准确率和保护数据隐私的特点。\n");
-                transcription.append("它支持多种语言，包括中文，并且可以在没有网络连接的情况下工作。\n\n");
-
-                transcription.append("本系统使用Java技术栈实现了完整的音视频处理流程，包括：\n");
-                transcription.append("1. 音视频文件的读取和处理（使用MP4Parser分析MP4容器）\n");
-                transcription.append("2. 音频提取和格式转换（使用FFmpeg提取音频）\n");
-                transcription.append("3. 离线语音识别（使用Vosk进行语音转文字）\n");
-                transcription.append("4. 结果存储和展示\n\n");
-
-                transcription.append("Vosk语音识别的主要优势：\n");
-                transcription.append("- 离线识别，保护数据隐私\n");
-                transcription.append("- 高准确率，基于Kaldi引擎\n");
-                transcription.append("- 支持多语言\n");
-                transcription.append("- 跨平台支持\n");
-                transcription.append("- 商业友好的Apache 2.0许可证\n");
-
-                return transcription.toString();
+                // 整段转录：从识别器池借出识别器，模型在注册表中只加载一次
+                TranscriptionSlice slice = resumedSlices.isEmpty()
+                        ? new TranscriptionSlice(0, Long.MAX_VALUE) : resumedSlices.get(0);
+                if (resumedSlices.isEmpty() && session != null) {
+                    session.start(List.of(slice));
+                }
+                transcription = sliceTranscriber.transcribe(mediaPath, slice, tally,
+                        new ProgressCounter(tally, durationMicros / 1000), true, audioDecoder.getDecoderThreads(), session,
+                        modelName, null);
             }
-        }
 
-        Model model = new Model(modelPath);
-        Recognizer recognizer = new Recognizer(model, 16000.0f);
-
-        StringBuilder result = new StringBuilder();
-        try (FileInputStream ais = new FileInputStream(audioFile)) {
-            byte[] buffer = new byte[4096];
-            int nbytes;
-            while ((nbytes = ais.read(buffer)) >= 0) {
-                if (recognizer.acceptWaveForm(buffer, nbytes)) {
-                    result.append(recognizer.getResult()).append("\n");
-                }
+            tally.log(mediaPath);
+            if (session != null) {
+                session.clear();
             }
-            result.append(recognizer.getFinalResult()).append("\n");
-        } finally {
-            // Release Vosk model and recognizer to prevent memory leaks
-            recognizer.close();
-            model.close();
+            return transcription;
         }
-
-        return result.toString();
     }
 
     /**
-     * 分析MP4文件结构
+     * 处理上传的音视频文件并转录
+     * 上传内容直接转移到独占的工作目录中，转录结束后删除
      */
-    private void analyzeMp4Structure(String videoPath) throws Exception {
-        System.out.println("分析MP4文件结构: " + videoPath);
-        File videoFile = new File(videoPath);
-        IsoFile isoFile = new IsoFile(videoFile.getAbsolutePath());
-
-        MovieBox moov = isoFile.getMovieBox();
-        if (moov != null) {
-            List<TrackBox> trackBoxes = moov.getBoxes(TrackBox.class);
-            System.out.println("MP4文件包含 " + trackBoxes.size() + " 个轨道");
+    public String transcribeUploadedFile(org.springframework.web.multipart.MultipartFile file) throws Exception {
+        try (UploadWorkspace workspace = UploadWorkspace.create()) {
+            return transcribeAudio(workspace.receive(file).toString());
         }
-        isoFile.close();
     }
 
     /**
-     * 提取音频为WAV格式(语音识别支持的格式)
+     * 转发监听器回调，同时汇总各分片上报的静音跳过时长，整次转录结束后只输出一条日志
      */
-    private String extractAudioAsWav(String videoPath) throws Exception {
-        FFmpegFrameGrabber grabber = null;
-        FFmpegFrameRecorder recorder = null;
+    private static class SilenceTally implements TranscriptionProgressListener {
 
-        try {
-            grabber = FFmpegFrameGrabber.createDefault(videoPath);
-            grabber.start();
-
-            // 生成WAV格式的音频文件，符合语音识别要求 (16kHz, 16bit PCM)
-            String audioPath = videoPath.substring(0, videoPath.lastIndexOf('.')) + "_" + System.currentTimeMillis() + ".wav";
-
-            recorder = new FFmpegFrameRecorder(audioPath, 1); // 单声道
-            recorder.setVideoCodec(avcodec.AV_CODEC_ID_NONE); // 不记录视频
-            recorder.setAudioCodec(avcodec.AV_CODEC_ID_PCM_S16LE); // 16bit PCM
-            recorder.setSampleRate(16000); // 语音识别推荐采样率
-            recorder.setAudioBitrate(256000); // 16000 * 16 * 1
-            recorder.start();
-
-            Frame frame;
-            while ((frame = grabber.grab()) != null) {
-                // Check if frame contains audio data - different JavaCV versions have different approaches
-                if (frame != null && frame.samples != null && frame.samples.length > 0) { // 检查音频帧
-                    recorder.record(frame);
-                }
-            }
+        private final TranscriptionProgressListener delegate;
+        private final AtomicLong skippedMillis = new AtomicLong();
+        private final AtomicLong inputMillis = new AtomicLong();
 
-            return audioPath;
-        } finally {
-            // 确保资源被正确释放
-            if (recorder != null) {
-                try {
-                    recorder.stop();
-                    recorder.release();
-                } catch (Exception e) {
-                    System.err.println("释放recorder资源时出错: " + e.getMessage());
-                }
-            }
-            if (grabber != null) {
-                try {
-                    grabber.stop();
-                    grabber.release();
-                } catch (Exception e) {
-                    System.err.println("释放grabber资源时出错: " + e.getMessage());
-                }
-            }
+        SilenceTally(TranscriptionProgressListener delegate) {
+            this.delegate = delegate;
         }
-    }
 
-    /**
-     * 处理上传的音视频文件并转录
-     */
-    public String transcribeUploadedFile(org.springframework.web.multipart.MultipartFile file) throws Exception {
-        String originalFileName = file.getOriginalFilename();
-        if (originalFileName == null) {
-            originalFileName = "temp_file";
+        @Override
+        public void onProgress(long processedMillis, long totalMillis) {
+            delegate.onProgress(processedMillis, totalMillis);
         }
-        String extension = getFileExtension(originalFileName);
-        Path tempDir = Files.createTempDirectory("video_upload_");
-        Path tempVideoFile = tempDir.resolve("temp_video" + extension);
 
-        // 保存上传的文件
-        Files.copy(file.getInputStream(), tempVideoFile, java.nio.file.StandardCopyOption.REPLACE_EXISTING);
+        @Override
+        public boolean wantsPartials() {
+            return delegate.wantsPartials();
+        }
 
-        // 转录音频
-        String result = transcribeAudio(tempVideoFile.toString());
+        @Override
+        public void onPartial(String text, long offsetMillis) {
+            delegate.onPartial(text, offsetMillis);
+        }
 
-        // 清理临时目录
-        try {
-            Files.walk(tempDir)
-                 .sorted(java.util.Comparator.reverseOrder())
-                 .map(java.nio.file.Path::toFile)
-                 .forEach(java.io.File::delete);
-        } catch (Exception e) {
-            System.err.println("删除临时文件失败: " + e.getMessage());
+        @Override
+        public void onUtterance(String text, long startMillis, long endMillis, float confidence) {
+            delegate.onUtterance(text, startMillis, endMillis, confidence);
         }
 
-        return result;
-    }
+        @Override
+        public void onSilenceSkipped(long skippedMillis, long inputMillis) {
+            this.skippedMillis.addAndGet(skippedMillis);
+            this.inputMillis.addAndGet(inputMillis);
+            delegate.onSilenceSkipped(skippedMillis, inputMillis);
+        }
 
-    /**
-     * 获取文件扩展名
-     */
-    private String getFileExtension(String fileName) {
-        int lastIndexOfDot = fileName.lastIndexOf('.');
-        if (lastIndexOfDot > 0) {
-            return fileName.substring(lastIndexOfDot);
+        /**
+         * 未启用VAD（没有上报）时不输出
+         */
+        void log(String mediaPath) {
+            if (inputMillis.get() > 0) {
+                System.out.println("VAD跳过静音 " + skippedMillis.get() + " ms / " + inputMillis.get() + " ms: " + mediaPath);
+            }
         }
-        return ".tmp"; // 默认扩展名
     }
-}
\ No newline at end of file
+}
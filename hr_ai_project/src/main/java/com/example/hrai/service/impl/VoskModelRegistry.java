@@ -0,0 +1,418 @@
+package com.example.hrai.service.impl;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.vosk.LibVosk;
+import org.vosk.LogLevel;
+import org.vosk.Model;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+
+/**
+ * Vosk模型注册表
+ * 按名称（语言-规模，如zh-small、en-small、zh-large）配置多个模型，首次使用时加载，
+ * 之后同一模型的所有识别请求共享同一个模型实例；
+ * 已加载模型的总占用超过内存预算时，按最近最少使用的顺序卸载当前没有识别任务使用的模型
+ */
+@Component
+public class VoskModelRegistry {
+
+    public static final String DEFAULT_MODEL_PATH = "Models/vosk-model-small-cn-0.22";
+    public static final String DEFAULT_MODEL_NAME = "zh-small";
+
+    /**
+     * 模型被卸载时的回调，用于释放基于该模型创建的空闲识别器
+     */
+    @FunctionalInterface
+    public interface EvictionListener {
+        void onModelEvicted(Model model);
+    }
+
+    private final String defaultName;
+    private final boolean preload;
+    private final long memoryBudgetBytes;
+    /** 配置的模型名称到路径，按配置顺序排列，默认模型在最前 */
+    private final Map<String, String> configuredPaths = new LinkedHashMap<>();
+    /** 每个模型独立的加载锁，加载大模型时不阻塞其他模型的请求 */
+    private final Map<String, Object> loadLocks = new LinkedHashMap<>();
+    /** 已加载的模型，按访问顺序排列（最久未使用的在最前） */
+    private final LinkedHashMap<String, LoadedModel> loadedModels = new LinkedHashMap<>(16, 0.75f, true);
+    private final List<EvictionListener> evictionListeners = new CopyOnWriteArrayList<>();
+
+    private long loadedBytes = 0;
+    private long evictionCount = 0;
+
+    public VoskModelRegistry(String modelPath, boolean preload) {
+        this(modelPath, preload, DEFAULT_MODEL_NAME, "", 0);
+    }
+
+    @Autowired
+    public VoskModelRegistry(@Value("${hrai.vosk.model-path:" + DEFAULT_MODEL_PATH + "}") String modelPath,
+                             @Value("${hrai.vosk.preload:true}") boolean preload,
+                             @Value("${hrai.vosk.default-model:" + DEFAULT_MODEL_NAME + "}") String defaultName,
+                             @Value("${hrai.vosk.models:}") String models,
+                             @Value("${hrai.vosk.memory-budget-mb:0}") long memoryBudgetMb) {
+        this.defaultName = defaultName;
+        this.preload = preload;
+        this.memoryBudgetBytes = Math.max(0, memoryBudgetMb) * 1024 * 1024;
+        configuredPaths.put(defaultName, modelPath);
+        for (String entry : models.split(",")) {
+            int separator = entry.indexOf('=');
+            if (separator > 0) {
+                configuredPaths.putIfAbsent(entry.substring(0, separator).trim(), entry.substring(separator + 1).trim());
+            }
+        }
+        for (String name : configuredPaths.keySet()) {
+            loadLocks.put(name, new Object());
+        }
+    }
+
+    /**
+     * 启动时预加载默认模型，使第一个请求也不必承担加载开销
+     */
+    @PostConstruct
+    public void init() {
+        if (!preload) {
+            return;
+        }
+        try (ModelLease lease = acquire(defaultName)) {
+            if (lease == null) {
+                System.err.println("Vosk模型未找到: " + configuredPaths.get(defaultName));
+            }
+        } catch (Exception | LinkageError e) {
+            // 缺少Vosk本地库时不影响其他引擎和接口，使用Vosk转录时再报告错误
+            System.err.println("Vosk模型预加载失败: " + e.getMessage());
+        }
+    }
+
+    public void addEvictionListener(EvictionListener listener) {
+        evictionListeners.add(listener);
+    }
+
+    /**
+     * 把请求中的模型选择解析为配置的模型名称
+     * @param requested 模型名称（如zh-large）或语言（如en，取该语言配置的第一个模型），为空时使用默认模型
+     * @throws IllegalArgumentException 没有匹配的模型
+     */
+    public String resolveName(String requested) {
+        if (requested == null || requested.isBlank()) {
+            return defaultName;
+        }
+        String name = requested.trim();
+        if (configuredPaths.containsKey(name)) {
+            return name;
+        }
+        for (String configured : configuredPaths.keySet()) {
+            if (configured.startsWith(name + "-")) {
+                return configured;
+            }
+        }
+        throw new IllegalArgumentException("未配置的识别模型: " + requested);
+    }
+
+    public String getDefaultName() {
+        return defaultName;
+    }
+
+    /**
+     * 配置的全部模型名称，默认模型在最前
+     */
+    public Set<String> getModelNames() {
+        return Collections.unmodifiableSet(configuredPaths.keySet());
+    }
+
+    /**
+     * 借用模型，使用完毕后通过close()归还；借用期间模型不会被卸载
+     * @param name 模型名称，为null时使用默认模型
+     * @return 模型租约，模型文件不存在时返回null
+     */
+    public ModelLease acquire(String name) throws IOException {
+        String resolved = resolveName(name);
+        synchronized (loadLocks.get(resolved)) {
+            synchronized (this) {
+                LoadedModel loaded = loadedModels.get(resolved);
+                if (loaded != null) {
+                    loaded.leases++;
+                    return new ModelLease(loaded);
+                }
+            }
+
+            String path = resolveModelPath(configuredPaths.get(resolved));
+            if (path == null) {
+                return null;
+            }
+            long footprint = estimateFootprint(path);
+            List<LoadedModel> evicted;
+            synchronized (this) {
+                // 加载前先预留占用，并发加载其他模型时按预留后的总量淘汰，不会一起超出预算
+                evicted = evictFor(footprint);
+                loadedBytes += footprint;
+                if (memoryBudgetBytes > 0 && loadedBytes > memoryBudgetBytes) {
+                    System.err.println("已加载的Vosk模型超出内存预算: " + loadedBytes / (1024 * 1024)
+                            + " MB > " + memoryBudgetBytes / (1024 * 1024) + " MB（其余模型正在使用中）");
+                }
+            }
+            for (LoadedModel model : evicted) {
+                unload(model);
+            }
+
+            Model model;
+            long start = System.currentTimeMillis();
+            long rssBefore = NativeMemoryMonitor.readRssBytes();
+            try {
+                LibVosk.setLogLevel(LogLevel.INFO);
+                model = new Model(path);
+            } catch (IOException | RuntimeException | Error e) {
+                synchronized (this) {
+                    loadedBytes -= footprint;
+                }
+                throw e;
+            }
+            long rssAfter = NativeMemoryMonitor.readRssBytes();
+            LoadedModel loaded = new LoadedModel(resolved, path, model, footprint,
+                    rssBefore >= 0 && rssAfter >= 0 ? Math.max(0, rssAfter - rssBefore) : -1);
+            System.out.println("Vosk模型加载完成: " + resolved + " (" + path + ")，耗时 "
+                    + (System.currentTimeMillis() - start) + " ms，估算占用 " + footprint / (1024 * 1024) + " MB");
+
+            synchronized (this) {
+                loaded.leases = 1;
+                loadedModels.put(resolved, loaded);
+                return new ModelLease(loaded);
+            }
+        }
+    }
+
+    /**
+     * 按最近最少使用的顺序挑选未被借用的模型移出注册表，直到能容纳新模型
+     */
+    private List<LoadedModel> evictFor(long requiredBytes) {
+        List<LoadedModel> evicted = new ArrayList<>();
+        if (memoryBudgetBytes <= 0) {
+            return evicted;
+        }
+        Iterator<LoadedModel> iterator = loadedModels.values().iterator();
+        while (loadedBytes + requiredBytes > memoryBudgetBytes && iterator.hasNext()) {
+            LoadedModel candidate = iterator.next();
+            if (candidate.leases == 0) {
+                iterator.remove();
+                loadedBytes -= candidate.footprintBytes;
+                evictionCount++;
+                evicted.add(candidate);
+            }
+        }
+        return evicted;
+    }
+
+    private void unload(LoadedModel loaded) {
+        for (EvictionListener listener : evictionListeners) {
+            listener.onModelEvicted(loaded.model);
+        }
+        loaded.model.close();
+        System.out.println("Vosk模型已卸载: " + loaded.name + "，释放约 " + loaded.footprintBytes / (1024 * 1024) + " MB");
+    }
+
+    private synchronized void release(LoadedModel loaded) {
+        loaded.leases--;
+    }
+
+    /**
+     * 默认模型是否可用
+     */
+    public boolean isModelAvailable() {
+        return isModelAvailable(defaultName);
+    }
+
+    /**
+     * 模型文件是否存在（不加载模型）
+     */
+    public boolean isModelAvailable(String name) {
+        return resolveModelPath(configuredPaths.get(resolveName(name))) != null;
+    }
+
+    /**
+     * 获取默认模型路径
+     */
+    public String getModelPath() {
+        return getModelPath(defaultName);
+    }
+
+    /**
+     * 获取模型路径（已加载时返回实际路径）
+     */
+    public synchronized String getModelPath(String name) {
+        String resolved = resolveName(name);
+        LoadedModel loaded = loadedModels.get(resolved);
+        return loaded != null ? loaded.path : configuredPaths.get(resolved);
+    }
+
+    /**
+     * 已加载模型的估算本地内存占用合计
+     */
+    public synchronized long getLoadedBytes() {
+        return loadedBytes;
+    }
+
+    public synchronized int getLoadedCount() {
+        return loadedModels.size();
+    }
+
+    /**
+     * 各模型的配置、加载状态和内存占用
+     */
+    public synchronized Map<String, Object> getStats() {
+        List<Map<String, Object>> models = new ArrayList<>();
+        for (Map.Entry<String, String> entry : configuredPaths.entrySet()) {
+            Map<String, Object> model = new LinkedHashMap<>();
+            model.put("name", entry.getKey());
+            model.put("path", entry.getValue());
+            // 直接读取，不改变访问顺序
+            LoadedModel loaded = null;
+            for (LoadedModel candidate : loadedModels.values()) {
+                if (candidate.name.equals(entry.getKey())) {
+                    loaded = candidate;
+                }
+            }
+            model.put("loaded", loaded != null);
+            if (loaded != null) {
+                model.put("footprintBytes", loaded.footprintBytes);
+                model.put("measuredRssBytes", loaded.measuredRssBytes);
+                model.put("activeLeases", loaded.leases);
+            }
+            models.add(model);
+        }
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("defaultModel", defaultName);
+        stats.put("memoryBudgetBytes", memoryBudgetBytes);
+        stats.put("loadedBytes", loadedBytes);
+        stats.put("evictionCount", evictionCount);
+        stats.put("models", models);
+        return stats;
+    }
+
+    /**
+     * 先查找文件系统路径，再查找classpath资源
+     * @return 模型路径，不存在时返回null
+     */
+    private String resolveModelPath(String configuredPath) {
+        File modelDir = new File(configuredPath);
+        if (modelDir.exists()) {
+            return modelDir.getAbsolutePath();
+        }
+        URL resourceUrl = getClass().getClassLoader().getResource(configuredPath);
+        if (resourceUrl == null) {
+            return null;
+        }
+        if ("file".equals(resourceUrl.getProtocol())) {
+            try {
+                return Paths.get(resourceUrl.toURI()).toString();
+            } catch (Exception e) {
+                return configuredPath;
+            }
+        }
+        // 打包在jar中时直接使用资源路径
+        return configuredPath;
+    }
+
+    /**
+     * 估算模型加载后的本地内存占用
+     * Kaldi加载时把声学模型、解码图等文件全部读入本地内存，占用与模型目录大小基本一致
+     */
+    static long estimateFootprint(String modelPath) {
+        Path dir = Paths.get(modelPath);
+        if (!Files.isDirectory(dir)) {
+            return 0;
+        }
+        try (Stream<Path> files = Files.walk(dir)) {
+            return files.filter(Files::isRegularFile).mapToLong(file -> {
+                try {
+                    return Files.size(file);
+                } catch (IOException e) {
+                    return 0;
+                }
+            }).sum();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        List<LoadedModel> all;
+        synchronized (this) {
+            all = new ArrayList<>(loadedModels.values());
+            loadedModels.clear();
+            loadedBytes = 0;
+        }
+        for (LoadedModel loaded : all) {
+            loaded.model.close();
+        }
+    }
+
+    private static class LoadedModel {
+
+        private final String name;
+        private final String path;
+        private final Model model;
+        private final long footprintBytes;
+        private final long measuredRssBytes;
+        private int leases;
+
+        LoadedModel(String name, String path, Model model, long footprintBytes, long measuredRssBytes) {
+            this.name = name;
+            this.path = path;
+            this.model = model;
+            this.footprintBytes = footprintBytes;
+            this.measuredRssBytes = measuredRssBytes;
+        }
+    }
+
+    /**
+     * 模型租约，关闭后模型才可能被卸载
+     */
+    public class ModelLease implements AutoCloseable {
+
+        private LoadedModel loaded;
+        private final Model model;
+        private final String name;
+
+        private ModelLease(LoadedModel loaded) {
+            this.loaded = loaded;
+            this.model = loaded.model;
+            this.name = loaded.name;
+        }
+
+        public Model getModel() {
+            return model;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public void close() {
+            if (loaded != null) {
+                release(loaded);
+                loaded = null;
+            }
+        }
+    }
+}
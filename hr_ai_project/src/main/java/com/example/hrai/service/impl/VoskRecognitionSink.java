@@ -0,0 +1,183 @@
+package com.example.hrai.service.impl;
+
+import com.example.hrai.entity.TranscriptSegment;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 将PCM数据送入Vosk识别器，并把识别结果回调给监听器
+ * 单路转录和分片转录共用同一套结果处理逻辑；
+ * 启用VAD时静音段不送入识别器，识别结果的时间戳通过时间轴换算回媒体时间；
+ * 整句结果的起止时间取自词级时间戳
+ */
+class VoskRecognitionSink implements StreamingAudioDecoder.PcmSink {
+
+    /**
+     * 检查点回调，在整句边界调用（此时识别器内没有未完成的句子，可从该位置续转）
+     */
+    @FunctionalInterface
+    interface Checkpointer {
+        /**
+         * @param resumeMillis 已识别完成的媒体位置（毫秒）
+         * @param resultText 本次识别到目前为止的结果
+         * @param segments 本次识别到目前为止的片段
+         */
+        void checkpoint(long resumeMillis, String resultText, List<TranscriptSegment> segments);
+    }
+
+    /** 中间结果的最小推送间隔：1秒音频 */
+    private static final long PARTIAL_INTERVAL_SAMPLES = StreamingAudioDecoder.TARGET_SAMPLE_RATE;
+    private static final int VAD_BUFFER_SAMPLES = StreamingAudioDecoder.DEFAULT_BUFFER_SAMPLES;
+
+    private final VoskRecognizerPool.Lease lease;
+    private final long baseMillis;
+    private final TranscriptionProgressListener listener;
+    private final boolean partials;
+    private final StreamingAudioDecoder.PcmSink tap;
+    private final VadTimeline timeline;
+    private final VoiceActivityGate gate;
+    private final Checkpointer checkpointer;
+    private final long checkpointIntervalMillis;
+    private final StringBuilder result = new StringBuilder();
+    private final List<TranscriptSegment> segments = new ArrayList<>();
+
+    /** 已送入识别器的采样数（不含跳过的静音） */
+    private long processedSamples = 0;
+    private long lastPartialSamples = 0;
+    private long utteranceStartMillis;
+    private long lastCheckpointMillis;
+
+    /**
+     * @param lease 识别器租约
+     * @param baseMillis 本段音频在媒体中的起始位置（毫秒），用于换算绝对时间戳
+     * @param listener 识别结果监听器
+     * @param partials 是否推送中间识别结果
+     * @param tap 每块解码出的PCM额外调用的回调（如进度统计，包含被跳过的静音），可为null
+     * @param vad 语音活动检测，为null或未启用时全部音频送入识别器
+     * @param checkpointer 检查点回调，可为null
+     * @param checkpointIntervalMillis 两次检查点之间的最小媒体时长（毫秒）
+     */
+    VoskRecognitionSink(VoskRecognizerPool.Lease lease, long baseMillis, TranscriptionProgressListener listener,
+                        boolean partials, StreamingAudioDecoder.PcmSink tap, VoiceActivityDetector vad,
+                        Checkpointer checkpointer, long checkpointIntervalMillis) {
+        this.lease = lease;
+        this.baseMillis = baseMillis;
+        this.listener = listener;
+        this.partials = partials;
+        this.tap = tap;
+        this.utteranceStartMillis = baseMillis;
+        this.checkpointer = checkpointer;
+        this.checkpointIntervalMillis = checkpointIntervalMillis;
+        this.lastCheckpointMillis = baseMillis;
+        if (vad != null && vad.isEnabled()) {
+            this.timeline = new VadTimeline();
+            this.gate = vad.newGate(this::recognize, timeline, VAD_BUFFER_SAMPLES);
+        } else {
+            this.timeline = null;
+            this.gate = null;
+        }
+    }
+
+    @Override
+    public void accept(short[] samples, int length) throws Exception {
+        if (gate != null) {
+            gate.accept(samples, length);
+        } else {
+            recognize(samples, length);
+        }
+        if (tap != null) {
+            tap.accept(samples, length);
+        }
+    }
+
+    /**
+     * 取出识别器中剩余的最终结果
+     * @return 所有Vosk识别结果，每行一条JSON
+     */
+    String finish() throws Exception {
+        if (gate != null) {
+            gate.finish();
+            long skippedMillis = gate.getSkippedSamples() * 1000 / StreamingAudioDecoder.TARGET_SAMPLE_RATE;
+            long inputMillis = gate.getInputSamples() * 1000 / StreamingAudioDecoder.TARGET_SAMPLE_RATE;
+            listener.onSilenceSkipped(skippedMillis, inputMillis);
+        }
+        handleResult(lease.recognizer().getFinalResult());
+        return result.toString();
+    }
+
+    /**
+     * 本次识别产生的片段（按时间顺序，仅在启用检查点时记录）
+     */
+    List<TranscriptSegment> getSegments() {
+        return segments;
+    }
+
+    private void recognize(short[] samples, int length) {
+        processedSamples += length;
+        if (lease.acceptWaveForm(samples, length)) {
+            handleResult(lease.recognizer().getResult());
+            maybeCheckpoint();
+        } else if (partials && processedSamples - lastPartialSamples >= PARTIAL_INTERVAL_SAMPLES
+                && listener.wantsPartials()) {
+            lastPartialSamples = processedSamples;
+            String partial = VoskResultParser.extractText(lease.recognizer().getPartialResult());
+            if (!partial.isEmpty()) {
+                listener.onPartial(partial, currentMillis());
+            }
+        }
+    }
+
+    private void handleResult(String json) {
+        result.append(json).append("\n");
+        long now = currentMillis();
+        VoskResultParser.RecognitionResult parsed = VoskResultParser.parseResult(json);
+        if (!parsed.getText().isEmpty()) {
+            long startMillis = utteranceStartMillis;
+            long endMillis = now;
+            if (parsed.hasWordTimes()) {
+                // 词时间换算为媒体时间，并限制在本句音频的范围内
+                startMillis = clamp(wordMillis(parsed.getStartSeconds()), utteranceStartMillis, now);
+                endMillis = clamp(wordMillis(parsed.getEndSeconds()), startMillis, now);
+            }
+            listener.onUtterance(parsed.getText(), startMillis, endMillis, parsed.getConfidence());
+            if (checkpointer != null) {
+                segments.add(new TranscriptSegment(startMillis, endMillis, parsed.getText(),
+                        parsed.getConfidence() >= 0 ? parsed.getConfidence() : null));
+            }
+        }
+        utteranceStartMillis = now;
+    }
+
+    private void maybeCheckpoint() {
+        if (checkpointer == null || utteranceStartMillis - lastCheckpointMillis < checkpointIntervalMillis) {
+            return;
+        }
+        lastCheckpointMillis = utteranceStartMillis;
+        checkpointer.checkpoint(utteranceStartMillis, result.toString(), new ArrayList<>(segments));
+    }
+
+    /**
+     * 识别器当前位置对应的媒体时间（毫秒）
+     */
+    private long currentMillis() {
+        return toMediaMillis(processedSamples);
+    }
+
+    /**
+     * 识别器时钟的秒数换算为媒体时间（毫秒）
+     */
+    private long wordMillis(double recognizerSeconds) {
+        long samples = Math.round(recognizerSeconds * StreamingAudioDecoder.TARGET_SAMPLE_RATE) - lease.getClockOffsetSamples();
+        return toMediaMillis(Math.max(0, samples));
+    }
+
+    private long toMediaMillis(long recognizedSamples) {
+        long sourceSamples = timeline != null ? timeline.toSourceSample(recognizedSamples) : recognizedSamples;
+        return baseMillis + sourceSamples * 1000 / StreamingAudioDecoder.TARGET_SAMPLE_RATE;
+    }
+
+    private static long clamp(long value, long min, long max) {
+        return Math.max(min, Math.min(value, max));
+    }
+}
@@ -0,0 +1,272 @@
+package com.example.hrai.service.impl;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.vosk.Model;
+import org.vosk.Recognizer;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Vosk识别器池
+ * 识别器基于共享模型创建，使用后reset()归还复用；空闲识别器按模型分组，模型被卸载时一并关闭，
+ * 池大小（所有模型合计的并发识别数）默认等于CPU核数，超出时调用方排队等待
+ * 识别器开启词级时间戳；reset()不会清零识别器内部时钟，因此池中记录每个识别器累计接收的采样数，
+ * 供调用方把词时间换算为本次租约内的位置
+ */
+@Component
+public class VoskRecognizerPool {
+
+    public static final float SAMPLE_RATE = 16000.0f;
+
+    private final VoskModelRegistry modelRegistry;
+    private final int maxSize;
+    private final long acquireTimeoutSeconds;
+    private final Semaphore permits;
+    private final Map<Model, ConcurrentLinkedDeque<PooledRecognizer>> idle = new ConcurrentHashMap<>();
+    private final NativeResourceTracker resourceTracker;
+
+    private final AtomicInteger created = new AtomicInteger();
+    private final AtomicInteger inUse = new AtomicInteger();
+    private final AtomicLong borrowCount = new AtomicLong();
+    private final AtomicLong waitCount = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+
+    public VoskRecognizerPool(VoskModelRegistry modelRegistry, int poolSize, long acquireTimeoutSeconds) {
+        this(modelRegistry, poolSize, acquireTimeoutSeconds, new NativeResourceTracker());
+    }
+
+    @Autowired
+    public VoskRecognizerPool(VoskModelRegistry modelRegistry,
+                              @Value("${hrai.vosk.pool-size:0}") int poolSize,
+                              @Value("${hrai.vosk.pool-acquire-timeout-seconds:600}") long acquireTimeoutSeconds,
+                              NativeResourceTracker resourceTracker) {
+        this.modelRegistry = modelRegistry;
+        this.resourceTracker = resourceTracker;
+        this.maxSize = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+        this.acquireTimeoutSeconds = acquireTimeoutSeconds;
+        this.permits = new Semaphore(this.maxSize, true);
+        modelRegistry.addEvictionListener(this::discardIdle);
+    }
+
+    /**
+     * 使用默认模型借出一个识别器
+     */
+    public Lease borrow() throws IOException, InterruptedException {
+        return borrow(null);
+    }
+
+    /**
+     * 借出一个识别器，使用完毕后通过close()归还
+     * @param modelName 模型名称，为null时使用默认模型
+     * @return 识别器租约，模型不可用时返回null
+     */
+    public Lease borrow(String modelName) throws IOException, InterruptedException {
+        VoskModelRegistry.ModelLease modelLease = modelRegistry.acquire(modelName);
+        if (modelLease == null) {
+            return null;
+        }
+
+        long start = System.nanoTime();
+        try {
+            if (!permits.tryAcquire()) {
+                waitCount.incrementAndGet();
+                if (!permits.tryAcquire(acquireTimeoutSeconds, TimeUnit.SECONDS)) {
+                    throw new IllegalStateException("识别器池繁忙，等待超时");
+                }
+            }
+        } catch (InterruptedException | RuntimeException e) {
+            modelLease.close();
+            throw e;
+        }
+        totalWaitNanos.addAndGet(System.nanoTime() - start);
+
+        Model model = modelLease.getModel();
+        PooledRecognizer pooled = idleFor(model).pollFirst();
+        if (pooled == null) {
+            try {
+                Recognizer recognizer = new Recognizer(model, SAMPLE_RATE);
+                recognizer.setWords(true);
+                pooled = new PooledRecognizer(model, recognizer);
+                created.incrementAndGet();
+            } catch (IOException | RuntimeException e) {
+                permits.release();
+                modelLease.close();
+                throw e;
+            }
+        }
+        inUse.incrementAndGet();
+        borrowCount.incrementAndGet();
+        Lease lease = new Lease(pooled, modelLease);
+        // 租约未关闭就被回收时，识别器、池许可和模型租约都无法再归还
+        resourceTracker.track(lease, NativeResourceTracker.VOSK_RECOGNIZER, modelLease.getName());
+        return lease;
+    }
+
+    private ConcurrentLinkedDeque<PooledRecognizer> idleFor(Model model) {
+        return idle.computeIfAbsent(model, m -> new ConcurrentLinkedDeque<>());
+    }
+
+    private void giveBack(PooledRecognizer pooled, VoskModelRegistry.ModelLease modelLease) {
+        try {
+            pooled.recognizer.reset();
+            idleFor(pooled.model).offerFirst(pooled);
+        } catch (RuntimeException e) {
+            // reset失败的识别器直接丢弃
+            System.err.println("识别器重置失败，已丢弃: " + e.getMessage());
+            pooled.recognizer.close();
+            created.decrementAndGet();
+        } finally {
+            inUse.decrementAndGet();
+            permits.release();
+            // 识别器归还后再释放模型，保证模型卸载时该模型没有借出的识别器
+            modelLease.close();
+        }
+    }
+
+    /**
+     * 模型卸载前关闭基于该模型创建的空闲识别器
+     */
+    private void discardIdle(Model model) {
+        ConcurrentLinkedDeque<PooledRecognizer> recognizers = idle.remove(model);
+        if (recognizers == null) {
+            return;
+        }
+        PooledRecognizer pooled;
+        while ((pooled = recognizers.pollFirst()) != null) {
+            pooled.recognizer.close();
+            created.decrementAndGet();
+        }
+    }
+
+    public VoskModelRegistry getModelRegistry() {
+        return modelRegistry;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public int getInUse() {
+        return inUse.get();
+    }
+
+    /**
+     * 已创建的识别器数（借出和空闲合计），每个识别器都持有Kaldi解码器的本地内存
+     */
+    public int getCreated() {
+        return created.get();
+    }
+
+    /**
+     * 等待空闲识别器的线程数
+     */
+    public int getWaiting() {
+        return permits.getQueueLength();
+    }
+
+    /**
+     * 池使用情况统计
+     */
+    public Map<String, Object> getStats() {
+        long borrows = borrowCount.get();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("maxSize", maxSize);
+        stats.put("created", created.get());
+        stats.put("inUse", inUse.get());
+        stats.put("idle", idle.values().stream().mapToInt(ConcurrentLinkedDeque::size).sum());
+        stats.put("waitingThreads", permits.getQueueLength());
+        stats.put("utilization", maxSize == 0 ? 0.0 : (double) inUse.get() / maxSize);
+        stats.put("borrowCount", borrows);
+        stats.put("waitCount", waitCount.get());
+        stats.put("avgWaitMillis", borrows == 0 ? 0.0 : totalWaitNanos.get() / 1_000_000.0 / borrows);
+        stats.put("modelAvailable", modelRegistry.isModelAvailable());
+        stats.put("modelPath", modelRegistry.getModelPath());
+        stats.put("models", modelRegistry.getStats());
+        return stats;
+    }
+
+    @PreDestroy
+    public void close() {
+        for (Model model : idle.keySet()) {
+            discardIdle(model);
+        }
+    }
+
+    /**
+     * 池中的识别器及其累计接收的采样数
+     */
+    private static class PooledRecognizer {
+
+        private final Model model;
+        private final Recognizer recognizer;
+        private long consumedSamples;
+
+        PooledRecognizer(Model model, Recognizer recognizer) {
+            this.model = model;
+            this.recognizer = recognizer;
+        }
+    }
+
+    /**
+     * 识别器租约，关闭时重置并归还识别器
+     */
+    public class Lease implements AutoCloseable {
+
+        private PooledRecognizer pooled;
+        private final VoskModelRegistry.ModelLease modelLease;
+        private final long clockOffsetSamples;
+
+        private Lease(PooledRecognizer pooled, VoskModelRegistry.ModelLease modelLease) {
+            this.pooled = pooled;
+            this.modelLease = modelLease;
+            this.clockOffsetSamples = pooled.consumedSamples;
+        }
+
+        /**
+         * 识别器所用的模型名称
+         */
+        public String getModelName() {
+            return modelLease.getName();
+        }
+
+        public Recognizer recognizer() {
+            return pooled.recognizer;
+        }
+
+        /**
+         * 送入PCM数据，并累计识别器接收的采样数
+         * @return 是否产生了一句最终结果
+         */
+        public boolean acceptWaveForm(short[] samples, int length) {
+            pooled.consumedSamples += length;
+            return pooled.recognizer.acceptWaveForm(samples, length);
+        }
+
+        /**
+         * 本次租约开始时识别器内部时钟的位置（采样数），词时间减去该值即为租约内的位置
+         */
+        public long getClockOffsetSamples() {
+            return clockOffsetSamples;
+        }
+
+        @Override
+        public void close() {
+            if (pooled != null) {
+                giveBack(pooled, modelLease);
+                pooled = null;
+                resourceTracker.release(this);
+            }
+        }
+    }
+}
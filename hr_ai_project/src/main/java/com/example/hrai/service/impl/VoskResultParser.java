@@ -0,0 +1,144 @@
+package com.example.hrai.service.impl;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+
+/**
+ * Vosk识别结果JSON解析
+ * 使用Jackson流式解析，只读取需要的字段，不构建完整的对象树
+ */
+public final class VoskResultParser {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private VoskResultParser() {
+    }
+
+    /**
+     * 提取结果中的顶层文本字段（最终结果为text，中间结果为partial）
+     * @return 文本内容，解析失败或不存在时返回空字符串
+     */
+    public static String extractText(String json) {
+        if (json == null || json.isEmpty()) {
+            return "";
+        }
+        try (JsonParser parser = JSON_FACTORY.createParser(json)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return "";
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                if (value == JsonToken.VALUE_STRING && ("text".equals(field) || "partial".equals(field))) {
+                    return parser.getText();
+                }
+                parser.skipChildren();
+            }
+        } catch (IOException e) {
+            System.err.println("解析Vosk识别结果失败: " + e.getMessage());
+        }
+        return "";
+    }
+
+    /**
+     * 解析最终识别结果（需开启词级时间戳），汇总为一句的文本、起止时间和平均置信度
+     * @return 解析结果，解析失败时返回空文本的结果
+     */
+    public static RecognitionResult parseResult(String json) {
+        RecognitionResult result = new RecognitionResult();
+        if (json == null || json.isEmpty()) {
+            return result;
+        }
+        try (JsonParser parser = JSON_FACTORY.createParser(json)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return result;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                if ("text".equals(field) && value == JsonToken.VALUE_STRING) {
+                    result.text = parser.getText();
+                } else if ("result".equals(field) && value == JsonToken.START_ARRAY) {
+                    readWords(parser, result);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("解析Vosk识别结果失败: " + e.getMessage());
+        }
+        return result;
+    }
+
+    /**
+     * 读取词数组：[{"conf":..., "start":..., "end":..., "word":...}, ...]
+     */
+    private static void readWords(JsonParser parser, RecognitionResult result) throws IOException {
+        double confidenceSum = 0;
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                parser.nextToken();
+                switch (field) {
+                    case "start":
+                        double start = parser.getDoubleValue();
+                        if (result.wordCount == 0 || start < result.startSeconds) {
+                            result.startSeconds = start;
+                        }
+                        break;
+                    case "end":
+                        result.endSeconds = Math.max(result.endSeconds, parser.getDoubleValue());
+                        break;
+                    case "conf":
+                        confidenceSum += parser.getDoubleValue();
+                        break;
+                    default:
+                        parser.skipChildren();
+                }
+            }
+            result.wordCount++;
+        }
+        if (result.wordCount > 0) {
+            result.confidence = (float) (confidenceSum / result.wordCount);
+        }
+    }
+
+    /**
+     * 一句最终识别结果
+     * 时间为识别器自身时钟的秒数（从识别器创建起累计），由调用方换算为媒体时间
+     */
+    public static final class RecognitionResult {
+
+        private String text = "";
+        private double startSeconds;
+        private double endSeconds;
+        private float confidence = -1;
+        private int wordCount;
+
+        public String getText() {
+            return text;
+        }
+
+        public double getStartSeconds() {
+            return startSeconds;
+        }
+
+        public double getEndSeconds() {
+            return endSeconds;
+        }
+
+        /**
+         * 平均词置信度，没有词级信息时为-1
+         */
+        public float getConfidence() {
+            return confidence;
+        }
+
+        public boolean hasWordTimes() {
+            return wordCount > 0;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.hrai.service.impl;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Vosk离线识别引擎
+ * 支持中间结果、词级时间戳和检查点续转，语言由配置的模型决定
+ */
+@Component
+public class VoskTranscriptionEngine implements TranscriptionEngine {
+
+    public static final String NAME = "vosk";
+
+    private final VoskAudioTranscriptionService voskService;
+    private final VoskModelRegistry modelRegistry;
+    private final double expectedRealTimeFactor;
+
+    public VoskTranscriptionEngine(VoskAudioTranscriptionService voskService) {
+        this(voskService, 0.3);
+    }
+
+    @Autowired
+    public VoskTranscriptionEngine(VoskAudioTranscriptionService voskService,
+                                   @Value("${hrai.engines.vosk.expected-rtf:0.3}") double expectedRealTimeFactor) {
+        this.voskService = voskService;
+        this.modelRegistry = voskService.getModelRegistry();
+        this.expectedRealTimeFactor = expectedRealTimeFactor;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public EngineCapabilities getCapabilities() {
+        // 模型名称的前缀即语言（zh-small、en-small）
+        Set<String> languages = new LinkedHashSet<>();
+        for (String model : modelRegistry.getModelNames()) {
+            int separator = model.indexOf('-');
+            languages.add(separator > 0 ? model.substring(0, separator) : model);
+        }
+        return new EngineCapabilities(true, true, true, languages, expectedRealTimeFactor);
+    }
+
+    @Override
+    public String resolveModel(String requested) {
+        return modelRegistry.resolveName(requested);
+    }
+
+    @Override
+    public String transcribe(String mediaPath, TranscriptionProgressListener listener, String checkpointKey,
+                             String modelName) throws Exception {
+        return voskService.transcribeAudio(mediaPath, listener, checkpointKey, modelName);
+    }
+}
@@ -0,0 +1,193 @@
+package com.example.hrai.service.impl;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.ShortBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * WAV文件的PCM读取器
+ * 解析RIFF头找到fmt和data块；已经是16kHz单声道16bit PCM的文件无需经过FFmpeg解码，
+ * data块按窗口内存映射后直接以short视图推送给下游
+ */
+final class WavPcmReader {
+
+    /** 每次映射的最大字节数（偶数，保证采样不跨窗口） */
+    static final int MAP_WINDOW_BYTES = 64 * 1024 * 1024;
+
+    private static final int FORMAT_PCM = 1;
+    private static final int FORMAT_EXTENSIBLE = 0xFFFE;
+    private static final int BYTES_PER_SAMPLE = 2;
+
+    private final Path path;
+    private final int formatTag;
+    private final int channels;
+    private final int sampleRate;
+    private final int bitsPerSample;
+    private final long dataOffset;
+    private final long dataBytes;
+
+    private WavPcmReader(Path path, int formatTag, int channels, int sampleRate, int bitsPerSample,
+                         long dataOffset, long dataBytes) {
+        this.path = path;
+        this.formatTag = formatTag;
+        this.channels = channels;
+        this.sampleRate = sampleRate;
+        this.bitsPerSample = bitsPerSample;
+        this.dataOffset = dataOffset;
+        this.dataBytes = dataBytes;
+    }
+
+    /**
+     * 解析WAV头
+     * @return 读取器，不是RIFF/WAVE文件或缺少fmt、data块时返回null
+     */
+    static WavPcmReader open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            ByteBuffer header = readAt(channel, 0, 12);
+            if (header == null || !"RIFF".equals(fourCc(header, 0)) || !"WAVE".equals(fourCc(header, 8))) {
+                return null;
+            }
+
+            int formatTag = -1;
+            int channels = 0;
+            int sampleRate = 0;
+            int bitsPerSample = 0;
+            long position = 12;
+            while (position + 8 <= fileSize) {
+                ByteBuffer chunk = readAt(channel, position, 8);
+                if (chunk == null) {
+                    return null;
+                }
+                String id = fourCc(chunk, 0);
+                long size = Integer.toUnsignedLong(chunk.getInt(4));
+
+                if ("fmt ".equals(id)) {
+                    ByteBuffer fmt = readAt(channel, position + 8, (int) Math.min(size, 40));
+                    if (fmt == null || size < 16) {
+                        return null;
+                    }
+                    formatTag = fmt.getShort(0) & 0xFFFF;
+                    channels = fmt.getShort(2) & 0xFFFF;
+                    sampleRate = fmt.getInt(4);
+                    bitsPerSample = fmt.getShort(14) & 0xFFFF;
+                    if (formatTag == FORMAT_EXTENSIBLE && size >= 40) {
+                        // 扩展格式的实际编码在子格式GUID的前两个字节
+                        formatTag = fmt.getShort(24) & 0xFFFF;
+                    }
+                } else if ("data".equals(id)) {
+                    if (formatTag < 0) {
+                        return null;
+                    }
+                    long dataOffset = position + 8;
+                    long available = fileSize - dataOffset;
+                    // 流式写出的文件可能没有回填data块大小
+                    long dataBytes = size == 0 || size > available ? available : size;
+                    return new WavPcmReader(path, formatTag, channels, sampleRate, bitsPerSample, dataOffset, dataBytes);
+                }
+                // 块按2字节对齐
+                position += 8 + size + (size & 1);
+            }
+            return null;
+        }
+    }
+
+    /**
+     * 是否可以不经解码直接送入识别器：16kHz单声道16bit PCM
+     */
+    boolean isCompliant() {
+        return formatTag == FORMAT_PCM && channels == 1 && bitsPerSample == 16
+                && sampleRate == StreamingAudioDecoder.TARGET_SAMPLE_RATE;
+    }
+
+    long getSampleCount() {
+        return dataBytes / BYTES_PER_SAMPLE;
+    }
+
+    long getDurationMicros() {
+        return getSampleCount() * 1_000_000L / StreamingAudioDecoder.TARGET_SAMPLE_RATE;
+    }
+
+    /**
+     * 按文件自身的采样格式计算的时长（微秒），不要求符合识别格式
+     */
+    long getSourceDurationMicros() {
+        long frameBytes = (long) channels * bitsPerSample / 8;
+        if (frameBytes <= 0 || sampleRate <= 0) {
+            return 0;
+        }
+        return dataBytes / frameBytes * 1_000_000L / sampleRate;
+    }
+
+    int getFormatTag() {
+        return formatTag;
+    }
+
+    int getChannels() {
+        return channels;
+    }
+
+    int getSampleRate() {
+        return sampleRate;
+    }
+
+    int getBitsPerSample() {
+        return bitsPerSample;
+    }
+
+    /**
+     * 推送[startSample, endSample)范围内的采样
+     * @param buffer 推送给下游的复用缓冲区
+     * @return 推送的总采样数
+     */
+    long read(long startSample, long endSample, short[] buffer, StreamingAudioDecoder.PcmSink sink) throws Exception {
+        long first = Math.max(0, startSample);
+        long last = Math.min(getSampleCount(), endSample);
+        if (first >= last) {
+            return 0;
+        }
+
+        long position = dataOffset + first * BYTES_PER_SAMPLE;
+        long end = dataOffset + last * BYTES_PER_SAMPLE;
+        long total = 0;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            while (position < end) {
+                long windowBytes = Math.min(MAP_WINDOW_BYTES, end - position);
+                MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, position, windowBytes);
+                ShortBuffer samples = mapped.order(ByteOrder.LITTLE_ENDIAN).asShortBuffer();
+                while (samples.hasRemaining()) {
+                    int n = Math.min(samples.remaining(), buffer.length);
+                    samples.get(buffer, 0, n);
+                    sink.accept(buffer, n);
+                    total += n;
+                }
+                position += windowBytes;
+            }
+        }
+        return total;
+    }
+
+    private static ByteBuffer readAt(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                return null;
+            }
+        }
+        return buffer.flip();
+    }
+
+    private static String fourCc(ByteBuffer buffer, int offset) {
+        byte[] id = new byte[4];
+        for (int i = 0; i < 4; i++) {
+            id[i] = buffer.get(offset + i);
+        }
+        return new String(id, StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.hrai.config;
+
+import com.example.hrai.service.UploadReservation;
+import com.example.hrai.service.WorkspaceManager;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UploadAdmissionFilterTest {
+
+    private static final long MB = 1024 * 1024;
+
+    @TempDir
+    Path tempDir;
+
+    private WorkspaceManager manager;
+    private UploadAdmissionFilter filter;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        manager = new WorkspaceManager(tempDir.toString(), 1, 0, 60);
+        manager.init();
+        filter = new UploadAdmissionFilter(manager, new ObjectMapper(), 4 * MB);
+    }
+
+    @Test
+    public void testUploadOverQuotaIsRejectedBeforeBodyIsRead() throws Exception {
+        MockHttpServletRequest request = upload(2 * MB);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request, response, chain);
+
+        assertEquals(507, response.getStatus());
+        assertTrue(response.getContentAsString().contains("Workspace quota exceeded"));
+        assertNull(chain.getRequest(), "配额不足时不应进入控制器读取请求体");
+        assertEquals(0L, manager.getReservedBytes());
+    }
+
+    @Test
+    public void testUploadOverMaxRequestSizeIsRejected() throws Exception {
+        MockHttpServletRequest request = upload(5 * MB);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request, response, chain);
+
+        assertEquals(413, response.getStatus());
+        assertNull(chain.getRequest());
+        assertEquals(0L, manager.getReservedBytes());
+    }
+
+    @Test
+    public void testChunkedUploadPassesWithoutReservation() throws Exception {
+        MockHttpServletRequest request = upload(-1);
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        // 长度未知，由工作目录写入时追加预留
+        assertNotNull(chain.getRequest());
+        assertNull(request.getAttribute(UploadReservation.ATTRIBUTE));
+    }
+
+    @Test
+    public void testReservationIsAvailableDuringRequestAndReturnedAfterwards() throws Exception {
+        MockHttpServletRequest request = upload(MB / 2);
+        AtomicReference<Object> seen = new AtomicReference<>();
+        AtomicReference<Long> reservedDuringRequest = new AtomicReference<>();
+
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> {
+            seen.set(req.getAttribute(UploadReservation.ATTRIBUTE));
+            reservedDuringRequest.set(manager.getReservedBytes());
+        });
+
+        assertInstanceOf(UploadReservation.class, seen.get());
+        assertEquals(MB / 2, reservedDuringRequest.get());
+        // 控制器没有使用预留（如文件为空被拒绝），请求结束后归还
+        assertEquals(0L, manager.getReservedBytes());
+    }
+
+    @Test
+    public void testNonMultipartRequestIsNotReserved() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/video-tool/jobs");
+        request.setContentType("application/json");
+        request.setContent(new byte[(int) (2 * MB)]);
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        assertNotNull(chain.getRequest());
+        assertNull(request.getAttribute(UploadReservation.ATTRIBUTE));
+    }
+
+    /**
+     * @param contentLength 请求声明的长度，负数表示不带Content-Length（分块传输）
+     */
+    private static MockHttpServletRequest upload(long contentLength) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/video-tool/jobs/upload") {
+            @Override
+            public long getContentLengthLong() {
+                return contentLength;
+            }
+        };
+        request.setContentType("multipart/form-data; boundary=x");
+        return request;
+    }
+}
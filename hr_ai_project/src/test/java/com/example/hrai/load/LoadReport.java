@@ -0,0 +1,110 @@
+package com.example.hrai.load;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 压力测试结果汇总
+ * 每个阶段记录每个文件的耗时和媒体时长，输出吞吐、p50/p95/p99延迟和实时率（阶段耗时之和 / 媒体时长之和）
+ */
+public final class LoadReport {
+
+    private final Map<String, List<long[]>> stages = new LinkedHashMap<>();
+    private final List<String> failures = Collections.synchronizedList(new ArrayList<>());
+    private long wallMillis;
+    private String engine = "";
+
+    /**
+     * 记录一个文件在某阶段的耗时
+     */
+    public synchronized void record(String stage, long elapsedMillis, long mediaMillis) {
+        stages.computeIfAbsent(stage, s -> new ArrayList<>()).add(new long[] {elapsedMillis, mediaMillis});
+    }
+
+    public void fail(String message) {
+        failures.add(message);
+    }
+
+    public List<String> getFailures() {
+        return failures;
+    }
+
+    public synchronized void setWallMillis(long wallMillis) {
+        this.wallMillis = wallMillis;
+    }
+
+    /**
+     * 转录引擎的说明（是否真实解码、识别耗时是否为模拟值），写入报告以免把模拟的实时率当作实测值
+     */
+    public synchronized void setEngine(String engine) {
+        this.engine = engine;
+    }
+
+    public synchronized int getCount(String stage) {
+        List<long[]> samples = stages.get(stage);
+        return samples != null ? samples.size() : 0;
+    }
+
+    /**
+     * 按最近秩法计算百分位
+     */
+    static long percentile(List<Long> sorted, double percent) {
+        if (sorted.isEmpty()) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(percent / 100.0 * sorted.size());
+        return sorted.get(Math.max(0, Math.min(sorted.size() - 1, rank - 1)));
+    }
+
+    public synchronized Map<String, Object> toMap() {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("engine", engine);
+        report.put("wallMillis", wallMillis);
+        report.put("failures", new ArrayList<>(failures));
+        Map<String, Object> stageReports = new LinkedHashMap<>();
+        for (Map.Entry<String, List<long[]>> entry : stages.entrySet()) {
+            List<Long> latencies = new ArrayList<>();
+            long elapsedSum = 0;
+            long mediaSum = 0;
+            for (long[] sample : entry.getValue()) {
+                latencies.add(sample[0]);
+                elapsedSum += sample[0];
+                mediaSum += sample[1];
+            }
+            Collections.sort(latencies);
+
+            Map<String, Object> stage = new LinkedHashMap<>();
+            stage.put("count", latencies.size());
+            stage.put("throughputPerSecond", wallMillis > 0 ? latencies.size() * 1000.0 / wallMillis : 0.0);
+            stage.put("p50Millis", percentile(latencies, 50));
+            stage.put("p95Millis", percentile(latencies, 95));
+            stage.put("p99Millis", percentile(latencies, 99));
+            stage.put("maxMillis", latencies.isEmpty() ? 0 : latencies.get(latencies.size() - 1));
+            stage.put("realTimeFactor", mediaSum > 0 ? (double) elapsedSum / mediaSum : 0.0);
+            stageReports.put(entry.getKey(), stage);
+        }
+        report.put("stages", stageReports);
+        return report;
+    }
+
+    @SuppressWarnings("unchecked")
+    public String format() {
+        Map<String, Object> report = toMap();
+        StringBuilder text = new StringBuilder();
+        text.append("engine ").append(report.get("engine")).append(System.lineSeparator());
+        text.append(String.format(Locale.ROOT, "%-12s %6s %10s %9s %9s %9s %9s %8s%n",
+                "stage", "count", "per sec", "p50 ms", "p95 ms", "p99 ms", "max ms", "RTF"));
+        for (Map.Entry<String, Object> entry : ((Map<String, Object>) report.get("stages")).entrySet()) {
+            Map<String, Object> stage = (Map<String, Object>) entry.getValue();
+            text.append(String.format(Locale.ROOT, "%-12s %6d %10.2f %9d %9d %9d %9d %8.4f%n", entry.getKey(),
+                    stage.get("count"), stage.get("throughputPerSecond"), stage.get("p50Millis"),
+                    stage.get("p95Millis"), stage.get("p99Millis"), stage.get("maxMillis"), stage.get("realTimeFactor")));
+        }
+        text.append("wall ").append(report.get("wallMillis")).append(" ms, failures ").append(failures.size());
+        return text.toString();
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.hrai.load;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 本地模拟的大模型接口
+ * 按OpenAI chat completions格式返回固定的HTML摘要，可配置响应延迟，统计收到的请求数；
+ * 只监听回环地址，压力测试完全离线运行
+ */
+public final class StubLlmServer implements AutoCloseable {
+
+    public static final String PATH = "/v1/chat/completions";
+
+    private static final String RESPONSE = "{\"id\":\"stub\",\"object\":\"chat.completion\",\"choices\":[{\"index\":0,"
+            + "\"message\":{\"role\":\"assistant\",\"content\":\"<h3>摘要</h3><ul><li>项目进展</li><li>下一步计划</li></ul>\"},"
+            + "\"finish_reason\":\"stop\"}]}";
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final long latencyMillis;
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong promptBytes = new AtomicLong();
+
+    public StubLlmServer(long latencyMillis) throws IOException {
+        this.latencyMillis = Math.max(0, latencyMillis);
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        this.server.createContext(PATH, this::handle);
+        this.server.setExecutor(executor);
+        this.server.start();
+    }
+
+    public String getEndpoint() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + PATH;
+    }
+
+    public long getRequests() {
+        return requests.get();
+    }
+
+    public long getPromptBytes() {
+        return promptBytes.get();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            try (InputStream body = exchange.getRequestBody()) {
+                promptBytes.addAndGet(body.readAllBytes().length);
+            }
+            requests.incrementAndGet();
+            if (latencyMillis > 0) {
+                Thread.sleep(latencyMillis);
+            }
+            byte[] response = RESPONSE.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+            exchange.sendResponseHeaders(200, response.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(response);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
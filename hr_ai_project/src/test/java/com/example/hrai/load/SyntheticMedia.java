@@ -0,0 +1,91 @@
+package com.example.hrai.load;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+/**
+ * 确定性的合成音频语料
+ * 按种子生成16bit PCM WAV：若干谐波组成的“音节”与静音交替，时长、采样率和声道数可配置，
+ * 相同参数和种子总是生成字节完全相同的文件；不同种子的文件内容不同，不会命中转录缓存
+ */
+public final class SyntheticMedia {
+
+    private final int seconds;
+    private final int sampleRate;
+    private final int channels;
+
+    public SyntheticMedia(int seconds, int sampleRate, int channels) {
+        if (seconds <= 0 || sampleRate <= 0 || channels <= 0) {
+            throw new IllegalArgumentException("时长、采样率和声道数必须为正数");
+        }
+        this.seconds = seconds;
+        this.sampleRate = sampleRate;
+        this.channels = channels;
+    }
+
+    public long getDurationMillis() {
+        return seconds * 1000L;
+    }
+
+    /**
+     * 写入WAV文件，按块生成，长时长的文件也不会占用大量内存
+     */
+    public Path write(Path file, long seed) throws IOException {
+        long frames = (long) seconds * sampleRate;
+        long dataBytes = frames * channels * 2;
+        if (dataBytes + 36 > 0xFFFFFFFFL) {
+            throw new IllegalArgumentException("WAV文件不能超过4GB");
+        }
+
+        Random random = new Random(seed);
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file), 1 << 16)) {
+            out.write(header(dataBytes));
+
+            ByteBuffer chunk = ByteBuffer.allocate(4096 * channels * 2).order(ByteOrder.LITTLE_ENDIAN);
+            long segmentEnd = 0;
+            boolean voiced = false;
+            double pitch = 0;
+            double phase = 0;
+            for (long i = 0; i < frames; i++) {
+                if (i >= segmentEnd) {
+                    // 音节0.15~0.4秒，停顿0.05~0.6秒
+                    voiced = !voiced;
+                    double length = voiced ? 0.15 + random.nextDouble() * 0.25 : 0.05 + random.nextDouble() * 0.55;
+                    segmentEnd = i + (long) (length * sampleRate);
+                    pitch = 110 + random.nextDouble() * 140;
+                }
+                double value = 0.002 * random.nextGaussian();
+                if (voiced) {
+                    phase += 2 * Math.PI * pitch / sampleRate;
+                    value += 0.25 * Math.sin(phase) + 0.12 * Math.sin(2 * phase) + 0.06 * Math.sin(3 * phase);
+                }
+                short sample = (short) Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, value * Short.MAX_VALUE));
+                for (int c = 0; c < channels; c++) {
+                    chunk.putShort(sample);
+                }
+                if (!chunk.hasRemaining()) {
+                    out.write(chunk.array(), 0, chunk.position());
+                    chunk.clear();
+                }
+            }
+            out.write(chunk.array(), 0, chunk.position());
+        }
+        return file;
+    }
+
+    private byte[] header(long dataBytes) {
+        ByteBuffer header = ByteBuffer.allocate(44).order(ByteOrder.LITTLE_ENDIAN);
+        header.put(new byte[] {'R', 'I', 'F', 'F'}).putInt((int) (36 + dataBytes)).put(new byte[] {'W', 'A', 'V', 'E'});
+        header.put(new byte[] {'f', 'm', 't', ' '}).putInt(16).putShort((short) 1).putShort((short) channels)
+                .putInt(sampleRate).putInt(sampleRate * channels * 2)
+                .putShort((short) (channels * 2)).putShort((short) 16);
+        header.put(new byte[] {'d', 'a', 't', 'a'}).putInt((int) dataBytes);
+        return header.array();
+    }
+}
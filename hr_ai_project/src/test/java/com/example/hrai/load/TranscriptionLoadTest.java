@@ -0,0 +1,235 @@
+package com.example.hrai.load;
+
+import com.example.hrai.entity.AIModelConfig;
+import com.example.hrai.service.AIModelConfigService;
+import com.example.hrai.service.impl.FakeTranscriptionEngine;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 端到端压力测试：上传合成音频 → 异步转录 → 生成摘要
+ * 默认使用模拟转录引擎和本地模拟大模型，完全离线运行：媒体经真实的解码流水线读取，只有识别结果是模拟的，
+ * 报告中的实时率因此包含真实的上传、解码和排队开销，但不含ASR耗时（标注在报告的engine字段中）；
+ * 带load标签，普通构建不运行，
+ * 通过 mvn -Pload test 执行，参数用系统属性配置：
+ * hrai.load.files 文件数（20），hrai.load.concurrency 并发客户端数（4），
+ * hrai.load.media-seconds 每个文件的时长（60），hrai.load.sample-rate 采样率（16000），hrai.load.channels 声道数（1），
+ * hrai.load.engine 转录引擎（fake，改为vosk时需要本地模型），hrai.load.decode 模拟引擎是否真实解码（true），
+ * hrai.load.fake-rtf 模拟引擎额外休眠的实时率（0，大于0时实时率中包含这部分模拟耗时），
+ * hrai.load.llm-latency-ms 模拟大模型的响应延迟（200），hrai.load.timeout-seconds 单个任务的等待上限（600）
+ * 结果打印到控制台并写入target/load-report.json
+ */
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class TranscriptionLoadTest {
+
+    private static final int FILES = Integer.getInteger("hrai.load.files", 20);
+    private static final int CONCURRENCY = Integer.getInteger("hrai.load.concurrency", 4);
+    private static final int MEDIA_SECONDS = Integer.getInteger("hrai.load.media-seconds", 60);
+    private static final int SAMPLE_RATE = Integer.getInteger("hrai.load.sample-rate", 16000);
+    private static final int CHANNELS = Integer.getInteger("hrai.load.channels", 1);
+    private static final String ENGINE = System.getProperty("hrai.load.engine", "fake");
+    private static final boolean DECODE = Boolean.parseBoolean(System.getProperty("hrai.load.decode", "true"));
+    private static final String FAKE_RTF = System.getProperty("hrai.load.fake-rtf", "0");
+    private static final long LLM_LATENCY_MILLIS = Long.getLong("hrai.load.llm-latency-ms", 200);
+    private static final long TIMEOUT_SECONDS = Long.getLong("hrai.load.timeout-seconds", 600);
+    private static final long POLL_MILLIS = 50;
+
+    private static Path workDirectory;
+    private static StubLlmServer llm;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private AIModelConfigService aiModelConfigService;
+
+    @DynamicPropertySource
+    static void loadProperties(DynamicPropertyRegistry registry) throws IOException {
+        workDirectory = Files.createTempDirectory("hrai-load");
+        llm = new StubLlmServer(LLM_LATENCY_MILLIS);
+        registry.add("spring.datasource.url", () -> "jdbc:sqlite:" + workDirectory.resolve("load.db"));
+        registry.add("spring.jpa.show-sql", () -> "false");
+        registry.add("hrai.transcription.engine", () -> ENGINE);
+        registry.add("hrai.engines.fake.realtime-factor", () -> FAKE_RTF);
+        registry.add("hrai.engines.fake.decode", () -> String.valueOf(DECODE));
+        registry.add("hrai.vosk.preload", () -> String.valueOf("vosk".equals(ENGINE)));
+        registry.add("hrai.jobs.worker-threads", () -> String.valueOf(CONCURRENCY));
+        registry.add("hrai.jobs.queue-capacity", () -> String.valueOf(Math.max(20, FILES)));
+        // 每个文件内容不同，关闭缓存和检查点避免额外的数据库写入影响测量
+        registry.add("hrai.transcription.cache.enabled", () -> "false");
+        // 模拟引擎对同样时长的文件输出相同文本，关闭摘要缓存使每个文件都经过大模型
+        registry.add("hrai.summary.cache.enabled", () -> "false");
+        registry.add("hrai.transcription.checkpoint.enabled", () -> "false");
+        registry.add("hrai.transcription.checkpoint.resume-on-startup", () -> "false");
+        registry.add("hrai.workspace.root", () -> workDirectory.resolve("workspaces").toString());
+        registry.add("hrai.hotfolder.enabled", () -> "false");
+    }
+
+    @AfterAll
+    static void stopStubLlm() {
+        if (llm != null) {
+            llm.close();
+        }
+    }
+
+    @Test
+    public void testUploadTranscribeAndSummarizeUnderLoad() throws Exception {
+        AIModelConfig config = new AIModelConfig();
+        config.setModelName("stub-llm");
+        config.setProvider("OpenAI");
+        config.setApiKey("stub");
+        config.setModelEndpoint(llm.getEndpoint());
+        config.setIsActive(true);
+        aiModelConfigService.setDefaultConfig(aiModelConfigService.saveConfig(config).getId());
+
+        SyntheticMedia media = new SyntheticMedia(MEDIA_SECONDS, SAMPLE_RATE, CHANNELS);
+        List<Path> corpus = new ArrayList<>();
+        for (int i = 0; i < FILES; i++) {
+            corpus.add(media.write(workDirectory.resolve("synthetic-" + i + ".wav"), i));
+        }
+        System.out.println("压力测试: " + FILES + " 个文件，每个 " + MEDIA_SECONDS + " 秒 / " + SAMPLE_RATE + " Hz / "
+                + CHANNELS + " 声道，并发 " + CONCURRENCY + "，引擎 " + describeEngine());
+
+        LoadReport report = new LoadReport();
+        report.setEngine(describeEngine());
+        ExecutorService clients = Executors.newFixedThreadPool(CONCURRENCY);
+        long wallStart = System.nanoTime();
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (Path file : corpus) {
+                futures.add(clients.submit(() -> runPipeline(file, media.getDurationMillis(), report)));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            clients.shutdownNow();
+        }
+        report.setWallMillis(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - wallStart));
+
+        System.out.println(report.format());
+        Path output = Path.of("target", "load-report.json");
+        Files.createDirectories(output.getParent());
+        new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(output.toFile(), report.toMap());
+
+        assertTrue(report.getFailures().isEmpty(), "压力测试出现失败: " + report.getFailures());
+        assertEquals(FILES, report.getCount("end-to-end"));
+        assertEquals(FILES, llm.getRequests());
+    }
+
+    /**
+     * 单个文件的完整流程，各阶段耗时记入报告；失败时记录原因，不中断其他文件
+     */
+    @SuppressWarnings("unchecked")
+    private void runPipeline(Path file, long mediaMillis, LoadReport report) {
+        try {
+            long start = System.nanoTime();
+
+            MultiValueMap<String, Object> form = new LinkedMultiValueMap<>();
+            form.add("file", new FileSystemResource(file));
+            form.add("engine", ENGINE);
+            HttpHeaders headers = new HttpHeaders();
+            headers.setContentType(MediaType.MULTIPART_FORM_DATA);
+            ResponseEntity<Map> submitted = restTemplate.postForEntity("/api/video-tool/jobs/upload",
+                    new HttpEntity<>(form, headers), Map.class);
+            if (submitted.getStatusCode() != HttpStatus.ACCEPTED) {
+                report.fail(file.getFileName() + " 提交失败: " + submitted.getStatusCode() + " " + submitted.getBody());
+                return;
+            }
+            report.record("upload", elapsedMillis(start), mediaMillis);
+            String jobId = (String) submitted.getBody().get("jobId");
+
+            Map<String, Object> status = awaitJob(jobId);
+            if (!"SUCCEEDED".equals(status.get("status"))) {
+                report.fail(file.getFileName() + " 转录未成功: " + status.get("status") + " " + status.get("error"));
+                return;
+            }
+            LocalDateTime createdAt = LocalDateTime.parse((String) status.get("createdAt"));
+            LocalDateTime startedAt = LocalDateTime.parse((String) status.get("startedAt"));
+            LocalDateTime finishedAt = LocalDateTime.parse((String) status.get("finishedAt"));
+            report.record("queue", Duration.between(createdAt, startedAt).toMillis(), mediaMillis);
+            report.record("transcribe", Duration.between(startedAt, finishedAt).toMillis(), mediaMillis);
+
+            Map<String, Object> result = restTemplate.getForObject("/api/video-tool/jobs/" + jobId + "/result", Map.class);
+            String text = (String) result.get("text");
+            if (text == null || text.isBlank()) {
+                report.fail(file.getFileName() + " 转录结果为空");
+                return;
+            }
+
+            long summaryStart = System.nanoTime();
+            ResponseEntity<Map> summary = restTemplate.postForEntity("/api/video-tool/generate-summary",
+                    Map.of("text", text, "recordId", result.get("recordId")), Map.class);
+            if (!summary.getStatusCode().is2xxSuccessful()) {
+                report.fail(file.getFileName() + " 摘要失败: " + summary.getStatusCode() + " " + summary.getBody());
+                return;
+            }
+            report.record("summary", elapsedMillis(summaryStart), mediaMillis);
+            report.record("end-to-end", elapsedMillis(start), mediaMillis);
+        } catch (Exception e) {
+            report.fail(file.getFileName() + " 异常: " + e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> awaitJob(String jobId) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(TIMEOUT_SECONDS);
+        while (true) {
+            Map<String, Object> status = restTemplate.getForObject("/api/video-tool/jobs/" + jobId, Map.class);
+            String state = (String) status.get("status");
+            if ("SUCCEEDED".equals(state) || "FAILED".equals(state) || System.nanoTime() > deadline) {
+                return status;
+            }
+            Thread.sleep(POLL_MILLIS);
+        }
+    }
+
+    /**
+     * 说明实时率中哪些部分是真实测量、哪些是模拟的
+     */
+    private static String describeEngine() {
+        if (!FakeTranscriptionEngine.NAME.equals(ENGINE)) {
+            return ENGINE;
+        }
+        String recognition = Double.parseDouble(FAKE_RTF) > 0
+                ? "模拟识别耗时 RTF " + FAKE_RTF : "识别耗时不计入";
+        return DECODE
+                ? "fake（真实解码，模拟识别结果，" + recognition + "）"
+                : "fake（不解码，RTF为模拟值，" + recognition + "）";
+    }
+
+    private static long elapsedMillis(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+}
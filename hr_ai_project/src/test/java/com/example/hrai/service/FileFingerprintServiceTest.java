@@ -0,0 +1,47 @@
+package com.example.hrai.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FileFingerprintServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testIdenticalContentHasSameFingerprint() throws Exception {
+        FileFingerprintService service = new FileFingerprintService(10);
+        byte[] content = "interview recording".getBytes(StandardCharsets.UTF_8);
+
+        Path uploaded = tempDir.resolve("upload.mp4");
+        Path local = tempDir.resolve("local.mp4");
+        Files.write(uploaded, content);
+        Files.write(local, content);
+
+        FileFingerprintService.FileFingerprint first = service.fingerprint(uploaded);
+        FileFingerprintService.FileFingerprint second = service.fingerprint(local);
+
+        assertEquals(content.length, first.getSize());
+        assertEquals(64, first.getHash().length());
+        assertEquals(first.getHash(), second.getHash());
+    }
+
+    @Test
+    public void testFingerprintChangesWhenFileChanges() throws Exception {
+        FileFingerprintService service = new FileFingerprintService(10);
+        Path file = tempDir.resolve("video.mp4");
+        Files.write(file, "first".getBytes(StandardCharsets.UTF_8));
+        String first = service.fingerprint(file).getHash();
+
+        Files.write(file, "second version".getBytes(StandardCharsets.UTF_8));
+        String second = service.fingerprint(file).getHash();
+
+        assertNotEquals(first, second);
+    }
+}
@@ -0,0 +1,199 @@
+package com.example.hrai.service;
+
+import com.example.hrai.entity.VideoToText;
+import com.example.hrai.repository.TranscriptSegmentRepository;
+import com.example.hrai.repository.VideoToTextRepository;
+import com.example.hrai.service.impl.AudioTranscriptionService;
+import com.example.hrai.service.impl.FakeTranscriptionEngine;
+import com.example.hrai.service.impl.MediaProbeService;
+import com.example.hrai.service.impl.TranscriptionEngineRegistry;
+import com.example.hrai.service.impl.TranscriptionMetrics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class HotFolderIngestorTest {
+
+    private static final long DEBOUNCE_MILLIS = 500;
+    /** 16kHz单声道16bit，每秒32000字节 */
+    private static final int BYTES_PER_SECOND = 32000;
+
+    @TempDir
+    Path tempDir;
+
+    private final List<VideoToText> saved = new CopyOnWriteArrayList<>();
+    /** 前几次保存转录记录时抛出异常，模拟转录失败 */
+    private final AtomicInteger failingSaves = new AtomicInteger();
+    private HotFolderIngestor ingestor;
+
+    @AfterEach
+    public void tearDown() {
+        if (ingestor != null) {
+            ingestor.shutdown();
+        }
+    }
+
+    @Test
+    public void testGrowingFileIsIngestedOnceAfterItSettles() throws Exception {
+        Path inbox = start();
+        Path media = inbox.resolve("meeting.wav");
+
+        // 按防抖时间的五分之一间隔持续追加，写入期间文件不应被处理
+        try (OutputStream out = Files.newOutputStream(media)) {
+            out.write(wavHeader(0));
+            for (int i = 0; i < 10; i++) {
+                out.write(new byte[BYTES_PER_SECOND]);
+                out.flush();
+                Thread.sleep(DEBOUNCE_MILLIS / 5);
+                assertEquals(0L, stat("transcribed"), "写入过程中的文件不应被处理");
+            }
+        }
+        long finalSize = Files.size(media);
+
+        awaitStat("transcribed", 1);
+        Thread.sleep(DEBOUNCE_MILLIS * 2);
+        assertEquals(1L, stat("transcribed"));
+        assertEquals(1, saved.size());
+        assertEquals(finalSize, saved.get(0).getFileSize().longValue());
+        assertEquals(1, listTxt().size());
+    }
+
+    @Test
+    public void testCopyWithSameContentIsCountedAsDuplicate() throws Exception {
+        Path inbox = start();
+        Path original = tempDir.resolve("a.wav");
+        writeWav(original, 3);
+
+        Files.copy(original, inbox.resolve("a.wav"));
+        awaitStat("transcribed", 1);
+        Files.copy(original, inbox.resolve("a-copy.wav"));
+        awaitStat("duplicates", 1);
+
+        assertEquals(1L, stat("transcribed"));
+        assertEquals(1, saved.size());
+        assertEquals(1, listTxt().size());
+    }
+
+    @Test
+    public void testFailedFileCanBeDroppedAgain() throws Exception {
+        Path inbox = start();
+        Path original = tempDir.resolve("b.wav");
+        writeWav(original, 2);
+        failingSaves.set(1);
+
+        Files.copy(original, inbox.resolve("b.wav"));
+        awaitStat("failed", 1);
+        assertEquals(0L, stat("duplicates"));
+        assertTrue(listTxt().isEmpty());
+
+        // 失败的内容不记为已处理，重新放入目录后再次转录
+        Files.delete(inbox.resolve("b.wav"));
+        Files.copy(original, inbox.resolve("b-retry.wav"));
+        awaitStat("transcribed", 1);
+        assertEquals(0L, stat("duplicates"));
+        assertEquals(1, saved.size());
+    }
+
+    private Path start() throws Exception {
+        Path inbox = tempDir.resolve("inbox");
+        TranscriptionEngineRegistry engines = new TranscriptionEngineRegistry(
+                List.of(new FakeTranscriptionEngine()), FakeTranscriptionEngine.NAME);
+        VideoToTextService videoToTextService = new VideoToTextService();
+        ReflectionTestUtils.setField(videoToTextService, "videoToTextRepository", videoToTextRepository());
+        TranscriptSegmentService segmentService = new TranscriptSegmentService();
+        ReflectionTestUtils.setField(segmentService, "transcriptSegmentRepository", segmentRepository());
+        FileFingerprintService fingerprints = new FileFingerprintService(100);
+
+        TranscriptionJobService jobs = new TranscriptionJobService(new AudioTranscriptionService(engines),
+                videoToTextService, new TranscriptCacheService(null, false, 720), segmentService, null,
+                fingerprints, new MediaProbeService(), new TranscriptionMetrics(), 1, 10, 60, 60);
+        ingestor = new HotFolderIngestor(jobs, fingerprints, engines, null, videoToTextService, true,
+                inbox.toString(), tempDir.resolve("txt").toString(), 1, DEBOUNCE_MILLIS, false, false,
+                FakeTranscriptionEngine.NAME, "");
+        ingestor.start();
+        return inbox;
+    }
+
+    private long stat(String name) {
+        return ((Number) ingestor.getStats().get(name)).longValue();
+    }
+
+    private void awaitStat(String name, long expected) throws InterruptedException {
+        await(() -> stat(name) >= expected, name + " 未达到 " + expected + ": " + ingestor.getStats());
+    }
+
+    private static void await(Supplier<Boolean> condition, String message) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 15_000;
+        while (!condition.get()) {
+            if (System.currentTimeMillis() > deadline) {
+                fail(message);
+            }
+            Thread.sleep(50);
+        }
+    }
+
+    private List<Path> listTxt() throws Exception {
+        Path txt = tempDir.resolve("txt");
+        try (var files = Files.list(txt)) {
+            return files.toList();
+        }
+    }
+
+    private static void writeWav(Path path, int seconds) throws Exception {
+        Files.write(path, wavHeader(seconds * BYTES_PER_SECOND));
+        Files.write(path, new byte[seconds * BYTES_PER_SECOND], StandardOpenOption.APPEND);
+    }
+
+    /**
+     * 16kHz单声道16bit的WAV头，dataLength为0时表示长度未知（写入中的文件）
+     */
+    private static byte[] wavHeader(int dataLength) {
+        ByteBuffer header = ByteBuffer.allocate(44).order(ByteOrder.LITTLE_ENDIAN);
+        header.put("RIFF".getBytes()).putInt(36 + dataLength).put("WAVE".getBytes());
+        header.put("fmt ".getBytes()).putInt(16).putShort((short) 1).putShort((short) 1)
+                .putInt(16000).putInt(BYTES_PER_SECOND).putShort((short) 2).putShort((short) 16);
+        header.put("data".getBytes()).putInt(dataLength);
+        return header.array();
+    }
+
+    private VideoToTextRepository videoToTextRepository() {
+        VideoToTextRepository repository = mock(VideoToTextRepository.class);
+        when(repository.save(any(VideoToText.class))).thenAnswer(invocation -> {
+            if (failingSaves.getAndUpdate(n -> Math.max(0, n - 1)) > 0) {
+                throw new IllegalStateException("database is locked");
+            }
+            VideoToText record = invocation.getArgument(0);
+            record.setId((long) saved.size() + 1);
+            saved.add(record);
+            return record;
+        });
+        when(repository.findById(anyLong())).thenAnswer(invocation -> saved.stream()
+                .filter(record -> record.getId().equals(invocation.getArgument(0))).findFirst());
+        return repository;
+    }
+
+    private static TranscriptSegmentRepository segmentRepository() {
+        TranscriptSegmentRepository repository = mock(TranscriptSegmentRepository.class);
+        when(repository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        return repository;
+    }
+}
@@ -0,0 +1,183 @@
+package com.example.hrai.service;
+
+import com.example.hrai.entity.AIModelConfig;
+import com.example.hrai.entity.SummaryCacheEntry;
+import com.example.hrai.repository.AIModelConfigRepository;
+import com.example.hrai.repository.SummaryCacheRepository;
+import com.example.hrai.service.impl.TranscriptionMetrics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 摘要缓存的两级存储，SQLite层使用真实的表、唯一索引和过期查询
+ */
+@DataJpaTest(properties = "spring.jpa.show-sql=false")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class SummaryCacheServiceTest {
+
+    private static final String HASH = SummaryCacheService.hash("转录文本");
+
+    @Autowired
+    private SummaryCacheRepository summaryRepository;
+
+    @Autowired
+    private AIModelConfigRepository configRepository;
+
+    @DynamicPropertySource
+    static void sqlite(DynamicPropertyRegistry registry) throws IOException {
+        String database = Files.createTempDirectory("hrai-summary-cache").resolve("test.db").toString();
+        registry.add("spring.datasource.url", () -> "jdbc:sqlite:" + database);
+    }
+
+    /**
+     * 与生产环境一样不在外层事务中调用，每个用例从空表开始
+     */
+    @BeforeEach
+    public void setUp() {
+        summaryRepository.deleteAll();
+        configRepository.deleteAll();
+    }
+
+    @Test
+    public void testStoreHitsBeyondMemoryAreServedFromSqlite() {
+        SummaryCacheService first = new SummaryCacheService(summaryRepository, true, 500, 24);
+        SummaryCacheService.Key key = key(1L);
+        first.store(key, "<h1>摘要</h1>");
+        assertEquals(Optional.of("<h1>摘要</h1>"), first.lookup(key));
+        assertEquals(1L, first.getStats().get("memoryHits"));
+
+        // 重启后内存为空，从SQLite命中并放入内存
+        SummaryCacheService restarted = new SummaryCacheService(summaryRepository, true, 500, 24);
+        assertEquals(Optional.of("<h1>摘要</h1>"), restarted.lookup(key));
+        assertEquals(Optional.of("<h1>摘要</h1>"), restarted.lookup(key));
+        assertEquals(1L, restarted.getStats().get("storeHits"));
+        assertEquals(1L, restarted.getStats().get("memoryHits"));
+        assertEquals(Optional.empty(), restarted.lookup(key(2L)));
+        assertEquals(1L, restarted.getMisses());
+    }
+
+    @Test
+    public void testMemoryTierKeepsOnlyMostRecentlyUsedEntries() {
+        SummaryCacheService service = new SummaryCacheService(summaryRepository, true, 1, 24);
+        service.store(key(1L), "一");
+        service.store(key(2L), "二");
+        assertEquals(1, service.getStats().get("memoryEntries"));
+
+        assertEquals(Optional.of("一"), service.lookup(key(1L)));
+        assertEquals(1L, service.getStats().get("storeHits"));
+        assertEquals(0L, service.getStats().get("memoryHits"));
+    }
+
+    @Test
+    public void testStoreOverExpiredRowUpdatesItInsteadOfInserting() {
+        summaryRepository.save(entry(1L, "旧摘要", LocalDateTime.now().minusHours(3)));
+        SummaryCacheService service = new SummaryCacheService(summaryRepository, true, 500, 1);
+
+        assertEquals(Optional.empty(), service.lookup(key(1L)), "过期记录不应命中");
+        // 唯一索引不允许再插入同一个键，应更新已有的过期记录
+        service.store(key(1L), "新摘要");
+
+        List<SummaryCacheEntry> rows = summaryRepository.findAll();
+        assertEquals(1, rows.size());
+        assertEquals("新摘要", rows.get(0).getSummary());
+        assertTrue(rows.get(0).getCreatedAt().isAfter(LocalDateTime.now().minusMinutes(1)));
+        SummaryCacheService restarted = new SummaryCacheService(summaryRepository, true, 500, 1);
+        assertEquals(Optional.of("新摘要"), restarted.lookup(key(1L)));
+    }
+
+    @Test
+    public void testEvictExpiredRemovesOnlyExpiredRows() {
+        summaryRepository.save(entry(1L, "过期", LocalDateTime.now().minusHours(3)));
+        SummaryCacheService service = new SummaryCacheService(summaryRepository, true, 500, 1);
+        service.store(key(2L), "有效");
+
+        service.evictExpired();
+
+        List<SummaryCacheEntry> rows = summaryRepository.findAll();
+        assertEquals(1, rows.size());
+        assertEquals(2L, rows.get(0).getConfigId().longValue());
+    }
+
+    @Test
+    public void testConfigUpdateAndDeleteInvalidateItsSummaries() {
+        Long first = configRepository.save(config(null)).getId();
+        Long second = configRepository.save(config(null)).getId();
+        SummaryCacheService cache = new SummaryCacheService(summaryRepository, true, 500, 24);
+        cache.store(key(first), "一");
+        cache.store(key(second), "二");
+
+        AIModelConfigService configService = new AIModelConfigService();
+        ReflectionTestUtils.setField(configService, "aiModelConfigRepository", configRepository);
+        ReflectionTestUtils.setField(configService, "summaryCacheService", cache);
+
+        configService.updateConfig(first, config(first));
+        assertEquals(Optional.empty(), cache.lookup(key(first)));
+        assertEquals(Optional.of("二"), cache.lookup(key(second)));
+
+        configService.deleteConfig(second);
+        assertEquals(Optional.empty(), cache.lookup(key(second)));
+        assertEquals(0, summaryRepository.count());
+    }
+
+    @Test
+    public void testMalformedResponseIsNotCached() {
+        SummaryCacheService cache = new SummaryCacheService(summaryRepository, true, 500, 24);
+        Deque<String> responses = new ArrayDeque<>(List.of(AIModelConfigService.MALFORMED_RESPONSE, "<h1>摘要</h1>"));
+        int[] calls = {0};
+        AIModelConfigService model = new AIModelConfigService() {
+            @Override
+            public String testModel(AIModelConfig config, String prompt) {
+                calls[0]++;
+                return responses.poll();
+            }
+        };
+        VideoSummaryService summaryService = new VideoSummaryService(model, null, cache, new TranscriptionMetrics());
+
+        assertEquals(AIModelConfigService.MALFORMED_RESPONSE, summaryService.summarize(config(1L), "转录文本"));
+        assertEquals(0, summaryRepository.count());
+        assertEquals("<h1>摘要</h1>", summaryService.summarize(config(1L), "转录文本"));
+        assertEquals("<h1>摘要</h1>", summaryService.summarize(config(1L), "转录文本"));
+        assertEquals(2, calls[0]);
+        assertEquals(1, summaryRepository.count());
+    }
+
+    private static SummaryCacheService.Key key(Long configId) {
+        return new SummaryCacheService.Key(configId, "model-" + configId, VideoSummaryService.PROMPT_VERSION, HASH);
+    }
+
+    private static AIModelConfig config(Long id) {
+        AIModelConfig config = new AIModelConfig("model-" + id, "openai", "key", "http://localhost/v1", true);
+        config.setId(id);
+        return config;
+    }
+
+    private static SummaryCacheEntry entry(Long configId, String summary, LocalDateTime createdAt) {
+        SummaryCacheEntry entry = new SummaryCacheEntry();
+        entry.setConfigId(configId);
+        entry.setModelName("model-" + configId);
+        entry.setPromptVersion(VideoSummaryService.PROMPT_VERSION);
+        entry.setTranscriptHash(HASH);
+        entry.setSummary(summary);
+        entry.setCreatedAt(createdAt);
+        return entry;
+    }
+}
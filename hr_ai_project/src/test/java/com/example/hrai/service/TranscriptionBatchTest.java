@@ -0,0 +1,65 @@
+package com.example.hrai.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TranscriptionBatchTest {
+
+    @Test
+    public void testReportAggregatesFinishedFiles() {
+        TranscriptionJob transcribed = new TranscriptionJob("1", "批量转录", "a.mp4", "fake", "fake");
+        transcribed.updateProgress(0, 60_000);
+        transcribed.markRunning();
+        transcribed.markSucceeded("text", 10L);
+
+        TranscriptionJob cached = new TranscriptionJob("2", "批量转录", "b.mp4", "fake", "fake");
+        cached.updateProgress(0, 30_000);
+        cached.markRunning();
+        cached.markCached("text", 11L);
+
+        TranscriptionJob failed = new TranscriptionJob("3", "批量转录", "c.mp4", "fake", "fake");
+        failed.markRunning();
+        failed.markFailed("decode error");
+
+        TranscriptionBatch batch = new TranscriptionBatch("batch", "fake", "fake",
+                List.of(transcribed, cached, failed), List.of(Map.of("path", "missing.mp4", "error", "文件不存在")));
+        Map<String, Object> report = batch.toReport();
+
+        assertTrue(batch.isFinished());
+        assertEquals("FINISHED", report.get("status"));
+        assertEquals(3, report.get("total"));
+        assertEquals(2, report.get("succeeded"));
+        // 无效路径计入失败数
+        assertEquals(2, report.get("failed"));
+        assertEquals(1, report.get("cached"));
+        // 命中缓存的文件不计入媒体时长和实时率
+        assertEquals(60_000L, report.get("mediaMillis"));
+        assertNotNull(report.get("wallRealTimeFactor"));
+
+        List<?> files = (List<?>) report.get("files");
+        assertEquals(3, files.size());
+        assertEquals("decode error", ((Map<?, ?>) files.get(2)).get("error"));
+        assertNull(((Map<?, ?>) files.get(1)).get("realTimeFactor"));
+    }
+
+    @Test
+    public void testBatchIsRunningUntilEveryJobFinishes() {
+        TranscriptionJob done = new TranscriptionJob("1", "批量转录", "a.mp4", "fake", "fake");
+        done.markRunning();
+        done.markSucceeded("text", 1L);
+        TranscriptionJob queued = new TranscriptionJob("2", "批量转录", "b.mp4", "fake", "fake");
+
+        TranscriptionBatch batch = new TranscriptionBatch("batch", "fake", "fake", List.of(done, queued), List.of());
+
+        assertFalse(batch.isFinished());
+        assertNull(batch.getFinishedAt());
+        Map<String, Object> report = batch.toReport();
+        assertEquals("RUNNING", report.get("status"));
+        assertEquals(1, report.get("queued"));
+        assertNull(report.get("wallRealTimeFactor"));
+    }
+}
@@ -0,0 +1,226 @@
+package com.example.hrai.service;
+
+import com.example.hrai.controller.VideoToolController;
+import com.example.hrai.entity.VideoToText;
+import com.example.hrai.repository.TranscriptSegmentRepository;
+import com.example.hrai.repository.VideoToTextRepository;
+import com.example.hrai.service.impl.AudioTranscriptionService;
+import com.example.hrai.service.impl.EngineCapabilities;
+import com.example.hrai.service.impl.MediaProbeService;
+import com.example.hrai.service.impl.TranscriptionEngine;
+import com.example.hrai.service.impl.TranscriptionEngineRegistry;
+import com.example.hrai.service.impl.TranscriptionMetrics;
+import com.example.hrai.service.impl.TranscriptionProgressListener;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 异步转录任务：有界队列的拒绝和清理、失败结果的状态，以及SSE事件的顺序
+ * 使用一个由测试控制何时返回的引擎，一个工作线程、队列容量1
+ */
+public class TranscriptionJobServiceTest {
+
+    private final GatedEngine engine = new GatedEngine();
+    private final List<VideoToText> saved = new CopyOnWriteArrayList<>();
+    private TranscriptionJobService jobs;
+    private TranscriptionEngineRegistry engines;
+
+    @BeforeEach
+    public void setUp() {
+        engines = new TranscriptionEngineRegistry(List.of(engine), GatedEngine.NAME);
+        VideoToTextRepository videoToTextRepository = mock(VideoToTextRepository.class);
+        when(videoToTextRepository.save(any(VideoToText.class))).thenAnswer(invocation -> {
+            VideoToText record = invocation.getArgument(0);
+            record.setId((long) saved.size() + 1);
+            saved.add(record);
+            return record;
+        });
+        VideoToTextService videoToTextService = new VideoToTextService();
+        ReflectionTestUtils.setField(videoToTextService, "videoToTextRepository", videoToTextRepository);
+        TranscriptSegmentRepository segmentRepository = mock(TranscriptSegmentRepository.class);
+        when(segmentRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        TranscriptSegmentService segmentService = new TranscriptSegmentService();
+        ReflectionTestUtils.setField(segmentService, "transcriptSegmentRepository", segmentRepository);
+
+        jobs = new TranscriptionJobService(new AudioTranscriptionService(engines), videoToTextService,
+                new TranscriptCacheService(null, false, 720), segmentService, null, new FileFingerprintService(100),
+                new MediaProbeService(), new TranscriptionMetrics(), 1, 1, 60, 60);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        engine.release();
+        jobs.shutdown();
+    }
+
+    @Test
+    public void testFullQueueRejectsSubmissionAndRunsItsCleanup() throws Exception {
+        AtomicInteger cleaned = new AtomicInteger();
+        TranscriptionJob running = submit("a.wav", cleaned::incrementAndGet);
+        engine.awaitStarted();
+        TranscriptionJob queued = submit("b.wav", cleaned::incrementAndGet);
+
+        assertThrows(RejectedExecutionException.class, () -> submit("c.wav", cleaned::incrementAndGet));
+        // 被拒绝的任务立即清理（如删除上传的工作目录），也不再登记
+        assertEquals(1, cleaned.get());
+        assertEquals(2, jobs.getStats().get("trackedJobs"));
+        assertEquals(TranscriptionJob.Status.QUEUED, queued.getStatus());
+
+        engine.release();
+        await(running);
+        await(queued);
+        assertEquals(3, cleaned.get());
+        assertEquals(TranscriptionJob.Status.SUCCEEDED, queued.getStatus());
+    }
+
+    @Test
+    public void testFullQueueIsAnsweredWith429() throws Exception {
+        MockMvc mvc = mockMvc();
+        submit("a.wav", null);
+        engine.awaitStarted();
+
+        String body = "{\"videoPath\": \"b.wav\", \"engine\": \"" + GatedEngine.NAME + "\"}";
+        mvc.perform(post("/api/video-tool/jobs").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isAccepted());
+        mvc.perform(post("/api/video-tool/jobs").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(jsonPath("$.error").value("Transcription queue is full"));
+    }
+
+    @Test
+    public void testFailurePrefixedResultMarksJobFailed() throws Exception {
+        engine.result = AudioTranscriptionService.FAILURE_PREFIX + ": Vosk模型不可用";
+        engine.release();
+
+        TranscriptionJob job = submit("a.wav", null);
+        await(job);
+
+        assertEquals(TranscriptionJob.Status.FAILED, job.getStatus());
+        assertEquals(engine.result, job.getError());
+        assertTrue(saved.isEmpty(), "失败的转录不应保存为记录");
+    }
+
+    @Test
+    public void testEventsAreStreamedInOrderAndEndWithDone() throws Exception {
+        MockMvc mvc = mockMvc();
+        TranscriptionJob job = submit("a.wav", null);
+        engine.awaitStarted();
+
+        MvcResult result = mvc.perform(get("/api/video-tool/jobs/{jobId}/events", job.getId()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        engine.release();
+        await(job);
+        result.getAsyncResult(TimeUnit.SECONDS.toMillis(10));
+
+        String stream = result.getResponse().getContentAsString(StandardCharsets.UTF_8);
+        int status = stream.indexOf("event:status");
+        int partial = stream.indexOf("event:partial");
+        int first = stream.indexOf("第一句");
+        int second = stream.indexOf("第二句");
+        int done = stream.indexOf("event:done");
+        assertTrue(status >= 0 && partial > status && first > partial && second > first && done > second,
+                "事件顺序不正确: " + stream);
+        assertEquals(stream.lastIndexOf("event:done"), done, "done只发送一次");
+        assertTrue(stream.substring(done).contains("SUCCEEDED"));
+    }
+
+    private TranscriptionJob submit(String mediaPath, Runnable cleanup) {
+        return jobs.submit("测试", mediaPath, mediaPath, null, GatedEngine.NAME, GatedEngine.NAME, cleanup);
+    }
+
+    private MockMvc mockMvc() {
+        VideoToolController controller = new VideoToolController();
+        ReflectionTestUtils.setField(controller, "transcriptionJobService", jobs);
+        ReflectionTestUtils.setField(controller, "transcriptionEngineRegistry", engines);
+        ReflectionTestUtils.setField(controller, "fileFingerprintService", new FileFingerprintService(100));
+        return MockMvcBuilders.standaloneSetup(controller).build();
+    }
+
+    private static void await(TranscriptionJob job) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!job.isFinished()) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("任务未结束: " + job.toStatusMap());
+            }
+            Thread.sleep(20);
+        }
+    }
+
+    /**
+     * 开始转录后等待测试放行，再依次推送一条中间结果和两条整句结果
+     */
+    private static final class GatedEngine implements TranscriptionEngine {
+
+        static final String NAME = "gated";
+
+        private final CountDownLatch started = new CountDownLatch(1);
+        private final CountDownLatch gate = new CountDownLatch(1);
+        volatile String result = "第一句\n第二句\n";
+
+        @Override
+        public String getName() {
+            return NAME;
+        }
+
+        @Override
+        public EngineCapabilities getCapabilities() {
+            return new EngineCapabilities(true, false, false, Set.of("zh"), 0);
+        }
+
+        @Override
+        public String resolveModel(String requested) {
+            return NAME;
+        }
+
+        @Override
+        public String transcribe(String mediaPath, TranscriptionProgressListener listener, String checkpointKey,
+                                 String modelName) throws Exception {
+            started.countDown();
+            if (!gate.await(10, TimeUnit.SECONDS)) {
+                throw new IllegalStateException("测试未放行");
+            }
+            if (listener.wantsPartials()) {
+                listener.onPartial("第一", 500);
+            }
+            listener.onUtterance("第一句", 0, 1000, 0.9f);
+            listener.onUtterance("第二句", 1000, 2000, 0.9f);
+            listener.onProgress(2000, 2000);
+            return result;
+        }
+
+        void awaitStarted() throws InterruptedException {
+            assertTrue(started.await(10, TimeUnit.SECONDS), "任务未开始执行");
+        }
+
+        void release() {
+            gate.countDown();
+        }
+    }
+}
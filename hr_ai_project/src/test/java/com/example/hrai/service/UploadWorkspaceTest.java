@@ -0,0 +1,161 @@
+package com.example.hrai.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UploadWorkspaceTest {
+
+    private static final String BOUNDARY = "----hrai7MA4YWxkTrZu0gW";
+    private static final String CONTENT_TYPE = "multipart/form-data; boundary=" + BOUNDARY;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testFileIsStreamedIntoWorkspaceAndHashedWhileReceived() throws Exception {
+        // 内容跨越多个缓冲区，并包含分隔符的前缀片段
+        byte[] content = new byte[300 * 1024];
+        new Random(7).nextBytes(content);
+        byte[] fakeDelimiter = ("\r\n--" + BOUNDARY.substring(0, 10)).getBytes(StandardCharsets.ISO_8859_1);
+        System.arraycopy(fakeDelimiter, 0, content, 64 * 1024 - 3, fakeDelimiter.length);
+        content[content.length - 2] = '\r';
+        content[content.length - 1] = '\n';
+
+        byte[] body = new Body()
+                .field("engine", "fake")
+                .file("file", "会议录音.MP4", content)
+                .field("model", "zh-small")
+                .end();
+
+        try (UploadWorkspace workspace = new UploadWorkspace(Files.createDirectory(tempDir.resolve("ws")), null, 0)) {
+            // 每次只返回少量字节，覆盖分隔符被拆开的情况
+            ReceivedUpload upload = workspace.receive(new Trickle(new ByteArrayInputStream(body), 1000),
+                    CONTENT_TYPE, "file");
+
+            assertFalse(upload.isEmpty());
+            assertEquals("会议录音.MP4", upload.getOriginalFilename());
+            assertEquals(workspace.getDirectory().resolve("upload.MP4"), upload.getFile());
+            assertEquals(content.length, upload.getSize());
+            assertArrayEquals(content, Files.readAllBytes(upload.getFile()));
+            assertEquals("fake", upload.getField("engine"));
+            assertEquals("zh-small", upload.getField("model"));
+            assertNull(upload.getField("missing"));
+            assertEquals(new FileFingerprintService(10).fingerprint(upload.getFile()).getHash(), upload.getHash());
+        }
+    }
+
+    @Test
+    public void testUnknownLengthUploadReservesQuotaWhileWriting() throws Exception {
+        WorkspaceManager manager = new WorkspaceManager(tempDir.resolve("root").toString(), 100, 0, 60);
+        manager.init();
+        byte[] body = new Body().file("file", "a.wav", new byte[256 * 1024]).end();
+
+        // 分配时不知道大小，写入时追加预留
+        UploadWorkspace workspace = manager.allocate(0);
+        ReceivedUpload upload = workspace.receive(new ByteArrayInputStream(body), CONTENT_TYPE, "file");
+        assertEquals(256 * 1024, upload.getSize());
+        assertTrue(manager.getReservedBytes() >= upload.getSize());
+        workspace.close();
+        assertEquals(0L, manager.getReservedBytes());
+
+        // 配额小于追加步长时按配额缩小步长，小文件仍可上传
+        WorkspaceManager small = new WorkspaceManager(tempDir.resolve("small").toString(), 1, 0, 60);
+        small.init();
+        UploadWorkspace fits = small.allocate(0);
+        assertEquals(256 * 1024, fits.receive(new ByteArrayInputStream(body), CONTENT_TYPE, "file").getSize());
+        fits.close();
+
+        // 写入量超出配额时拒绝，关闭后删除已写入的部分并归还配额
+        byte[] large = new Body().file("file", "b.wav", new byte[2 * 1024 * 1024]).end();
+        UploadWorkspace rejected = small.allocate(0);
+        assertThrows(WorkspaceQuotaExceededException.class,
+                () -> rejected.receive(new ByteArrayInputStream(large), CONTENT_TYPE, "file"));
+        rejected.close();
+        assertFalse(Files.exists(rejected.getDirectory()));
+        assertEquals(0L, small.getReservedBytes());
+    }
+
+    @Test
+    public void testRequestWithoutFileIsEmpty() throws Exception {
+        byte[] body = new Body().field("engine", "fake").file("other", "a.wav", new byte[16]).end();
+
+        try (UploadWorkspace workspace = new UploadWorkspace(Files.createDirectory(tempDir.resolve("ws")), null, 0)) {
+            ReceivedUpload upload = workspace.receive(new ByteArrayInputStream(body), CONTENT_TYPE, "file");
+
+            assertTrue(upload.isEmpty());
+            assertNull(upload.getFile());
+            assertEquals("fake", upload.getField("engine"));
+        }
+    }
+
+    @Test
+    public void testTruncatedBodyIsRejected() throws Exception {
+        byte[] body = new Body().file("file", "a.mp4", new byte[4096]).end();
+        byte[] truncated = Arrays.copyOf(body, body.length - BOUNDARY.length() - 10);
+
+        try (UploadWorkspace workspace = new UploadWorkspace(Files.createDirectory(tempDir.resolve("ws")), null, 0)) {
+            assertThrows(IOException.class,
+                    () -> workspace.receive(new ByteArrayInputStream(truncated), CONTENT_TYPE, "file"));
+            assertThrows(IOException.class,
+                    () -> workspace.receive(new ByteArrayInputStream(body), "multipart/form-data", "file"));
+        }
+    }
+
+    /**
+     * 按浏览器的格式拼接multipart请求体
+     */
+    private static class Body {
+
+        private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        Body field(String name, String value) throws IOException {
+            out.write(("--" + BOUNDARY + "\r\nContent-Disposition: form-data; name=\"" + name + "\"\r\n\r\n" + value + "\r\n")
+                    .getBytes(StandardCharsets.UTF_8));
+            return this;
+        }
+
+        Body file(String name, String filename, byte[] content) throws IOException {
+            out.write(("--" + BOUNDARY + "\r\nContent-Disposition: form-data; name=\"" + name + "\"; filename=\""
+                    + filename + "\"\r\nContent-Type: application/octet-stream\r\n\r\n").getBytes(StandardCharsets.UTF_8));
+            out.write(content);
+            out.write("\r\n".getBytes(StandardCharsets.UTF_8));
+            return this;
+        }
+
+        byte[] end() throws IOException {
+            out.write(("--" + BOUNDARY + "--\r\n").getBytes(StandardCharsets.UTF_8));
+            return out.toByteArray();
+        }
+    }
+
+    /**
+     * 每次最多返回指定字节数的输入流
+     */
+    private static class Trickle extends FilterInputStream {
+
+        private final int chunk;
+
+        Trickle(InputStream in, int chunk) {
+            super(in);
+            this.chunk = chunk;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            return super.read(b, off, Math.min(len, chunk));
+        }
+    }
+}
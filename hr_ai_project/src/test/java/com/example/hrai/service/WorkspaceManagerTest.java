@@ -0,0 +1,132 @@
+package com.example.hrai.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WorkspaceManagerTest {
+
+    private static final long MB = 1024 * 1024;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testWorkspacesAreUniqueAndReleaseQuotaOnClose() throws Exception {
+        WorkspaceManager manager = new WorkspaceManager(tempDir.toString(), 1, 0, 60);
+        manager.init();
+
+        UploadWorkspace first = manager.allocate(MB / 2);
+        UploadWorkspace second = manager.allocate(MB / 2);
+        assertNotEquals(first.getDirectory(), second.getDirectory());
+        assertEquals(tempDir.toAbsolutePath().normalize(), first.getDirectory().getParent());
+
+        // 配额已满，不等待直接拒绝
+        assertThrows(WorkspaceQuotaExceededException.class, () -> manager.allocate(1));
+        assertThrows(WorkspaceQuotaExceededException.class, () -> manager.allocate(2 * MB));
+
+        Files.write(first.getDirectory().resolve("upload.mp4"), new byte[16]);
+        first.close();
+        assertFalse(Files.exists(first.getDirectory()));
+        UploadWorkspace third = manager.allocate(MB / 2);
+
+        Map<String, Object> stats = manager.getStats();
+        assertEquals(MB, stats.get("reservedBytes"));
+        assertEquals(2, stats.get("liveWorkspaces"));
+        assertEquals(2L, stats.get("rejected"));
+
+        second.close();
+        third.close();
+        assertEquals(0L, manager.getStats().get("reservedBytes"));
+    }
+
+    @Test
+    public void testAdmissionWaitsForReleasedQuota() throws Exception {
+        WorkspaceManager manager = new WorkspaceManager(tempDir.toString(), 1, 5000, 60);
+        manager.init();
+        UploadWorkspace holder = manager.allocate(MB);
+
+        Thread releaser = new Thread(() -> {
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                return;
+            }
+            holder.close();
+        });
+        releaser.start();
+
+        UploadWorkspace admitted = manager.allocate(MB);
+        assertTrue(Files.isDirectory(admitted.getDirectory()));
+        releaser.join();
+        admitted.close();
+    }
+
+    @Test
+    public void testReservationIsHandedToWorkspaceOrReturned() throws Exception {
+        WorkspaceManager manager = new WorkspaceManager(tempDir.toString(), 1, 0, 60);
+        manager.init();
+
+        // 未转交的预留关闭时归还配额
+        UploadReservation unused = manager.admit(MB);
+        assertEquals(MB, manager.getReservedBytes());
+        assertThrows(WorkspaceQuotaExceededException.class, () -> manager.admit(1));
+        unused.close();
+        unused.close();
+        assertEquals(0L, manager.getReservedBytes());
+
+        // 转交给工作目录后关闭预留不再归还，目录关闭时归还
+        UploadReservation reservation = manager.admit(MB);
+        UploadWorkspace workspace = manager.allocate(reservation);
+        reservation.close();
+        assertEquals(MB, manager.getReservedBytes());
+        assertThrows(IllegalStateException.class, () -> manager.allocate(reservation));
+        workspace.close();
+        assertEquals(0L, manager.getReservedBytes());
+    }
+
+    @Test
+    public void testExpiredWorkspaceIsReclaimedOnlyWhenNoJobHoldsIt() throws Exception {
+        WorkspaceManager manager = new WorkspaceManager(tempDir.toString(), 1, 0, 60);
+        manager.init();
+        UploadWorkspace orphaned = manager.allocate(MB / 4);
+        UploadWorkspace leased = manager.allocate(MB / 4);
+        AtomicBoolean jobActive = new AtomicBoolean(true);
+        leased.leaseTo(jobActive::get);
+
+        // 超过最长存活时间：无人持有的目录被回收，任务仍在运行的目录保留
+        long later = System.currentTimeMillis() + TimeUnit.HOURS.toMillis(2);
+        manager.cleanup(later);
+        assertTrue(orphaned.isClosed());
+        assertFalse(Files.exists(orphaned.getDirectory()));
+        assertFalse(leased.isClosed());
+        assertTrue(Files.isDirectory(leased.getDirectory()));
+        assertEquals(MB / 4, manager.getReservedBytes());
+
+        // 任务结束后仍未关闭的目录视为无人持有
+        jobActive.set(false);
+        manager.cleanup(later);
+        assertTrue(leased.isClosed());
+        assertEquals(0L, manager.getReservedBytes());
+    }
+
+    @Test
+    public void testLeftoverDirectoriesAreRemovedOnStartup() throws Exception {
+        Path leftover = Files.createDirectory(tempDir.resolve(UploadWorkspace.DIRECTORY_PREFIX + "old"));
+        Files.write(leftover.resolve("upload.mp4"), new byte[8]);
+        Path unrelated = Files.createDirectory(tempDir.resolve("other"));
+
+        WorkspaceManager manager = new WorkspaceManager(tempDir.toString(), 0, 0, 60);
+        manager.init();
+
+        assertFalse(Files.exists(leftover));
+        assertTrue(Files.exists(unrelated));
+    }
+}
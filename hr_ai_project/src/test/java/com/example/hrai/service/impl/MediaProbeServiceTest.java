@@ -0,0 +1,127 @@
+package com.example.hrai.service.impl;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * MP4顶层box遍历：跳过mdat只读取moov，moov过大时交给FFmpeg
+ */
+public class MediaProbeServiceTest {
+
+    private static final long MB = 1024 * 1024;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testMoovAfterLargeMdatIsFoundWithoutReadingMdat() throws Exception {
+        // 先写mdat再写moov（未做faststart的录制文件），mdat为稀疏的大文件区域
+        Path file = tempDir.resolve("recording.mp4");
+        long mdatSize = 200 * MB;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(box("ftyp", ascii("isom"), new byte[4], ascii("isommp41"))));
+            long mdatStart = channel.position();
+            channel.write(ByteBuffer.wrap(header("mdat", mdatSize)));
+            channel.write(ByteBuffer.wrap(moov(12_345)), mdatStart + mdatSize);
+        }
+
+        MediaProbeService probe = new MediaProbeService();
+        MediaProbeService.MediaInfo info = probe.probe(file);
+
+        assertEquals("mp4", info.getFormat());
+        assertEquals(12_345, info.getDurationMillis());
+        assertEquals(1, info.getTracks().size());
+        MediaProbeService.TrackInfo audio = info.getTracks().get(0);
+        assertEquals(MediaProbeService.TrackInfo.AUDIO, audio.getType());
+        assertEquals("mp4a", audio.getCodec());
+        assertEquals(16000, audio.getSampleRate());
+        assertEquals(1, audio.getChannels());
+
+        // 同一文件再次探测命中缓存
+        probe.probe(file);
+        assertEquals(1, probe.getHits());
+        assertEquals(1, probe.getMisses());
+    }
+
+    @Test
+    public void testOversizeMoovFallsBackToFfmpeg() throws Exception {
+        // moov声明的大小超过读取上限，开头仍是有效的mvhd：若被读入解析会得到格式mp4
+        Path file = tempDir.resolve("oversize.mp4");
+        byte[] moov = moov(12_345);
+        long declared = 65 * MB;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(box("ftyp", ascii("isom"), new byte[4], ascii("isommp41"))));
+            ByteBuffer oversize = ByteBuffer.wrap(moov);
+            oversize.putInt(0, (int) declared);
+            long moovStart = channel.position();
+            channel.write(oversize);
+            channel.write(ByteBuffer.wrap(new byte[1]), moovStart + declared - 1);
+        }
+
+        NativeResourceTracker tracker = new NativeResourceTracker();
+        MediaProbeService.MediaInfo info = new MediaProbeService(10, tracker, new TranscriptionMetrics()).probe(file);
+
+        assertNotEquals("mp4", info.getFormat(), "超过上限的moov不应读入内存解析");
+        assertEquals(0, tracker.getOutstanding(NativeResourceTracker.FFMPEG_GRABBER), "FFmpeg探测后应释放grabber");
+    }
+
+    /**
+     * moov { mvhd, trak { mdia { mdhd, hdlr(soun), minf { stbl { stsd { mp4a 16kHz 单声道 } } } } } }
+     */
+    private static byte[] moov(long durationMillis) {
+        ByteBuffer mvhd = ByteBuffer.allocate(100);
+        mvhd.putInt(0).putInt(0).putInt(0).putInt(1000).putInt((int) durationMillis);
+        mvhd.putInt(0x00010000).putShort((short) 0x0100).put(new byte[10]);
+        mvhd.putInt(0x00010000).putInt(0).putInt(0).putInt(0).putInt(0x00010000).putInt(0).putInt(0).putInt(0)
+                .putInt(0x40000000);
+        mvhd.put(new byte[24]).putInt(2);
+
+        ByteBuffer mdhd = ByteBuffer.allocate(24);
+        mdhd.putInt(0).putInt(0).putInt(0).putInt(16000).putInt((int) (durationMillis * 16)).putShort((short) 0x55c4)
+                .putShort((short) 0);
+
+        ByteBuffer hdlr = ByteBuffer.allocate(25);
+        hdlr.putInt(0).putInt(0).put(ascii("soun")).put(new byte[12]).put((byte) 0);
+
+        ByteBuffer mp4a = ByteBuffer.allocate(28);
+        mp4a.put(new byte[6]).putShort((short) 1).put(new byte[8]).putShort((short) 1).putShort((short) 16)
+                .putShort((short) 0).putShort((short) 0).putInt(16000 << 16);
+
+        ByteBuffer stsd = ByteBuffer.allocate(8);
+        stsd.putInt(0).putInt(1);
+
+        byte[] minf = box("minf", box("stbl", box("stsd", stsd.array(), box("mp4a", mp4a.array()))));
+        byte[] mdia = box("mdia", box("mdhd", mdhd.array()), box("hdlr", hdlr.array()), minf);
+        return box("moov", box("mvhd", mvhd.array()), box("trak", mdia));
+    }
+
+    private static byte[] box(String type, byte[]... payloads) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        int size = 8;
+        for (byte[] payload : payloads) {
+            size += payload.length;
+        }
+        out.writeBytes(header(type, size));
+        for (byte[] payload : payloads) {
+            out.writeBytes(payload);
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] header(String type, long size) {
+        return ByteBuffer.allocate(8).putInt((int) size).put(ascii(type)).array();
+    }
+
+    private static byte[] ascii(String text) {
+        return text.getBytes(StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.hrai.service.impl;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class NativeResourceTrackerTest {
+
+    @Test
+    public void testReleasedResourceIsNotOutstanding() {
+        NativeResourceTracker tracker = new NativeResourceTracker();
+        Object grabber = new Object();
+        tracker.track(grabber, NativeResourceTracker.FFMPEG_GRABBER, "a.mp4");
+        assertEquals(1, tracker.getOutstanding(NativeResourceTracker.FFMPEG_GRABBER));
+
+        tracker.release(grabber);
+        // 重复释放不重复计数
+        tracker.release(grabber);
+        assertEquals(0, tracker.getOutstanding(NativeResourceTracker.FFMPEG_GRABBER));
+        assertEquals(0, tracker.getLeaked(NativeResourceTracker.FFMPEG_GRABBER));
+    }
+
+    @Test
+    public void testCollectedWithoutReleaseIsReportedAsLeak() throws Exception {
+        NativeResourceTracker tracker = new NativeResourceTracker();
+        tracker.track(new Object(), NativeResourceTracker.VOSK_RECOGNIZER, "zh-small");
+
+        // 回收时机不确定，多次触发GC直到清理动作执行
+        for (int i = 0; i < 50 && tracker.getLeaked(NativeResourceTracker.VOSK_RECOGNIZER) == 0; i++) {
+            System.gc();
+            Thread.sleep(20);
+        }
+        assertEquals(1, tracker.getLeaked(NativeResourceTracker.VOSK_RECOGNIZER));
+        assertEquals(0, tracker.getOutstanding(NativeResourceTracker.VOSK_RECOGNIZER));
+    }
+
+    @Test
+    public void testOverdueResourceIsReportedOnce() throws Exception {
+        NativeResourceTracker tracker = new NativeResourceTracker(false, 0);
+        Object grabber = new Object();
+        tracker.track(grabber, NativeResourceTracker.FFMPEG_GRABBER, "b.mp4");
+        Thread.sleep(5);
+
+        assertEquals(1, tracker.scan());
+        assertEquals(0, tracker.scan());
+        // 超时只是疑似泄漏，资源仍可正常释放
+        tracker.release(grabber);
+        assertEquals(0, tracker.getOutstanding(NativeResourceTracker.FFMPEG_GRABBER));
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.hrai.service.impl;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PcmRingBufferTest {
+
+    @Test
+    public void testSamplesArriveInOrderAcrossWrapAround() throws Exception {
+        // 容量远小于总数据量，读写都会多次绕回
+        PcmRingBuffer ring = new PcmRingBuffer(1000);
+        assertEquals(1024, ring.getCapacity());
+        int total = 200_000;
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> producer = executor.submit(() -> {
+                short[] chunk = new short[777];
+                int next = 0;
+                while (next < total) {
+                    int n = Math.min(chunk.length, total - next);
+                    for (int i = 0; i < n; i++) {
+                        chunk[i] = (short) (next + i);
+                    }
+                    ring.write(chunk, n);
+                    next += n;
+                }
+                ring.close();
+                return null;
+            });
+
+            short[] buffer = new short[300];
+            int expected = 0;
+            int n;
+            while ((n = ring.read(buffer)) >= 0) {
+                for (int i = 0; i < n; i++) {
+                    assertEquals((short) expected++, buffer[i]);
+                }
+            }
+            assertEquals(total, expected);
+            producer.get(10, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testProducerFailureIsRethrownToConsumer() throws Exception {
+        PcmRingBuffer ring = new PcmRingBuffer(16);
+        ring.write(new short[4], 4);
+        ring.fail(new IllegalStateException("decode failed"));
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> ring.read(new short[8]));
+        assertEquals("decode failed", e.getMessage());
+    }
+
+    @Test
+    public void testAbortReleasesBlockedProducer() throws Exception {
+        PcmRingBuffer ring = new PcmRingBuffer(16);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            // 写入量超过容量，生产者阻塞直到消费者中止
+            Future<?> producer = executor.submit(() -> {
+                ring.write(new short[64], 64);
+                return null;
+            });
+            Thread.sleep(50);
+            assertFalse(producer.isDone());
+
+            ring.abort();
+            Exception e = assertThrows(Exception.class, () -> producer.get(10, TimeUnit.SECONDS));
+            assertTrue(e.getCause() instanceof CancellationException);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
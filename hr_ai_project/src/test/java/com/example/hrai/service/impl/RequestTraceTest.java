@@ -0,0 +1,71 @@
+package com.example.hrai.service.impl;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RequestTraceTest {
+
+    @Test
+    public void testStagesNestUnderOpenScopeAndMergeByName() {
+        RequestTrace trace = RequestTrace.begin("POST /api/video-tool/extract-text");
+        try {
+            try (RequestTrace.Scope ignored = RequestTrace.open("transcribe")) {
+                RequestTrace.record(TranscriptionMetrics.EXTRACT, 2_000_000);
+                RequestTrace.record(TranscriptionMetrics.EXTRACT, 3_000_000);
+                RequestTrace.record(TranscriptionMetrics.RECOGNIZE, 10_000_000);
+            }
+            RequestTrace.record(TranscriptionMetrics.PERSIST, 1_500_000);
+        } finally {
+            trace.end();
+        }
+
+        String header = trace.toServerTiming();
+        assertTrue(header.startsWith("total;dur="));
+        assertTrue(header.contains("transcribe.extract;dur=5.0;desc=\"x2\""), header);
+        assertTrue(header.contains("transcribe.recognize;dur=10.0"), header);
+        assertTrue(header.contains("persist;dur=1.5"), header);
+        assertNull(RequestTrace.current());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testWrappedTaskRecordsIntoSubmittingSpan() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        RequestTrace trace = RequestTrace.begin("request");
+        try (RequestTrace.Scope ignored = RequestTrace.open("transcribe")) {
+            executor.submit(RequestTrace.wrap(() -> {
+                RequestTrace.record(TranscriptionMetrics.RECOGNIZE, 4_000_000);
+                return null;
+            })).get();
+        } finally {
+            trace.end();
+            executor.shutdownNow();
+        }
+
+        List<Map<String, Object>> stages = (List<Map<String, Object>>) trace.toMap().get("stages");
+        assertEquals("transcribe", stages.get(0).get("name"));
+        List<Map<String, Object>> nested = (List<Map<String, Object>>) stages.get(0).get("stages");
+        assertEquals(TranscriptionMetrics.RECOGNIZE, nested.get(0).get("name"));
+        assertEquals("4.0", nested.get(0).get("millis"));
+    }
+
+    @Test
+    public void testRecordWithoutActiveRequestIsIgnored() {
+        RequestTrace.record(TranscriptionMetrics.PROBE, 1_000_000);
+        try (RequestTrace.Scope scope = RequestTrace.open("transcribe")) {
+            assertSame(RequestTrace.Scope.NOOP, scope);
+        }
+        assertNull(RequestTrace.current());
+    }
+
+    @Test
+    public void testServerTimingNamesAreTokens() {
+        assertEquals("model_zh-cn_v2", RequestTrace.token("model zh-cn.v2"));
+    }
+}
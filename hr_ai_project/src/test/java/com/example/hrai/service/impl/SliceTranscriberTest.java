@@ -0,0 +1,38 @@
+package com.example.hrai.service.impl;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 分片中止标志的单元测试
+ */
+public class SliceTranscriberTest {
+
+    @Test
+    public void testAbortStopsSinkBeforeNextBuffer() throws Exception {
+        AtomicBoolean aborted = new AtomicBoolean();
+        AtomicInteger delivered = new AtomicInteger();
+        StreamingAudioDecoder.PcmSink sink = SliceTranscriber.abortable((samples, length) -> delivered.addAndGet(length),
+                aborted);
+
+        sink.accept(new short[160], 160);
+        aborted.set(true);
+        assertThrows(CancellationException.class, () -> sink.accept(new short[160], 160));
+        assertEquals(160, delivered.get(), "中止后的缓冲区不应交给识别器");
+    }
+
+    @Test
+    public void testAbortedSliceDoesNotStart() {
+        // 识别器池为null：未中止时会在借出识别器时失败，中止时应在此之前退出
+        SliceTranscriber transcriber = new SliceTranscriber(null, null, null, new TranscriptionMetrics());
+        TranscriptionProgressListener listener = (processedMillis, totalMillis) -> { };
+
+        assertThrows(CancellationException.class, () -> transcriber.transcribe("a.mp4", new TranscriptionSlice(0, 1_000_000),
+                listener, new ProgressCounter(listener, 1000), false, 1, null, null, new AtomicBoolean(true)));
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.hrai.service.impl;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * 分片切点静音对齐的单元测试
+ */
+public class TimeSlicedTranscriberTest {
+
+    @Test
+    public void testLowestEnergyOffsetFindsQuietFrame() {
+        int frame = TimeSlicedTranscriber.ENERGY_FRAME_SAMPLES;
+        short[] samples = new short[frame * 10];
+        for (int i = 0; i < samples.length; i++) {
+            samples[i] = (short) (i % 2 == 0 ? 8000 : -8000);
+        }
+        // 第7帧为静音
+        for (int i = frame * 7; i < frame * 8; i++) {
+            samples[i] = 0;
+        }
+
+        int offset = TimeSlicedTranscriber.lowestEnergyOffset(samples, samples.length, frame);
+        Assertions.assertEquals(frame * 7 + frame / 2, offset, "切点应落在静音帧的中心");
+    }
+
+    @Test
+    public void testLowestEnergyOffsetWithTooFewSamples() {
+        int frame = TimeSlicedTranscriber.ENERGY_FRAME_SAMPLES;
+        short[] samples = new short[frame - 1];
+        Assertions.assertEquals(-1, TimeSlicedTranscriber.lowestEnergyOffset(samples, samples.length, frame));
+    }
+}
@@ -0,0 +1,166 @@
+package com.example.hrai.service.impl;
+
+import com.example.hrai.entity.TranscriptSegment;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TranscriptionCheckpointSessionTest {
+
+    private static final long SLICE_MICROS = 30_000_000L;
+
+    @Test
+    public void testConcurrentRunsDoNotShareOrClearEachOthersCheckpoints() {
+        InMemoryStore store = new InMemoryStore();
+        try (TranscriptionCheckpointSession first = TranscriptionCheckpointSession.open(store, "hash-a", "zh-small", "a.mp4")) {
+            assertNotNull(first);
+            first.start(plan());
+
+            // 同一内容和模型的第二次转录不使用检查点
+            assertNull(TranscriptionCheckpointSession.open(store, "hash-a", "zh-small", "copy-of-a.mp4"));
+
+            // 其他模型的转录有各自的检查点，完成后只删除自己的
+            try (TranscriptionCheckpointSession other = TranscriptionCheckpointSession.open(store, "hash-a", "zh-large", "a.mp4")) {
+                assertNotNull(other);
+                other.start(plan());
+                other.clear();
+            }
+            assertEquals(2, store.load("hash-a", "zh-small").size());
+            assertTrue(store.load("hash-a", "zh-large").isEmpty());
+        }
+
+        // 会话结束后可以重新占用
+        try (TranscriptionCheckpointSession again = TranscriptionCheckpointSession.open(store, "hash-a", "zh-small", "a.mp4")) {
+            assertNotNull(again);
+        }
+    }
+
+    @Test
+    public void testResumeFromUtteranceBoundaryAfterInterruption() throws Exception {
+        InMemoryStore store = new InMemoryStore();
+        String firstText = "{\"text\" : \"第一句\"}\n{\"text\" : \"第二句\"}\n";
+        try (TranscriptionCheckpointSession session = TranscriptionCheckpointSession.open(store, "hash-b", "zh-small", "b.mp4")) {
+            List<TranscriptionSlice> slices = plan();
+            session.start(slices);
+            // 识别到第二句结束（12.34秒）时在整句边界保存检查点，之后进程中断，没有调用clear
+            session.checkpoint(slices.get(0), 12_340_000L, firstText,
+                    List.of(segment(0, 5_000, "第一句"), segment(5_200, 12_340, "第二句")), false);
+            session.checkpoint(slices.get(1), slices.get(1).getEndMicros(), "{\"text\" : \"第三句\"}\n",
+                    List.of(segment(30_500, 33_000, "第三句")), true);
+        }
+
+        try (TranscriptionCheckpointSession resumed = TranscriptionCheckpointSession.open(store, "hash-b", "zh-small", "b.mp4")) {
+            List<TranscriptionSlice> slices = resumed.loadPlan();
+            assertEquals(2, slices.size());
+
+            TranscriptionSlice first = slices.get(0);
+            assertFalse(first.isCompleted());
+            assertEquals(12_340_000L, first.getResumeMicros(), "应从最后一个整句边界继续解码");
+            assertEquals(firstText, first.getResultText());
+            assertEquals(2, first.getSegments().size());
+
+            // 已完成的分片只回放已有片段，不再识别
+            List<String> replayed = new ArrayList<>();
+            TranscriptionProgressListener listener = new TranscriptionProgressListener() {
+                @Override
+                public void onProgress(long processedMillis, long totalMillis) {
+                }
+
+                @Override
+                public void onUtterance(String text, long startMillis, long endMillis, float confidence) {
+                    replayed.add(text + "@" + startMillis + "-" + endMillis);
+                }
+            };
+            SliceTranscriber transcriber = new SliceTranscriber(null, null, null, new TranscriptionMetrics());
+            String text = transcriber.transcribe("b.mp4", slices.get(1), listener, new ProgressCounter(listener, 60_000),
+                    false, 1, resumed, "zh-small", null);
+            assertEquals("{\"text\" : \"第三句\"}\n", text);
+            assertEquals(List.of("第三句@30500-33000"), replayed);
+
+            resumed.clear();
+        }
+        assertTrue(store.load("hash-b", "zh-small").isEmpty());
+    }
+
+    private static List<TranscriptionSlice> plan() {
+        return List.of(new TranscriptionSlice(0, SLICE_MICROS), new TranscriptionSlice(SLICE_MICROS, Long.MAX_VALUE));
+    }
+
+    private static TranscriptSegment segment(long startMs, long endMs, String text) {
+        return new TranscriptSegment(startMs, endMs, text, 0.9f);
+    }
+
+    /**
+     * 按（内容哈希、模型）保存分片副本的检查点存储
+     */
+    private static final class InMemoryStore implements TranscriptionCheckpointStore {
+
+        private final Map<String, Map<Long, TranscriptionSlice>> plans = new LinkedHashMap<>();
+        private final Set<String> owned = new HashSet<>();
+
+        @Override
+        public boolean isEnabled() {
+            return true;
+        }
+
+        @Override
+        public long getCheckpointIntervalMillis() {
+            return 0;
+        }
+
+        @Override
+        public synchronized boolean acquire(String key, String modelName) {
+            return owned.add(key + "|" + modelName);
+        }
+
+        @Override
+        public synchronized void release(String key, String modelName) {
+            owned.remove(key + "|" + modelName);
+        }
+
+        @Override
+        public synchronized List<TranscriptionSlice> load(String key, String modelName) {
+            List<TranscriptionSlice> slices = new ArrayList<>();
+            for (TranscriptionSlice saved : plans.getOrDefault(key + "|" + modelName, Map.of()).values()) {
+                slices.add(copy(saved));
+            }
+            return slices;
+        }
+
+        @Override
+        public synchronized void savePlan(String key, String modelName, String mediaPath, List<TranscriptionSlice> slices) {
+            Map<Long, TranscriptionSlice> plan = new LinkedHashMap<>();
+            for (TranscriptionSlice slice : slices) {
+                plan.put(slice.getStartMicros(), copy(slice));
+            }
+            plans.put(key + "|" + modelName, plan);
+        }
+
+        @Override
+        public synchronized void saveSlice(String key, String modelName, TranscriptionSlice slice) {
+            Map<Long, TranscriptionSlice> plan = plans.get(key + "|" + modelName);
+            if (plan != null && plan.containsKey(slice.getStartMicros())) {
+                plan.put(slice.getStartMicros(), copy(slice));
+            }
+        }
+
+        @Override
+        public synchronized void clear(String key, String modelName) {
+            plans.remove(key + "|" + modelName);
+        }
+
+        private static TranscriptionSlice copy(TranscriptionSlice slice) {
+            TranscriptionSlice copy = new TranscriptionSlice(slice.getStartMicros(), slice.getEndMicros());
+            copy.update(slice.getResumeMicros(), slice.getResultText(), new ArrayList<>(slice.getSegments()),
+                    slice.isCompleted());
+            return copy;
+        }
+    }
+}
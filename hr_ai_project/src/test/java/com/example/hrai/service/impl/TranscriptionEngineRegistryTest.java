@@ -0,0 +1,58 @@
+package com.example.hrai.service.impl;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TranscriptionEngineRegistryTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testResolveFallsBackToDefaultEngine() {
+        TranscriptionEngineRegistry registry = new TranscriptionEngineRegistry(
+                List.of(new FakeTranscriptionEngine()), FakeTranscriptionEngine.NAME);
+
+        assertEquals(FakeTranscriptionEngine.NAME, registry.resolve(null).getName());
+        assertEquals(FakeTranscriptionEngine.NAME, registry.resolve(" fake ").getName());
+        assertThrows(IllegalArgumentException.class, () -> registry.resolve("whisper"));
+    }
+
+    @Test
+    public void testFakeEngineIsDeterministic() throws Exception {
+        // 64000字节按16kHz单声道16bit计算为2秒音频，只生成一句
+        Path media = tempDir.resolve("sample.wav");
+        Files.write(media, new byte[64000]);
+        FakeTranscriptionEngine engine = new FakeTranscriptionEngine();
+        List<String> utterances = new ArrayList<>();
+        long[] lastProgress = new long[2];
+
+        String first = engine.transcribe(media.toString(), new TranscriptionProgressListener() {
+            @Override
+            public void onProgress(long processedMillis, long totalMillis) {
+                lastProgress[0] = processedMillis;
+                lastProgress[1] = totalMillis;
+            }
+
+            @Override
+            public void onUtterance(String text, long startMillis, long endMillis, float confidence) {
+                utterances.add(text);
+            }
+        }, null, FakeTranscriptionEngine.MODEL_NAME);
+        String second = engine.transcribe(media.toString(), (processed, total) -> { }, null,
+                FakeTranscriptionEngine.MODEL_NAME);
+
+        assertEquals(first, second);
+        assertEquals(1, utterances.size());
+        assertEquals(2000, lastProgress[0]);
+        assertEquals(2000, lastProgress[1]);
+        assertThrows(IllegalArgumentException.class, () -> engine.resolveModel("zh-small"));
+    }
+}
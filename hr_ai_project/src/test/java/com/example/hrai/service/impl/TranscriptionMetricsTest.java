@@ -0,0 +1,48 @@
+package com.example.hrai.service.impl;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.CountAtBucket;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TranscriptionMetricsTest {
+
+    @Test
+    public void testStagesAreRecordedUnderOneTimerWithStageTag() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        TranscriptionMetrics metrics = new TranscriptionMetrics(registry);
+        metrics.recordStage(TranscriptionMetrics.EXTRACT, TimeUnit.MILLISECONDS.toNanos(30));
+        metrics.recordStage(TranscriptionMetrics.EXTRACT, TimeUnit.MILLISECONDS.toNanos(10));
+        metrics.recordStage(TranscriptionMetrics.RECOGNIZE, TimeUnit.MILLISECONDS.toNanos(200));
+
+        Timer extract = registry.get(TranscriptionMetrics.STAGE_TIMER).tag("stage", TranscriptionMetrics.EXTRACT).timer();
+        assertEquals(2, extract.count());
+        assertEquals(40.0, extract.totalTime(TimeUnit.MILLISECONDS), 0.001);
+        assertEquals(1, registry.get(TranscriptionMetrics.STAGE_TIMER).tag("stage", TranscriptionMetrics.RECOGNIZE).timer().count());
+    }
+
+    @Test
+    public void testRealTimeFactorFallsIntoSloBuckets() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        TranscriptionMetrics metrics = new TranscriptionMetrics(registry);
+        metrics.recordRealTimeFactor("vosk", 60_000, 6_000);
+        metrics.recordRealTimeFactor("vosk", 60_000, 90_000);
+        // 媒体时长未知时不记录
+        metrics.recordRealTimeFactor("vosk", 0, 1_000);
+
+        DistributionSummary summary = registry.get(TranscriptionMetrics.REAL_TIME_FACTOR).tag("engine", "vosk").summary();
+        assertEquals(2, summary.count());
+        double withinRealTime = 0;
+        for (CountAtBucket bucket : summary.takeSnapshot().histogramCounts()) {
+            if (bucket.bucket() == 1.0) {
+                withinRealTime = bucket.count();
+            }
+        }
+        assertEquals(1.0, withinRealTime, 0.001);
+    }
+}
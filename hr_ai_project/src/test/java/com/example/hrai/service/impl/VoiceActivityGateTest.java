@@ -0,0 +1,75 @@
+package com.example.hrai.service.impl;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class VoiceActivityGateTest {
+
+    private static final int FRAME = VoiceActivityGate.FRAME_SAMPLES;
+
+    @Test
+    public void testSilenceIsSkippedAndTimelineMapsBack() throws Exception {
+        // 1秒静音 + 0.2秒语音 + 1秒静音 + 0.2秒语音 + 1秒静音
+        short[] audio = new short[16000 + 3200 + 16000 + 3200 + 16000];
+        fill(audio, 16000, 3200, (short) 8000);
+        fill(audio, 16000 + 3200 + 16000, 3200, (short) 8000);
+
+        List<Short> received = new ArrayList<>();
+        VadTimeline timeline = new VadTimeline();
+        // 阈值远高于静音、低于语音；拖尾2帧，前导1帧
+        VoiceActivityGate gate = new VoiceActivityGate((samples, length) -> {
+            for (int i = 0; i < length; i++) {
+                received.add(samples[i]);
+            }
+        }, timeline, 1000, 2, 1, 1000);
+
+        // 以不对齐帧边界的块大小送入
+        for (int offset = 0; offset < audio.length; offset += 777) {
+            int length = Math.min(777, audio.length - offset);
+            short[] chunk = new short[length];
+            System.arraycopy(audio, offset, chunk, 0, length);
+            gate.accept(chunk, length);
+        }
+        gate.finish();
+
+        // 每段语音：前导1帧 + 语音10帧 + 拖尾2帧
+        int expectedPerSegment = FRAME + 3200 + 2 * FRAME;
+        assertEquals(2 * expectedPerSegment, received.size());
+        assertEquals(audio.length, gate.getInputSamples());
+        assertEquals(audio.length - 2L * expectedPerSegment, gate.getSkippedSamples());
+
+        assertEquals(2, timeline.getSegmentCount());
+        // 第一段从前导帧开始，语音起点映射回1秒处
+        assertEquals(16000 - FRAME, timeline.toSourceSample(0));
+        assertEquals(16000, timeline.toSourceSample(FRAME));
+        // 第二段语音起点映射回2.2秒处
+        assertEquals(16000 + 3200 + 16000, timeline.toSourceSample(expectedPerSegment + FRAME));
+    }
+
+    @Test
+    public void testContinuousSpeechPassesThroughUnchanged() throws Exception {
+        short[] audio = new short[4 * FRAME + 100];
+        fill(audio, 0, audio.length, (short) -6000);
+
+        long[] received = {0};
+        VadTimeline timeline = new VadTimeline();
+        VoiceActivityGate gate = new VoiceActivityGate((samples, length) -> received[0] += length,
+                timeline, 1000, 2, 1, 1000);
+        gate.accept(audio, audio.length);
+        gate.finish();
+
+        assertEquals(audio.length, received[0]);
+        assertEquals(0, gate.getSkippedSamples());
+        assertEquals(123, timeline.toSourceSample(123));
+    }
+
+    private static void fill(short[] audio, int start, int length, short value) {
+        for (int i = start; i < start + length; i++) {
+            audio[i] = (i % 2 == 0) ? value : (short) -value;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.hrai.service.impl;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class VoskAudioTranscriptionServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testMissingModelIsReportedAsFailureAndNotCacheable() throws Exception {
+        Path media = Files.write(tempDir.resolve("a.wav"), new byte[1024]);
+        VoskAudioTranscriptionService service =
+                new VoskAudioTranscriptionService(new VoskModelRegistry(tempDir.resolve("none").toString(), false));
+
+        String result = service.transcribeAudio(media.toString(), TranscriptionProgressListener.NONE, "hash", null);
+
+        // 控制器和任务服务只为非失败结果写入内容哈希，失败结果不会被转录缓存命中
+        assertTrue(AudioTranscriptionService.isFailure(result), result);
+        assertTrue(result.contains("Vosk模型未找到"), result);
+        assertFalse(result.contains("模拟"), result);
+    }
+
+    @Test
+    public void testEmptyOrFailedResultsAreFailures() {
+        assertTrue(AudioTranscriptionService.isFailure(null));
+        assertTrue(AudioTranscriptionService.isFailure("  "));
+        assertTrue(AudioTranscriptionService.isFailure(AudioTranscriptionService.FAILURE_PREFIX + ": 转录结果为空"));
+        assertFalse(AudioTranscriptionService.isFailure("你好"));
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.hrai.service.impl;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class VoskModelRegistryTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testResolveNameByNameOrLanguage() {
+        VoskModelRegistry registry = new VoskModelRegistry("missing/zh-small", false, "zh-small",
+                "en-small=missing/en-small, zh-large=missing/zh-large", 0);
+
+        assertEquals("zh-small", registry.resolveName(null));
+        assertEquals("zh-small", registry.resolveName(" "));
+        assertEquals("zh-large", registry.resolveName("zh-large"));
+        // 只指定语言时取该语言配置的第一个模型
+        assertEquals("zh-small", registry.resolveName("zh"));
+        assertEquals("en-small", registry.resolveName("en"));
+        assertThrows(IllegalArgumentException.class, () -> registry.resolveName("fr"));
+    }
+
+    @Test
+    public void testMissingModelIsUnavailable() throws Exception {
+        VoskModelRegistry registry = new VoskModelRegistry(tempDir.resolve("none").toString(), false);
+
+        assertFalse(registry.isModelAvailable());
+        assertNull(registry.acquire(null));
+        assertEquals(0L, registry.getStats().get("loadedBytes"));
+    }
+
+    @Test
+    public void testFootprintIsModelDirectorySize() throws Exception {
+        Path model = Files.createDirectories(tempDir.resolve("model"));
+        Files.write(model.resolve("final.mdl"), new byte[3000]);
+        Files.write(Files.createDirectories(model.resolve("graph")).resolve("HCLr.fst"), new byte[500]);
+
+        assertEquals(3500, VoskModelRegistry.estimateFootprint(model.toString()));
+        assertEquals(0, VoskModelRegistry.estimateFootprint(tempDir.resolve("none").toString()));
+    }
+
+    @Test
+    public void testFailedLoadReleasesReservedFootprint() throws Exception {
+        // 目录存在但不是有效模型（或缺少Vosk本地库），加载失败后预留的占用应被释放
+        Path model = Files.createDirectories(tempDir.resolve("broken"));
+        Files.write(model.resolve("final.mdl"), new byte[2048]);
+        VoskModelRegistry registry = new VoskModelRegistry(model.toString(), false);
+
+        assertThrows(Throwable.class, () -> registry.acquire(null));
+        assertEquals(0L, registry.getStats().get("loadedBytes"));
+    }
+}
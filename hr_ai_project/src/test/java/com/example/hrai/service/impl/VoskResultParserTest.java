@@ -0,0 +1,44 @@
+package com.example.hrai.service.impl;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class VoskResultParserTest {
+
+    @Test
+    public void testParseResultWithWordTimes() {
+        String json = "{\n"
+                + "  \"result\" : [{\n"
+                + "      \"conf\" : 1.000000,\n"
+                + "      \"end\" : 12.42,\n"
+                + "      \"start\" : 12.06,\n"
+                + "      \"word\" : \"你好\"\n"
+                + "    }, {\n"
+                + "      \"conf\" : 0.500000,\n"
+                + "      \"end\" : 13.02,\n"
+                + "      \"start\" : 12.45,\n"
+                + "      \"word\" : \"世界\"\n"
+                + "    }],\n"
+                + "  \"text\" : \"你好 世界\"\n"
+                + "}";
+
+        VoskResultParser.RecognitionResult result = VoskResultParser.parseResult(json);
+
+        assertEquals("你好 世界", result.getText());
+        assertTrue(result.hasWordTimes());
+        assertEquals(12.06, result.getStartSeconds(), 1e-9);
+        assertEquals(13.02, result.getEndSeconds(), 1e-9);
+        assertEquals(0.75f, result.getConfidence(), 1e-6);
+    }
+
+    @Test
+    public void testParseResultWithoutWords() {
+        VoskResultParser.RecognitionResult result = VoskResultParser.parseResult("{\"text\" : \"\"}");
+
+        assertEquals("", result.getText());
+        assertFalse(result.hasWordTimes());
+        assertEquals(-1f, result.getConfidence());
+        assertEquals("", VoskResultParser.parseResult("not json").getText());
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.hrai.service.impl;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WavPcmReaderTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testCompliantWavIsReadByRange() throws Exception {
+        short[] pcm = new short[16000];
+        for (int i = 0; i < pcm.length; i++) {
+            pcm[i] = (short) (i - 8000);
+        }
+        Path file = tempDir.resolve("speech.wav");
+        Files.write(file, wav(16000, 1, 16, pcm, true));
+
+        WavPcmReader reader = WavPcmReader.open(file);
+        assertNotNull(reader);
+        assertTrue(reader.isCompliant());
+        assertEquals(16000, reader.getSampleCount());
+        assertEquals(1_000_000, reader.getDurationMicros());
+
+        // 缓冲区小于请求范围，分多次推送
+        List<Short> received = new ArrayList<>();
+        long total = reader.read(100, 1100, new short[300], (samples, length) -> {
+            for (int i = 0; i < length; i++) {
+                received.add(samples[i]);
+            }
+        });
+        assertEquals(1000, total);
+        assertEquals(1000, received.size());
+        assertEquals(pcm[100], (short) received.get(0));
+        assertEquals(pcm[1099], (short) received.get(999));
+
+        // 超出文件末尾的范围被截断
+        assertEquals(600, reader.read(15400, Long.MAX_VALUE, new short[8000], (samples, length) -> { }));
+    }
+
+    @Test
+    public void testNonCompliantFormatIsDetected() throws Exception {
+        Path file = tempDir.resolve("stereo.wav");
+        Files.write(file, wav(44100, 2, 16, new short[400], false));
+
+        WavPcmReader reader = WavPcmReader.open(file);
+        assertNotNull(reader);
+        assertFalse(reader.isCompliant());
+        assertEquals(2, reader.getChannels());
+        assertEquals(44100, reader.getSampleRate());
+        // 按文件自身格式计算时长：400个采样为200帧立体声
+        assertEquals(200L * 1_000_000 / 44100, reader.getSourceDurationMicros());
+    }
+
+    @Test
+    public void testNonWavFileIsRejected() throws Exception {
+        Path file = tempDir.resolve("video.mp4");
+        Files.write(file, "....ftypisom not a wav file".getBytes(StandardCharsets.US_ASCII));
+
+        assertNull(WavPcmReader.open(file));
+    }
+
+    /**
+     * 生成WAV文件，可在fmt和data之间插入一个奇数长度的LIST块
+     */
+    private static byte[] wav(int sampleRate, int channels, int bits, short[] pcm, boolean withListChunk) {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        ByteBuffer fmt = ByteBuffer.allocate(24).order(ByteOrder.LITTLE_ENDIAN);
+        fmt.put("fmt ".getBytes(StandardCharsets.US_ASCII)).putInt(16)
+                .putShort((short) 1).putShort((short) channels).putInt(sampleRate)
+                .putInt(sampleRate * channels * bits / 8).putShort((short) (channels * bits / 8)).putShort((short) bits);
+        body.writeBytes(fmt.array());
+        if (withListChunk) {
+            ByteBuffer list = ByteBuffer.allocate(8 + 5 + 1).order(ByteOrder.LITTLE_ENDIAN);
+            list.put("LIST".getBytes(StandardCharsets.US_ASCII)).putInt(5).put("INFOx".getBytes(StandardCharsets.US_ASCII));
+            body.writeBytes(list.array());
+        }
+        ByteBuffer data = ByteBuffer.allocate(8 + pcm.length * 2).order(ByteOrder.LITTLE_ENDIAN);
+        data.put("data".getBytes(StandardCharsets.US_ASCII)).putInt(pcm.length * 2);
+        for (short sample : pcm) {
+            data.putShort(sample);
+        }
+        body.writeBytes(data.array());
+
+        ByteBuffer riff = ByteBuffer.allocate(12).order(ByteOrder.LITTLE_ENDIAN);
+        riff.put("RIFF".getBytes(StandardCharsets.US_ASCII)).putInt(4 + body.size()).put("WAVE".getBytes(StandardCharsets.US_ASCII));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.writeBytes(riff.array());
+        out.writeBytes(body.toByteArray());
+        return out.toByteArray();
+    }
+}